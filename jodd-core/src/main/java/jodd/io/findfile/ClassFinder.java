@@ -19,6 +19,18 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Simple utility that scans <code>URL</code>s for classes.
@@ -28,7 +40,17 @@ import java.io.FileNotFoundException;
  * All paths are matched using {@link Wildcard#matchPath(String, String) path-style}
  * wildcard matcher. All entries are matched using {@link Wildcard#match(String, String) common-style}
  * wildcard matcher.
+ * <p>
+ * When {@link #setScanThreads(int) scan threads} are set, jars and folders
+ * are scanned in parallel and {@link #onEntry(EntryData)} is called
+ * from worker threads, so it has to be thread-safe.
+ * <p>
+ * When {@link #setScanCache(ClassScanCache) scan cache} is set, jars are not
+ * opened again if they are not changed since the last scan. This works only
+ * for finders that match entries by {@link #isTypeSignatureInUse(EntryData, byte[]) type signatures}:
+ * {@link #onEntry(EntryData)} is then invoked just for entries that matched some signature.
  * @see ClassScanner
+ * @see ClassScanSession
  */
 public abstract class ClassFinder {
 
@@ -124,6 +146,15 @@ public abstract class ClassFinder {
 	 * If set to <code>true</code> exceptions for entry scans are ignored.
 	 */
 	protected boolean ignoreException;
+	/**
+	 * Number of threads used for scanning paths. Scanning is
+	 * sequential unless more than one thread is used.
+	 */
+	protected int scanThreads;
+	/**
+	 * Optional persistent cache of jar scan results.
+	 */
+	protected ClassScanCache scanCache;
 
 
 	public boolean isIncludeResources() {
@@ -145,6 +176,33 @@ public abstract class ClassFinder {
 		this.ignoreException = ignoreException;
 	}
 
+	public int getScanThreads() {
+		return scanThreads;
+	}
+
+	/**
+	 * Sets number of threads used for scanning. When more than one thread is set,
+	 * each jar and folder is scanned in its own task and
+	 * {@link #onEntry(EntryData) callback} is invoked concurrently.
+	 */
+	public void setScanThreads(int scanThreads) {
+		this.scanThreads = scanThreads;
+	}
+
+	public ClassScanCache getScanCache() {
+		return scanCache;
+	}
+
+	/**
+	 * Sets persistent cache of jar scan results. Cache is used only
+	 * when finder uses some {@link #getTypeSignatureBytes(Class) type signatures}.
+	 * Cache is not used for finders registered to a {@link ClassScanSession},
+	 * since session opens the jars once for all its finders.
+	 */
+	public void setScanCache(ClassScanCache scanCache) {
+		this.scanCache = scanCache;
+	}
+
 	// ---------------------------------------------------------------- scan
 
 	/**
@@ -152,9 +210,25 @@ public abstract class ClassFinder {
 	 * per one URL will be ignored and loops continues. 
 	 */
 	protected void scanUrls(URL... urls) {
+		if (scanThreads > 1) {
+			List<File> files = new ArrayList<File>(urls.length);
+			for (URL url : urls) {
+				File file = FileUtil.toFile(url);
+				if (file == null) {
+					if (ignoreException == false) {
+						throw new FindFileException("URL is not a valid file: " + url);
+					}
+					continue;
+				}
+				files.add(file);
+			}
+			scanPaths(files.toArray(new File[files.size()]));	// stores the scan cache
+			return;
+		}
 		for (URL path : urls) {
 			scanUrl(path);
 		}
+		storeScanCache();
 	}
 	
 	/**
@@ -174,14 +248,70 @@ public abstract class ClassFinder {
 
 
 	protected void scanPaths(File... paths) {
-		for (File path : paths) {
-			scanPath(path);
+		if (scanThreads > 1 && paths.length > 1) {
+			scanPathsInParallel(paths);
+		} else {
+			for (File path : paths) {
+				scanPath(path);
+			}
 		}
+		storeScanCache();
 	}
 
 	protected void scanPaths(String... paths) {
-		for (String path : paths) {
-			scanPath(path);
+		File[] files = new File[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			files[i] = new File(paths[i]);
+		}
+		scanPaths(files);
+	}
+
+	/**
+	 * Scans each path in separate task, using {@link #scanThreads} threads.
+	 * Waits for all tasks to finish; the first exception is re-thrown.
+	 */
+	protected void scanPathsInParallel(File... paths) {
+		ExecutorService executorService = Executors.newFixedThreadPool(
+				Math.min(scanThreads, paths.length), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "class-finder-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(paths.length);
+
+			for (final File path : paths) {
+				futures.add(executorService.submit(new Runnable() {
+					public void run() {
+						scanPath(path);
+					}
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException eex) {
+					Throwable cause = eex.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new FindFileException("Scan failed", cause);
+				}
+			}
+		} catch (InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new FindFileException("Scan interrupted", iex);
+		} finally {
+			executorService.shutdownNow();
 		}
 	}
 	
@@ -247,6 +377,20 @@ public abstract class ClassFinder {
 	 * @see #onEntry(EntryData)
 	 */
 	protected void scanJarFile(File file) {
+		ClassScanCache.Record scanRecord = null;
+
+		String scanKey = scanCache != null ? resolveScanKey() : null;
+
+		if (scanKey != null) {
+			ClassScanCache.Record cachedRecord = scanCache.lookup(file, scanKey);
+
+			if (cachedRecord != null) {
+				scanCachedJarFile(file, cachedRecord);
+				return;
+			}
+			scanRecord = scanCache.createRecord(file, scanKey);
+		}
+
 		ZipFile zipFile;
 		try {
 			zipFile = new ZipFile(file);
@@ -264,6 +408,7 @@ public abstract class ClassFinder {
 				if (StringUtil.endsWithIgnoreCase(zipEntryName, CLASS_FILE_EXT)) {
 					String entryName = prepareEntryName(zipEntryName, true);
 					EntryData entryData = new EntryData(entryName, zipFile, zipEntry);
+					entryData.scanRecord = scanRecord;
 					try {
 						scanEntry(entryData);
 					} finally {
@@ -272,6 +417,7 @@ public abstract class ClassFinder {
 				} else if (includeResources == true) {
 					String entryName = prepareEntryName(zipEntryName, false);
 					EntryData entryData = new EntryData(entryName, zipFile, zipEntry);
+					entryData.scanRecord = scanRecord;
 					try {
 						scanEntry(entryData);
 					} finally {
@@ -286,6 +432,76 @@ public abstract class ClassFinder {
 			}
 		}
 		ZipUtil.close(zipFile);
+
+		if (scanRecord != null) {
+			scanCache.put(scanRecord);
+		}
+	}
+
+	/**
+	 * Scans jar using cached results, without opening it. Only
+	 * entries that matched some type signature are scanned.
+	 */
+	protected void scanCachedJarFile(File file, ClassScanCache.Record record) {
+		for (Map.Entry<String, Set<String>> entry : record.getEntries().entrySet()) {
+			String zipEntryName = entry.getKey();
+			boolean isClass = StringUtil.endsWithIgnoreCase(zipEntryName, CLASS_FILE_EXT);
+
+			if (isClass == false && includeResources == false) {
+				continue;
+			}
+
+			String entryName = prepareEntryName(zipEntryName, isClass);
+			EntryData entryData = new EntryData(entryName, file, zipEntryName, entry.getValue());
+			try {
+				scanEntry(entryData);
+			} catch (RuntimeException rex) {
+				if (ignoreException == false) {
+					throw rex;
+				}
+			} finally {
+				entryData.closeInputStreamIfOpen();
+			}
+		}
+	}
+
+	/**
+	 * Resolves the key of scan results in the {@link ClassScanCache scan cache}.
+	 * Results depend on the finder type, its type signatures and on
+	 * entry rules. Returns <code>null</code> if finder doesn't use
+	 * type signatures, so results can't be cached.
+	 */
+	protected String resolveScanKey() {
+		String[] signatures;
+		synchronized (typeSignatures) {
+			if (typeSignatures.isEmpty()) {
+				return null;
+			}
+			signatures = typeSignatures.toArray(new String[typeSignatures.size()]);
+		}
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(getClass().getName());
+		for (String signature : signatures) {
+			sb.append('|').append(signature);
+		}
+		sb.append('|').append(includeResources);
+		if (includedEntries != null) {
+			sb.append("|+").append(StringUtil.join(Arrays.asList(includedEntries), ","));
+		}
+		if (excludedEntries != null) {
+			sb.append("|-").append(StringUtil.join(Arrays.asList(excludedEntries), ","));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Stores {@link ClassScanCache scan cache}, if used.
+	 */
+	protected void storeScanCache() {
+		if (scanCache != null) {
+			scanCache.store();
+		}
 	}
 
 	/**
@@ -396,14 +612,40 @@ public abstract class ClassFinder {
 
 	// ---------------------------------------------------------------- utilities
 
+	private final Set<String> typeSignatures = new TreeSet<String>();
+
 	/**
 	 * Returns type signature bytes used for searching in class file.
+	 * Signature is remembered as part of the {@link #resolveScanKey() scan key}.
 	 */
 	protected byte[] getTypeSignatureBytes(Class type) {
 		String name = 'L' + type.getName().replace('.', '/') + ';';
+		synchronized (typeSignatures) {
+			typeSignatures.add(name);
+		}
 		return name.getBytes();
 	}
 
+	/**
+	 * Returns <code>true</code> if entry contains {@link #getTypeSignatureBytes(Class) type signature}.
+	 * Unlike {@link #isTypeSignatureInUse(java.io.InputStream, byte[])}, matches are recorded to
+	 * and read from the {@link #setScanCache(ClassScanCache) scan cache}.
+	 */
+	protected boolean isTypeSignatureInUse(EntryData entryData, byte[] bytes) {
+		String signature = new String(bytes);
+
+		if (entryData.cachedSignatures != null) {
+			return entryData.cachedSignatures.contains(signature);
+		}
+
+		boolean inUse = isTypeSignatureInUse(entryData.openInputStream(), bytes);
+
+		if (inUse && entryData.scanRecord != null) {
+			entryData.scanRecord.add(entryData.zipEntryName, signature);
+		}
+		return inUse;
+	}
+
 	/**
 	 * Returns <code>true</code> if class contains {@link #getTypeSignatureBytes(Class) type signature}.
 	 * It searches the class content for bytecode signature. This is the fastest way of finding if come
@@ -431,24 +673,41 @@ public abstract class ClassFinder {
 		private final File file;
 		private final ZipFile zipFile;
 		private final ZipEntry zipEntry;
+		private final String zipEntryName;
 		private final String name;
+		private final Set<String> cachedSignatures;
+		private ClassScanCache.Record scanRecord;
 
 		EntryData(String name, ZipFile zipFile, ZipEntry zipEntry) {
 			this.name = name;
 			this.zipFile = zipFile;
 			this.zipEntry = zipEntry;
+			this.zipEntryName = zipEntry.getName();
 			this.file = null;
+			this.cachedSignatures = null;
 			inputStream = null;
 		}
 		EntryData(String name, File file) {
 			this.name = name;
 			this.file = file;
 			this.zipEntry = null;
+			this.zipEntryName = null;
+			this.zipFile = null;
+			this.cachedSignatures = null;
+			inputStream = null;
+		}
+		EntryData(String name, File archiveFile, String zipEntryName, Set<String> cachedSignatures) {
+			this.name = name;
+			this.file = archiveFile;
+			this.zipEntry = null;
+			this.zipEntryName = zipEntryName;
 			this.zipFile = null;
+			this.cachedSignatures = cachedSignatures;
 			inputStream = null;
 		}
 
 		private InputStream inputStream;
+		private ZipFile cachedZipFile;
 
 		/**
 		 * Returns entry name.
@@ -461,7 +720,7 @@ public abstract class ClassFinder {
 		 * Returns <code>true</code> if archive.
 		 */
 		public boolean isArchive() {
-			return zipFile != null;
+			return zipEntryName != null;
 		}
 
 		/**
@@ -471,6 +730,9 @@ public abstract class ClassFinder {
 			if (zipFile != null) {
 				return zipFile.getName(); 
 			}
+			if (zipEntryName != null) {
+				return file.getPath();
+			}
 			return null;
 		}
 
@@ -478,6 +740,9 @@ public abstract class ClassFinder {
 		 * Opens zip entry or plain file and returns its input stream.
 		 */
 		public InputStream openInputStream() {
+			if (cachedSignatures != null) {
+				return openCachedInputStream();
+			}
 			if (zipFile != null) {
 				try {
 					inputStream = zipFile.getInputStream(zipEntry);
@@ -495,15 +760,39 @@ public abstract class ClassFinder {
 			}
 		}
 
+		/**
+		 * Opens archive of cached entry, as it is not opened during the scan.
+		 */
+		private InputStream openCachedInputStream() {
+			try {
+				if (cachedZipFile == null) {
+					cachedZipFile = new ZipFile(file);
+				}
+				ZipEntry cachedZipEntry = cachedZipFile.getEntry(zipEntryName);
+				if (cachedZipEntry == null) {
+					throw new FindFileException("Cached entry not found: '" + file.getName()
+							+ "', entry: '" + zipEntryName + "'.");
+				}
+				inputStream = cachedZipFile.getInputStream(cachedZipEntry);
+				return inputStream;
+			} catch (IOException ioex) {
+				throw new FindFileException("Unable to get input stream: '" + file.getName()
+						+ "', entry: '" + zipEntryName + "'." , ioex);
+			}
+		}
+
 		/**
 		 * Closes input stream if opened.
 		 */
 		void closeInputStreamIfOpen() {
-			if (inputStream == null) {
-				return;
+			if (inputStream != null) {
+				StreamUtil.close(inputStream);
+				inputStream = null;
+			}
+			if (cachedZipFile != null) {
+				ZipUtil.close(cachedZipFile);
+				cachedZipFile = null;
 			}
-			StreamUtil.close(inputStream);
-			inputStream = null;
 		}
 
 		@Override
@@ -0,0 +1,245 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.io.findfile;
+
+import jodd.io.FileUtil;
+import jodd.util.StringUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of jar scan results. For each scanned jar it stores
+ * names of entries that contain some of the
+ * {@link ClassFinder#getTypeSignatureBytes(Class) type signatures}.
+ * Records are keyed by jar path, size and modification time, and by the
+ * {@link ClassFinder#resolveScanKey() scan key} of the finder, so
+ * unchanged jars do not have to be opened again on next scans.
+ * <p>
+ * Cache is loaded lazily from the file on first lookup and
+ * {@link #store() stored} after the scan. Records of a scan key that
+ * are not used during the last scan are not stored, so removed jars are purged.
+ * Cache may be shared between several finders.
+ */
+public class ClassScanCache {
+
+	private static final String RECORD_PREFIX = "@";
+	private static final char SEPARATOR = '\t';
+
+	protected final File file;
+	protected final Map<String, Record> records = new ConcurrentHashMap<String, Record>();
+	protected final Map<String, Boolean> usedScanKeys = new ConcurrentHashMap<String, Boolean>();
+	protected boolean loaded;
+	protected volatile boolean modified;
+
+	public ClassScanCache(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns cache file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Scan results of a single jar.
+	 */
+	public static class Record {
+
+		protected final String scanKey;
+		protected final String path;
+		protected final long length;
+		protected final long lastModified;
+		protected final Map<String, Set<String>> entries = new LinkedHashMap<String, Set<String>>();
+		protected boolean used;
+
+		protected Record(String scanKey, String path, long length, long lastModified) {
+			this.scanKey = scanKey;
+			this.path = path;
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Adds matched type signature of zip entry.
+		 */
+		public synchronized void add(String zipEntryName, String signature) {
+			Set<String> signatures = entries.get(zipEntryName);
+			if (signatures == null) {
+				signatures = new LinkedHashSet<String>();
+				entries.put(zipEntryName, signatures);
+			}
+			signatures.add(signature);
+		}
+
+		/**
+		 * Returns matched zip entries and their type signatures.
+		 */
+		public synchronized Map<String, Set<String>> getEntries() {
+			return Collections.unmodifiableMap(new LinkedHashMap<String, Set<String>>(entries));
+		}
+
+		/**
+		 * Returns <code>true</code> if record is created for the same jar content.
+		 */
+		protected boolean matches(File jarFile) {
+			return jarFile.length() == length && jarFile.lastModified() == lastModified;
+		}
+	}
+
+	// ---------------------------------------------------------------- lookup
+
+	/**
+	 * Returns record of the jar file or <code>null</code> if jar
+	 * is not cached or if it has been changed since.
+	 */
+	public Record lookup(File jarFile, String scanKey) {
+		load();
+		usedScanKeys.put(scanKey, Boolean.TRUE);
+
+		String key = key(scanKey, jarFile.getAbsolutePath());
+		Record record = records.get(key);
+
+		if (record == null) {
+			return null;
+		}
+		if (record.matches(jarFile) == false) {
+			records.remove(key);
+			modified = true;
+			return null;
+		}
+		record.used = true;
+		return record;
+	}
+
+	/**
+	 * Creates new empty record for the jar file. Record has to be
+	 * {@link #put(Record) put} in the cache once jar is scanned.
+	 */
+	public Record createRecord(File jarFile, String scanKey) {
+		return new Record(scanKey, jarFile.getAbsolutePath(), jarFile.length(), jarFile.lastModified());
+	}
+
+	/**
+	 * Puts the record of completely scanned jar.
+	 */
+	public void put(Record record) {
+		load();
+		usedScanKeys.put(record.scanKey, Boolean.TRUE);
+
+		record.used = true;
+		records.put(key(record.scanKey, record.path), record);
+		modified = true;
+	}
+
+	/**
+	 * Removes all records.
+	 */
+	public synchronized void clear() {
+		records.clear();
+		loaded = true;
+		modified = true;
+	}
+
+	private String key(String scanKey, String path) {
+		return scanKey + SEPARATOR + path;
+	}
+
+	// ---------------------------------------------------------------- load/store
+
+	/**
+	 * Loads the cache file, once. Cache file that can not be read
+	 * or parsed is simply ignored.
+	 */
+	protected synchronized void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+
+		if (file.exists() == false) {
+			return;
+		}
+
+		try {
+			String[] lines = FileUtil.readLines(file);
+			Record record = null;
+
+			for (String line : lines) {
+				if (line.length() == 0) {
+					continue;
+				}
+				String[] chunks = StringUtil.split(line, String.valueOf(SEPARATOR));
+
+				if (line.startsWith(RECORD_PREFIX)) {
+					record = new Record(
+							chunks[0].substring(RECORD_PREFIX.length()), chunks[1],
+							Long.parseLong(chunks[2]), Long.parseLong(chunks[3]));
+					records.put(key(record.scanKey, record.path), record);
+					continue;
+				}
+				for (int i = 1; i < chunks.length; i++) {
+					record.add(chunks[0], chunks[i]);
+				}
+			}
+		} catch (Exception ex) {
+			records.clear();
+			modified = true;
+		}
+	}
+
+	/**
+	 * Stores the cache, without outdated records. Returns
+	 * <code>false</code> if cache file could not be written.
+	 */
+	public synchronized boolean store() {
+		Iterator<Record> iterator = records.values().iterator();
+		while (iterator.hasNext()) {
+			Record record = iterator.next();
+			if (record.used == false && usedScanKeys.containsKey(record.scanKey)) {
+				iterator.remove();
+				modified = true;
+			}
+		}
+		if (modified == false) {
+			return true;
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		for (Record record : records.values()) {
+			sb.append(RECORD_PREFIX).append(record.scanKey)
+					.append(SEPARATOR).append(record.path)
+					.append(SEPARATOR).append(record.length)
+					.append(SEPARATOR).append(record.lastModified)
+					.append('\n');
+
+			for (Map.Entry<String, Set<String>> entry : record.getEntries().entrySet()) {
+				sb.append(entry.getKey());
+				for (String signature : entry.getValue()) {
+					sb.append(SEPARATOR).append(signature);
+				}
+				sb.append('\n');
+			}
+		}
+
+		try {
+			FileUtil.writeString(file, sb.toString());
+		} catch (IOException ioex) {
+			return false;
+		}
+
+		modified = false;
+		return true;
+	}
+
+}
@@ -0,0 +1,154 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.io.findfile;
+
+import jodd.util.ClassLoaderUtil;
+import jodd.util.StringPool;
+import jodd.util.StringUtil;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared scan session. Several {@link ClassFinder class finders} are registered
+ * and then the classpath is scanned just once: each jar is opened and each
+ * folder is walked only once, while every entry is dispatched to all registered
+ * finders. Each finder still applies its own rules for jars and entries,
+ * exceptions and resources.
+ * <p>
+ * Finders do not have to be thread-safe, unless session
+ * {@link #setScanThreads(int) scans in parallel}. {@link #setScanCache(ClassScanCache) Scan cache}
+ * of registered finders is not used.
+ */
+public class ClassScanSession extends ClassFinder {
+
+	protected final List<ClassFinder> classFinders = new ArrayList<ClassFinder>();
+
+	/**
+	 * Finders that accepted the path being scanned by the current thread.
+	 */
+	private final ThreadLocal<ClassFinder[]> pathClassFinders = new ThreadLocal<ClassFinder[]>();
+
+	/**
+	 * Registers class finder to the session. If finder includes
+	 * resources, session will include them as well.
+	 */
+	public ClassScanSession register(ClassFinder classFinder) {
+		classFinders.add(classFinder);
+		if (classFinder.isIncludeResources()) {
+			includeResources = true;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns number of registered finders.
+	 */
+	public int getClassFindersCount() {
+		return classFinders.size();
+	}
+
+	// ---------------------------------------------------------------- scan
+
+	/**
+	 * Scans provided classpath.
+	 */
+	public void scan(URL... urls) {
+		scanUrls(urls);
+	}
+
+	/**
+	 * Scans provided paths.
+	 */
+	public void scan(File... paths) {
+		scanPaths(paths);
+	}
+
+	/**
+	 * Scans {@link jodd.util.ClassLoaderUtil#getDefaultClasspath() default class path}.
+	 */
+	public void scanDefaultClasspath() {
+		scan(ClassLoaderUtil.getDefaultClasspath());
+	}
+
+	// ---------------------------------------------------------------- dispatch
+
+	/**
+	 * Accepts jar if at least one registered finder accepts it.
+	 */
+	@Override
+	protected boolean acceptJar(File jarFile) {
+		for (ClassFinder classFinder : classFinders) {
+			if (classFinder.acceptJar(jarFile)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves finders that accept the path and scans it
+	 * only if there is at least one.
+	 */
+	@Override
+	protected void scanPath(File file) {
+		boolean isJar = StringUtil.endsWithIgnoreCase(file.getAbsolutePath(), ".jar");
+
+		List<ClassFinder> accepted = new ArrayList<ClassFinder>(classFinders.size());
+		for (ClassFinder classFinder : classFinders) {
+			if (isJar == false || classFinder.acceptJar(file)) {
+				accepted.add(classFinder);
+			}
+		}
+		if (accepted.isEmpty()) {
+			return;
+		}
+
+		pathClassFinders.set(accepted.toArray(new ClassFinder[accepted.size()]));
+		try {
+			super.scanPath(file);
+		} finally {
+			pathClassFinders.remove();
+		}
+	}
+
+	/**
+	 * Dispatches entry to all finders that accepted current path.
+	 * Input stream is closed after each finder, so the next one
+	 * may open it again.
+	 */
+	@Override
+	protected void scanEntry(EntryData entryData) {
+		ClassFinder[] finders = pathClassFinders.get();
+		if (finders == null) {
+			return;
+		}
+
+		boolean isResource = entryData.getName().startsWith(StringPool.SLASH);
+
+		for (ClassFinder classFinder : finders) {
+			if (isResource && classFinder.includeResources == false) {
+				continue;
+			}
+			try {
+				classFinder.scanEntry(entryData);
+			} catch (RuntimeException rex) {
+				if (classFinder.ignoreException == false) {
+					throw rex;
+				}
+			} finally {
+				entryData.closeInputStreamIfOpen();
+			}
+		}
+	}
+
+	/**
+	 * Not used, as entries are dispatched to registered finders.
+	 */
+	@Override
+	protected void onEntry(EntryData entryData) {
+	}
+
+}
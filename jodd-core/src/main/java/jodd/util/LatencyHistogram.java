@@ -0,0 +1,136 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with exponential (power of two) buckets
+ * measured in nanoseconds. Bucket <code>n</code> holds all values
+ * lesser then <code>2^n</code>ns. Updates never block, so histogram
+ * may be shared between all threads that measure the same operation.
+ */
+public class LatencyHistogram {
+
+	public static final int BUCKETS = 48;
+
+	protected final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	protected final AtomicLong totalTime = new AtomicLong();
+	protected final AtomicLong maxTime = new AtomicLong();
+
+	/**
+	 * Adds single measured time, in nanoseconds.
+	 */
+	public void add(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets.incrementAndGet(bucketIndex(nanos));
+		totalTime.addAndGet(nanos);
+
+		while (true) {
+			long max = maxTime.get();
+			if (nanos <= max) {
+				break;
+			}
+			if (maxTime.compareAndSet(max, nanos)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Resets the histogram. Not atomic in respect to concurrent updates.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		totalTime.set(0);
+		maxTime.set(0);
+	}
+
+	/**
+	 * Estimates percentile (0.0 - 1.0) of measured times.
+	 * @see #percentile(long[], double, long)
+	 */
+	public long getPercentile(double percentile) {
+		return percentile(getBuckets(), percentile, maxTime.get());
+	}
+
+	/**
+	 * Returns total time of all measurements.
+	 */
+	public long getTotalTime() {
+		return totalTime.get();
+	}
+
+	/**
+	 * Returns max measured time.
+	 */
+	public long getMaxTime() {
+		return maxTime.get();
+	}
+
+	/**
+	 * Copies bucket counters into new array.
+	 */
+	public long[] getBuckets() {
+		long[] result = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			result[i] = buckets.get(i);
+		}
+		return result;
+	}
+
+	// ---------------------------------------------------------------- static
+
+	/**
+	 * Returns bucket index for given time.
+	 */
+	public static int bucketIndex(long nanos) {
+		int index = 64 - Long.numberOfLeadingZeros(nanos);
+		if (index >= BUCKETS) {
+			index = BUCKETS - 1;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns upper bound of a bucket, in nanoseconds.
+	 */
+	public static long bucketUpperBound(int index) {
+		return 1L << index;
+	}
+
+	/**
+	 * Estimates percentile (0.0 - 1.0) from bucket counters. Returned value
+	 * is the upper bound of the bucket where the percentile falls in,
+	 * limited with the max time.
+	 */
+	public static long percentile(long[] buckets, double percentile, long maxTime) {
+		long count = 0;
+		for (long bucket : buckets) {
+			count += bucket;
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		long threshold = (long) Math.ceil(count * percentile);
+		if (threshold == 0) {
+			threshold = 1;
+		}
+
+		long sum = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			sum += buckets[i];
+			if (sum >= threshold) {
+				long bound = bucketUpperBound(i);
+				return bound < maxTime ? bound : maxTime;
+			}
+		}
+		return maxTime;
+	}
+}
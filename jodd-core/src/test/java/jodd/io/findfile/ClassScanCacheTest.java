@@ -0,0 +1,169 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.io.findfile;
+
+import jodd.io.FileUtil;
+import jodd.io.StreamUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ClassScanCacheTest {
+
+	protected File root;
+	protected File jar;
+	protected File cacheFile;
+
+	@Before
+	public void setUp() throws IOException {
+		root = FileUtil.createTempDirectory("jodd", "cache");
+		jar = new File(root, "lib.jar");
+		cacheFile = new File(root, "scan.cache");
+
+		ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(jar));
+		try {
+			writeEntry(zos, "foo/Marked.class", "...Ljodd/io/findfile/ClassScanCacheTest;...");
+			writeEntry(zos, "foo/Plain.class", "...Ljava/lang/Object;...");
+			writeEntry(zos, "foo/Other.class", "...Ljava/lang/Object;...Ljodd/io/findfile/ClassScanCacheTest;");
+		} finally {
+			StreamUtil.close(zos);
+		}
+	}
+
+	private void writeEntry(ZipOutputStream zos, String name, String content) throws IOException {
+		zos.putNextEntry(new ZipEntry(name));
+		zos.write(content.getBytes());
+		zos.closeEntry();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtil.deleteDir(root);
+	}
+
+	static class SignatureScanner extends ClassScanner {
+		final byte[] signature = getTypeSignatureBytes(ClassScanCacheTest.class);
+		final List<String> scanned = new ArrayList<String>();
+		final List<String> matched = new ArrayList<String>();
+
+		@Override
+		protected void onEntry(EntryData entryData) {
+			scanned.add(entryData.getName());
+			if (isTypeSignatureInUse(entryData, signature)) {
+				matched.add(entryData.getName());
+			}
+		}
+	}
+
+	@Test
+	public void testCache() throws IOException {
+		SignatureScanner scanner = new SignatureScanner();
+		scanner.setScanCache(new ClassScanCache(cacheFile));
+		scanner.scan(jar);
+
+		assertEquals(3, scanner.scanned.size());
+		assertEquals("[foo.Marked, foo.Other]", scanner.matched.toString());
+		assertTrue(cacheFile.exists());
+
+		// cached
+		scanner = new SignatureScanner();
+		scanner.setScanCache(new ClassScanCache(cacheFile));
+		scanner.scan(jar);
+
+		assertEquals("[foo.Marked, foo.Other]", scanner.scanned.toString());
+		assertEquals("[foo.Marked, foo.Other]", scanner.matched.toString());
+
+		// different entry rules
+		scanner = new SignatureScanner();
+		scanner.setIncludedEntries("*.Plain");
+		scanner.setScanCache(new ClassScanCache(cacheFile));
+		scanner.scan(jar);
+
+		assertEquals("[foo.Plain]", scanner.scanned.toString());
+		assertTrue(scanner.matched.isEmpty());
+
+		// changed jar
+		assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+
+		scanner = new SignatureScanner();
+		scanner.setScanCache(new ClassScanCache(cacheFile));
+		scanner.scan(jar);
+
+		assertEquals(3, scanner.scanned.size());
+		assertEquals(2, scanner.matched.size());
+	}
+
+	static class ReadingScanner extends SignatureScanner {
+		final List<String> contents = new ArrayList<String>();
+
+		@Override
+		protected void onEntry(EntryData entryData) {
+			assertTrue(entryData.isArchive());
+			if (isTypeSignatureInUse(entryData, signature) == false) {
+				return;
+			}
+			try {
+				contents.add(new String(StreamUtil.readBytes(entryData.openInputStream())));
+			} catch (IOException ioex) {
+				fail(ioex.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testCachedInputStream() {
+		ReadingScanner scanner = new ReadingScanner();
+		scanner.setScanCache(new ClassScanCache(cacheFile));
+		scanner.scan(jar);
+
+		assertEquals(2, scanner.contents.size());
+
+		// cached entries open the jar on demand
+		scanner = new ReadingScanner();
+		scanner.setScanCache(new ClassScanCache(cacheFile));
+		scanner.scan(jar);
+
+		assertEquals(2, scanner.contents.size());
+		assertTrue(scanner.contents.get(0).startsWith("...L"));
+		assertTrue(scanner.contents.get(1).endsWith("ClassScanCacheTest;"));
+	}
+
+	@Test
+	public void testStorePurgesRemovedJars() throws IOException {
+		ClassScanCache cache = new ClassScanCache(cacheFile);
+
+		SignatureScanner scanner = new SignatureScanner();
+		scanner.setScanCache(cache);
+		scanner.scan(jar);
+
+		File jar2 = new File(root, "lib2.jar");
+		FileUtil.copy(jar, jar2);
+
+		cache = new ClassScanCache(cacheFile);
+		scanner = new SignatureScanner();
+		scanner.setScanCache(cache);
+		scanner.scan(jar, jar2);
+
+		assertTrue(FileUtil.readString(cacheFile).contains("lib2.jar"));
+
+		cache = new ClassScanCache(cacheFile);
+		scanner = new SignatureScanner();
+		scanner.setScanCache(cache);
+		scanner.scan(jar2);
+
+		String content = FileUtil.readString(cacheFile);
+		assertTrue(content.contains("lib2.jar"));
+		assertFalse(content.contains("lib.jar"));
+	}
+
+}
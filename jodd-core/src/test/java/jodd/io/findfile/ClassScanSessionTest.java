@@ -0,0 +1,154 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.io.findfile;
+
+import jodd.io.FileUtil;
+import jodd.io.StreamUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ClassScanSessionTest {
+
+	protected File root;
+	protected File[] paths;
+
+	@Before
+	public void setUp() throws IOException {
+		root = FileUtil.createTempDirectory("jodd", "scan");
+
+		paths = new File[4];
+		for (int i = 0; i < 2; i++) {
+			File dir = new File(root, "classes" + i);
+			FileUtil.mkdirs(new File(dir, "foo"));
+			FileUtil.writeString(new File(dir, "foo/Alpha" + i + ".class"), "alpha");
+			FileUtil.writeString(new File(dir, "foo/Beta" + i + ".class"), "beta");
+			FileUtil.writeString(new File(dir, "foo/res" + i + ".txt"), "res");
+			paths[i] = dir;
+		}
+		for (int i = 2; i < 4; i++) {
+			File jar = new File(root, "lib" + i + ".jar");
+			createJar(jar, "bar/Alpha" + i + ".class", "bar/Beta" + i + ".class", "bar/res" + i + ".txt");
+			paths[i] = jar;
+		}
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtil.deleteDir(root);
+	}
+
+	private void createJar(File jar, String... names) throws IOException {
+		ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(jar));
+		try {
+			for (String name : names) {
+				zos.putNextEntry(new ZipEntry(name));
+				zos.write(name.getBytes());
+				zos.closeEntry();
+			}
+		} finally {
+			StreamUtil.close(zos);
+		}
+	}
+
+	static class CollectingScanner extends ClassScanner {
+		final Set<String> names = new TreeSet<String>();
+		final Set<String> threads = new TreeSet<String>();
+
+		@Override
+		protected void onEntry(EntryData entryData) {
+			StreamUtil.close(entryData.openInputStream());
+			synchronized (this) {
+				names.add(entryData.getName());
+				threads.add(Thread.currentThread().getName());
+			}
+		}
+	}
+
+	@Test
+	public void testParallelScan() {
+		CollectingScanner sequential = new CollectingScanner();
+		sequential.scan(paths);
+
+		CollectingScanner parallel = new CollectingScanner();
+		parallel.setScanThreads(4);
+		parallel.scan(paths);
+
+		assertEquals(8, sequential.names.size());
+		assertEquals(sequential.names, parallel.names);
+		assertTrue(parallel.threads.contains(Thread.currentThread().getName()) == false);
+	}
+
+	@Test
+	public void testParallelScanException() {
+		ClassScanner classScanner = new ClassScanner() {
+			@Override
+			protected void onEntry(EntryData entryData) {
+				if (entryData.getName().equals("bar.Beta3")) {
+					throw new IllegalStateException();
+				}
+			}
+		};
+		classScanner.setScanThreads(4);
+
+		try {
+			classScanner.scan(paths);
+			fail();
+		} catch (FindFileException ffex) {
+			assertTrue(ffex.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testSession() {
+		CollectingScanner alphas = new CollectingScanner();
+		alphas.setIncludedEntries("*.Alpha*");
+
+		CollectingScanner resources = new CollectingScanner();
+		resources.setIncludeResources(true);
+		resources.setExcludedJars("**/lib3.jar");
+
+		CollectingScanner failing = new CollectingScanner() {
+			@Override
+			protected void onEntry(EntryData entryData) {
+				throw new IllegalStateException();
+			}
+		};
+		failing.setIgnoreException(true);
+
+		ClassScanSession session = new ClassScanSession();
+		session.register(alphas).register(resources).register(failing);
+		assertEquals(3, session.getClassFindersCount());
+
+		session.scan(paths);
+
+		assertEquals("[bar.Alpha2, bar.Alpha3, foo.Alpha0, foo.Alpha1]", alphas.names.toString());
+
+		assertEquals(9, resources.names.size());
+		assertTrue(resources.names.contains("/bar/res2.txt"));
+		assertFalse(resources.names.contains("/bar/res3.txt"));
+		assertFalse(resources.names.contains("bar.Alpha3"));
+		assertTrue(resources.names.contains("foo.Beta1"));
+
+		// parallel
+		CollectingScanner all = new CollectingScanner();
+
+		session = new ClassScanSession();
+		session.register(all);
+		session.setScanThreads(2);
+		session.scan(paths);
+
+		assertEquals(8, all.names.size());
+	}
+
+}
@@ -0,0 +1,50 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (int i = 0; i < 99; i++) {
+			histogram.add(1000);
+		}
+		histogram.add(1000000);
+
+		assertEquals(1000000, histogram.getMaxTime());
+		assertEquals(99 * 1000 + 1000000, histogram.getTotalTime());
+
+		long[] buckets = histogram.getBuckets();
+		assertEquals(99, buckets[LatencyHistogram.bucketIndex(1000)]);
+		assertEquals(1, buckets[LatencyHistogram.bucketIndex(1000000)]);
+
+		assertEquals(1024, LatencyHistogram.percentile(buckets, 0.5, histogram.getMaxTime()));
+		assertEquals(1024, LatencyHistogram.percentile(buckets, 0.99, histogram.getMaxTime()));
+		assertEquals(1000000, LatencyHistogram.percentile(buckets, 1.0, histogram.getMaxTime()));
+		assertEquals(0, LatencyHistogram.percentile(new long[LatencyHistogram.BUCKETS], 0.5, 0));
+	}
+
+	@Test
+	public void testReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.add(-1);
+		histogram.add(Long.MAX_VALUE);
+
+		long[] buckets = histogram.getBuckets();
+		assertEquals(1, buckets[0]);
+		assertEquals(1, buckets[LatencyHistogram.BUCKETS - 1]);
+		assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.BUCKETS - 1), histogram.getPercentile(1.0));
+
+		histogram.reset();
+		assertEquals(0, histogram.getMaxTime());
+		assertEquals(0, histogram.getTotalTime());
+		assertEquals(0, histogram.getPercentile(0.5));
+	}
+
+}
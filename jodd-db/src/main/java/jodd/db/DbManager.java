@@ -2,7 +2,11 @@
 
 package jodd.db;
 
+import jodd.cache.Cache;
+import jodd.cache.FIFOCache;
+import jodd.cache.NoCache;
 import jodd.db.connection.ConnectionProvider;
+import jodd.db.profiler.DbQueryProfiler;
 
 /**
  * Db manager. Holds default Db configuration.
@@ -145,6 +149,69 @@ public class DbManager {
 		this.maxRows = maxRows;
 	}
 
+	// ---------------------------------------------------------------- query cache
+
+	protected Cache<String, DbQueryParser> queryCache = new FIFOCache<String, DbQueryParser>(1000);
+
+	/**
+	 * Returns the size of parsed queries cache.
+	 */
+	public int getQueryCacheSize() {
+		return queryCache.getCacheSize();
+	}
+
+	/**
+	 * Sets the size of parsed queries cache. Parsed SQL (plain query
+	 * and named parameters positions) is shared between queries with
+	 * the same SQL string. Zero turns the cache off.
+	 */
+	public void setQueryCacheSize(int size) {
+		if (size <= 0) {
+			queryCache = new NoCache<String, DbQueryParser>();
+		} else {
+			queryCache = new FIFOCache<String, DbQueryParser>(size);
+		}
+	}
+
+	/**
+	 * Clears parsed queries cache.
+	 */
+	public void clearQueryCache() {
+		queryCache.clear();
+	}
+
+	// ---------------------------------------------------------------- statement cache
+
+	protected int statementCacheSize = 0;
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * Sets the default size of {@link DbStatementCache prepared statements cache}
+	 * of each session. Zero (default) turns the cache off.
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	// ---------------------------------------------------------------- profiler
+
+	protected DbQueryProfiler profiler;
+
+	public DbQueryProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Sets {@link DbQueryProfiler query profiler} that collects statistics
+	 * of all executed queries. <code>null</code> (default) turns profiling off.
+	 */
+	public void setProfiler(DbQueryProfiler profiler) {
+		this.profiler = profiler;
+	}
+
 	// ---------------------------------------------------------------- debug
 
 	protected boolean debug = false;
@@ -0,0 +1,335 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db;
+
+import jodd.db.connection.ConnectionProvider;
+import jodd.log.Logger;
+import jodd.log.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes independent read queries concurrently. Each {@link DbParallelTask task}
+ * gets its own {@link DbSession session} with a separate connection from the
+ * {@link ConnectionProvider}, so total latency is the latency of the slowest
+ * task and not the sum of all. Number of concurrent tasks, and therefore of
+ * used connections, is bounded by the executor.
+ * <p>
+ * Tasks are grouped in a {@link Batch batch} that is executed at once;
+ * results are available from the typed {@link Result result handles}.
+ * When the batch times out or some task fails, all running queries are
+ * {@link DbQueryBase#cancel() cancelled}.
+ * <p>
+ * Sessions of the tasks are bound to the worker threads only during the execution.
+ * {@link ThreadDbSessionHolder Session} of the calling thread is not changed; tasks
+ * do not participate in its transaction and don't see its uncommitted changes.
+ */
+public class DbParallelExecutor {
+
+	private static final Logger log = LoggerFactory.getLogger(DbParallelExecutor.class);
+
+	protected final ConnectionProvider connectionProvider;
+	protected final ExecutorService executorService;
+	protected long timeout;
+
+	/**
+	 * Creates parallel executor with default connection provider
+	 * and fixed number of worker threads.
+	 */
+	public DbParallelExecutor(int threads) {
+		this(null, threads);
+	}
+
+	/**
+	 * Creates parallel executor with fixed number of worker threads. Number of threads
+	 * should not be greater then number of available connections in the pool.
+	 */
+	public DbParallelExecutor(ConnectionProvider connectionProvider, int threads) {
+		this(connectionProvider, Executors.newFixedThreadPool(threads, new WorkerThreadFactory()));
+	}
+
+	/**
+	 * Creates parallel executor with provided executor service.
+	 */
+	public DbParallelExecutor(ConnectionProvider connectionProvider, ExecutorService executorService) {
+		if (connectionProvider == null) {
+			connectionProvider = DbManager.getInstance().getConnectionProvider();
+			if (connectionProvider == null) {
+				throw new DbSqlException("Connection provider is not available.");
+			}
+		}
+		this.connectionProvider = connectionProvider;
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Returns batch timeout in milliseconds.
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets default timeout of the whole batch, in milliseconds.
+	 * Zero (default) means no timeout.
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Creates new empty batch.
+	 */
+	public Batch batch() {
+		return new Batch(timeout);
+	}
+
+	/**
+	 * Shutdowns the executor. Running tasks are not interrupted.
+	 */
+	public void shutdown() {
+		executorService.shutdown();
+	}
+
+	// ---------------------------------------------------------------- batch
+
+	/**
+	 * Group of tasks executed together.
+	 */
+	public class Batch {
+
+		protected final List<Result<?>> results = new ArrayList<Result<?>>();
+		protected long timeout;
+		protected boolean executed;
+
+		protected Batch(long timeout) {
+			this.timeout = timeout;
+		}
+
+		/**
+		 * Sets timeout of this batch, in milliseconds.
+		 */
+		public Batch timeout(long timeout) {
+			this.timeout = timeout;
+			return this;
+		}
+
+		/**
+		 * Adds task to the batch and returns the handle of its result.
+		 */
+		public <T> Result<T> add(DbParallelTask<T> task) {
+			if (executed) {
+				throw new DbSqlException("Batch already executed.");
+			}
+			Result<T> result = new Result<T>(task);
+			results.add(result);
+			return result;
+		}
+
+		/**
+		 * Executes all tasks and waits for them to finish. If some task fails or the timeout
+		 * elapses, remaining tasks are cancelled and exception is thrown. Results
+		 * are available after successful execution.
+		 */
+		public void execute() {
+			if (executed) {
+				throw new DbSqlException("Batch already executed.");
+			}
+			executed = true;
+
+			for (Result<?> result : results) {
+				result.submit();
+			}
+
+			long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+
+			try {
+				for (Result<?> result : results) {
+					if (deadline == 0) {
+						result.future.get();
+					} else {
+						long remaining = deadline - System.currentTimeMillis();
+						if (remaining <= 0) {
+							remaining = 1;		// completed tasks still return their results
+						}
+						result.future.get(remaining, TimeUnit.MILLISECONDS);
+					}
+				}
+			} catch (TimeoutException tex) {
+				cancel();
+				throw new DbSqlException("Parallel queries not completed in " + timeout + "ms.", tex);
+			} catch (ExecutionException eex) {
+				cancel();
+				Throwable cause = eex.getCause();
+				if (cause instanceof DbSqlException) {
+					throw (DbSqlException) cause;
+				}
+				throw new DbSqlException("Parallel query failed.", cause);
+			} catch (InterruptedException iex) {
+				cancel();
+				Thread.currentThread().interrupt();
+				throw new DbSqlException("Parallel queries interrupted.", iex);
+			}
+		}
+
+		/**
+		 * Cancels all tasks of the batch. Tasks that are not yet started
+		 * are removed from the executor, while running queries are
+		 * {@link DbQueryBase#cancel() cancelled}.
+		 */
+		public void cancel() {
+			for (Result<?> result : results) {
+				result.cancel();
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------- result
+
+	/**
+	 * Typed handle of single task result.
+	 */
+	public class Result<T> implements Callable<T> {
+
+		protected final DbParallelTask<T> task;
+		protected final List<DbQueryBase> queries = new CopyOnWriteArrayList<DbQueryBase>();
+		protected Future<T> future;
+		protected volatile boolean cancelled;
+
+		protected Result(DbParallelTask<T> task) {
+			this.task = task;
+		}
+
+		/**
+		 * Submits the task to the executor.
+		 */
+		protected void submit() {
+			future = executorService.submit(this);
+		}
+
+		/**
+		 * Executes the task in the worker thread.
+		 */
+		public T call() throws Exception {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			DbSession previousSession = ThreadDbSessionHolder.get();
+			DbSession session = new TaskSession(connectionProvider, this);
+			ThreadDbSessionHolder.set(session);
+			try {
+				return task.execute(session);
+			} finally {
+				ThreadDbSessionHolder.set(previousSession);
+				session.closeSession();
+			}
+		}
+
+		/**
+		 * Returns task result. Throws an exception if batch
+		 * is not yet executed or if the task failed.
+		 */
+		public T get() {
+			if ((future == null) || !future.isDone()) {
+				throw new DbSqlException("Parallel query not completed.");
+			}
+			try {
+				return future.get();
+			} catch (CancellationException cex) {
+				throw new DbSqlException("Parallel query cancelled.", cex);
+			} catch (ExecutionException eex) {
+				Throwable cause = eex.getCause();
+				if (cause instanceof DbSqlException) {
+					throw (DbSqlException) cause;
+				}
+				throw new DbSqlException("Parallel query failed.", cause);
+			} catch (InterruptedException iex) {
+				Thread.currentThread().interrupt();
+				throw new DbSqlException("Parallel query interrupted.", iex);
+			}
+		}
+
+		/**
+		 * Returns <code>true</code> if task is completed successfully.
+		 */
+		public boolean isSuccessful() {
+			if ((future == null) || !future.isDone() || future.isCancelled()) {
+				return false;
+			}
+			try {
+				future.get();
+				return true;
+			} catch (Exception ignore) {
+				return false;
+			}
+		}
+
+		/**
+		 * Cancels the task and all its running queries.
+		 */
+		protected void cancel() {
+			cancelled = true;
+			if (future != null) {
+				future.cancel(false);
+			}
+			for (DbQueryBase query : queries) {
+				try {
+					query.cancel();
+				} catch (DbSqlException dsex) {
+					if (log.isDebugEnabled()) {
+						log.debug("Unable to cancel query: " + dsex.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Session of a single task that keeps track of all attached queries,
+	 * so they can be cancelled from another thread.
+	 */
+	protected static class TaskSession extends DbSession {
+
+		protected final Result<?> result;
+
+		protected TaskSession(ConnectionProvider connectionProvider, Result<?> result) {
+			super(connectionProvider);
+			this.result = result;
+		}
+
+		@Override
+		protected void attachQuery(DbQueryBase query) {
+			super.attachQuery(query);
+			result.queries.add(query);
+			if (result.cancelled) {
+				throw new DbSqlException("Parallel query cancelled.");
+			}
+		}
+	}
+
+	/**
+	 * Creates daemon worker threads.
+	 */
+	protected static class WorkerThreadFactory implements ThreadFactory {
+
+		protected final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "jodd-db-parallel-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
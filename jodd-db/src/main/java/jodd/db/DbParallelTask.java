@@ -0,0 +1,19 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db;
+
+/**
+ * Single task of {@link DbParallelExecutor parallel execution}.
+ * Task creates and executes its queries, usually {@link DbQuery}
+ * or <code>DbOomQuery</code>, in provided session and returns the result.
+ */
+public interface DbParallelTask<T> {
+
+	/**
+	 * Executes queries in given session and returns the result.
+	 * Session is bound to the current thread during the execution,
+	 * and is closed afterwards, together with all its queries.
+	 */
+	T execute(DbSession session);
+
+}
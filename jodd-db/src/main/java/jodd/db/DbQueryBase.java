@@ -2,8 +2,12 @@
 
 package jodd.db;
 
+import jodd.cache.Cache;
 import jodd.db.debug.LoggablePreparedStatementFactory;
+import jodd.db.profiler.DbQueryProfiler;
 import jodd.log.Logger;
+import jodd.util.collection.IntArrayList;
+import jodd.util.collection.LongArrayList;
 import jodd.log.LoggerFactory;
 
 import java.sql.Statement;
@@ -123,10 +127,11 @@ abstract class DbQueryBase {
 
 	// ---------------------------------------------------------------- attributes
 
-	protected Statement statement;
+	protected volatile Statement statement;
 	protected PreparedStatement preparedStatement;
 	protected Set<ResultSet> resultSets;
 	protected DbQueryParser query;
+	protected String statementCacheKey;		// key of the cached prepared statement
 
 	/**
 	 * Stores result set.
@@ -190,6 +195,21 @@ abstract class DbQueryBase {
 		this.session = dbSessionProvider.getDbSession();
 	}
 
+	/**
+	 * Returns parsed SQL query. Parsed queries are immutable and
+	 * they are shared using the {@link DbManager#setQueryCacheSize(int) query cache}.
+	 */
+	protected DbQueryParser parseQuery(String sql) {
+		Cache<String, DbQueryParser> queryCache = dbManager.queryCache;
+
+		DbQueryParser parser = queryCache.get(sql);
+		if (parser == null) {
+			parser = new DbQueryParser(sql);
+			queryCache.put(sql, parser);
+		}
+		return parser;
+	}
+
 	/**
 	 * Performs JDBC initialization of the query. Obtains connection, parses the SQL query string
 	 * and creates statements. Initialization is performed only once, when switching to initialized state.
@@ -203,7 +223,7 @@ abstract class DbQueryBase {
 			connection = session.getConnection();
 		}
 
-		this.query = new DbQueryParser(sqlString);
+		this.query = parseQuery(sqlString);
 
 		// statement
 		if ((forcePreparedStatement == false) && (query.prepared == false)) {
@@ -219,6 +239,17 @@ abstract class DbQueryBase {
 			return;
 		}
 
+		// prepared statement from the cache
+		DbStatementCache statementCache = session.statementCache;
+		if (statementCache != null && debug == false) {
+			statementCacheKey = DbStatementCache.createKey(query.sql, type, concurrencyType, holdability, generatedColumns);
+			preparedStatement = statementCache.take(statementCacheKey);
+			if (preparedStatement != null) {
+				statement = preparedStatement;
+				return;
+			}
+		}
+
 		// prepared statement
 		try {
 			if (debug == true) {
@@ -313,7 +344,11 @@ abstract class DbQueryBase {
 		List<SQLException> sexs = closeQueryResultSets();
 		if (statement != null) {
 			try {
-				statement.close();
+				if (statementCacheKey != null) {
+					releaseStatement();
+				} else {
+					statement.close();
+				}
 			} catch (SQLException sex) {
 				if (sexs == null) {
 					sexs = new ArrayList<SQLException>();
@@ -321,12 +356,40 @@ abstract class DbQueryBase {
 				sexs.add(sex);
 			}
 			statement = null;
+			if (statementCacheKey != null) {
+				preparedStatement = null;		// statement may be reused by other query
+				statementCacheKey = null;
+			}
 		}
 		query = null;
 		queryState = QUERY_CLOSED;
 		return sexs;
 	}
 
+	/**
+	 * Returns prepared statement to the session {@link DbStatementCache statement cache}.
+	 * Statement settings changed by this query are reset first.
+	 */
+	protected void releaseStatement() throws SQLException {
+		DbStatementCache statementCache = session.statementCache;
+		if (statementCache == null) {
+			preparedStatement.close();
+			return;
+		}
+		try {
+			if (fetchSize != 0) {
+				preparedStatement.setFetchSize(0);
+			}
+			if (maxRows != 0) {
+				preparedStatement.setMaxRows(0);
+			}
+		} catch (SQLException sex) {
+			preparedStatement.close();
+			throw sex;
+		}
+		statementCache.release(statementCacheKey, preparedStatement);
+	}
+
 	/**
 	 * Closes the query and all created results sets and detaches itself from the session.
 	 */
@@ -363,6 +426,24 @@ abstract class DbQueryBase {
 		}
 	}
 
+	/**
+	 * Cancels the execution of the query, if both database and driver
+	 * support it. May be invoked from another thread, while the query
+	 * is being executed. Does nothing if statement is not yet created.
+	 * @see Statement#cancel()
+	 */
+	public void cancel() {
+		Statement statement = this.statement;
+		if (statement == null) {
+			return;
+		}
+		try {
+			statement.cancel();
+		} catch (SQLException sex) {
+			throw new DbSqlException("Unable to cancel the query.", sex);
+		}
+	}
+
 	// ---------------------------------------------------------------- result set type
 
 	/**
@@ -595,6 +676,7 @@ abstract class DbQueryBase {
 	 */
 	public ResultSet execute() {
 		start = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 
 		init();
 		ResultSet rs = null;
@@ -610,11 +692,14 @@ abstract class DbQueryBase {
 			rs.setFetchSize(fetchSize);
 		} catch (SQLException sex) {
 			DbUtil.close(rs);
+			profileFailure(startNanos);
 			throw new DbSqlException("Unable to execute query.", sex);
 		}
 		saveResultSet(rs);
 		totalOpenResultSetCount++;
 
+		profileExecution(startNanos, 0);
+
 		elapsed = System.currentTimeMillis() - start;
 		if (log.isDebugEnabled()) {
 			log.debug("execution time: " + elapsed + "ms");
@@ -644,6 +729,7 @@ abstract class DbQueryBase {
 	 */
 	protected int executeUpdate(boolean closeQuery) {
 		start = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 
 		init();
 		int result;
@@ -665,8 +751,11 @@ abstract class DbQueryBase {
 				result = preparedStatement.executeUpdate();
 			}
 		} catch (SQLException sex) {
+			profileFailure(startNanos);
 			throw new DbSqlException("Unable to execute the query.", sex);
 		}
+		profileExecution(startNanos, result);
+
 		if (closeQuery) {
 			close();
 		}
@@ -699,6 +788,7 @@ abstract class DbQueryBase {
 	 */
 	protected long executeCount(boolean close) {
 		start = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 
 		init();
 		ResultSet rs = null;
@@ -714,6 +804,8 @@ abstract class DbQueryBase {
 
 			long firstLong = DbUtil.getFirstLong(rs);
 
+			profileExecution(startNanos, 1);
+
 			elapsed = System.currentTimeMillis() - start;
 			if (log.isDebugEnabled()) {
 				log.debug("execution time: " + elapsed + "ms");
@@ -721,6 +813,7 @@ abstract class DbQueryBase {
 
 			return firstLong;
 		} catch (SQLException sex) {
+			profileFailure(startNanos);
 			throw new DbSqlException("Unable to execute count query.", sex);
 		} finally {
 			DbUtil.close(rs);
@@ -730,6 +823,206 @@ abstract class DbQueryBase {
 		}
 	}
 
+	// ---------------------------------------------------------------- profiler
+
+	/**
+	 * Reports query execution to the {@link DbManager#setProfiler(DbQueryProfiler) profiler},
+	 * if one is set. Must be invoked before the query is closed.
+	 */
+	protected void profileExecution(long startNanos, long rows) {
+		DbQueryProfiler profiler = dbManager.profiler;
+		if (profiler != null) {
+			profiler.onExecute(query.getShape(), System.nanoTime() - startNanos, rows);
+		}
+	}
+
+	/**
+	 * Reports failed query execution to the {@link DbManager#setProfiler(DbQueryProfiler) profiler},
+	 * if one is set, so failed and timed-out queries are measured, too.
+	 */
+	protected void profileFailure(long startNanos) {
+		DbQueryProfiler profiler = dbManager.profiler;
+		if (profiler != null) {
+			profiler.onFailure(query.getShape(), System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * Reports number of fetched rows and time spent in mapping them to
+	 * the {@link DbManager#setProfiler(DbQueryProfiler) profiler}, if one is set.
+	 * Must be invoked before the query is closed.
+	 */
+	protected void profileMapping(long startNanos, long rows) {
+		DbQueryProfiler profiler = dbManager.profiler;
+		if (profiler != null) {
+			profiler.onMapping(query.getShape(), rows, System.nanoTime() - startNanos);
+		}
+	}
+
+	// ---------------------------------------------------------------- batch
+
+	protected int batchSize;
+	protected int batchCount;
+	protected boolean batchExecuted;
+	protected IntArrayList batchResults;
+	protected LongArrayList batchGeneratedKeys;
+
+	/**
+	 * Returns batch size.
+	 * @see #setBatchSize(int)
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets number of batch rows after which the batch is executed automatically,
+	 * so large number of rows is not accumulated in memory. If the value
+	 * is zero, batch is executed only on {@link #executeBatch()}.
+	 */
+	public void setBatchSize(int batchSize) {
+		checkNotClosed();
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Adds current set of parameters to the batch of the prepared statement.
+	 * For non-prepared statements, query is added to the batch.
+	 * Executes the batch when {@link #setBatchSize(int) batch size} is reached.
+	 * @see Statement#addBatch(String)
+	 * @see PreparedStatement#addBatch()
+	 */
+	public void addBatch() {
+		init();
+		if (batchExecuted) {
+			batchExecuted = false;
+			batchGeneratedKeys = null;
+		}
+		try {
+			if (preparedStatement == null) {
+				statement.addBatch(query.sql);
+			} else {
+				preparedStatement.addBatch();
+			}
+		} catch (SQLException sex) {
+			throw new DbSqlException("Unable to add batch.", sex);
+		}
+		batchCount++;
+
+		if ((batchSize > 0) && (batchCount >= batchSize)) {
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Executes rows added to the batch and collects update counts
+	 * and generated keys.
+	 */
+	protected void flushBatch() {
+		if (batchCount == 0) {
+			return;
+		}
+		start = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
+
+		if (log.isDebugEnabled()) {
+			log.debug("Executing batch of " + batchCount + ": " + getQueryString());
+		}
+		int[] counts;
+		try {
+			counts = statement.executeBatch();
+		} catch (SQLException sex) {
+			profileFailure(startNanos);
+			throw new DbSqlException("Unable to execute the batch.", sex);
+		} finally {
+			batchCount = 0;
+		}
+
+		if (batchResults == null) {
+			batchResults = new IntArrayList(counts.length);
+		}
+		batchResults.addAll(counts);
+
+		if ((generatedColumns != null) && (preparedStatement != null)) {
+			if (batchGeneratedKeys == null) {
+				batchGeneratedKeys = new LongArrayList(counts.length);
+			}
+			ResultSet rs = null;
+			try {
+				rs = statement.getGeneratedKeys();
+				while (rs.next()) {
+					batchGeneratedKeys.add(rs.getLong(1));
+				}
+			} catch (SQLException sex) {
+				throw new DbSqlException("Unable to return generated keys of the batch.", sex);
+			} finally {
+				DbUtil.close(rs);
+			}
+		}
+
+		long rows = 0;
+		for (int count : counts) {
+			if (count > 0) {
+				rows += count;
+			}
+		}
+		profileExecution(startNanos, rows);
+
+		elapsed = System.currentTimeMillis() - start;
+		if (log.isDebugEnabled()) {
+			log.debug("execution time: " + elapsed + "ms");
+		}
+	}
+
+	/**
+	 * Executes the remaining batch rows. Returns update counts of all rows
+	 * added since the previous invocation, including the ones executed
+	 * automatically. Query is not closed afterwards.
+	 * @see Statement#executeBatch()
+	 */
+	public int[] executeBatch() {
+		return executeBatch(false);
+	}
+
+	/**
+	 * Executes the remaining batch rows and closes the query afterwards.
+	 * @see #executeBatch()
+	 */
+	public int[] executeBatchAndClose() {
+		return executeBatch(true);
+	}
+
+	/**
+	 * Executes the remaining batch rows and optionally closes the query.
+	 */
+	protected int[] executeBatch(boolean closeQuery) {
+		init();
+		try {
+			flushBatch();
+		} finally {
+			if (closeQuery) {
+				close();
+			}
+		}
+
+		int[] result = batchResults == null ? new int[0] : batchResults.toArray();
+		batchResults = null;
+		batchExecuted = true;
+		return result;
+	}
+
+	/**
+	 * Returns keys generated by the rows of the last executed batch, i.e. the first
+	 * generated column as <code>long</code> for each row. Available until rows
+	 * are added to the batch again, even when query is closed.
+	 */
+	public long[] getBatchGeneratedKeys() {
+		if (generatedColumns == null) {
+			throw new DbSqlException("No column is specified as auto-generated.");
+		}
+		return batchGeneratedKeys == null ? new long[0] : batchGeneratedKeys.toArray();
+	}
+
 	// ---------------------------------------------------------------- generated keys
 
 	/**
@@ -113,4 +113,62 @@ class DbQueryParser {
 		this.prepared = (paramCount != 0);
 		this.sql = pureSql.toString();
 	}
+
+	// ---------------------------------------------------------------- shape
+
+	private String shape;
+
+	/**
+	 * Returns SQL shape used for profiling. For prepared queries,
+	 * shape is the parsed SQL. Otherwise, string and numeric literals
+	 * are replaced with <code>?</code>, so queries that differs only
+	 * in literal values share the same shape. Shape is resolved lazily.
+	 */
+	String getShape() {
+		if (shape == null) {
+			shape = prepared ? sql : resolveShape(sql);
+		}
+		return shape;
+	}
+
+	/**
+	 * Replaces string and numeric literals with <code>?</code>.
+	 */
+	static String resolveShape(String sql) {
+		int length = sql.length();
+		StringBuilder sb = new StringBuilder(length);
+		int index = 0;
+		while (index < length) {
+			char c = sql.charAt(index);
+			if (c == '\'') {
+				index++;
+				while (index < length) {
+					if (sql.charAt(index) == '\'') {
+						if ((index < length - 1) && (sql.charAt(index + 1) == '\'')) {
+							index += 2;
+							continue;
+						}
+						break;
+					}
+					index++;
+				}
+				sb.append('?');
+				index++;
+				continue;
+			}
+			if (Character.isDigit(c)) {
+				char prev = index == 0 ? ' ' : sql.charAt(index - 1);
+				if (!Character.isLetterOrDigit(prev) && prev != '_' && prev != '.') {
+					while ((index < length) && (Character.isDigit(sql.charAt(index)) || sql.charAt(index) == '.')) {
+						index++;
+					}
+					sb.append('?');
+					continue;
+				}
+			}
+			sb.append(c);
+			index++;
+		}
+		return sb.toString();
+	}
 }
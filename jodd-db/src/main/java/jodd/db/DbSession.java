@@ -56,6 +56,10 @@ public class DbSession {
 		txActive = false;
 		txMode = dbManager.transactionMode;
 		queries = new HashSet<DbQueryBase>();
+
+		if (dbManager.statementCacheSize > 0) {
+			statementCache = new DbStatementCache(dbManager.statementCacheSize);
+		}
 	}
 
 
@@ -80,6 +84,16 @@ public class DbSession {
 				}
 			}
 		}
+		if (statementCache != null) {
+			List<SQLException> sexs = statementCache.closeAll();
+			if (sexs != null) {
+				if (allsexs == null) {
+					allsexs = new ArrayList<SQLException>();
+				}
+				allsexs.addAll(sexs);
+			}
+		}
+
 		if (connection != null) {
 			if (txActive == true) {
 				throw new DbSqlException("Transaction was not closed before closing the session.");
@@ -167,6 +181,29 @@ public class DbSession {
 		}
 	}
 
+	// ---------------------------------------------------------------- statement cache
+
+	protected DbStatementCache statementCache;
+
+	/**
+	 * Returns {@link DbStatementCache prepared statements cache} of this session
+	 * or <code>null</code> if statements are not cached.
+	 */
+	public DbStatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * Sets the size of prepared statements cache of this session. Zero turns the cache
+	 * off. Must be set before the session is used.
+	 */
+	public void setStatementCacheSize(int size) {
+		if (statementCache != null && statementCache.getSize() != 0) {
+			throw new DbSqlException("Statement cache is already in use.");
+		}
+		statementCache = size > 0 ? new DbStatementCache(size) : null;
+	}
+
 	// ---------------------------------------------------------------- transaction
 
 	protected boolean txActive;
@@ -244,7 +281,11 @@ public class DbSession {
 		} catch (SQLException sex) {
 			throw new DbSqlException("Unable to commit transaction.", sex);
 		} finally {
-			closeTx();
+			try {
+				closeTx();
+			} finally {
+				runTransactionCompletionTasks();
+			}
 		}
 	}
 
@@ -260,7 +301,48 @@ public class DbSession {
 		} catch (SQLException sex) {
 			throw new DbSqlException("Unable to rollback transaction.", sex);
 		} finally {
-			closeTx();
+			try {
+				closeTx();
+			} finally {
+				runTransactionCompletionTasks();
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------- transaction completion
+
+	protected List<Runnable> txCompletionTasks;
+
+	/**
+	 * Registers a task that is run once, after the active transaction
+	 * is committed or rolled back. Throws an exception if there
+	 * is no active transaction.
+	 */
+	public void addTransactionCompletionTask(Runnable task) {
+		checkActiveTx();
+		if (txCompletionTasks == null) {
+			txCompletionTasks = new ArrayList<Runnable>();
+		}
+		txCompletionTasks.add(task);
+	}
+
+	/**
+	 * Runs and removes all registered transaction completion tasks.
+	 * Failure of some task does not prevent others from running.
+	 */
+	protected void runTransactionCompletionTasks() {
+		if (txCompletionTasks == null) {
+			return;
+		}
+		List<Runnable> tasks = txCompletionTasks;
+		txCompletionTasks = null;
+
+		for (Runnable task : tasks) {
+			try {
+				task.run();
+			} catch (RuntimeException rex) {
+				log.warn("Transaction completion task failed.", rex);
+			}
 		}
 	}
 
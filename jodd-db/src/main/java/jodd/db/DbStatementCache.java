@@ -0,0 +1,160 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of idle prepared statements of a single {@link DbSession}.
+ * Closed queries return their prepared statements to the cache, and new
+ * queries with the same SQL and statement options reuse them, so the
+ * database doesn't have to prepare the same SQL again. Statement that is
+ * in use by a query is never in the cache.
+ * <p>
+ * Cache is not thread-safe, as the session it belongs to.
+ */
+public class DbStatementCache {
+
+	protected final int maxSize;
+	protected final LinkedHashMap<String, PreparedStatement> statements;
+
+	protected long hitCount;
+	protected long missCount;
+	protected long evictionCount;
+
+	public DbStatementCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new DbSqlException("Invalid statement cache size: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true);
+	}
+
+	/**
+	 * Creates cache key from SQL string and statement options.
+	 */
+	public static String createKey(String sql, int type, int concurrencyType, int holdability, String[] generatedColumns) {
+		StringBuilder key = new StringBuilder(sql.length() + 32);
+		key.append(type).append(':').append(concurrencyType).append(':').append(holdability).append(':');
+		if (generatedColumns != null) {
+			key.append('[');
+			for (String generatedColumn : generatedColumns) {
+				key.append(generatedColumn).append(',');
+			}
+			key.append(']');
+		}
+		key.append(':').append(sql);
+		return key.toString();
+	}
+
+	// ---------------------------------------------------------------- take & release
+
+	/**
+	 * Takes idle statement from the cache. Returns <code>null</code>
+	 * when there is no cached statement for the key.
+	 */
+	public PreparedStatement take(String key) {
+		PreparedStatement preparedStatement = statements.remove(key);
+		if (preparedStatement == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return preparedStatement;
+	}
+
+	/**
+	 * Releases statement back to the cache. Statement parameters and batch are
+	 * cleared. If the cache is full, the least recently used statement is closed.
+	 * If there is already an idle statement with the same key, the released
+	 * statement is closed instead.
+	 */
+	public void release(String key, PreparedStatement preparedStatement) throws SQLException {
+		if (statements.containsKey(key)) {
+			preparedStatement.close();
+			return;
+		}
+		try {
+			preparedStatement.clearParameters();
+			preparedStatement.clearBatch();
+			preparedStatement.clearWarnings();
+		} catch (SQLException sex) {
+			preparedStatement.close();
+			throw sex;
+		}
+
+		statements.put(key, preparedStatement);
+
+		if (statements.size() > maxSize) {
+			Iterator<PreparedStatement> iterator = statements.values().iterator();
+			PreparedStatement eldest = iterator.next();
+			iterator.remove();
+			evictionCount++;
+			eldest.close();
+		}
+	}
+
+	/**
+	 * Closes all cached statements and clears the cache.
+	 * Returns list of exceptions or <code>null</code> if all statements are closed.
+	 */
+	public List<SQLException> closeAll() {
+		List<SQLException> sexs = null;
+		for (Map.Entry<String, PreparedStatement> entry : statements.entrySet()) {
+			try {
+				entry.getValue().close();
+			} catch (SQLException sex) {
+				if (sexs == null) {
+					sexs = new ArrayList<SQLException>();
+				}
+				sexs.add(sex);
+			}
+		}
+		statements.clear();
+		return sexs;
+	}
+
+	// ---------------------------------------------------------------- stats
+
+	/**
+	 * Returns maximal number of cached statements.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns number of idle statements in the cache.
+	 */
+	public int getSize() {
+		return statements.size();
+	}
+
+	/**
+	 * Returns number of statements reused from the cache.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns number of statements that were not found in the cache.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns number of statements closed because the cache was full.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+}
@@ -0,0 +1,301 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom;
+
+import jodd.bean.BeanUtil;
+import jodd.cache.Cache;
+import jodd.cache.LRUCache;
+import jodd.db.DbSession;
+import jodd.db.oom.meta.DbCacheable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entity cache of {@link DbOomManager}, keyed by entity type and id. Only entities
+ * annotated with {@link DbCacheable} and with single identity column are cached,
+ * each type in its own region with own size and time-to-live.
+ * <p>
+ * Cache is consulted on {@link jodd.db.oom.sqlgen.DbEntitySql#findById(Object, Number) find by id}
+ * queries, it is populated with fully mapped entities from all queries and invalidated
+ * on entity update and delete queries generated by {@link jodd.db.oom.sqlgen.DbEntitySql}.
+ * Entities read inside a transaction are not cached, and entities changed inside
+ * a transaction are invalidated again when the transaction ends. Entities read
+ * by a query are not stored if their region has been invalidated after the
+ * query was executed, so concurrent updates do not leave stale entities behind.
+ * Cache stores and returns copies of entities, so cached state can not be
+ * changed accidentally. Changes made by other queries or other applications
+ * are not detected, so cache only the entities that change rarely.
+ */
+public class DbEntityCache {
+
+	protected final DbOomManager dbOomManager;
+	protected final ConcurrentHashMap<Class<?>, Region> regions;
+	protected final AtomicLong invalidations;
+
+	public DbEntityCache(DbOomManager dbOomManager) {
+		this.dbOomManager = dbOomManager;
+		this.regions = new ConcurrentHashMap<Class<?>, Region>();
+		this.invalidations = new AtomicLong();
+	}
+
+	/**
+	 * Cache region of single entity type.
+	 */
+	protected static class Region {
+		protected final DbEntityDescriptor ded;
+		protected final Cache<Object, Entry> cache;
+		protected final long timeout;
+		protected long invalidated;		// guarded by cache
+
+		protected Region(DbEntityDescriptor ded, Cache<Object, Entry> cache, long timeout) {
+			this.ded = ded;
+			this.cache = cache;
+			this.timeout = timeout;
+		}
+	}
+
+	/**
+	 * Cached entity.
+	 */
+	protected static class Entry {
+		protected final Object entity;
+		protected final long expires;
+
+		protected Entry(Object entity, long expires) {
+			this.entity = entity;
+			this.expires = expires;
+		}
+	}
+
+	private static final Region NOT_CACHED = new Region(null, null, 0);
+
+	// ---------------------------------------------------------------- region
+
+	/**
+	 * Returns <code>true</code> if entities of given type are cached.
+	 */
+	public boolean isCached(Class<?> type) {
+		return lookupRegion(type) != null;
+	}
+
+	/**
+	 * Lookups region for entity type. Returns <code>null</code>
+	 * if entity type is not cached.
+	 */
+	protected Region lookupRegion(Class<?> type) {
+		Region region = regions.get(type);
+		if (region == null) {
+			region = createRegion(type);
+			Region existing = regions.putIfAbsent(type, region);
+			if (existing != null) {
+				region = existing;
+			}
+		}
+		return region == NOT_CACHED ? null : region;
+	}
+
+	/**
+	 * Creates region for entity type.
+	 */
+	protected Region createRegion(Class<?> type) {
+		DbCacheable dbCacheable = type.getAnnotation(DbCacheable.class);
+		if (dbCacheable == null) {
+			return NOT_CACHED;
+		}
+		DbEntityDescriptor ded = dbOomManager.lookupType(type);
+		if (ded == null || ded.getIdColumnsCount() != 1) {
+			return NOT_CACHED;
+		}
+		Region region = new Region(ded, createCache(ded, dbCacheable.size()), dbCacheable.timeout());
+		region.invalidated = invalidations.get();
+		return region;
+	}
+
+	/**
+	 * Creates cache for entity region. Cache is always accessed
+	 * synchronized, so it does not have to be thread-safe.
+	 */
+	protected Cache<Object, Entry> createCache(DbEntityDescriptor ded, int size) {
+		return new LRUCache<Object, Entry>(size);
+	}
+
+	// ---------------------------------------------------------------- get & put
+
+	/**
+	 * Returns copy of cached entity or <code>null</code> if entity is not cached.
+	 */
+	public Object get(Class<?> type, Object id) {
+		Region region = lookupRegion(type);
+		if (region == null || id == null) {
+			return null;
+		}
+		Object key = createKey(id);
+
+		Entry entry;
+		synchronized (region.cache) {
+			entry = region.cache.get(key);
+			if (entry != null && entry.expires != 0 && entry.expires < System.currentTimeMillis()) {
+				region.cache.remove(key);
+				entry = null;
+			}
+		}
+		if (entry == null) {
+			return null;
+		}
+		return copyEntity(region.ded, entry.entity);
+	}
+
+	/**
+	 * Returns current invalidation stamp. It should be taken before
+	 * the query is executed and then passed to {@link #put(Object, long)}.
+	 */
+	public long getInvalidationStamp() {
+		return invalidations.get();
+	}
+
+	/**
+	 * Puts copy of the entity into the cache. Entities that are not cached
+	 * or that have no id value are ignored.
+	 */
+	public void put(Object entity) {
+		put(entity, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Puts copy of the entity read by a query into the cache, unless the entity
+	 * region has been invalidated after the given {@link #getInvalidationStamp() stamp}
+	 * was taken. Then the entity may be already stale and it is ignored.
+	 */
+	public void put(Object entity, long stamp) {
+		Region region = lookupRegion(entity.getClass());
+		if (region == null) {
+			return;
+		}
+		Object id = BeanUtil.getDeclaredProperty(entity, region.ded.getIdPropertyName());
+		if (id == null) {
+			return;
+		}
+		Entry entry = new Entry(
+				copyEntity(region.ded, entity),
+				region.timeout == 0 ? 0 : System.currentTimeMillis() + region.timeout);
+
+		synchronized (region.cache) {
+			if (region.invalidated > stamp) {
+				return;
+			}
+			region.cache.put(createKey(id), entry);
+		}
+	}
+
+	// ---------------------------------------------------------------- invalidate
+
+	/**
+	 * Removes cached entity.
+	 */
+	public void invalidate(Class<?> type, Object id) {
+		Region region = lookupRegion(type);
+		if (region == null) {
+			return;
+		}
+		if (id == null) {
+			invalidateAll(type);
+			return;
+		}
+		synchronized (region.cache) {
+			region.invalidated = invalidations.incrementAndGet();
+			region.cache.remove(createKey(id));
+		}
+	}
+
+	/**
+	 * Removes cached entity. If the session has an active transaction, entity is
+	 * removed again when the transaction ends, since other sessions may cache
+	 * the old committed state before the transaction is committed.
+	 */
+	public void invalidate(DbSession session, final Class<?> type, final Object id) {
+		invalidate(type, id);
+		if ((session != null) && session.isTransactionActive() && isCached(type)) {
+			session.addTransactionCompletionTask(new Runnable() {
+				public void run() {
+					invalidate(type, id);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Removes cached entity of given instance in the session.
+	 * @see #invalidate(DbSession, Class, Object)
+	 */
+	public void invalidate(DbSession session, Object entity) {
+		Region region = lookupRegion(entity.getClass());
+		if (region == null) {
+			return;
+		}
+		invalidate(session, entity.getClass(), BeanUtil.getDeclaredProperty(entity, region.ded.getIdPropertyName()));
+	}
+
+	/**
+	 * Removes cached entity of given instance.
+	 */
+	public void invalidate(Object entity) {
+		Region region = lookupRegion(entity.getClass());
+		if (region == null) {
+			return;
+		}
+		invalidate(entity.getClass(), BeanUtil.getDeclaredProperty(entity, region.ded.getIdPropertyName()));
+	}
+
+	/**
+	 * Removes all cached entities of given type.
+	 */
+	public void invalidateAll(Class<?> type) {
+		Region region = lookupRegion(type);
+		if (region == null) {
+			return;
+		}
+		synchronized (region.cache) {
+			region.invalidated = invalidations.incrementAndGet();
+			region.cache.clear();
+		}
+	}
+
+	/**
+	 * Clears the cache.
+	 */
+	public void clear() {
+		invalidations.incrementAndGet();
+		regions.clear();
+	}
+
+	// ---------------------------------------------------------------- utilities
+
+	/**
+	 * Creates cache key from id value. Integer ids are always
+	 * converted to <code>Long</code>, so they match regardless of their type.
+	 */
+	protected Object createKey(Object id) {
+		if ((id instanceof Integer) || (id instanceof Short) || (id instanceof Byte)) {
+			return Long.valueOf(((Number) id).longValue());
+		}
+		return id;
+	}
+
+	/**
+	 * Creates a copy of the entity by copying all mapped properties.
+	 */
+	protected Object copyEntity(DbEntityDescriptor ded, Object entity) {
+		Class<?> type = ded.getType();
+		Object copy = dbOomManager.createEntityInstance(type);
+		for (DbEntityColumnDescriptor dec : ded.getColumnDescriptors()) {
+			String propertyName = dec.getPropertyName();
+			Object value = BeanUtil.getDeclaredProperty(entity, propertyName);
+			if (value != null) {
+				BeanUtil.setDeclaredProperty(copy, propertyName, value);
+			}
+		}
+		return copy;
+	}
+
+}
@@ -10,10 +10,16 @@ import jodd.util.sort.FastSort;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Holds all information about some entity type, such as table name and {@link DbEntityColumnDescriptor columns data}.
+ * Columns are resolved once, on first usage or on {@link #init() explicit initialization},
+ * together with lookup tables for finding columns by column and property names.
+ * Once initialized, descriptor may be safely shared between threads.
  */
 public class DbEntityDescriptor {
 
@@ -74,8 +80,10 @@ public class DbEntityDescriptor {
 
 	// ---------------------------------------------------------------- columns and fields
 
-	private DbEntityColumnDescriptor[] columnDescriptors;
+	private volatile DbEntityColumnDescriptor[] columnDescriptors;
 	private DbEntityColumnDescriptor[] idColumnDescriptors;
+	private Map<String, DbEntityColumnDescriptor> columnNamesMap;
+	private Map<String, DbEntityColumnDescriptor> propertyNamesMap;
 
 	/**
 	 * Returns the array of column descriptors.
@@ -88,16 +96,24 @@ public class DbEntityDescriptor {
 	// ---------------------------------------------------------------- initialization
 
 	/**
-	 * Lazy initialization of descriptor.
+	 * Initializes the descriptor, if not already initialized. Invoked lazily
+	 * on first usage, but may be invoked explicitly to initialize the
+	 * descriptor eagerly. Columns are resolved only once.
 	 */
 	protected void init() {
 		if (columnDescriptors == null) {
-			resolveColumnsAndProperties(type);
+			synchronized (this) {
+				if (columnDescriptors == null) {
+					resolveColumnsAndProperties(type);
+				}
+			}
 		}
 	}
 
 	/**
-	 * Resolves list of all columns and properties.
+	 * Resolves list of all columns and properties and builds lookup tables.
+	 * Columns array is assigned the last, as it marks the descriptor
+	 * as initialized.
 	 */
 	private void resolveColumnsAndProperties(Class type) {
 		FieldDescriptor[] fields = ClassIntrospector.lookup(type).getAllFieldDescriptors();
@@ -118,19 +134,38 @@ public class DbEntityDescriptor {
 		if (decList.isEmpty()) {
 			throw new DbOomException("Entity '" + type + "' doesn't have any column mappings.");
 		}
-		columnDescriptors = decList.toArray(new DbEntityColumnDescriptor[decList.size()]);
-		FastSort.sort(columnDescriptors);
+		DbEntityColumnDescriptor[] decs = decList.toArray(new DbEntityColumnDescriptor[decList.size()]);
+		FastSort.sort(decs);
 
 		// extract ids from sorted list
 		if (idcount > 0) {
 			idColumnDescriptors = new DbEntityColumnDescriptor[idcount];
 			idcount = 0;
-			for (DbEntityColumnDescriptor dec : columnDescriptors) {
+			for (DbEntityColumnDescriptor dec : decs) {
 				if (dec.isId) {
 					idColumnDescriptors[idcount++] = dec;
 				}
 			}
 		}
+
+		// lookup tables
+		if (strictCompare) {
+			columnNamesMap = new HashMap<String, DbEntityColumnDescriptor>(decs.length << 1);
+		} else {
+			columnNamesMap = new TreeMap<String, DbEntityColumnDescriptor>(String.CASE_INSENSITIVE_ORDER);
+		}
+		propertyNamesMap = new HashMap<String, DbEntityColumnDescriptor>(decs.length << 1);
+
+		for (DbEntityColumnDescriptor dec : decs) {
+			if (!columnNamesMap.containsKey(dec.columnName)) {
+				columnNamesMap.put(dec.columnName, dec);
+			}
+			if (!propertyNamesMap.containsKey(dec.propertyName)) {
+				propertyNamesMap.put(dec.propertyName, dec);
+			}
+		}
+
+		columnDescriptors = decs;
 	}
 
 	// ---------------------------------------------------------------- finders
@@ -143,20 +178,7 @@ public class DbEntityDescriptor {
 			return null;
 		}
 		init();
-		if (strictCompare) {
-			for (DbEntityColumnDescriptor columnDescriptor : columnDescriptors) {
-				if (columnDescriptor.columnName.equals(columnName) == true) {
-					return columnDescriptor;
-				}
-			}
-		} else {
-			for (DbEntityColumnDescriptor columnDescriptor : columnDescriptors) {
-				if (columnDescriptor.columnName.equalsIgnoreCase(columnName) == true) {
-					return columnDescriptor;
-				}
-			}
-		}
-		return null;
+		return columnNamesMap.get(columnName);
 	}
 	/**
 	 * Finds column descriptor by property name.
@@ -166,12 +188,7 @@ public class DbEntityDescriptor {
 			return null;
 		}
 		init();
-		for (DbEntityColumnDescriptor columnDescriptor : columnDescriptors) {
-			if (columnDescriptor.propertyName.equals(propertyName) == true) {
-				return columnDescriptor;
-			}
-		}
-		return null;
+		return propertyNamesMap.get(propertyName);
 	}
 
 
@@ -219,6 +236,15 @@ public class DbEntityDescriptor {
 
 	}
 
+	/**
+	 * Returns the descriptor of column marked as identity.
+	 * Throws an exception if table has composite primary key.
+	 */
+	public DbEntityColumnDescriptor getIdColumnDescriptor() {
+		ensureSingleIdColumn();
+		return idColumnDescriptors[0];
+	}
+
 	/**
 	 * Returns the identity column name of column marked as identity.
 	 * Throws an exception if table has composite primary key.
@@ -42,6 +42,7 @@ class DbListIterator<T> implements Iterator<T> {
 	protected T newElement;
 	protected int count;
 	protected boolean last;
+	protected boolean closed;
 	protected Boolean hasNext;
 
 	public void remove() {
@@ -89,13 +90,7 @@ class DbListIterator<T> implements Iterator<T> {
 	private boolean moveToNext() {
 		if (last) {
 			// last has been set to true, so no more rows to iterate - close everything
-
-			if (closeOnEnd == true) {
-				query.close();
-			} else {
-				query.closeResultSet(resultSetMapper.getResultSet());
-			}
-
+			closeOnLast();
 			return false;
 		}
 
@@ -104,7 +99,11 @@ class DbListIterator<T> implements Iterator<T> {
 			if (resultSetMapper.next() == false) {
 				// no more rows, no more parsing, previousElement is the last one to iterate
 				last = true;
-				return entityAwareMode;
+				if (entityAwareMode) {
+					return true;
+				}
+				closeOnLast();
+				return false;
 			}
 
 			// parse row
@@ -144,4 +143,20 @@ class DbListIterator<T> implements Iterator<T> {
 		return true;
 	}
 
+	/**
+	 * Closes the query or just the result set, after the last row.
+	 */
+	private void closeOnLast() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		if (closeOnEnd == true) {
+			query.close();
+		} else {
+			query.closeResultSet(resultSetMapper.getResultSet());
+		}
+	}
+
 }
@@ -12,8 +12,8 @@ import jodd.log.LoggerFactory;
 
 
 import java.sql.ResultSet;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * DbOom manager. Contains various global settings, DB-OOM (database - object-oriented)
@@ -25,6 +25,9 @@ import java.util.Map;
  * to lookup for an entity from table name. Table names are read from result-set meta data, for example.
  * Moreover, it is not needed to use mappings at all: in that case just provide entity types during result set to
  * objects conversion.
+ * <p>
+ * Lookups are lock-free and types are registered lazily, on first lookup,
+ * so manager may be shared between threads. Registration is synchronized.
  *
  * @see jodd.db.DbManager
  */
@@ -129,25 +132,33 @@ public class DbOomManager {
 		this.primitiveEntitiesPrefixes = primitiveEntitiesPrefixes;
 	}
 
-	protected Map<Class, DbEntityDescriptor> descriptorsMap = new HashMap<Class, DbEntityDescriptor>();
-	protected Map<String, DbEntityDescriptor> entityNamesMap = new HashMap<String, DbEntityDescriptor>();
-	protected Map<String, DbEntityDescriptor> tableNamesMap = new HashMap<String, DbEntityDescriptor>() {
-		@Override
-		public DbEntityDescriptor put(String key, DbEntityDescriptor value) {
-			if (!strictCompare) {
-				key = key.toUpperCase();
-			}
-			return super.put(key, value);
-		}
+	protected boolean eagerInit;
 
-		@Override
-		public DbEntityDescriptor get(Object key) {
-			if (!strictCompare) {
-				key = ((String)key).toUpperCase();
-			}
-			return super.get(key);
+	public boolean isEagerInit() {
+		return eagerInit;
+	}
+
+	/**
+	 * Enables eager initialization of entity descriptors during the registration,
+	 * so all columns are resolved before the first query.
+	 */
+	public void setEagerInit(boolean eagerInit) {
+		this.eagerInit = eagerInit;
+	}
+
+	protected Map<Class, DbEntityDescriptor> descriptorsMap = new ConcurrentHashMap<Class, DbEntityDescriptor>();
+	protected Map<String, DbEntityDescriptor> entityNamesMap = new ConcurrentHashMap<String, DbEntityDescriptor>();
+	protected Map<String, DbEntityDescriptor> tableNamesMap = new ConcurrentHashMap<String, DbEntityDescriptor>();
+
+	/**
+	 * Resolves key of table names map.
+	 */
+	protected String resolveTableNameKey(String tableName) {
+		if (!strictCompare) {
+			tableName = tableName.toUpperCase();
 		}
-	};
+		return tableName;
+	}
 
 	/**
 	 * Lookups {@link DbEntityDescriptor} for some type and registers the type if is new.
@@ -163,7 +174,12 @@ public class DbOomManager {
 		}
 		DbEntityDescriptor ded = descriptorsMap.get(type);
 		if (ded == null) {
-			ded = registerType(type);
+			synchronized (this) {
+				ded = descriptorsMap.get(type);
+				if (ded == null) {
+					ded = registerType(type);
+				}
+			}
 		}
 		return ded;
 	}
@@ -189,14 +205,17 @@ public class DbOomManager {
 	 * Returns <code>null</code> if table name not found.
 	 */
 	public DbEntityDescriptor lookupTableName(String tableName) {
-		return tableNamesMap.get(tableName);
+		return tableNamesMap.get(resolveTableNameKey(tableName));
 	}
 
 	/**
 	 * Registers just type and entity names. Enough for most usages.
 	 */
-	public DbEntityDescriptor registerType(Class type) {
+	public synchronized DbEntityDescriptor registerType(Class type) {
 		DbEntityDescriptor ded = createDbEntityDescriptor(type);
+		if (eagerInit) {
+			ded.init();
+		}
 		DbEntityDescriptor existing = descriptorsMap.put(type, ded);
 
 		if (log.isDebugEnabled()) {
@@ -217,9 +236,9 @@ public class DbOomManager {
 	 * Registers entity. {@link #registerType(Class) Registers types} and table names.
 	 * Throw exception is type is already registered.
 	 */
-	public DbEntityDescriptor registerEntity(Class type) {
+	public synchronized DbEntityDescriptor registerEntity(Class type) {
 		DbEntityDescriptor ded = registerType(type);
-		DbEntityDescriptor existing = tableNamesMap.put(ded.getTableName(), ded);
+		DbEntityDescriptor existing = tableNamesMap.put(resolveTableNameKey(ded.getTableName()), ded);
 
 		if (existing != null) {
 			throw new DbOomException("Entity registration failed! Table '" + ded.getTableName() + "' already mapped to an entity class: " + existing.getType());
@@ -230,7 +249,7 @@ public class DbOomManager {
 	/**
 	 * Registers entity. Existing entity will be removed if exist, so no exception will be thrown. 
 	 */
-	public DbEntityDescriptor registerEntity(Class type, boolean force) {
+	public synchronized DbEntityDescriptor registerEntity(Class type, boolean force) {
 		if (force == true) {
 			removeEntity(type);
 		}
@@ -240,13 +259,13 @@ public class DbOomManager {
 	/**
 	 * Removes entity.
 	 */
-	public DbEntityDescriptor removeEntity(Class type) {
+	public synchronized DbEntityDescriptor removeEntity(Class type) {
 		DbEntityDescriptor ded = descriptorsMap.remove(type);
 		if (ded == null) {
 			ded = createDbEntityDescriptor(type);
 		}
 		entityNamesMap.remove(ded.getEntityName());
-		tableNamesMap.remove(ded.getTableName());
+		tableNamesMap.remove(resolveTableNameKey(ded.getTableName()));
 		return ded;
 	}
 
@@ -287,7 +306,7 @@ public class DbOomManager {
 	 * The configuration is not changed, just table-related
 	 * data is cleared. To reset all, call {@link #resetAll()}.
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		descriptorsMap.clear();
 		entityNamesMap.clear();
 		tableNamesMap.clear();
@@ -394,6 +413,56 @@ public class DbOomManager {
 		this.entityAwareMode = entityAwareMode;
 	}
 
+	// ---------------------------------------------------------------- stream
+
+	protected int streamFetchSize = 1000;
+	protected int streamCacheWindow = 1000;
+
+	public int getStreamFetchSize() {
+		return streamFetchSize;
+	}
+
+	/**
+	 * Sets the fetch size used for {@link DbOomQuery#stream(Class[]) streaming}
+	 * when query fetch size is not set.
+	 */
+	public void setStreamFetchSize(int streamFetchSize) {
+		this.streamFetchSize = streamFetchSize;
+	}
+
+	public int getStreamCacheWindow() {
+		return streamCacheWindow;
+	}
+
+	/**
+	 * Sets the number of rows after which the entities cache of
+	 * {@link DbOomQuery#stream(Class[]) streamed} results is cleared.
+	 * Zero keeps all entities in the cache.
+	 */
+	public void setStreamCacheWindow(int streamCacheWindow) {
+		this.streamCacheWindow = streamCacheWindow;
+	}
+
+	// ---------------------------------------------------------------- entity cache
+
+	protected DbEntityCache entityCache;
+
+	/**
+	 * Returns {@link DbEntityCache entity cache} or <code>null</code>
+	 * if entities are not cached.
+	 */
+	public DbEntityCache getEntityCache() {
+		return entityCache;
+	}
+
+	/**
+	 * Sets {@link DbEntityCache entity cache}. Only entities annotated with
+	 * {@link jodd.db.oom.meta.DbCacheable} are cached. <code>null</code> turns the cache off.
+	 */
+	public void setEntityCache(DbEntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+
 	// ---------------------------------------------------------------- create entity
 
 	/**
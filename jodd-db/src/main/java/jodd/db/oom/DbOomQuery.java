@@ -2,10 +2,13 @@
 
 package jodd.db.oom;
 
+import jodd.bean.BeanUtil;
 import jodd.db.DbQuery;
 import jodd.db.DbSession;
 import jodd.db.DbUtil;
+import jodd.db.oom.mapper.DefaultResultSetMapper;
 import jodd.db.oom.mapper.ResultSetMapper;
+import jodd.db.oom.sqlgen.DbSqlBuilder;
 import jodd.db.oom.sqlgen.ParameterValue;
 import jodd.db.type.SqlType;
 import jodd.util.StringUtil;
@@ -139,6 +142,28 @@ public class DbOomQuery extends DbQuery {
 		}
 	}
 
+	/**
+	 * Sets query parameters that sql generator defined for entity columns
+	 * (e.g. in INSERT and UPDATE queries) to the property values of
+	 * another entity of the same type. The query is not generated again,
+	 * so it can be executed in a batch for many entities.
+	 */
+	public void setEntityParameters(Object entity) {
+		init();
+		Map<String, ParameterValue> parameters = sqlgen != null ? sqlgen.getQueryParameters() : null;
+		if (parameters == null) {
+			throw new DbOomException("Query has no parameters defined by the sql generator.");
+		}
+		for (Map.Entry<String, ParameterValue> entry : parameters.entrySet()) {
+			DbEntityColumnDescriptor dec = entry.getValue().getColumnDescriptor();
+			if (dec == null) {
+				continue;
+			}
+			Object value = BeanUtil.getDeclaredProperty(entity, dec.getPropertyName());
+			setObject(entry.getKey(), value, dec.getSqlTypeClass(), dec.getDbSqlType());
+		}
+	}
+
 	/**
 	 * Resolves column db sql type and populates it in column descriptor if missing.
 	 */
@@ -230,7 +255,37 @@ public class DbOomQuery extends DbQuery {
 	protected ResultSetMapper createResultSetMapper(ResultSet resultSet) {
 		Map<String, ColumnData> columnAliases = sqlgen != null ? sqlgen.getColumnData() : null;
 
-		return dbOomManager.createResultSetMapper(resultSet, columnAliases, cacheEntities);
+		ResultSetMapper resultSetMapper = dbOomManager.createResultSetMapper(resultSet, columnAliases, cacheEntities);
+
+		if (resultSetMapper instanceof DefaultResultSetMapper) {
+			DefaultResultSetMapper defaultResultSetMapper = (DefaultResultSetMapper) resultSetMapper;
+			if (streaming && cacheEntities) {
+				defaultResultSetMapper.setEntitiesCacheWindow(dbOomManager.getStreamCacheWindow());
+			}
+			if (dbOomManager.getEntityCache() != null) {
+				if (isInTransaction()) {
+					defaultResultSetMapper.setEntityCachePopulate(false);
+				} else if (entityCacheStamp != -1) {
+					defaultResultSetMapper.setEntityCacheStamp(entityCacheStamp);
+				}
+			}
+		}
+		return resultSetMapper;
+	}
+
+	/**
+	 * Returns <code>true</code> if query runs inside a transaction, so its
+	 * results must not be stored in the shared {@link DbEntityCache entity cache}.
+	 */
+	protected boolean isInTransaction() {
+		if (session != null) {
+			return session.isTransactionActive();
+		}
+		try {
+			return !connection.getAutoCommit();
+		} catch (SQLException sex) {
+			return true;
+		}
 	}
 
 	// ---------------------------------------------------------------- db list
@@ -267,6 +322,90 @@ public class DbOomQuery extends DbQuery {
 		return new DbListIterator<T>(this, types, close);
 	}
 
+	// ---------------------------------------------------------------- stream
+
+	protected boolean streaming;
+
+	/**
+	 * Streams query results in constant memory. Query uses forward-only and read-only
+	 * cursor (if not already initialized) and a {@link DbOomManager#setStreamFetchSize(int) fetch size}
+	 * suitable for the database, when fetch size is not set. Entities cache,
+	 * if used, is cleared after each {@link DbOomManager#setStreamCacheWindow(int) window} of rows.
+	 * Query is closed at the end of iteration.
+	 * <p>
+	 * Some databases (e.g. PostgreSQL) use cursors only within a transaction.
+	 */
+	public <T> Iterator<T> stream(Class... types) {
+		prepareStream();
+		return iterate(types, true);
+	}
+
+	/**
+	 * {@link #stream(Class[]) Streams} query results and passes them to the callback
+	 * in chunks of given size. Query is closed at the end.
+	 * Returns total number of processed results.
+	 */
+	public <T> long streamInChunks(int chunkSize, DbStreamCallback<T> callback, Class... types) {
+		if (chunkSize <= 0) {
+			throw new DbOomException("Invalid chunk size: " + chunkSize);
+		}
+
+		List<T> chunk = new ArrayList<T>(chunkSize);
+		long total = 0;
+
+		try {
+			Iterator<T> iterator = stream(types);
+			while (iterator.hasNext()) {
+				chunk.add(iterator.next());
+
+				if (chunk.size() == chunkSize) {
+					callback.onChunk(chunk);
+					total += chunk.size();
+					chunk.clear();
+				}
+			}
+			if (chunk.isEmpty() == false) {
+				callback.onChunk(chunk);
+				total += chunk.size();
+			}
+		} finally {
+			if (isClosed() == false) {
+				close();
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Prepares query for streaming.
+	 */
+	protected void prepareStream() {
+		if (queryState == QUERY_CREATED) {
+			setType(TYPE_FORWARD_ONLY);
+			setConcurrencyType(CONCUR_READ_ONLY);
+		}
+		init();
+		if (fetchSize == 0) {
+			setFetchSize(resolveStreamFetchSize());
+		}
+		streaming = true;
+	}
+
+	/**
+	 * Resolves fetch size for streaming. MySQL driver streams
+	 * rows one by one only when fetch size is <code>Integer.MIN_VALUE</code>.
+	 */
+	protected int resolveStreamFetchSize() {
+		try {
+			String productName = connection.getMetaData().getDatabaseProductName();
+			if ("MySQL".equals(productName)) {
+				return Integer.MIN_VALUE;
+			}
+		} catch (SQLException ignore) {
+		}
+		return dbOomManager.getStreamFetchSize();
+	}
+
 	// ---------------------------------------------------------------- list
 
 	public <T> List<T> list(Class... types) {
@@ -309,9 +448,12 @@ public class DbOomQuery extends DbQuery {
 			types = rsm.resolveTables();
 		}
 
+		long startNanos = System.nanoTime();
+		int rows = 0;
 		Object previousElement = null;
 
 		while (rsm.next()) {
+			rows++;
 			Object[] objects = rsm.parseObjects(types);
 			Object row = resolveRowResults(objects);
 
@@ -343,6 +485,7 @@ public class DbOomQuery extends DbQuery {
 			previousElement = newElement;
 		}
 
+		profileMapping(startNanos, rows);
 		close(rsm, close);
 		return result;
 	}
@@ -382,9 +525,12 @@ public class DbOomQuery extends DbQuery {
 			types = rsm.resolveTables();
 		}
 
+		long startNanos = System.nanoTime();
+		int rows = 0;
 		Object previousElement = null;
 
 		while (rsm.next()) {
+			rows++;
 			Object[] objects = rsm.parseObjects(types);
 			Object row = resolveRowResults(objects);
 
@@ -416,6 +562,7 @@ public class DbOomQuery extends DbQuery {
 			previousElement = newElement;
 		}
 
+		profileMapping(startNanos, rows);
 		close(rsm, close);
 		return result;
 	}
@@ -434,12 +581,21 @@ public class DbOomQuery extends DbQuery {
 	public <T> T findAndClose() {
 		return find(null, true, null);
 	}
+	@SuppressWarnings({"unchecked"})
 	protected <T> T find(Class[] types, boolean close, ResultSet resultSet) {
 		if (resultSet == null) {
+			Object cachedEntity = lookupEntityCache(types);
+			if (cachedEntity != null) {
+				if (close) {
+					close();
+				}
+				return (T) cachedEntity;
+			}
 			resultSet = execute();
 		}
 		ResultSetMapper rsm = createResultSetMapper(resultSet);
 
+		long startNanos = System.nanoTime();
 		Iterator<T> iterator = new DbListIterator<T>(this, types, rsm, false);
 
 		T result = null;
@@ -448,10 +604,74 @@ public class DbOomQuery extends DbQuery {
 			result = iterator.next();
 		}
 
+		profileMapping(startNanos, result != null ? 1 : 0);
 		close(rsm, close);
 		return result;
 	}
 
+	// ---------------------------------------------------------------- entity cache
+
+	/**
+	 * Lookups the {@link DbEntityCache entity cache} for the query that
+	 * {@link DbSqlBuilder#entityCacheLookup(Class, Object) finds entity by its id}.
+	 * Returns <code>null</code> if entity is not cached.
+	 */
+	protected Object lookupEntityCache(Class[] types) {
+		DbEntityCache entityCache = dbOomManager.getEntityCache();
+		if ((entityCache == null) || !(sqlgen instanceof DbSqlBuilder)) {
+			return null;
+		}
+		DbSqlBuilder dbsql = (DbSqlBuilder) sqlgen;
+		Class type = dbsql.getEntityCacheType();
+		if ((type == null) || dbsql.isEntityCacheInvalidate()) {
+			return null;
+		}
+		if ((types != null) && (types.length != 0)) {
+			if ((types.length != 1) || (types[0] != type)) {
+				return null;
+			}
+		}
+		return entityCache.get(type, dbsql.getEntityCacheId());
+	}
+
+	/**
+	 * Invalidates the {@link DbEntityCache entity cache} after the query that
+	 * {@link DbSqlBuilder#entityCacheInvalidate(Class, Object) changes entity} is executed.
+	 */
+	protected void invalidateEntityCache() {
+		DbEntityCache entityCache = dbOomManager.getEntityCache();
+		if ((entityCache == null) || !(sqlgen instanceof DbSqlBuilder)) {
+			return;
+		}
+		DbSqlBuilder dbsql = (DbSqlBuilder) sqlgen;
+		if (dbsql.isEntityCacheInvalidate()) {
+			entityCache.invalidate(session, dbsql.getEntityCacheType(), dbsql.getEntityCacheId());
+		}
+	}
+
+	@Override
+	protected int executeUpdate(boolean closeQuery) {
+		int result = super.executeUpdate(closeQuery);
+		invalidateEntityCache();
+		return result;
+	}
+
+	protected long entityCacheStamp = -1;
+
+	/**
+	 * Takes {@link DbEntityCache#getInvalidationStamp() entity cache stamp}
+	 * before the query is executed, so entities that are invalidated
+	 * while results are read are not stored in the cache.
+	 */
+	@Override
+	public ResultSet execute() {
+		DbEntityCache entityCache = dbOomManager.getEntityCache();
+		if (entityCache != null) {
+			entityCacheStamp = entityCache.getInvalidationStamp();
+		}
+		return super.execute();
+	}
+
 	// ---------------------------------------------------------------- generated columns
 
 	/**
@@ -0,0 +1,19 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom;
+
+import java.util.List;
+
+/**
+ * Callback for chunked processing of {@link DbOomQuery#streamInChunks(int, DbStreamCallback, Class[]) streamed}
+ * query results.
+ */
+public interface DbStreamCallback<T> {
+
+	/**
+	 * Processes the chunk of mapped results. Chunk list
+	 * is reused for the next chunk, so it should not be stored.
+	 */
+	void onChunk(List<T> chunk);
+
+}
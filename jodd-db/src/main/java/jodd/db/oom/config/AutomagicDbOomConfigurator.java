@@ -4,6 +4,7 @@ package jodd.db.oom.config;
 
 import jodd.db.oom.DbOomManager;
 import jodd.io.findfile.ClassFinder;
+import jodd.io.findfile.ClassScanSession;
 import jodd.db.oom.DbOomException;
 import jodd.db.oom.meta.DbTable;
 import jodd.util.ClassLoaderUtil;
@@ -11,10 +12,12 @@ import jodd.log.Logger;
 import jodd.log.LoggerFactory;
 
 import java.io.File;
-import java.io.InputStream;
 
 /**
  * Auto-magically reads classpath for domain objects annotated
+ * with {@link DbTable}. Configurator may be also
+ * {@link #configure(jodd.db.oom.DbOomManager, jodd.io.findfile.ClassScanSession) registered}
+ * to a shared scan session.
  */
 public class AutomagicDbOomConfigurator extends ClassFinder {
 
@@ -66,6 +69,15 @@ public class AutomagicDbOomConfigurator extends ClassFinder {
 		configure(dbOomManager, ClassLoaderUtil.getDefaultClasspath());
 	}
 
+	/**
+	 * Registers this configurator to the shared scan session. Entities are
+	 * registered once the session scans the classpath.
+	 */
+	public void configure(DbOomManager dbOomManager, ClassScanSession classScanSession) {
+		this.dbOomManager = dbOomManager;
+		classScanSession.register(this);
+	}
+
 	/**
 	 * Scans all classes and registers only those annotated with {@link DbTable}.
 	 * Because of performance purposes, classes are not dynamically loaded; instead, their
@@ -74,8 +86,7 @@ public class AutomagicDbOomConfigurator extends ClassFinder {
 	@Override
 	protected void onEntry(EntryData entryData) {
 		String entryName = entryData.getName();
-		InputStream inputStream = entryData.openInputStream();
-		if (isTypeSignatureInUse(inputStream, dbTableAnnotationBytes) == false) {
+		if (isTypeSignatureInUse(entryData, dbTableAnnotationBytes) == false) {
 			return;
 		}
 
@@ -89,10 +100,12 @@ public class AutomagicDbOomConfigurator extends ClassFinder {
 		if (dbTable == null) {
 			return;
 		}
-		if (registerAsEntities == true) {
-			dbOomManager.registerEntity(beanClass);
-		} else {
-			dbOomManager.registerType(beanClass);
+		synchronized (dbOomManager) {
+			if (registerAsEntities == true) {
+				dbOomManager.registerEntity(beanClass);
+			} else {
+				dbOomManager.registerType(beanClass);
+			}
 		}
 	}
 
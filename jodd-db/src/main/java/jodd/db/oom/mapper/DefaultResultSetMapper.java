@@ -2,19 +2,24 @@
 
 package jodd.db.oom.mapper;
 
-import jodd.bean.BeanUtil;
+import jodd.JoddBean;
 import jodd.db.oom.ColumnData;
+import jodd.db.oom.DbEntityCache;
 import jodd.db.oom.DbEntityDescriptor;
 import jodd.db.oom.DbOomManager;
 import jodd.db.oom.DbOomException;
 import jodd.db.oom.DbEntityColumnDescriptor;
 import jodd.db.type.SqlTypeManager;
 import jodd.db.type.SqlType;
+import jodd.introspector.Getter;
+import jodd.introspector.PropertyDescriptor;
+import jodd.introspector.Setter;
 import jodd.typeconverter.TypeConverterManager;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -87,6 +92,8 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 		this.dbOomManager = oomManager;
 		this.cacheEntities = cacheEntities;
 		this.strictCompare = dbOomManager.isStrictCompare();
+		DbEntityCache entityCache = dbOomManager.getEntityCache();
+		this.entityCacheStamp = entityCache != null ? entityCache.getInvalidationStamp() : 0;
 		//this.resultColumns = new HashSet<String>();
 		try {
 			ResultSetMetaData rsMetaData = resultSet.getMetaData();
@@ -243,43 +250,117 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 	 * Reads column value from result set. Since this method may be called more then once for
 	 * the same column, it caches column values.
 	 */
-	@SuppressWarnings({"unchecked"})
 	protected Object readColumnValue(int colNdx, Class destinationType, Class<? extends SqlType> sqlTypeClass, int columnDbSqlType) {
 		if (colNdx != cachedColumnNdx) {
-			try {
-				SqlType sqlType;
-				if (sqlTypeClass != null) {
-					sqlType = SqlTypeManager.lookupSqlType(sqlTypeClass);
-				} else {
-					sqlType = SqlTypeManager.lookup(destinationType);
-				}
-				if (sqlType != null) {
-					cachedColumnValue = sqlType.readValue(resultSet, colNdx + 1, destinationType, columnDbSqlType);
-				} else {
-					cachedColumnValue = resultSet.getObject(colNdx + 1);
-					cachedColumnValue = TypeConverterManager.convertType(cachedColumnValue, destinationType);
-				}
-			} catch (SQLException sex) {
-				throw new DbOomException("Unable to read value for column #" + (colNdx + 1), sex);
+			SqlType sqlType;
+			if (sqlTypeClass != null) {
+				sqlType = SqlTypeManager.lookupSqlType(sqlTypeClass);
+			} else {
+				sqlType = SqlTypeManager.lookup(destinationType);
 			}
+			cachedColumnValue = readColumnValueUsing(colNdx, destinationType, sqlType, columnDbSqlType);
 			cachedColumnNdx = colNdx;
 		}
 		return cachedColumnValue;
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Reads column value from result set using provided sql type.
+	 * When sql type is not available, value is converted to destination type.
 	 */
-	public Object[] parseObjects(Class... types) {
+	protected Object readColumnValueUsing(int colNdx, Class<?> destinationType, SqlType<?> sqlType, int columnDbSqlType) {
+		try {
+			if (sqlType != null) {
+				return sqlType.readValue(resultSet, colNdx + 1, destinationType, columnDbSqlType);
+			}
+			Object value = resultSet.getObject(colNdx + 1);
+			return TypeConverterManager.convertType(value, destinationType);
+		} catch (SQLException sex) {
+			throw new DbOomException("Unable to read value for column #" + (colNdx + 1), sex);
+		}
+	}
+
+	// ---------------------------------------------------------------- mapping plan
+
+	/**
+	 * Mapping plan of result set columns for given types. Since mapping depends
+	 * only on columns and types, it is resolved once and then it is executed
+	 * on each row, without resolving properties by their names.
+	 */
+	protected static class MappingPlan {
+		protected final Class[] types;
+		protected final int[] columns;				// mapped column indexes
+		protected final int[] results;				// result index for each mapped column
+		protected final Class<?>[] destinationTypes;	// read value type
+		protected final SqlType<?>[] sqlTypes;			// resolved sql type, may be null
+		protected final int[] dbSqlTypes;			// column db sql types
+		protected final boolean[] entities;			// if column is entity property
+		protected final Setter[] setters;			// entity property setter, may be null
+		protected final Class<?>[] setterTypes;		// setter type when different from destination type
+		protected int size;							// number of mapped columns
+		protected boolean[] cachedResults;			// fully mapped results stored in entity cache
+
+		protected MappingPlan(Class[] types, int totalColumns) {
+			this.types = types;
+			this.columns = new int[totalColumns];
+			this.results = new int[totalColumns];
+			this.destinationTypes = new Class<?>[totalColumns];
+			this.sqlTypes = new SqlType<?>[totalColumns];
+			this.dbSqlTypes = new int[totalColumns];
+			this.entities = new boolean[totalColumns];
+			this.setters = new Setter[totalColumns];
+			this.setterTypes = new Class<?>[totalColumns];
+		}
+
+		/**
+		 * Adds mapped column to the plan.
+		 */
+		protected void add(int colNdx, int resultNdx, Class destinationType, SqlType sqlType, int dbSqlType, boolean entity, Setter setter) {
+			columns[size] = colNdx;
+			results[size] = resultNdx;
+			destinationTypes[size] = destinationType;
+			sqlTypes[size] = sqlType;
+			dbSqlTypes[size] = dbSqlType;
+			entities[size] = entity;
+			setters[size] = setter;
+			if (setter != null && setter.getSetterRawType() != destinationType) {
+				setterTypes[size] = setter.getSetterRawType();
+			}
+			size++;
+		}
+	}
+
+	protected MappingPlan cachedMappingPlan;
+
+	/**
+	 * Returns mapping plan for given types. Plan is cached, as usually
+	 * the same types are used for all rows of result set.
+	 */
+	protected MappingPlan resolveMappingPlan(Class[] types) {
+		MappingPlan plan = cachedMappingPlan;
+		if (plan != null) {
+			if ((plan.types == types) || Arrays.equals(plan.types, types)) {
+				return plan;
+			}
+		}
+		plan = createMappingPlan(types);
+		cachedMappingPlan = plan;
+		return plan;
+	}
+
+	/**
+	 * Creates mapping plan for given types. Each column is matched to a
+	 * result: simple types are mapped to one column, while entities are mapped
+	 * to all following columns that match their properties.
+	 */
+	protected MappingPlan createMappingPlan(Class[] types) {
+		MappingPlan plan = new MappingPlan(types, totalColumns);
 		resultColumns.clear();
 
 		int totalTypes = types.length;
-		Object[] result = new Object[totalTypes];
-		boolean[] resultUsage = new boolean[totalTypes];
 		String[] typesTableNames = createTypesTableNames(types);
 
 		int currentResult = 0;
-		cachedColumnNdx = -1;
 		int colNdx = 0;
 		while (colNdx < totalColumns) {
 
@@ -299,12 +380,11 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 			String columnName = columnNames[colNdx];
 			int columnDbSqlType = columnDbSqlTypes[colNdx];
 			String tableName = tableNames[colNdx];
-			String resultTableName = typesTableNames[currentResult];			
+			String resultTableName = typesTableNames[currentResult];
 
 			if (resultTableName == null) {
 				// match: simple type
-				result[currentResult] = readColumnValue(colNdx, currentType, null, columnDbSqlType);
-				resultUsage[currentResult] = true;
+				plan.add(colNdx, currentResult, currentType, SqlTypeManager.lookup(currentType), columnDbSqlType, false, null);
 				colNdx++;
 				currentResult++; resultColumns.clear();
 				continue;
@@ -315,29 +395,17 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 					DbEntityColumnDescriptor dec = ded.findByColumnName(columnName);
 					String propertyName = (dec == null ? null : dec.getPropertyName());
 					if (propertyName != null) {
-
-						// if current entity instance does not exist (i.e. we are at the first column
-						// of some entity), create the instance and store it
-						if (result[currentResult] == null) {
-							result[currentResult] = dbOomManager.createEntityInstance(currentType);
-						}
-/*
-						boolean success = value != null ?
-										BeanUtil.setDeclaredPropertySilent(result[currentResult], propertyName, value) :
-										BeanUtil.hasDeclaredProperty(result[currentResult], propertyName);
-*/
-						Class type = BeanUtil.getDeclaredPropertyType(result[currentResult], propertyName);
-						if (type != null) {
+						PropertyDescriptor pd = JoddBean.introspector.lookup(currentType).getPropertyDescriptor(propertyName, true);
+						Getter getter = (pd == null ? null : pd.getGetter(true));
+						if (getter != null) {
 							// match: entity
+							Class type = getter.getGetterRawType();
 							dec.updateDbSqlType(columnDbSqlType);	// updates column db sql type information for the entity!!!
 							Class<? extends SqlType> sqlTypeClass = dec.getSqlTypeClass();
-							Object value = readColumnValue(colNdx, type, sqlTypeClass, columnDbSqlType);
+							SqlType sqlType = (sqlTypeClass != null ?
+									SqlTypeManager.lookupSqlType(sqlTypeClass) : SqlTypeManager.lookup(type));
 
-							if (value != null) {
-								// inject column value into existing entity
-								BeanUtil.setDeclaredProperty(result[currentResult], propertyName, value);
-								resultUsage[currentResult] = true;
-							}
+							plan.add(colNdx, currentResult, type, sqlType, columnDbSqlType, true, pd.getSetter(true));
 							colNdx++;
 							resultColumns.add(columnName);
 							continue;
@@ -351,9 +419,79 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 		}
 
 		resultColumns.clear();
-		for (int i = 0; i < resultUsage.length; i++) {
-			if (resultUsage[i] == false) {
-				result[i] = null;
+		resolveCachedResults(plan);
+		return plan;
+	}
+
+	/**
+	 * Resolves results that are stored in the {@link DbEntityCache entity cache}.
+	 * Only entities with all columns mapped are cached.
+	 */
+	protected void resolveCachedResults(MappingPlan plan) {
+		DbEntityCache entityCache = dbOomManager.getEntityCache();
+		if (entityCache == null) {
+			return;
+		}
+		int[] mappedColumns = new int[plan.types.length];
+		for (int i = 0; i < plan.size; i++) {
+			if (plan.entities[i]) {
+				mappedColumns[plan.results[i]]++;
+			}
+		}
+		for (int i = 0; i < plan.types.length; i++) {
+			Class type = plan.types[i];
+			if ((type == null) || (mappedColumns[i] == 0) || (entityCache.isCached(type) == false)) {
+				continue;
+			}
+			if (mappedColumns[i] == dbOomManager.lookupType(type).getColumnsCount()) {
+				if (plan.cachedResults == null) {
+					plan.cachedResults = new boolean[plan.types.length];
+				}
+				plan.cachedResults[i] = true;
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------- parse objects
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Object[] parseObjects(Class... types) {
+		MappingPlan plan = resolveMappingPlan(types);
+
+		Object[] result = new Object[types.length];
+		cachedColumnNdx = -1;
+
+		for (int i = 0; i < plan.size; i++) {
+			int colNdx = plan.columns[i];
+			int resultNdx = plan.results[i];
+
+			Object value = readColumnValueUsing(colNdx, plan.destinationTypes[i], plan.sqlTypes[i], plan.dbSqlTypes[i]);
+
+			if (plan.entities[i] == false) {
+				// simple type
+				result[resultNdx] = value;
+				continue;
+			}
+			if (value == null) {
+				continue;
+			}
+
+			// inject column value into entity, created on first non-null value
+			if (result[resultNdx] == null) {
+				Class<?> type = types[resultNdx];
+				result[resultNdx] = dbOomManager.createEntityInstance(type);
+			}
+			injectValue(plan, i, result[resultNdx], value);
+		}
+
+		if ((plan.cachedResults != null) && entityCachePopulate) {
+			DbEntityCache entityCache = dbOomManager.getEntityCache();
+			for (int i = 0; i < result.length; i++) {
+				if (plan.cachedResults[i] && (result[i] != null)) {
+					entityCache.put(result[i], entityCacheStamp);
+				}
 			}
 		}
 
@@ -364,10 +502,63 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 		return result;
 	}
 
+	/**
+	 * Injects column value into the entity property.
+	 */
+	protected void injectValue(MappingPlan plan, int ndx, Object entity, Object value) {
+		Setter setter = plan.setters[ndx];
+		if (setter == null) {
+			throw new DbOomException("Property is not writable: " +
+					entity.getClass().getName() + '#' + columnNames[plan.columns[ndx]]);
+		}
+		if (plan.setterTypes[ndx] != null) {
+			value = TypeConverterManager.convertType(value, plan.setterTypes[ndx]);
+		}
+		try {
+			setter.invokeSetter(entity, value);
+		} catch (Exception ex) {
+			throw new DbOomException("Unable to set value for column: " + columnNames[plan.columns[ndx]], ex);
+		}
+	}
+
 
 	// ---------------------------------------------------------------- cache
 
 	protected HashMap<Object, Object> entitiesCache;
+	protected int entitiesCacheWindow;
+	protected int entitiesCacheRows;
+
+	/**
+	 * Sets the number of rows after which entities cache is cleared, so
+	 * memory is bounded for large result sets. Entities are then the same
+	 * instances only within the window. Zero (default) keeps all entities.
+	 */
+	public void setEntitiesCacheWindow(int rows) {
+		this.entitiesCacheWindow = rows;
+	}
+
+	protected boolean entityCachePopulate = true;
+
+	/**
+	 * Enables storing of fully mapped entities in the shared
+	 * {@link DbEntityCache entity cache}. Disabled for results
+	 * read inside a transaction.
+	 */
+	public void setEntityCachePopulate(boolean entityCachePopulate) {
+		this.entityCachePopulate = entityCachePopulate;
+	}
+
+	protected long entityCacheStamp;
+
+	/**
+	 * Sets {@link DbEntityCache#getInvalidationStamp() invalidation stamp} taken
+	 * before the query was executed. Entities are not stored in the entity cache
+	 * if their type has been invalidated in the meantime. By default, stamp is
+	 * taken when mapper is created.
+	 */
+	public void setEntityCacheStamp(long entityCacheStamp) {
+		this.entityCacheStamp = entityCacheStamp;
+	}
 
 	/**
 	 * Caches returned entities. Replaces new instances with existing ones.
@@ -376,6 +567,13 @@ public class DefaultResultSetMapper extends BaseResultSetMapper {
 		if (entitiesCache == null) {
 			entitiesCache = new HashMap<Object, Object>();
 		}
+		if (entitiesCacheWindow > 0) {
+			if (entitiesCacheRows == entitiesCacheWindow) {
+				entitiesCache.clear();
+				entitiesCacheRows = 0;
+			}
+			entitiesCacheRows++;
+		}
 
 		for (int i = 0; i < result.length; i++) {
 			Object object = result[i];
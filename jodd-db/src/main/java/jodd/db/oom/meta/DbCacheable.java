@@ -0,0 +1,30 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom.meta;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks entity that is cached in the {@link jodd.db.oom.DbEntityCache entity cache}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface DbCacheable {
+
+	/**
+	 * Maximal number of cached entities.
+	 */
+	int size() default 1000;
+
+	/**
+	 * Time-to-live of cached entity in milliseconds.
+	 * Zero means that entities do not expire.
+	 */
+	long timeout() default 0;
+
+}
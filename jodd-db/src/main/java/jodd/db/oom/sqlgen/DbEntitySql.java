@@ -3,8 +3,20 @@
 package jodd.db.oom.sqlgen;
 
 import jodd.bean.BeanUtil;
+import jodd.db.DbSession;
+import jodd.db.oom.DbEntityCache;
+import jodd.db.oom.DbEntityColumnDescriptor;
 import jodd.db.oom.DbEntityDescriptor;
+import jodd.db.oom.DbOomException;
 import jodd.db.oom.DbOomManager;
+import jodd.db.oom.DbOomQuery;
+import jodd.util.collection.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static jodd.db.oom.sqlgen.DbSqlBuilder.sql;
 import static jodd.util.StringPool.EQUALS;
@@ -40,7 +52,7 @@ public class DbEntitySql {
 	 * Creates DELETE query that truncates all table data.
 	 */
 	public static DbSqlBuilder truncate(Object entity) {
-		return sql()._(DELETE_FROM).table(entity, null);
+		return invalidate(sql()._(DELETE_FROM).table(entity, null), entity, false);
 	}
 
 	// ---------------------------------------------------------------- update
@@ -50,7 +62,7 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder update(Object entity) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(UPDATE).table(entity, tableRef).set(tableRef, entity)._(WHERE).matchIds(tableRef, entity);
+		return invalidate(sql()._(UPDATE).table(entity, tableRef).set(tableRef, entity)._(WHERE).matchIds(tableRef, entity), entity, true);
 	}
 
 	/**
@@ -58,7 +70,7 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder updateAll(Object entity) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(UPDATE).table(entity, tableRef).setAll(tableRef, entity)._(WHERE).matchIds(tableRef, entity);
+		return invalidate(sql()._(UPDATE).table(entity, tableRef).setAll(tableRef, entity)._(WHERE).matchIds(tableRef, entity), entity, true);
 	}
 
 	/**
@@ -66,7 +78,7 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder updateColumn(Object entity, String columnRef, Object value) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(UPDATE).table(entity, tableRef)._(SET).ref(null, columnRef)._(EQUALS).columnValue(value)._(WHERE).matchIds(tableRef, entity);
+		return invalidate(sql()._(UPDATE).table(entity, tableRef)._(SET).ref(null, columnRef)._(EQUALS).columnValue(value)._(WHERE).matchIds(tableRef, entity), entity, true);
 	}
 
 	/**
@@ -86,7 +98,7 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder delete(Object entity) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(DELETE_FROM).table(entity, null)._(WHERE).match(tableRef, entity);
+		return invalidate(sql()._(DELETE_FROM).table(entity, null)._(WHERE).match(tableRef, entity), entity, false);
 	}
 
 	/**
@@ -94,7 +106,7 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder deleteByAll(Object entity) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(DELETE_FROM).table(entity, null)._(WHERE).matchAll(tableRef, entity);
+		return invalidate(sql()._(DELETE_FROM).table(entity, null)._(WHERE).matchAll(tableRef, entity), entity, false);
 	}
 
 	// ---------------------------------------------------------------- delete by id
@@ -104,7 +116,7 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder deleteById(Object entity) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(DELETE_FROM).table(entity, null)._(WHERE).matchIds(tableRef, entity);
+		return invalidate(sql()._(DELETE_FROM).table(entity, null)._(WHERE).matchIds(tableRef, entity), entity, true);
 	}
 
 	/**
@@ -112,7 +124,8 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder deleteById(Object entityType, Number id) {
 		String tableRef = createTableRefName(entityType);
-		return sql()._(DELETE_FROM).table(entityType, null)._(WHERE).refId(tableRef)._(EQUALS).columnValue(id);
+		return sql()._(DELETE_FROM).table(entityType, null)._(WHERE).refId(tableRef)._(EQUALS).columnValue(id)
+				.entityCacheInvalidate(resolveType(entityType), id);
 	}
 
 
@@ -188,7 +201,11 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder findById(Object entity) {
 		String tableRef = createTableRefName(entity);
-		return sql()._(SELECT).column(tableRef)._(FROM).table(entity, tableRef)._(WHERE).matchIds(tableRef, entity);
+		DbSqlBuilder dbsql = sql()._(SELECT).column(tableRef)._(FROM).table(entity, tableRef)._(WHERE).matchIds(tableRef, entity);
+		if (DbOomManager.getInstance().getEntityCache() != null) {
+			dbsql.entityCacheLookup(resolveType(entity), resolveId(entity));
+		}
+		return dbsql;
 	}
 
 	/**
@@ -196,7 +213,8 @@ public class DbEntitySql {
 	 */
 	public static DbSqlBuilder findById(Object entityType, Number id) {
 		String tableRef = createTableRefName(entityType);
-		return sql()._(SELECT).column(tableRef)._(FROM).table(entityType, tableRef)._(WHERE).refId(tableRef)._(EQUALS).columnValue(id);
+		return sql()._(SELECT).column(tableRef)._(FROM).table(entityType, tableRef)._(WHERE).refId(tableRef)._(EQUALS).columnValue(id)
+				.entityCacheLookup(resolveType(entityType), id);
 	}
 
 	// ---------------------------------------------------------------- count
@@ -227,6 +245,152 @@ public class DbEntitySql {
 	}
 
 
+	// ---------------------------------------------------------------- batch
+
+	/**
+	 * Inserts entities using batched INSERT queries. Entities of the same type
+	 * and with the same non-null properties share the query, that is generated
+	 * once and executed every <code>batchSize</code> rows. Ids generated by the
+	 * database are set to entities without an id. Returns update counts
+	 * in order of entities.
+	 */
+	public static int[] insertBatch(DbSession session, Collection<?> entities, int batchSize) {
+		return executeBatch(session, entities, batchSize, true);
+	}
+
+	/**
+	 * Updates all non-null values of entities that are matched by id, using
+	 * batched UPDATE queries. Returns update counts in order of entities.
+	 * @see #insertBatch(DbSession, java.util.Collection, int)
+	 */
+	public static int[] updateBatch(DbSession session, Collection<?> entities, int batchSize) {
+		return executeBatch(session, entities, batchSize, false);
+	}
+
+	/**
+	 * Groups entities by generated query and executes each group as a batch.
+	 */
+	protected static int[] executeBatch(DbSession session, Collection<?> entities, int batchSize, boolean insert) {
+		DbOomManager dbOomManager = DbOomManager.getInstance();
+
+		Map<String, BatchGroup> groups = new LinkedHashMap<String, BatchGroup>();
+		StringBuilder key = new StringBuilder();
+		int index = 0;
+		for (Object entity : entities) {
+			DbEntityDescriptor ded = dbOomManager.lookupType(entity.getClass());
+			if (ded == null) {
+				throw new DbOomException("Invalid or not-persistent entity type: " + entity.getClass().getName());
+			}
+
+			key.setLength(0);
+			key.append(entity.getClass().getName()).append(':');
+			for (DbEntityColumnDescriptor dec : ded.getColumnDescriptors()) {
+				Object value = BeanUtil.getDeclaredProperty(entity, dec.getPropertyName());
+				key.append(value == null ? '0' : '1');
+			}
+
+			String groupKey = key.toString();
+			BatchGroup group = groups.get(groupKey);
+			if (group == null) {
+				group = new BatchGroup(ded);
+				groups.put(groupKey, group);
+			}
+			group.entities.add(entity);
+			group.indexes.add(index++);
+		}
+
+		int[] result = new int[index];
+		for (BatchGroup group : groups.values()) {
+			Object first = group.entities.get(0);
+			DbOomQuery query = new DbOomQuery(session, insert ? insert(first) : update(first));
+
+			String idPropertyName = null;
+			if (insert && group.ded.getIdColumnsCount() == 1) {
+				if (BeanUtil.getDeclaredProperty(first, group.ded.getIdPropertyName()) == null) {
+					idPropertyName = group.ded.getIdPropertyName();
+					query.setGeneratedColumns(group.ded.getIdColumnName());
+				}
+			}
+			query.setBatchSize(batchSize);
+
+			try {
+				for (Object entity : group.entities) {
+					query.setEntityParameters(entity);
+					query.addBatch();
+				}
+				int[] counts = query.executeBatch();
+				for (int i = 0; i < counts.length; i++) {
+					result[group.indexes.get(i)] = counts[i];
+				}
+
+				DbEntityCache entityCache = dbOomManager.getEntityCache();
+				if (!insert && entityCache != null) {
+					for (Object entity : group.entities) {
+						entityCache.invalidate(query.getSession(), entity);
+					}
+				}
+
+				if (idPropertyName != null) {
+					long[] keys = query.getBatchGeneratedKeys();
+					for (int i = 0; i < keys.length; i++) {
+						BeanUtil.setDeclaredProperty(group.entities.get(i), idPropertyName, Long.valueOf(keys[i]));
+					}
+				}
+			} finally {
+				query.close();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Entities that share the same query.
+	 */
+	private static class BatchGroup {
+		final DbEntityDescriptor ded;
+		final List<Object> entities = new ArrayList<Object>();
+		final IntArrayList indexes = new IntArrayList();
+
+		BatchGroup(DbEntityDescriptor ded) {
+			this.ded = ded;
+		}
+	}
+
+	// ---------------------------------------------------------------- entity cache
+
+	/**
+	 * Marks query that changes the entity for {@link DbEntityCache entity cache} invalidation,
+	 * either by entity id or, if id is not used, for all entities of the type.
+	 */
+	protected static DbSqlBuilder invalidate(DbSqlBuilder dbsql, Object entity, boolean byId) {
+		if (DbOomManager.getInstance().getEntityCache() == null) {
+			return dbsql;
+		}
+		Class type = resolveType(entity);
+		Object id = (byId && type != entity) ? resolveId(entity) : null;
+		return dbsql.entityCacheInvalidate(type, id);
+	}
+
+	/**
+	 * Resolves id value of an entity. Returns <code>null</code>
+	 * if entity does not have a single id column.
+	 */
+	protected static Object resolveId(Object entity) {
+		DbEntityDescriptor ded = DbOomManager.getInstance().lookupType(entity.getClass());
+		if (ded == null || ded.getIdColumnsCount() != 1) {
+			return null;
+		}
+		return BeanUtil.getDeclaredProperty(entity, ded.getIdPropertyName());
+	}
+
+	/**
+	 * Resolves entity type from an entity or a type.
+	 */
+	protected static Class resolveType(Object entity) {
+		Class type = entity.getClass();
+		return (type == Class.class ? (Class) entity : type);
+	}
+
 	// ---------------------------------------------------------------- resolve tableRef
 
 	/**
@@ -4,6 +4,7 @@ package jodd.db.oom.sqlgen;
 
 import jodd.db.oom.ColumnData;
 import jodd.db.oom.ColumnAliasType;
+import jodd.db.oom.DbOomManager;
 import jodd.db.oom.DbSqlGenerator;
 import jodd.db.oom.DbOomQuery;
 import jodd.db.oom.sqlgen.chunks.ColumnValueChunk;
@@ -19,9 +20,13 @@ import jodd.db.oom.sqlgen.chunks.MatchChunk;
 import jodd.db.DbSession;
 import jodd.util.StringPool;
 import jodd.cache.Cache;
-import jodd.cache.LRUCache;
+import jodd.cache.FIFOCache;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Nice SQL query generator that provides some automatic query generation.
@@ -73,6 +78,7 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 				cachedChunk = cloneAllChunks(dbsql.firstChunk);
 				cache.put(template, cachedChunk);
 			}
+			dbsql.template = template;
 			return dbsql;
 		}
 		DbSqlBuilder dbsql = new DbSqlBuilder();
@@ -80,8 +86,10 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 		dbsql.firstChunk = cloned;
 		while (cloned != null) {
 			dbsql.lastChunk = cloned;
+			dbsql.totalChunks++;
 			cloned = cloned.getNextChunk();
 		}
+		dbsql.template = template;
 		return dbsql;
 	}
 
@@ -97,7 +105,7 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 
 	// ---------------------------------------------------------------- cache & clone
 
-	protected static Cache<String, SqlChunk> cache = new LRUCache<String, SqlChunk>(100);
+	protected static Cache<String, SqlChunk> cache = new FIFOCache<String, SqlChunk>(100);
 
 	protected static int cacheThreshold = 3;
 
@@ -118,10 +126,92 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 		if (size <= 0) {
 			cache = null;
 		} else {
-			cache = new LRUCache<String, SqlChunk>(size);
+			cache = new FIFOCache<String, SqlChunk>(size);
 		}
 	}
 
+	// ---------------------------------------------------------------- compiled cache
+
+	/**
+	 * Generated query of a template that depends only on entity types,
+	 * and not on entity values.
+	 */
+	protected static class CompiledQuery {
+		protected final DbOomManager dbOomManager;
+		protected final String sql;
+		protected final Map<String, ColumnData> columnData;
+		protected final String[] hints;
+
+		protected CompiledQuery(DbOomManager dbOomManager, String sql, Map<String, ColumnData> columnData, String[] hints) {
+			this.dbOomManager = dbOomManager;
+			this.sql = sql;
+			this.columnData = columnData;
+			this.hints = hints;
+		}
+	}
+
+	protected static Cache<String, CompiledQuery> compiledCache = new FIFOCache<String, CompiledQuery>(100);
+
+	/**
+	 * Sets new size of compiled templates cache. Zero or negative value turns the cache off.
+	 * Compiled template is a generated query of a {@link #sql(String) template} whose
+	 * chunks depend only on entity types. Such query is generated only once for
+	 * the same template and the same types of object references.
+	 */
+	public static void setCompiledCacheSize(int size) {
+		if (size <= 0) {
+			compiledCache = null;
+		} else {
+			compiledCache = new FIFOCache<String, CompiledQuery>(size);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the chunk output depends only
+	 * on the entity types. Such chunks may be compiled.
+	 */
+	protected boolean isCompilableChunk(SqlChunk chunk) {
+		Class type = chunk.getClass();
+		return
+				type == RawSqlChunk.class ||
+				type == TableChunk.class ||
+				type == ColumnsSelectChunk.class ||
+				type == ReferenceChunk.class;
+	}
+
+	/**
+	 * Resolves the key of compiled template, made of template, column alias type
+	 * and types of object references. Returns <code>null</code> if
+	 * query can not be compiled.
+	 */
+	protected String resolveCompiledKey() {
+		if (template == null || compiledCache == null) {
+			return null;
+		}
+		SqlChunk chunk = firstChunk;
+		while (chunk != null) {
+			if (isCompilableChunk(chunk) == false) {
+				return null;
+			}
+			chunk = chunk.getNextChunk();
+		}
+
+		StringBuilder key = new StringBuilder(template);
+		key.append('\n').append(columnAliasType);
+
+		if (objectRefs != null) {
+			Map<String, Object> sortedRefs = new TreeMap<String, Object>(objectRefs);
+			for (Map.Entry<String, Object> entry : sortedRefs.entrySet()) {
+				Object value = entry.getValue();
+				key.append('\n').append(entry.getKey()).append('=');
+				if (value != null) {
+					key.append(value instanceof Class ? ((Class) value).getName() : value.getClass().getName());
+				}
+			}
+		}
+		return key.toString();
+	}
+
 
 	/**
 	 * Clones all chunks.
@@ -166,12 +256,14 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 	protected SqlChunk firstChunk;
 	protected SqlChunk lastChunk;
 	protected int totalChunks;
+	protected String template;		// template of cached builder, used for compiled cache
 	protected static final TemplateParser templateParser = new TemplateParser();
 
 	/**
 	 * Appends chunk to the list. Chunks <b>must</b> be added using this method.
 	 */
 	protected DbSqlBuilder addChunk(SqlChunk chunk) {
+		template = null;
 		if (lastChunk == null) {
 			lastChunk = firstChunk = chunk;
 		} else {
@@ -225,6 +317,17 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 	 */
 	public String generateQuery() {
 
+		String compiledKey = resolveCompiledKey();
+		if (compiledKey != null) {
+			CompiledQuery compiledQuery = compiledCache.get(compiledKey);
+			if (compiledQuery != null && compiledQuery.dbOomManager == dbOomManager) {
+				resetOnPreInit();
+				columnData = compiledQuery.columnData == null ? null : new HashMap<String, ColumnData>(compiledQuery.columnData);
+				hints = compiledQuery.hints == null ? null : new ArrayList<String>(Arrays.asList(compiledQuery.hints));
+				return compiledQuery.sql;
+			}
+		}
+
 		resetOnPreInit();
 
 		// initialization
@@ -247,7 +350,16 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 			throw dsbex;
 		}
 
-		return query.toString();
+		String sql = query.toString();
+
+		if (compiledKey != null && (parameters == null || parameters.isEmpty())) {
+			compiledCache.put(compiledKey, new CompiledQuery(
+					dbOomManager, sql,
+					columnData == null ? null : new HashMap<String, ColumnData>(columnData),
+					getJoinHints()));
+		}
+
+		return sql;
 	}
 
 	/**
@@ -271,6 +383,56 @@ public class DbSqlBuilder extends TemplateData implements DbSqlGenerator {
 		return hints.toArray(new String[hints.size()]);
 	}
 
+	// ---------------------------------------------------------------- entity cache
+
+	protected Class entityCacheType;
+	protected Object entityCacheId;
+	protected boolean entityCacheInvalidate;
+
+	/**
+	 * Marks the query as the lookup of entity by its id, so the entity may
+	 * be found in the {@link jodd.db.oom.DbEntityCache entity cache}.
+	 */
+	public DbSqlBuilder entityCacheLookup(Class type, Object id) {
+		this.entityCacheType = type;
+		this.entityCacheId = id;
+		this.entityCacheInvalidate = false;
+		return this;
+	}
+
+	/**
+	 * Marks the query as the change of entity with given id, so the entity is
+	 * removed from the {@link jodd.db.oom.DbEntityCache entity cache} when query
+	 * is executed. When id is <code>null</code>, all entities of the type are removed.
+	 */
+	public DbSqlBuilder entityCacheInvalidate(Class type, Object id) {
+		this.entityCacheType = type;
+		this.entityCacheId = id;
+		this.entityCacheInvalidate = true;
+		return this;
+	}
+
+	/**
+	 * Returns entity type of entity cache lookup or invalidation.
+	 */
+	public Class getEntityCacheType() {
+		return entityCacheType;
+	}
+
+	/**
+	 * Returns entity id of entity cache lookup or invalidation.
+	 */
+	public Object getEntityCacheId() {
+		return entityCacheId;
+	}
+
+	/**
+	 * Returns <code>true</code> if entity cache is invalidated by this query.
+	 */
+	public boolean isEntityCacheInvalidate() {
+		return entityCacheInvalidate;
+	}
+
 	// ---------------------------------------------------------------- table
 
 	public DbSqlBuilder table(String entityName) {
@@ -0,0 +1,749 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.pool;
+
+import jodd.db.DbSqlException;
+import jodd.db.connection.ConnectionProvider;
+import jodd.log.Logger;
+import jodd.log.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool for many concurrent users.
+ * <p>
+ * Checkout does not lock the pool. Each thread first tries the connection it
+ * used the last time and then takes any idle connection from a concurrent queue.
+ * Number of connections in use is bounded by a fair semaphore, so waiting threads
+ * get connections in order of arrival and give up after the
+ * {@link #setMaxWaitTime(long) max wait time}.
+ * <p>
+ * Single background thread periodically validates idle connections, closes
+ * connections that are idle for too long, keeps the minimum number of connections
+ * open and reports connections that are not returned to the pool.
+ */
+public class ConcurrentConnectionPool implements ConnectionProvider {
+
+	private static final Logger log = LoggerFactory.getLogger(ConcurrentConnectionPool.class);
+
+	// ---------------------------------------------------------------- properties
+
+	private static final String DEFAULT_VALIDATION_QUERY = "select 1";
+
+	private String driver;
+	private String url;
+	private String user;
+	private String password;
+	private int maxConnections = 10;
+	private int minConnections = 5;
+	private long maxWaitTime = 30000L;				// 30 seconds
+	private boolean validateConnection = true;
+	private long validationTimeout = 18000000L;		// 5 hours
+	private String validationQuery;
+	private long idleTimeout = 600000L;				// 10 minutes
+	private long maintenanceInterval = 30000L;		// 30 seconds
+	private long leakDetectionThreshold;
+	private boolean threadAffinity = true;
+
+
+	public String getDriver() {
+		return driver;
+	}
+
+	/**
+	 * Specifies driver class name.
+	 */
+	public void setDriver(String driver) {
+		this.driver = driver;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Specifies JDBC url.
+	 */
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getUser() {
+		return user;
+	}
+
+	/**
+	 * Specifies db username.
+	 */
+	public void setUser(String user) {
+		this.user = user;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	/**
+	 * Specifies db password.
+	 */
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * Sets max number of connections in use.
+	 */
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public int getMinConnections() {
+		return minConnections;
+	}
+
+	/**
+	 * Sets minimum number of open connections.
+	 */
+	public void setMinConnections(int minConnections) {
+		this.minConnections = minConnections;
+	}
+
+	public long getMaxWaitTime() {
+		return maxWaitTime;
+	}
+
+	/**
+	 * Sets max number of milliseconds to wait for a connection when
+	 * all connections are in use. When set to 0, exception is thrown
+	 * immediately. Negative value means waiting without a timeout.
+	 */
+	public void setMaxWaitTime(long maxWaitTime) {
+		this.maxWaitTime = maxWaitTime;
+	}
+
+	public boolean isValidateConnection() {
+		return validateConnection;
+	}
+
+	/**
+	 * Specifies if connections should be validated.
+	 */
+	public void setValidateConnection(boolean validateConnection) {
+		this.validateConnection = validateConnection;
+	}
+
+	public long getValidationTimeout() {
+		return validationTimeout;
+	}
+
+	/**
+	 * Specifies number of milliseconds from last use or validation
+	 * when connection is considered as valid.
+	 */
+	public void setValidationTimeout(long validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+	public String getValidationQuery() {
+		return validationQuery;
+	}
+
+	/**
+	 * Specifies query to be used for validating connections.
+	 * If set to <code>null</code> validation will be performed
+	 * by invoking <code>Connection#isClosed</code> method.
+	 */
+	public void setValidationQuery(String validationQuery) {
+		this.validationQuery = validationQuery;
+	}
+
+	/**
+	 * Sets default validation query (select 1);
+	 */
+	public void setDefaultValidationQuery() {
+		this.validationQuery = DEFAULT_VALIDATION_QUERY;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Specifies number of milliseconds after which idle connection
+	 * is closed, if there are more than minimum connections open.
+	 * Zero value disables idle eviction.
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public long getMaintenanceInterval() {
+		return maintenanceInterval;
+	}
+
+	/**
+	 * Specifies number of milliseconds between two runs of
+	 * background maintenance. Zero value disables the background thread.
+	 */
+	public void setMaintenanceInterval(long maintenanceInterval) {
+		this.maintenanceInterval = maintenanceInterval;
+	}
+
+	public long getLeakDetectionThreshold() {
+		return leakDetectionThreshold;
+	}
+
+	/**
+	 * Specifies number of milliseconds after which connection that is not
+	 * returned to the pool is reported as a possible leak, together with the
+	 * stack trace of its checkout. Zero value disables leak detection.
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	public boolean isThreadAffinity() {
+		return threadAffinity;
+	}
+
+	/**
+	 * Specifies if thread should get the connection it used the last time,
+	 * when that connection is available.
+	 */
+	public void setThreadAffinity(boolean threadAffinity) {
+		this.threadAffinity = threadAffinity;
+	}
+
+	// ---------------------------------------------------------------- init
+
+	private final ConcurrentHashMap<Connection, PooledConnection> connections = new ConcurrentHashMap<Connection, PooledConnection>();
+	private final ConcurrentLinkedQueue<PooledConnection> idleConnections = new ConcurrentLinkedQueue<PooledConnection>();
+	private final ThreadLocal<PooledConnection> threadConnection = new ThreadLocal<PooledConnection>();
+	private volatile Semaphore permits;
+	private ScheduledExecutorService maintenance;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized void init() {
+		log.info("concurrent connection pool initialization");
+		try {
+			Class.forName(driver);
+		} catch (ClassNotFoundException cnfex) {
+			throw new DbSqlException("Database driver not found: " + driver, cnfex);
+		}
+		if (minConnections > maxConnections) {
+			minConnections = maxConnections;
+		}
+		for (int i = 0; i < minConnections; i++) {
+			PooledConnection pooledConnection = new PooledConnection(createConnection());
+			connections.put(pooledConnection.connection, pooledConnection);
+			release(pooledConnection);
+		}
+		permits = new Semaphore(maxConnections, true);
+
+		if (maintenanceInterval > 0) {
+			maintenance = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "jodd-db-pool-maintenance");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			maintenance.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					try {
+						maintain();
+					} catch (Exception ex) {
+						log.warn("Connection pool maintenance failed", ex);
+					}
+				}
+			}, maintenanceInterval, maintenanceInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Opens new database connection.
+	 */
+	protected Connection createConnection() {
+		try {
+			return DriverManager.getConnection(url, user, password);
+		} catch (SQLException sex) {
+			throw new DbSqlException("Unable to get database connection.", sex);
+		}
+	}
+
+	// ---------------------------------------------------------------- get/close
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Connection getConnection() {
+		Semaphore permits = this.permits;
+		if (permits == null) {
+			throw new DbSqlException("Connection pool is not initialized.");
+		}
+
+		long start = System.nanoTime();
+		boolean acquired;
+		try {
+			if (maxWaitTime < 0) {
+				permits.acquire();
+				acquired = true;
+			} else {
+				acquired = permits.tryAcquire(maxWaitTime, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new DbSqlException("Interrupted while waiting for a connection.", iex);
+		}
+		registerWaitTime((System.nanoTime() - start) / 1000000L);
+
+		if (acquired == false) {
+			timeoutCount.incrementAndGet();
+			throw new DbSqlException("Connection not available after " + maxWaitTime + "ms, all " + maxConnections + " connections are in use.");
+		}
+
+		try {
+			PooledConnection pooledConnection = checkout();
+			checkoutCount.incrementAndGet();
+			return pooledConnection.connection;
+		} catch (RuntimeException rex) {
+			permits.release();
+			throw rex;
+		}
+	}
+
+	/**
+	 * Reserves available connection or opens a new one.
+	 * Invoked when the permit for a connection is already acquired.
+	 */
+	protected PooledConnection checkout() {
+		long now = System.currentTimeMillis();
+
+		PooledConnection pooledConnection = threadAffinity ? threadConnection.get() : null;
+		if (pooledConnection != null && pooledConnection.reserve()) {
+			if (isConnectionValid(pooledConnection, now)) {
+				return markBusy(pooledConnection, now);
+			}
+			remove(pooledConnection);
+		}
+
+		while ((pooledConnection = idleConnections.poll()) != null) {
+			pooledConnection.queued.set(false);
+
+			if (pooledConnection.reserve() == false) {
+				// taken by its last thread or removed
+				continue;
+			}
+			if (isConnectionValid(pooledConnection, now)) {
+				return markBusy(pooledConnection, now);
+			}
+			log.debug("pooled connection is not valid, resetting");
+			remove(pooledConnection);
+		}
+
+		log.debug("no available connections, opening new one");
+
+		pooledConnection = new PooledConnection(createConnection());
+		pooledConnection.state.set(PooledConnection.BUSY);
+		connections.put(pooledConnection.connection, pooledConnection);
+		return markBusy(pooledConnection, now);
+	}
+
+	private PooledConnection markBusy(PooledConnection pooledConnection, long now) {
+		pooledConnection.checkoutTime = now;
+		pooledConnection.leakReported = false;
+		if (leakDetectionThreshold > 0) {
+			pooledConnection.checkoutTrace = new Exception("Connection checkout");
+		}
+		if (threadAffinity) {
+			threadConnection.set(pooledConnection);
+		}
+		return pooledConnection;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void closeConnection(Connection connection) {
+		PooledConnection pooledConnection = connections.get(connection);
+		if (pooledConnection == null) {
+			log.warn("Closing connection that does not belong to the pool");
+			closeQuietly(connection);
+			return;
+		}
+
+		if (pooledConnection.state.compareAndSet(PooledConnection.BUSY, PooledConnection.RETURNING) == false) {
+			// already returned
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		pooledConnection.lastUsed = now;
+		pooledConnection.lastValidated = now;
+		pooledConnection.checkoutTrace = null;
+
+		release(pooledConnection);
+		permits.release();
+	}
+
+	/**
+	 * Makes connection available.
+	 */
+	private void release(PooledConnection pooledConnection) {
+		pooledConnection.state.set(PooledConnection.IDLE);
+		if (pooledConnection.queued.compareAndSet(false, true)) {
+			idleConnections.offer(pooledConnection);
+		}
+	}
+
+	/**
+	 * Removes connection from the pool and closes it.
+	 */
+	private void remove(PooledConnection pooledConnection) {
+		pooledConnection.state.set(PooledConnection.REMOVED);
+		connections.remove(pooledConnection.connection);
+		closeQuietly(pooledConnection.connection);
+	}
+
+	private void closeQuietly(Connection connection) {
+		try {
+			if (connection.isClosed() == false) {
+				connection.close();
+			}
+		} catch (SQLException ignore) {
+		}
+	}
+
+	// ---------------------------------------------------------------- validation
+
+	/**
+	 * Checks if connection is valid. Connection is validated only if it
+	 * was not used or validated for {@link #setValidationTimeout(long) some time}.
+	 */
+	private boolean isConnectionValid(PooledConnection pooledConnection, long now) {
+		if (validateConnection == false) {
+			return true;
+		}
+		if (now < pooledConnection.lastValidated + validationTimeout) {
+			return true;
+		}
+
+		boolean valid = validate(pooledConnection.connection);
+		if (valid) {
+			pooledConnection.lastValidated = now;
+		}
+		return valid;
+	}
+
+	/**
+	 * Validates connection using validation query, if specified.
+	 */
+	protected boolean validate(Connection conn) {
+		if (validationQuery == null) {
+			try {
+				return !conn.isClosed();
+			} catch (SQLException sex) {
+				return false;
+			}
+		}
+
+		boolean valid = true;
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			st.execute(validationQuery);
+		} catch (SQLException sex) {
+			valid = false;
+		} finally {
+			if (st != null) {
+				try {
+					st.close();
+				} catch (SQLException ignore) {
+				}
+			}
+		}
+		return valid;
+	}
+
+	// ---------------------------------------------------------------- maintenance
+
+	/**
+	 * Performs pool maintenance: reports leaked connections, closes idle and
+	 * invalid connections, and opens connections up to the minimum.
+	 * Invoked periodically by the background thread.
+	 */
+	protected void maintain() {
+		long now = System.currentTimeMillis();
+
+		for (PooledConnection pooledConnection : connections.values()) {
+			int state = pooledConnection.state.get();
+
+			if (state == PooledConnection.BUSY) {
+				detectLeak(pooledConnection, now);
+				continue;
+			}
+			if (state != PooledConnection.IDLE || pooledConnection.reserve() == false) {
+				continue;
+			}
+
+			int total = connections.size();
+			if (total > maxConnections ||
+					(idleTimeout > 0 && total > minConnections && now - pooledConnection.lastUsed > idleTimeout)) {
+				log.debug("closing idle connection");
+				remove(pooledConnection);
+				continue;
+			}
+			if (isConnectionValid(pooledConnection, now) == false) {
+				log.debug("idle connection is not valid, closing");
+				remove(pooledConnection);
+				continue;
+			}
+			release(pooledConnection);
+		}
+
+		while (permits != null && connections.size() < minConnections) {
+			PooledConnection pooledConnection;
+			try {
+				pooledConnection = new PooledConnection(createConnection());
+			} catch (DbSqlException dbsex) {
+				log.warn("Unable to open pool connection", dbsex);
+				break;
+			}
+			connections.put(pooledConnection.connection, pooledConnection);
+			release(pooledConnection);
+		}
+	}
+
+	/**
+	 * Reports connection that is in use for too long.
+	 */
+	private void detectLeak(PooledConnection pooledConnection, long now) {
+		if (leakDetectionThreshold <= 0 || pooledConnection.leakReported) {
+			return;
+		}
+		long usage = now - pooledConnection.checkoutTime;
+		if (usage <= leakDetectionThreshold) {
+			return;
+		}
+		pooledConnection.leakReported = true;
+		leakCount.incrementAndGet();
+
+		String message = "Connection is not returned to the pool for " + usage + "ms, possible leak";
+		Exception checkoutTrace = pooledConnection.checkoutTrace;
+		if (checkoutTrace != null) {
+			log.warn(message, checkoutTrace);
+		} else {
+			log.warn(message);
+		}
+	}
+
+	// ---------------------------------------------------------------- close
+
+	/**
+	 * Stops the maintenance and closes all the connections.
+	 * Be sure no connections are in use before calling.
+	 */
+	public synchronized void close() {
+		log.info("concurrent connection pool shutdown");
+		if (maintenance != null) {
+			maintenance.shutdownNow();
+			maintenance = null;
+		}
+		for (PooledConnection pooledConnection : connections.values()) {
+			pooledConnection.state.set(PooledConnection.REMOVED);
+			closeQuietly(pooledConnection.connection);
+		}
+		connections.clear();
+		idleConnections.clear();
+	}
+
+	// ---------------------------------------------------------------- conn data
+
+	/**
+	 * Pooled connection with its state and timestamps.
+	 */
+	static class PooledConnection {
+		static final int IDLE = 0;
+		static final int BUSY = 1;
+		static final int RETURNING = 2;
+		static final int REMOVED = 3;
+
+		final Connection connection;
+		final AtomicInteger state = new AtomicInteger(RETURNING);
+		final AtomicBoolean queued = new AtomicBoolean();
+		volatile long lastUsed;
+		volatile long lastValidated;
+		volatile long checkoutTime;
+		volatile Exception checkoutTrace;
+		volatile boolean leakReported;
+
+		PooledConnection(Connection connection) {
+			this.connection = connection;
+			this.lastUsed = System.currentTimeMillis();
+			this.lastValidated = lastUsed;
+		}
+
+		/**
+		 * Reserves idle connection. Returns <code>false</code> if
+		 * connection is not idle.
+		 */
+		boolean reserve() {
+			return state.compareAndSet(IDLE, BUSY);
+		}
+	}
+
+	// ---------------------------------------------------------------- stats
+
+	private final AtomicLong checkoutCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+	private final AtomicLong waitCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
+	private final AtomicLong peakWaitTime = new AtomicLong();
+
+	private void registerWaitTime(long waitTime) {
+		waitCount.incrementAndGet();
+		totalWaitTime.addAndGet(waitTime);
+
+		long peak = peakWaitTime.get();
+		while (waitTime > peak) {
+			if (peakWaitTime.compareAndSet(peak, waitTime)) {
+				break;
+			}
+			peak = peakWaitTime.get();
+		}
+	}
+
+	/**
+	 * Returns pool statistics.
+	 */
+	public Stats getStats() {
+		Semaphore permits = this.permits;
+
+		int busyCount = 0;
+		int waitingCount = 0;
+		if (permits != null) {
+			busyCount = maxConnections - permits.availablePermits();
+			waitingCount = permits.getQueueLength();
+		}
+		long waits = waitCount.get();
+
+		return new Stats(
+				connections.size(), busyCount, waitingCount,
+				checkoutCount.get(), timeoutCount.get(), leakCount.get(),
+				waits == 0 ? 0 : totalWaitTime.get() / waits, peakWaitTime.get());
+	}
+
+	/**
+	 * Snapshot of pool statistics.
+	 */
+	public static class Stats {
+		final int totalCount;
+		final int busyCount;
+		final int waitingCount;
+		final long checkoutCount;
+		final long timeoutCount;
+		final long leakCount;
+		final long averageWaitTime;
+		final long peakWaitTime;
+
+		Stats(int totalCount, int busyCount, int waitingCount, long checkoutCount, long timeoutCount, long leakCount, long averageWaitTime, long peakWaitTime) {
+			this.totalCount = totalCount;
+			this.busyCount = busyCount;
+			this.waitingCount = waitingCount;
+			this.checkoutCount = checkoutCount;
+			this.timeoutCount = timeoutCount;
+			this.leakCount = leakCount;
+			this.averageWaitTime = averageWaitTime;
+			this.peakWaitTime = peakWaitTime;
+		}
+
+		/**
+		 * Returns total number of open connections.
+		 */
+		public int getTotalCount() {
+			return totalCount;
+		}
+
+		/**
+		 * Returns number of connections in use.
+		 */
+		public int getBusyCount() {
+			return busyCount;
+		}
+
+		/**
+		 * Returns number of threads waiting for a connection.
+		 */
+		public int getWaitingCount() {
+			return waitingCount;
+		}
+
+		/**
+		 * Returns total number of connection checkouts.
+		 */
+		public long getCheckoutCount() {
+			return checkoutCount;
+		}
+
+		/**
+		 * Returns number of requests that timed out waiting for a connection.
+		 */
+		public long getTimeoutCount() {
+			return timeoutCount;
+		}
+
+		/**
+		 * Returns number of detected connection leaks.
+		 */
+		public long getLeakCount() {
+			return leakCount;
+		}
+
+		/**
+		 * Returns average time in milliseconds spent waiting for a connection.
+		 */
+		public long getAverageWaitTime() {
+			return averageWaitTime;
+		}
+
+		/**
+		 * Returns the longest time in milliseconds spent waiting for a connection.
+		 */
+		public long getPeakWaitTime() {
+			return peakWaitTime;
+		}
+
+		@Override
+		public String toString() {
+			return "Connection pool stats: {total=" + totalCount +
+					", busy=" + busyCount +
+					", waiting=" + waitingCount +
+					", checkouts=" + checkoutCount +
+					", timeouts=" + timeoutCount +
+					", leaks=" + leakCount +
+					", avgWait=" + averageWaitTime +
+					", peakWait=" + peakWaitTime + '}';
+		}
+	}
+
+}
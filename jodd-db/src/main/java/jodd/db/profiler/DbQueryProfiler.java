@@ -0,0 +1,256 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.profiler;
+
+import jodd.db.DbSqlException;
+import jodd.log.Logger;
+import jodd.log.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects run-time statistics of executed queries, aggregated per
+ * SQL shape, i.e. per SQL string with literal values removed.
+ * Profiler is enabled by {@link jodd.db.DbManager#setProfiler(DbQueryProfiler) setting}
+ * it on db manager. Lookups and updates are lock-free, so profiler may
+ * be left on in production. Number of profiled shapes is limited;
+ * executions of new shapes over the limit are aggregated together.
+ * Executions slower than the threshold are logged as warnings.
+ * Statistics are available directly and, optionally, via JMX.
+ */
+public class DbQueryProfiler implements DbQueryProfilerMBean {
+
+	private static final Logger log = LoggerFactory.getLogger(DbQueryProfiler.class);
+
+	/**
+	 * SQL shape of aggregated queries over the limit.
+	 */
+	public static final String OTHER_QUERIES = "(other)";
+
+	protected final ConcurrentMap<String, DbQueryStats> stats;
+	protected final DbQueryStats otherStats;
+	protected int maxQueries = 1000;
+	protected volatile long slowQueryThreshold;
+	protected ObjectName registeredName;
+
+	public DbQueryProfiler() {
+		this.stats = new ConcurrentHashMap<String, DbQueryStats>();
+		this.otherStats = new DbQueryStats(OTHER_QUERIES);
+	}
+
+	// ---------------------------------------------------------------- properties
+
+	/**
+	 * Returns max number of profiled SQL shapes.
+	 */
+	public int getMaxQueries() {
+		return maxQueries;
+	}
+
+	/**
+	 * Sets max number of profiled SQL shapes.
+	 */
+	public void setMaxQueries(int maxQueries) {
+		this.maxQueries = maxQueries;
+	}
+
+	public long getSlowQueryThreshold() {
+		return slowQueryThreshold;
+	}
+
+	/**
+	 * Sets slow query threshold in milliseconds. Executions that
+	 * take longer are logged. Zero (default) turns the logging off.
+	 */
+	public void setSlowQueryThreshold(long slowQueryThreshold) {
+		this.slowQueryThreshold = slowQueryThreshold;
+	}
+
+	// ---------------------------------------------------------------- record
+
+	/**
+	 * Records single query execution. Row count is number of updated
+	 * rows for update queries, or <code>0</code> when rows are fetched later.
+	 */
+	public void onExecute(String sql, long nanos, long rowCount) {
+		long threshold = slowQueryThreshold;
+		boolean slow = (threshold > 0) && (nanos >= threshold * 1000000);
+
+		lookup(sql).addExecution(nanos, rowCount, slow);
+
+		if (slow && log.isWarnEnabled()) {
+			log.warn("Slow query (" + (nanos / 1000000) + "ms): " + sql);
+		}
+	}
+
+	/**
+	 * Records single failed query execution.
+	 */
+	public void onFailure(String sql, long nanos) {
+		long threshold = slowQueryThreshold;
+		boolean slow = (threshold > 0) && (nanos >= threshold * 1000000);
+
+		lookup(sql).addFailure(nanos, slow);
+
+		if (slow && log.isWarnEnabled()) {
+			log.warn("Slow failed query (" + (nanos / 1000000) + "ms): " + sql);
+		}
+	}
+
+	/**
+	 * Records mapping of fetched rows to objects.
+	 */
+	public void onMapping(String sql, long rowCount, long nanos) {
+		lookup(sql).addMapping(rowCount, nanos);
+	}
+
+	// ---------------------------------------------------------------- stats
+
+	/**
+	 * Returns statistics of given SQL shape. Statistics are created on
+	 * first lookup. When max number of shapes is reached, statistics
+	 * of {@link #OTHER_QUERIES other queries} are returned.
+	 */
+	public DbQueryStats lookup(String sql) {
+		DbQueryStats queryStats = stats.get(sql);
+
+		if (queryStats == null) {
+			if (stats.size() >= maxQueries) {
+				return otherStats;
+			}
+			queryStats = createQueryStats(sql);
+
+			DbQueryStats existing = stats.putIfAbsent(sql, queryStats);
+			if (existing != null) {
+				queryStats = existing;
+			}
+		}
+		return queryStats;
+	}
+
+	/**
+	 * Creates new query statistics.
+	 */
+	protected DbQueryStats createQueryStats(String sql) {
+		return new DbQueryStats(sql);
+	}
+
+	/**
+	 * Returns statistics of given SQL shape or <code>null</code>
+	 * if query has not been profiled.
+	 */
+	public DbQueryStats getStats(String sql) {
+		if (sql.equals(OTHER_QUERIES)) {
+			return otherStats;
+		}
+		return stats.get(sql);
+	}
+
+	/**
+	 * Returns statistics of all profiled queries, sorted
+	 * by total execution time, descending.
+	 */
+	public List<DbQueryStats> getAllStats() {
+		List<DbQueryStats> list = new ArrayList<DbQueryStats>(stats.size() + 1);
+		list.addAll(stats.values());
+		if (otherStats.getExecutionCount() > 0) {
+			list.add(otherStats);
+		}
+
+		Collections.sort(list, new Comparator<DbQueryStats>() {
+			public int compare(DbQueryStats s1, DbQueryStats s2) {
+				long t1 = s1.getTotalTime();
+				long t2 = s2.getTotalTime();
+				return t1 > t2 ? -1 : (t1 == t2 ? 0 : 1);
+			}
+		});
+		return list;
+	}
+
+	// ---------------------------------------------------------------- mbean
+
+	public int getQueryCount() {
+		return stats.size();
+	}
+
+	public long getExecutionCount() {
+		long count = otherStats.getExecutionCount();
+		for (DbQueryStats queryStats : stats.values()) {
+			count += queryStats.getExecutionCount();
+		}
+		return count;
+	}
+
+	public long getSlowCount() {
+		long count = otherStats.getSlowCount();
+		for (DbQueryStats queryStats : stats.values()) {
+			count += queryStats.getSlowCount();
+		}
+		return count;
+	}
+
+	public String[] getQueryReports() {
+		List<DbQueryStats> list = getAllStats();
+
+		String[] reports = new String[list.size()];
+		for (int i = 0; i < reports.length; i++) {
+			reports[i] = list.get(i).toString();
+		}
+		return reports;
+	}
+
+	/**
+	 * Removes statistics of all profiled queries.
+	 */
+	public void reset() {
+		stats.clear();
+		otherStats.reset();
+	}
+
+	/**
+	 * Registers profiler as MBean with given name.
+	 */
+	public void registerMBean(String mbeanName) {
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName objectName = new ObjectName(mbeanName);
+
+			mBeanServer.registerMBean(new StandardMBean(this, DbQueryProfilerMBean.class), objectName);
+
+			registeredName = objectName;
+		} catch (Exception ex) {
+			throw new DbSqlException("Unable to register query profiler MBean: " + mbeanName, ex);
+		}
+
+		if (log.isInfoEnabled()) {
+			log.info("Query profiler registered as: " + mbeanName);
+		}
+	}
+
+	/**
+	 * Unregisters the MBean, if registered.
+	 */
+	public void unregisterMBean() {
+		if (registeredName == null) {
+			return;
+		}
+
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			mBeanServer.unregisterMBean(registeredName);
+		} catch (Exception ex) {
+			log.warn("Unable to unregister query profiler MBean: " + registeredName, ex);
+		}
+		registeredName = null;
+	}
+
+}
@@ -0,0 +1,46 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.profiler;
+
+/**
+ * JMX management interface of {@link DbQueryProfiler}.
+ */
+public interface DbQueryProfilerMBean {
+
+	/**
+	 * Returns number of profiled SQL shapes.
+	 */
+	int getQueryCount();
+
+	/**
+	 * Returns total number of executions of all queries.
+	 */
+	long getExecutionCount();
+
+	/**
+	 * Returns total number of slow executions of all queries.
+	 */
+	long getSlowCount();
+
+	/**
+	 * Returns slow query threshold in milliseconds.
+	 */
+	long getSlowQueryThreshold();
+
+	/**
+	 * Sets slow query threshold in milliseconds.
+	 */
+	void setSlowQueryThreshold(long slowQueryThreshold);
+
+	/**
+	 * Returns one-line report for each profiled SQL shape,
+	 * sorted by total execution time.
+	 */
+	String[] getQueryReports();
+
+	/**
+	 * Resets all statistics.
+	 */
+	void reset();
+
+}
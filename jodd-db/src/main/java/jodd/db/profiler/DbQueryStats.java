@@ -0,0 +1,178 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.profiler;
+
+import jodd.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run-time statistics of single SQL shape. Execution times are
+ * collected in {@link LatencyHistogram latency histogram}.
+ * All updates are lock-free. All times are in nanoseconds.
+ */
+public class DbQueryStats {
+
+	protected final String sql;
+	protected final AtomicLong executions = new AtomicLong();
+	protected final AtomicLong failures = new AtomicLong();
+	protected final AtomicLong rows = new AtomicLong();
+	protected final AtomicLong mappingTime = new AtomicLong();
+	protected final AtomicLong slowCount = new AtomicLong();
+	protected final LatencyHistogram histogram = new LatencyHistogram();
+
+	public DbQueryStats(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * Returns SQL shape these stats belongs to.
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	// ---------------------------------------------------------------- record
+
+	/**
+	 * Records single query execution.
+	 */
+	public void addExecution(long nanos, long rowCount, boolean slow) {
+		executions.incrementAndGet();
+		histogram.add(nanos);
+		if (rowCount > 0) {
+			rows.addAndGet(rowCount);
+		}
+		if (slow) {
+			slowCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records single failed query execution.
+	 */
+	public void addFailure(long nanos, boolean slow) {
+		failures.incrementAndGet();
+		addExecution(nanos, 0, slow);
+	}
+
+	/**
+	 * Records mapping of fetched rows to objects.
+	 */
+	public void addMapping(long rowCount, long nanos) {
+		if (rowCount > 0) {
+			rows.addAndGet(rowCount);
+		}
+		if (nanos > 0) {
+			mappingTime.addAndGet(nanos);
+		}
+	}
+
+	/**
+	 * Resets all counters. Not atomic in respect to concurrent updates.
+	 */
+	public void reset() {
+		executions.set(0);
+		failures.set(0);
+		rows.set(0);
+		mappingTime.set(0);
+		slowCount.set(0);
+		histogram.reset();
+	}
+
+	// ---------------------------------------------------------------- getters
+
+	/**
+	 * Returns number of executions.
+	 */
+	public long getExecutionCount() {
+		return executions.get();
+	}
+
+	/**
+	 * Returns number of failed executions. Failed
+	 * executions are included in the execution count.
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * Returns total execution time.
+	 */
+	public long getTotalTime() {
+		return histogram.getTotalTime();
+	}
+
+	/**
+	 * Returns max execution time.
+	 */
+	public long getMaxTime() {
+		return histogram.getMaxTime();
+	}
+
+	/**
+	 * Returns mean execution time.
+	 */
+	public long getMeanTime() {
+		long count = executions.get();
+		if (count == 0) {
+			return 0;
+		}
+		return histogram.getTotalTime() / count;
+	}
+
+	/**
+	 * Returns total number of updated or fetched and mapped rows.
+	 */
+	public long getRowCount() {
+		return rows.get();
+	}
+
+	/**
+	 * Returns total time spent in mapping fetched rows to objects.
+	 */
+	public long getMappingTime() {
+		return mappingTime.get();
+	}
+
+	/**
+	 * Returns number of executions that exceeded the slow query threshold.
+	 */
+	public long getSlowCount() {
+		return slowCount.get();
+	}
+
+	/**
+	 * Returns execution times histogram.
+	 */
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * Estimates percentile (0.0 - 1.0) of execution times.
+	 * @see LatencyHistogram#getPercentile(double)
+	 */
+	public long getPercentile(double percentile) {
+		return histogram.getPercentile(percentile);
+	}
+
+	/**
+	 * Returns one-line report, with times in microseconds.
+	 */
+	@Override
+	public String toString() {
+		return "count=" + getExecutionCount() +
+				" failed=" + getFailureCount() +
+				" rows=" + getRowCount() +
+				" slow=" + getSlowCount() +
+				" total=" + getTotalTime() / 1000 +
+				" mean=" + getMeanTime() / 1000 +
+				" p95=" + getPercentile(0.95) / 1000 +
+				" p99=" + getPercentile(0.99) / 1000 +
+				" max=" + getMaxTime() / 1000 +
+				" mapping=" + getMappingTime() / 1000 +
+				" sql=" + sql;
+	}
+}
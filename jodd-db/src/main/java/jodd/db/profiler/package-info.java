@@ -0,0 +1,6 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+/**
+ * Lock-free profiling of executed database queries.
+ */
+package jodd.db.profiler;
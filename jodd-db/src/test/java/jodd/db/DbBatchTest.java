@@ -0,0 +1,114 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db;
+
+import jodd.db.oom.DbOomManager;
+import jodd.db.oom.sqlgen.DbEntitySql;
+import jodd.db.oom.tst.Tester;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DbBatchTest extends DbHsqldbTestCase {
+
+	@Test
+	public void testBatch() {
+		DbSession session = new DbSession(cp);
+
+		DbQuery query = new DbQuery(session, "insert into GIRL (ID, NAME) values (:id, :name)");
+		query.setBatchSize(2);
+		for (int i = 1; i <= 5; i++) {
+			query.setInteger("id", i);
+			query.setString("name", "girl" + i);
+			query.addBatch();
+		}
+
+		// two batches are already executed
+		assertEquals(4, executeCount(session, "select count(*) from GIRL"));
+
+		int[] counts = query.executeBatchAndClose();
+		assertEquals(5, counts.length);
+		for (int count : counts) {
+			assertEquals(1, count);
+		}
+		assertTrue(query.isClosed());
+		assertEquals(5, executeCount(session, "select count(*) from GIRL"));
+
+		session.closeSession();
+	}
+
+	@Test
+	public void testBatchGeneratedKeys() {
+		DbSession session = new DbSession(cp);
+
+		executeUpdate(session, "drop table TESTER if exists");
+		executeUpdate(session, "create table TESTER (ID integer generated by default as identity (start with 10) primary key, NAME varchar(20), VALUE integer)");
+
+		DbQuery query = new DbQuery(session, "insert into TESTER (NAME) values (:name)");
+		query.setGeneratedKey();
+		query.setString("name", "one");
+		query.addBatch();
+		query.setString("name", "two");
+		query.addBatch();
+
+		assertArrayEquals(new int[] {1, 1}, query.executeBatch());
+		assertArrayEquals(new long[] {10, 11}, query.getBatchGeneratedKeys());
+		query.close();
+
+		session.closeSession();
+	}
+
+	@Test
+	public void testEntityBatch() {
+		DbOomManager.resetAll();
+		DbOomManager.getInstance().registerEntity(Tester.class);
+
+		DbSession session = new DbSession(cp);
+
+		executeUpdate(session, "drop table TESTER if exists");
+		executeUpdate(session, "create table TESTER (ID integer generated by default as identity (start with 10) primary key, NAME varchar(20), VALUE integer)");
+
+		List<Tester> testers = new ArrayList<Tester>();
+		for (int i = 0; i < 7; i++) {
+			Tester tester = new Tester();
+			tester.setName("t" + i);
+			if (i % 2 == 0) {
+				tester.setValue(Integer.valueOf(i));
+			}
+			testers.add(tester);
+		}
+		Tester tester = new Tester();
+		tester.setId(Long.valueOf(100));
+		tester.setName("t100");
+		testers.add(1, tester);
+
+		int[] counts = DbEntitySql.insertBatch(session, testers, 2);
+		assertEquals(8, counts.length);
+		for (int count : counts) {
+			assertEquals(1, count);
+		}
+		assertEquals(8, executeCount(session, "select count(*) from TESTER"));
+
+		assertEquals(Long.valueOf(10), testers.get(0).getId());
+		assertEquals(Long.valueOf(100), testers.get(1).getId());
+		for (Tester t : testers) {
+			assertNotNull(t.getId());
+		}
+
+		// update
+		for (Tester t : testers) {
+			t.setValue(Integer.valueOf(7));
+		}
+		testers.get(2).setName(null);
+		counts = DbEntitySql.updateBatch(session, testers, 100);
+		assertEquals(8, counts.length);
+		assertEquals(8, executeCount(session, "select count(*) from TESTER where VALUE=7"));
+		assertEquals(0, executeCount(session, "select count(*) from TESTER where NAME is null"));
+
+		session.closeSession();
+	}
+
+}
@@ -141,4 +141,26 @@ public class DbMiscTest extends DbHsqldbTestCase {
 		}
 	}
 
+	@Test
+	public void testQueryCache() {
+		DbSession session = new DbSession(cp);
+
+		String sql = "select * from GIRL where ID = :id";
+		DbQuery q1 = new DbQuery(session, sql);
+		q1.setInteger("id", 1);
+		DbQuery q2 = new DbQuery(session, sql);
+		q2.setInteger("id", 2);
+		assertSame(q1.query, q2.query);
+
+		DbManager.getInstance().setQueryCacheSize(0);
+		try {
+			DbQuery q3 = new DbQuery(session, sql);
+			q3.setInteger("id", 3);
+			assertNotSame(q1.query, q3.query);
+		} finally {
+			DbManager.resetAll();
+			session.closeSession();
+		}
+	}
+
 }
@@ -0,0 +1,148 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db;
+
+import jodd.db.oom.DbOomManager;
+import jodd.db.oom.DbOomQuery;
+import jodd.db.oom.tst.Girl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DbParallelExecutorTest extends DbHsqldbTestCase {
+
+	DbParallelExecutor executor;
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		DbOomManager.resetAll();
+		DbOomManager.getInstance().registerEntity(Girl.class);
+
+		DbSession session = new DbSession(cp);
+		executeUpdate(session, "insert into GIRL values(1, 'Anna', 'swim')");
+		executeUpdate(session, "insert into GIRL values(2, 'Sandra', 'piano')");
+		executeUpdate(session, "insert into GIRL values(3, 'Emma', null)");
+		session.closeSession();
+
+		executor = new DbParallelExecutor(cp, 3);
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdown();
+		super.tearDown();
+	}
+
+	@Test
+	public void testParallel() {
+		DbSession callerSession = new DbThreadSession(cp);
+		assertSame(callerSession, ThreadDbSessionHolder.get());
+
+		DbParallelExecutor.Batch batch = executor.batch();
+
+		DbParallelExecutor.Result<Long> count = batch.add(new DbParallelTask<Long>() {
+			public Long execute(DbSession session) {
+				return Long.valueOf(new DbQuery(session, "select count(*) from GIRL").executeCount());
+			}
+		});
+		DbParallelExecutor.Result<List<Girl>> girls = batch.add(new DbParallelTask<List<Girl>>() {
+			public List<Girl> execute(DbSession session) {
+				return new DbOomQuery(session, "select * from GIRL order by ID").list(Girl.class);
+			}
+		});
+		DbParallelExecutor.Result<Boolean> threadSession = batch.add(new DbParallelTask<Boolean>() {
+			public Boolean execute(DbSession session) {
+				// thread session is used by default
+				new DbQuery("select count(*) from GIRL").executeCount();
+				return Boolean.valueOf(ThreadDbSessionHolder.get() == session);
+			}
+		});
+
+		try {
+			count.get();
+			fail();
+		} catch (DbSqlException ignore) {
+		}
+
+		batch.execute();
+
+		assertEquals(3, count.get().longValue());
+		assertEquals(3, girls.get().size());
+		assertEquals("Anna", girls.get().get(0).name);
+		assertTrue(threadSession.get().booleanValue());
+		assertTrue(count.isSuccessful());
+
+		// caller session is intact
+		assertSame(callerSession, ThreadDbSessionHolder.get());
+		callerSession.closeSession();
+	}
+
+	@Test
+	public void testFailure() {
+		DbParallelExecutor.Batch batch = executor.batch();
+
+		DbParallelExecutor.Result<Long> count = batch.add(new DbParallelTask<Long>() {
+			public Long execute(DbSession session) {
+				return Long.valueOf(new DbQuery(session, "select count(*) from GIRL").executeCount());
+			}
+		});
+		DbParallelExecutor.Result<Long> bad = batch.add(new DbParallelTask<Long>() {
+			public Long execute(DbSession session) {
+				return Long.valueOf(new DbQuery(session, "select count(*) from NOTHING").executeCount());
+			}
+		});
+
+		try {
+			batch.execute();
+			fail();
+		} catch (DbSqlException ignore) {
+		}
+		assertFalse(bad.isSuccessful());
+
+		try {
+			batch.execute();
+			fail();
+		} catch (DbSqlException ignore) {
+		}
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		DbParallelExecutor.Batch batch = executor.batch().timeout(50);
+
+		final DbQuery[] slowQuery = new DbQuery[1];
+		DbParallelExecutor.Result<Long> slow = batch.add(new DbParallelTask<Long>() {
+			public Long execute(DbSession session) {
+				slowQuery[0] = new DbQuery(session, "select count(*) from GIRL");
+				try {
+					Thread.sleep(500);
+				} catch (InterruptedException ignore) {
+				}
+				return Long.valueOf(slowQuery[0].executeCount());
+			}
+		});
+
+		long start = System.currentTimeMillis();
+		try {
+			batch.execute();
+			fail();
+		} catch (DbSqlException ignore) {
+		}
+		assertTrue(System.currentTimeMillis() - start < 500);
+		assertFalse(slow.isSuccessful());
+
+		try {
+			slow.get();
+			fail();
+		} catch (DbSqlException ignore) {
+		}
+	}
+}
@@ -0,0 +1,86 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db;
+
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+
+import static org.junit.Assert.*;
+
+public class DbStatementCacheTest extends DbHsqldbTestCase {
+
+	@Test
+	public void testStatementCache() throws Exception {
+		DbSession session = new DbSession(cp);
+		session.setStatementCacheSize(2);
+		DbStatementCache statementCache = session.getStatementCache();
+
+		executeUpdate(session, "insert into GIRL values(1, 'Anna', 'seduction')");
+		executeUpdate(session, "insert into GIRL values(2, 'Sandra', 'spying')");
+
+		String sql = "select count(*) from GIRL where ID > :id";
+
+		DbQuery q1 = new DbQuery(session, sql);
+		q1.setInteger("id", 0);
+		q1.setMaxRows(1);
+		assertEquals(2, q1.executeCount());
+		PreparedStatement ps = q1.preparedStatement;
+		q1.close();
+
+		assertEquals(1, statementCache.getSize());
+		assertEquals(0, ps.getMaxRows());
+
+		// reused
+		DbQuery q2 = new DbQuery(session, sql);
+		q2.setInteger("id", 1);
+		assertSame(ps, q2.preparedStatement);
+		assertEquals(0, statementCache.getSize());
+
+		// used statement is not shared
+		DbQuery q3 = new DbQuery(session, sql);
+		q3.setInteger("id", 2);
+		assertNotSame(ps, q3.preparedStatement);
+
+		assertEquals(1, q2.executeCount());
+		assertEquals(0, q3.executeCount());
+		q2.close();
+		q3.close();
+		assertEquals(1, statementCache.getSize());
+		assertFalse(ps.isClosed());
+
+		// different options
+		DbQuery q4 = new DbQuery(session, sql);
+		q4.setType(DbQuery.TYPE_SCROLL_INSENSITIVE);
+		q4.setInteger("id", 0);
+		assertNotSame(ps, q4.preparedStatement);
+		q4.close();
+		assertEquals(2, statementCache.getSize());
+
+		// eviction
+		DbQuery q5 = new DbQuery(session, "select * from GIRL where ID = :id");
+		q5.setInteger("id", 1);
+		q5.close();
+		assertEquals(2, statementCache.getSize());
+		assertEquals(1, statementCache.getEvictionCount());
+		assertTrue(ps.isClosed());
+
+		assertEquals(1, statementCache.getHitCount());
+		assertEquals(4, statementCache.getMissCount());
+
+		session.closeSession();
+		assertEquals(0, statementCache.getSize());
+	}
+
+	@Test
+	public void testNoCache() {
+		DbSession session = new DbSession(cp);
+		assertNull(session.getStatementCache());
+
+		DbQuery query = new DbQuery(session, "select count(*) from GIRL where ID > :id");
+		query.setInteger("id", 0);
+		assertEquals(0, query.executeCountAndClose());
+
+		session.closeSession();
+	}
+}
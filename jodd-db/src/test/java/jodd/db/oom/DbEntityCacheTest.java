@@ -0,0 +1,183 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom;
+
+import jodd.db.DbHsqldbTestCase;
+import jodd.db.DbSession;
+import jodd.db.DbTransactionMode;
+import jodd.db.oom.sqlgen.DbEntitySql;
+import jodd.db.oom.tst.CachedTester;
+import jodd.db.oom.tst.Tester;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+
+import static org.junit.Assert.*;
+
+public class DbEntityCacheTest extends DbHsqldbTestCase {
+
+	DbSession session;
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		DbOomManager.resetAll();
+		DbOomManager dbOom = DbOomManager.getInstance();
+		dbOom.registerEntity(CachedTester.class);
+		dbOom.setEntityCache(new DbEntityCache(dbOom));
+
+		session = new DbSession(cp);
+		executeUpdate(session, "drop table TESTER if exists");
+		executeUpdate(session, "create table TESTER (ID integer primary key, NAME varchar(20), VALUE integer)");
+		executeUpdate(session, "insert into TESTER values (1, 'one', 1)");
+		executeUpdate(session, "insert into TESTER values (2, 'two', 2)");
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		session.closeSession();
+		DbOomManager.resetAll();
+		super.tearDown();
+	}
+
+	private CachedTester findById(long id) {
+		return new DbOomQuery(session, DbEntitySql.findById(CachedTester.class, Long.valueOf(id)))
+				.findAndClose(CachedTester.class);
+	}
+
+	@Test
+	public void testFindById() {
+		CachedTester tester = findById(1);
+		assertEquals("one", tester.getName());
+
+		// changed outside, cached value is used
+		executeUpdate(session, "update TESTER set NAME='ONE' where ID=1");
+
+		CachedTester cached = findById(1);
+		assertNotSame(tester, cached);
+		assertEquals("one", cached.getName());
+		assertEquals(Integer.valueOf(1), cached.getValue());
+
+		// cached copy can't be changed
+		cached.setName("changed");
+		assertEquals("one", findById(1).getName());
+
+		// invalidated by update
+		tester.setValue(Integer.valueOf(11));
+		new DbOomQuery(session, DbEntitySql.update(tester)).executeUpdateAndClose();
+		tester = findById(1);
+		assertEquals("one", tester.getName());
+		assertEquals(Integer.valueOf(11), tester.getValue());
+
+		// invalidated by delete
+		new DbOomQuery(session, DbEntitySql.deleteById(CachedTester.class, Integer.valueOf(1))).executeUpdateAndClose();
+		assertNull(findById(1));
+	}
+
+	@Test
+	public void testPopulateAndTimeout() throws Exception {
+		DbEntityCache entityCache = DbOomManager.getInstance().getEntityCache();
+
+		new DbOomQuery(session, DbEntitySql.from(CachedTester.class)).listAndClose(CachedTester.class);
+		assertNotNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+		assertNotNull(entityCache.get(CachedTester.class, Long.valueOf(2)));
+
+		// partially mapped entities are not cached
+		entityCache.invalidateAll(CachedTester.class);
+		new DbOomQuery(session, "select ID, NAME from TESTER").listAndClose(CachedTester.class);
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		findById(2);
+		assertNotNull(entityCache.get(CachedTester.class, Integer.valueOf(2)));
+		Thread.sleep(300);
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(2)));
+	}
+
+	@Test
+	public void testTransaction() {
+		DbEntityCache entityCache = DbOomManager.getInstance().getEntityCache();
+
+		CachedTester tester = findById(1);
+		assertNotNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		session.beginTransaction(new DbTransactionMode().setReadOnly(false));
+		tester.setName("rolled");
+		new DbOomQuery(session, DbEntitySql.update(tester)).executeUpdateAndClose();
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		// uncommitted state is not cached
+		assertEquals("rolled", findById(1).getName());
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		// old committed state cached by another session in the meantime
+		CachedTester stale = new CachedTester();
+		stale.setId(Long.valueOf(1));
+		stale.setName("stale");
+		entityCache.put(stale);
+
+		session.rollbackTransaction();
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+		assertEquals("one", findById(1).getName());
+		assertNotNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		// commit
+		session.beginTransaction(new DbTransactionMode().setReadOnly(false));
+		tester.setName("committed");
+		new DbOomQuery(session, DbEntitySql.update(tester)).executeUpdateAndClose();
+		entityCache.put(stale);
+		session.commitTransaction();
+
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+		assertEquals("committed", findById(1).getName());
+	}
+
+	@Test
+	public void testInvalidatedWhileReading() {
+		DbEntityCache entityCache = DbOomManager.getInstance().getEntityCache();
+
+		// row is read, then updated and invalidated by another session before it is mapped
+		DbOomQuery query = new DbOomQuery(session, DbEntitySql.findById(CachedTester.class, Integer.valueOf(1)));
+		ResultSet resultSet = query.execute();
+		executeUpdate(session, "update TESTER set NAME='ONE' where ID=1");
+		entityCache.invalidate(CachedTester.class, Integer.valueOf(1));
+
+		CachedTester tester = query.find(new Class[] {CachedTester.class}, true, resultSet);
+		assertNotNull(tester);
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+		assertEquals("ONE", findById(1).getName());
+		assertNotNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		// stamp taken before the invalidation
+		long stamp = entityCache.getInvalidationStamp();
+		entityCache.invalidateAll(CachedTester.class);
+		entityCache.put(tester, stamp);
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+		entityCache.put(tester, entityCache.getInvalidationStamp());
+		assertNotNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+
+		// clear
+		stamp = entityCache.getInvalidationStamp();
+		entityCache.clear();
+		entityCache.put(tester, stamp);
+		assertNull(entityCache.get(CachedTester.class, Integer.valueOf(1)));
+	}
+
+	@Test
+	public void testNotCacheable() {
+		DbOomManager.getInstance().registerType(Tester.class);
+		DbEntityCache entityCache = DbOomManager.getInstance().getEntityCache();
+
+		assertTrue(entityCache.isCached(CachedTester.class));
+		assertFalse(entityCache.isCached(Tester.class));
+
+		Tester tester = new DbOomQuery(session, DbEntitySql.findById(Tester.class, Integer.valueOf(1))).findAndClose(Tester.class);
+		assertEquals("one", tester.getName());
+		assertNull(entityCache.get(Tester.class, Integer.valueOf(1)));
+	}
+
+}
@@ -0,0 +1,99 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom;
+
+import jodd.db.oom.tst.Boy;
+import jodd.db.oom.tst.Girl;
+import jodd.db.oom.tst.Tester;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DbOomManagerTest {
+
+	@Test
+	public void testLookupTables() {
+		DbOomManager dboom = new DbOomManager();
+		dboom.setEagerInit(true);
+
+		DbEntityDescriptor ded = dboom.registerEntity(Tester.class);
+		assertEquals(3, ded.getColumnsCount());
+
+		DbEntityColumnDescriptor dec = ded.findByPropertyName("name");
+		assertNotNull(dec);
+		assertEquals("NAME", dec.getColumnName());
+		assertSame(dec, ded.findByColumnName("NAME"));
+		assertNull(ded.findByPropertyName("NAME"));
+		assertNull(ded.findByColumnName("name"));
+
+		assertEquals("ID", ded.getIdColumnDescriptor().getColumnName());
+		assertEquals("id", ded.getIdPropertyName());
+		assertEquals("VALUE", ded.getColumnName("value"));
+		assertEquals("value", ded.getPropertyName("VALUE"));
+	}
+
+	@Test
+	public void testRemoveEntity() {
+		DbOomManager dboom = new DbOomManager();
+		dboom.setStrictCompare(false);
+
+		dboom.registerEntity(Tester.class);
+		assertNotNull(dboom.lookupTableName("tester"));
+		assertEquals(1, dboom.getTotalTableNames());
+
+		dboom.removeEntity(Tester.class);
+		assertNull(dboom.lookupTableName("TESTER"));
+		assertEquals(0, dboom.getTotalTableNames());
+		assertEquals(0, dboom.getTotalTypes());
+	}
+
+	@Test
+	public void testConcurrentLookup() throws Exception {
+		final DbOomManager dboom = new DbOomManager();
+		final Class[] types = new Class[] {Tester.class, Girl.class, Boy.class};
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger errors = new AtomicInteger();
+		final DbEntityDescriptor[][] results = new DbEntityDescriptor[20][];
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < results.length; i++) {
+			final int index = i;
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						DbEntityDescriptor[] descriptors = new DbEntityDescriptor[types.length];
+						for (int j = 0; j < types.length; j++) {
+							descriptors[j] = dboom.lookupType(types[j]);
+							assertNotNull(descriptors[j].findByPropertyName("id"));
+						}
+						results[index] = descriptors;
+					} catch (Throwable th) {
+						errors.incrementAndGet();
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, errors.get());
+		assertEquals(3, dboom.getTotalTypes());
+		for (DbEntityDescriptor[] descriptors : results) {
+			for (int j = 0; j < types.length; j++) {
+				assertSame(dboom.lookupType(types[j]), descriptors[j]);
+			}
+		}
+	}
+}
@@ -302,4 +302,37 @@ public class DbSqlTemplateTest {
 		assertEquals("select bb.GIRL_ID, bb.ID, bb.NAME, bg.ID from GIRL bg join BOY bb on bg.ID=bb.GIRL_ID", st.generateQuery());
 	}
 
+	@Test
+	public void testCompiledTemplate() {
+		String template = "select $C{b.*} from $T{b b} where $b.id=:id";
+
+		DbSqlBuilder st = sql(template).use("b", new Boy());
+		String sql = st.generateQuery();
+		assertEquals(sql, sql(template).use("b", Boy.class).generateQuery());
+
+		st = sql(template).use("b", new Boy()).aliasColumnsAs(TABLE_REFERENCE);
+		String aliasedSql = st.generateQuery();
+		assertFalse(sql.equals(aliasedSql));
+		assertNotNull(st.getColumnData());
+
+		st = sql(template).use("b", new Boy()).aliasColumnsAs(TABLE_REFERENCE);
+		assertEquals(aliasedSql, st.generateQuery());
+		assertEquals(1, st.getColumnData().size());
+
+		// different type
+		st = sql(template).use("b", new Girl());
+		assertTrue(st.generateQuery().contains("GIRL"));
+
+		// values are never compiled
+		Boy boy = new Boy();
+		boy.id = 1;
+		st = sql("select * from $T{b b} where $M{b=b}").use("b", boy);
+		st.generateQuery();
+		assertEquals(Integer.valueOf(1), st.getQueryParameters().get("boy.id").getValue());
+		boy.id = 2;
+		st = sql("select * from $T{b b} where $M{b=b}").use("b", boy);
+		st.generateQuery();
+		assertEquals(Integer.valueOf(2), st.getQueryParameters().get("boy.id").getValue());
+	}
+
 }
@@ -0,0 +1,92 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom;
+
+import jodd.db.DbHsqldbTestCase;
+import jodd.db.DbQuery;
+import jodd.db.DbSession;
+import jodd.db.oom.tst.Girl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DbStreamTest extends DbHsqldbTestCase {
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+
+		DbOomManager.resetAll();
+		DbOomManager.getInstance().registerEntity(Girl.class);
+
+		DbSession session = new DbSession(cp);
+		DbQuery query = new DbQuery(session, "insert into GIRL values(:id, :name, null)");
+		for (int i = 1; i <= 25; i++) {
+			query.setInteger("id", i);
+			query.setString("name", "girl" + i);
+			query.addBatch();
+		}
+		query.executeBatchAndClose();
+		session.closeSession();
+	}
+
+	@Test
+	public void testStream() {
+		DbSession session = new DbSession(cp);
+
+		DbOomQuery query = new DbOomQuery(session, "select * from GIRL where ID > :id order by ID");
+		query.setInteger("id", 0);
+		Iterator<Girl> iterator = query.stream(Girl.class);
+
+		assertEquals(DbOomQuery.TYPE_FORWARD_ONLY, query.getType());
+		assertEquals(DbOomQuery.CONCUR_READ_ONLY, query.getConcurrencyType());
+		assertEquals(1000, query.getFetchSize());
+
+		int count = 0;
+		while (iterator.hasNext()) {
+			Girl girl = iterator.next();
+			count++;
+			assertEquals(count, girl.id);
+		}
+		assertEquals(25, count);
+		assertTrue(query.isClosed());
+
+		session.closeSession();
+	}
+
+	@Test
+	public void testStreamInChunks() {
+		DbSession session = new DbSession(cp);
+
+		DbOomQuery query = new DbOomQuery(session, "select * from GIRL order by ID");
+		query.setFetchSize(7);
+		query.cacheEntities(true);
+
+		final List<Integer> chunkSizes = new ArrayList<Integer>();
+		final List<Girl> girls = new ArrayList<Girl>();
+
+		long total = query.streamInChunks(10, new DbStreamCallback<Girl>() {
+			public void onChunk(List<Girl> chunk) {
+				chunkSizes.add(Integer.valueOf(chunk.size()));
+				girls.addAll(chunk);
+			}
+		}, Girl.class);
+
+		assertEquals(25, total);
+		assertEquals(3, chunkSizes.size());
+		assertEquals(Integer.valueOf(10), chunkSizes.get(0));
+		assertEquals(Integer.valueOf(5), chunkSizes.get(2));
+		assertEquals(25, girls.get(24).id);
+		assertEquals(7, query.getFetchSize());
+		assertTrue(query.isClosed());
+
+		session.closeSession();
+	}
+
+}
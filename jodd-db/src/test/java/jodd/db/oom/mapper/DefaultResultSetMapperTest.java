@@ -0,0 +1,104 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom.mapper;
+
+import jodd.db.DbHsqldbTestCase;
+import jodd.db.DbQuery;
+import jodd.db.DbSession;
+import jodd.db.oom.DbOomManager;
+import jodd.db.oom.tst.Boy;
+import jodd.db.oom.tst.Girl;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+
+import static org.junit.Assert.*;
+
+public class DefaultResultSetMapperTest extends DbHsqldbTestCase {
+
+	@Test
+	public void testMappingPlan() throws Exception {
+		DbOomManager.resetAll();
+		DbOomManager dbOom = DbOomManager.getInstance();
+		dbOom.registerEntity(Girl.class);
+		dbOom.registerEntity(Boy.class);
+
+		DbSession session = new DbSession(cp);
+
+		executeUpdate(session, "insert into GIRL values(1, 'Anna', 'seduction')");
+		executeUpdate(session, "insert into GIRL values(2, 'Sandra', null)");
+		executeUpdate(session, "insert into BOY values(1, 1, 'John')");
+		executeUpdate(session, "insert into BOY values(2, 2, 'James')");
+
+		DbQuery query = new DbQuery(session,
+				"select g.*, b.*, 7 from GIRL g join BOY b on g.ID=b.GIRL_ID order by g.ID");
+		ResultSet rs = query.execute();
+		DefaultResultSetMapper rsm = (DefaultResultSetMapper) dbOom.createResultSetMapper(rs, null, false);
+
+		Class[] types = new Class[] {Girl.class, Boy.class, Integer.class};
+
+		assertTrue(rsm.next());
+		Object[] result = rsm.parseObjects(types);
+		DefaultResultSetMapper.MappingPlan plan = rsm.cachedMappingPlan;
+		assertEquals(7, plan.size);
+
+		Girl girl = (Girl) result[0];
+		assertEquals(1, girl.id);
+		assertEquals("Anna", girl.name);
+		assertEquals("seduction", girl.speciality);
+		Boy boy = (Boy) result[1];
+		assertEquals(1, boy.id);
+		assertEquals(1, boy.girlId);
+		assertEquals("John", boy.name);
+		assertEquals(Integer.valueOf(7), result[2]);
+
+		assertTrue(rsm.next());
+		result = rsm.parseObjects(Girl.class, Boy.class, Integer.class);
+		assertSame(plan, rsm.cachedMappingPlan);
+
+		girl = (Girl) result[0];
+		assertEquals(2, girl.id);
+		assertEquals("Sandra", girl.name);
+		assertNull(girl.speciality);
+		assertEquals("James", ((Boy) result[1]).name);
+
+		assertFalse(rsm.next());
+
+		// skipped type
+		rs = query.execute();
+		rsm = (DefaultResultSetMapper) dbOom.createResultSetMapper(rs, null, false);
+		assertTrue(rsm.next());
+		result = rsm.parseObjects(Girl.class, null, Boy.class);
+		assertEquals(1, ((Girl) result[0]).id);
+		assertNull(result[1]);
+		assertNotNull(result[2]);
+
+		session.closeSession();
+	}
+
+	@Test
+	public void testEntitiesCacheWindow() throws Exception {
+		DbOomManager.resetAll();
+		DbOomManager dbOom = DbOomManager.getInstance();
+		dbOom.registerEntity(Girl.class);
+
+		DbSession session = new DbSession(cp);
+
+		for (int i = 1; i <= 5; i++) {
+			executeUpdate(session, "insert into GIRL values(" + i + ", 'girl', null)");
+		}
+
+		DbQuery query = new DbQuery(session, "select * from GIRL order by ID");
+		DefaultResultSetMapper rsm = (DefaultResultSetMapper) dbOom.createResultSetMapper(query.execute(), null, true);
+		rsm.setEntitiesCacheWindow(2);
+
+		while (rsm.next()) {
+			rsm.parseObjects(Girl.class);
+			assertTrue(rsm.entitiesCache.size() <= 2);
+		}
+		assertEquals(1, rsm.entitiesCache.size());
+
+		session.closeSession();
+	}
+
+}
@@ -0,0 +1,46 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.oom.tst;
+
+import jodd.db.oom.meta.DbCacheable;
+import jodd.db.oom.meta.DbColumn;
+import jodd.db.oom.meta.DbId;
+import jodd.db.oom.meta.DbTable;
+
+@DbTable("TESTER")
+@DbCacheable(size = 10, timeout = 200)
+public class CachedTester {
+
+	@DbId
+	protected Long id;
+
+	@DbColumn
+	protected String name;
+
+	@DbColumn
+	protected Integer value;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getValue() {
+		return value;
+	}
+
+	public void setValue(Integer value) {
+		this.value = value;
+	}
+}
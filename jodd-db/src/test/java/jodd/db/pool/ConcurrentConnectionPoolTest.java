@@ -0,0 +1,180 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.pool;
+
+import jodd.db.DbSqlException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentConnectionPoolTest {
+
+	ConcurrentConnectionPool cp;
+
+	@Before
+	public void setUp() {
+		cp = new ConcurrentConnectionPool();
+		cp.setDriver("org.hsqldb.jdbcDriver");
+		cp.setUrl("jdbc:hsqldb:mem:pool");
+		cp.setUser("sa");
+		cp.setPassword("");
+		cp.setMinConnections(1);
+		cp.setMaxConnections(3);
+		cp.setMaintenanceInterval(0);
+	}
+
+	@After
+	public void tearDown() {
+		cp.close();
+	}
+
+	@Test
+	public void testCheckout() {
+		cp.init();
+		assertEquals(1, cp.getStats().getTotalCount());
+
+		Connection c1 = cp.getConnection();
+		Connection c2 = cp.getConnection();
+		assertNotSame(c1, c2);
+		assertEquals(2, cp.getStats().getTotalCount());
+		assertEquals(2, cp.getStats().getBusyCount());
+
+		cp.closeConnection(c2);
+		cp.closeConnection(c2);
+		assertEquals(1, cp.getStats().getBusyCount());
+
+		// thread affinity
+		assertSame(c2, cp.getConnection());
+		cp.closeConnection(c1);
+		cp.closeConnection(c2);
+
+		assertEquals(0, cp.getStats().getBusyCount());
+		assertEquals(3, cp.getStats().getCheckoutCount());
+	}
+
+	@Test
+	public void testTimeout() {
+		cp.setMaxConnections(1);
+		cp.setMaxWaitTime(50);
+		cp.init();
+
+		Connection c1 = cp.getConnection();
+		try {
+			cp.getConnection();
+			fail();
+		} catch (DbSqlException ignore) {
+		}
+		ConcurrentConnectionPool.Stats stats = cp.getStats();
+		assertEquals(1, stats.getTimeoutCount());
+		assertTrue(stats.getPeakWaitTime() >= 40);
+
+		cp.closeConnection(c1);
+		assertSame(c1, cp.getConnection());
+		cp.closeConnection(c1);
+	}
+
+	@Test
+	public void testMaintenance() throws Exception {
+		cp.setMinConnections(2);
+		cp.setIdleTimeout(1);
+		cp.setLeakDetectionThreshold(1);
+		cp.init();
+
+		Connection c1 = cp.getConnection();
+		Connection c2 = cp.getConnection();
+		Connection c3 = cp.getConnection();
+		cp.closeConnection(c2);
+		cp.closeConnection(c3);
+		Thread.sleep(10);
+
+		cp.maintain();
+
+		// idle connection closed, c1 reported
+		ConcurrentConnectionPool.Stats stats = cp.getStats();
+		assertEquals(2, stats.getTotalCount());
+		assertEquals(1, stats.getLeakCount());
+
+		cp.maintain();
+		assertEquals(1, cp.getStats().getLeakCount());
+
+		cp.closeConnection(c1);
+		Thread.sleep(10);
+		cp.maintain();
+		assertEquals(2, cp.getStats().getTotalCount());
+	}
+
+	@Test
+	public void testValidation() throws Exception {
+		cp.setValidationTimeout(0);
+		cp.setValidationQuery("select 1 from INFORMATION_SCHEMA.SYSTEM_USERS");
+		cp.init();
+
+		Connection c1 = cp.getConnection();
+		cp.closeConnection(c1);
+		c1.close();
+
+		Connection c2 = cp.getConnection();
+		assertNotSame(c1, c2);
+		assertFalse(c2.isClosed());
+		cp.closeConnection(c2);
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+		cp.setMaxWaitTime(-1);
+		cp.init();
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger errors = new AtomicInteger();
+		final AtomicInteger maxBusy = new AtomicInteger();
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 20; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int j = 0; j < 50; j++) {
+							Connection connection = cp.getConnection();
+							int busy = cp.getStats().getBusyCount();
+							if (busy > maxBusy.get()) {
+								maxBusy.set(busy);
+							}
+							Statement statement = connection.createStatement();
+							statement.execute("select 1 from INFORMATION_SCHEMA.SYSTEM_USERS");
+							statement.close();
+							cp.closeConnection(connection);
+						}
+					} catch (Exception ex) {
+						errors.incrementAndGet();
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, errors.get());
+		assertTrue(maxBusy.get() <= 3);
+
+		ConcurrentConnectionPool.Stats stats = cp.getStats();
+		assertEquals(1000, stats.getCheckoutCount());
+		assertEquals(0, stats.getBusyCount());
+		assertTrue(stats.getTotalCount() <= 3);
+	}
+
+}
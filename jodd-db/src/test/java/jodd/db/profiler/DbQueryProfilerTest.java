@@ -0,0 +1,145 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.db.profiler;
+
+import jodd.db.DbHsqldbTestCase;
+import jodd.db.DbManager;
+import jodd.db.DbQuery;
+import jodd.db.DbSession;
+import jodd.db.DbSqlException;
+import jodd.db.oom.DbOomManager;
+import jodd.db.oom.DbOomQuery;
+import jodd.db.oom.tst.Girl;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DbQueryProfilerTest extends DbHsqldbTestCase {
+
+	@After
+	public void tearDown() throws Exception {
+		DbManager.getInstance().setProfiler(null);
+		super.tearDown();
+	}
+
+	@Test
+	public void testProfiler() {
+		DbQueryProfiler profiler = new DbQueryProfiler();
+		DbManager.getInstance().setProfiler(profiler);
+
+		DbSession session = new DbSession(cp);
+
+		// literals are removed from the shape
+		executeUpdate(session, "insert into GIRL values(1, 'Anna', 'swim')");
+		executeUpdate(session, "insert into GIRL values(2, 'Sandra''s', null)");
+		executeUpdate(session, "insert into GIRL values(3, 'Emma', 'nothing')");
+
+		DbQueryStats insertStats = profiler.getStats("insert into GIRL values(?, ?, ?)");
+		assertNotNull(insertStats);
+		assertEquals(2, insertStats.getExecutionCount());
+		assertEquals(2, insertStats.getRowCount());
+		assertTrue(insertStats.getMaxTime() > 0);
+		assertTrue(insertStats.getPercentile(0.99) <= insertStats.getMaxTime());
+
+		// prepared queries
+		DbQuery query = new DbQuery(session, "select count(*) from GIRL where ID > :id");
+		query.setInteger("id", 1);
+		assertEquals(2, query.executeCountAndClose());
+
+		DbQueryStats countStats = profiler.getStats("select count(*) from GIRL where ID > ?");
+		assertEquals(1, countStats.getExecutionCount());
+
+		// mapping
+		DbOomManager.resetAll();
+		DbOomManager.getInstance().registerEntity(Girl.class);
+
+		DbOomQuery dbOomQuery = new DbOomQuery(session, "select * from GIRL where ID < :id order by ID");
+		for (int i = 0; i < 2; i++) {
+			dbOomQuery.setInteger("id", 10);
+			List<Girl> girls = dbOomQuery.list(Girl.class);
+			assertEquals(3, girls.size());
+		}
+		dbOomQuery.close();
+
+		DbQueryStats selectStats = profiler.getStats("select * from GIRL where ID < ? order by ID");
+		assertEquals(2, selectStats.getExecutionCount());
+		assertEquals(6, selectStats.getRowCount());
+		assertTrue(selectStats.getMappingTime() > 0);
+
+		assertEquals(4, profiler.getQueryCount());
+		assertEquals(6, profiler.getExecutionCount());
+		assertEquals(0, profiler.getSlowCount());
+		assertEquals(4, profiler.getQueryReports().length);
+
+		session.closeSession();
+
+		profiler.reset();
+		assertEquals(0, profiler.getQueryCount());
+	}
+
+	@Test
+	public void testLimitAndSlowQueries() {
+		DbQueryProfiler profiler = new DbQueryProfiler();
+		profiler.setMaxQueries(1);
+		profiler.setSlowQueryThreshold(1);
+		DbManager.getInstance().setProfiler(profiler);
+
+		profiler.onExecute("select 1", 2000000, 0);
+		profiler.onExecute("select 2", 10, 0);
+		profiler.onExecute("select 3", 10, 0);
+
+		assertEquals(1, profiler.getQueryCount());
+		assertEquals(3, profiler.getExecutionCount());
+		assertEquals(1, profiler.getSlowCount());
+		assertEquals(2, profiler.getStats(DbQueryProfiler.OTHER_QUERIES).getExecutionCount());
+
+		List<DbQueryStats> allStats = profiler.getAllStats();
+		assertEquals(2, allStats.size());
+		assertEquals("select 1", allStats.get(0).getSql());
+	}
+
+	@Test
+	public void testFailedQueries() {
+		DbQueryProfiler profiler = new DbQueryProfiler();
+		DbManager.getInstance().setProfiler(profiler);
+
+		DbSession session = new DbSession(cp);
+		DbQuery query = new DbQuery(session, "select * from NO_SUCH_TABLE");
+		try {
+			query.execute();
+			fail();
+		} catch (DbSqlException ignore) {
+		} finally {
+			query.close();
+			session.closeSession();
+		}
+
+		DbQueryStats stats = profiler.getStats("select * from NO_SUCH_TABLE");
+		assertNotNull(stats);
+		assertEquals(1, stats.getExecutionCount());
+		assertEquals(1, stats.getFailureCount());
+		assertTrue(stats.getMaxTime() > 0);
+	}
+
+	@Test
+	public void testMBean() throws Exception {
+		DbQueryProfiler profiler = new DbQueryProfiler();
+		profiler.registerMBean("jodd:type=DbQueryProfiler,name=test");
+
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName("jodd:type=DbQueryProfiler,name=test");
+		assertTrue(mBeanServer.isRegistered(objectName));
+
+		profiler.onExecute("select 1", 100, 0);
+		assertEquals(Long.valueOf(1), mBeanServer.getAttribute(objectName, "ExecutionCount"));
+
+		profiler.unregisterMBean();
+		assertFalse(mBeanServer.isRegistered(objectName));
+	}
+}
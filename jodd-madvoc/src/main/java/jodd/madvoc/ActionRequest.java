@@ -5,6 +5,7 @@ package jodd.madvoc;
 import jodd.madvoc.component.MadvocController;
 import jodd.madvoc.filter.ActionFilter;
 import jodd.madvoc.interceptor.ActionInterceptor;
+import jodd.madvoc.monitor.ActionStats;
 import jodd.exception.ExceptionUtil;
 
 import javax.servlet.http.HttpServletRequest;
@@ -38,6 +39,14 @@ public class ActionRequest {
 	protected String nextActionPath;
 	protected ActionRequest previousActionRequest;
 
+	protected ActionStats actionStats;	// set only when monitored
+	protected long startTime;
+	protected long filtersPassedMark;
+	protected long actionStartMark;
+	protected long actionEndMark;
+	protected long renderStartMark;
+	protected long renderEndMark;
+
 	// ---------------------------------------------------------------- accessors
 
 	/**
@@ -165,6 +174,10 @@ public class ActionRequest {
 
 		execState = 1;
 
+		if (actionStats != null && filtersPassedMark == 0) {
+			filtersPassedMark = mark();
+		}
+
 		Object actionResult = invokeAction();
 
 		if (execState == 2) {
@@ -172,7 +185,7 @@ public class ActionRequest {
 			if (interceptorIndex > 0) {
 				interceptorIndex--;
 			} else {
-				madvocController.render(this, actionResult);
+				render(actionResult);
 				execState = 3;
 			}
 		} else if (execState == 1) {
@@ -180,7 +193,7 @@ public class ActionRequest {
 			if (interceptorIndex > 1) {
 				interceptorIndex--;
 			} else {
-				madvocController.render(this, actionResult);
+				render(actionResult);
 				execState = 3;
 			}
 		}
@@ -188,6 +201,20 @@ public class ActionRequest {
 		return actionResult;
 	}
 
+	/**
+	 * Renders action result using the controller.
+	 */
+	protected void render(Object actionResult) throws Exception {
+		if (actionStats == null) {
+			madvocController.render(this, actionResult);
+			return;
+		}
+
+		renderStartMark = mark();
+		madvocController.render(this, actionResult);
+		renderEndMark = mark();
+	}
+
 	/**
 	 * Invokes all {@link jodd.madvoc.interceptor.ActionInterceptor action interceptors}
 	 * and the action method, returns action result object.
@@ -203,7 +230,16 @@ public class ActionRequest {
 		// action
 		execState = 2;
 
-		return invokeActionMethod();
+		if (actionStats == null) {
+			return invokeActionMethod();
+		}
+
+		actionStartMark = mark();
+		try {
+			return invokeActionMethod();
+		} finally {
+			actionEndMark = mark();
+		}
 	}
 
 	/**
@@ -218,5 +254,61 @@ public class ActionRequest {
 		}
 	}
 
+	// ---------------------------------------------------------------- monitor
+
+	/**
+	 * Starts monitoring of this action request. Times of all execution
+	 * phases will be collected during the invocation.
+	 */
+	public void startMonitoring(ActionStats actionStats) {
+		this.actionStats = actionStats;
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Stops monitoring and records collected times into the action statistics.
+	 * Filters time includes time spent in filters both before and after the
+	 * interceptors; the same goes for interceptors time in respect to the action.
+	 */
+	public void stopMonitoring(boolean error) {
+		if (actionStats == null) {
+			return;
+		}
+		long total = mark();
+
+		long actionTime = 0;
+		if (actionStartMark != 0) {
+			actionTime = actionEndMark - actionStartMark;
+		}
+
+		long renderTime = 0;
+		if (renderStartMark != 0) {
+			renderTime = (renderEndMark != 0 ? renderEndMark : total) - renderStartMark;
+		}
+
+		long interceptorsTime = 0;
+		if (filtersPassedMark != 0) {
+			interceptorsTime = (renderStartMark != 0 ? renderStartMark : total) - filtersPassedMark - actionTime;
+			if (interceptorsTime < 0) {
+				interceptorsTime = 0;
+			}
+		}
+
+		long filtersTime = total - interceptorsTime - actionTime - renderTime;
+		if (filtersTime < 0) {
+			filtersTime = 0;
+		}
+
+		actionStats.record(filtersTime, interceptorsTime, actionTime, renderTime, total, error);
+		actionStats = null;
+	}
+
+	/**
+	 * Returns time elapsed from the start of monitoring.
+	 */
+	protected long mark() {
+		return System.nanoTime() - startTime;
+	}
+
 
 }
\ No newline at end of file
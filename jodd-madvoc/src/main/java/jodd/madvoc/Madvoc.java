@@ -2,6 +2,7 @@
 
 package jodd.madvoc;
 
+import jodd.madvoc.component.ActionMonitor;
 import jodd.madvoc.component.ActionsManager;
 import jodd.madvoc.component.FiltersManager;
 import jodd.madvoc.component.InterceptorsManager;
@@ -239,6 +240,12 @@ public class Madvoc {
 			throw new MadvocException("No Madvoc controller component found.");
 		}
 		madvocController.init(servletContext);
+
+		// monitoring
+		ActionMonitor actionMonitor = webapp.getComponent(ActionMonitor.class);
+		if (actionMonitor != null) {
+			actionMonitor.start();
+		}
 	}
 
 	/**
@@ -246,6 +253,12 @@ public class Madvoc {
 	 */
 	public void stopWebApplication() {
 		log.info("Madvoc shutting down...");
+
+		ActionMonitor actionMonitor = webapp.getComponent(ActionMonitor.class);
+		if (actionMonitor != null) {
+			actionMonitor.stop();
+		}
+
 		webapp.destroy(madvocConfig);
 	}
 
@@ -319,4 +332,4 @@ public class Madvoc {
 		return configurator;
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
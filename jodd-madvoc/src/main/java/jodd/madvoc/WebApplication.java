@@ -2,6 +2,7 @@
 
 package jodd.madvoc;
 
+import jodd.madvoc.component.ActionMonitor;
 import jodd.madvoc.component.ActionPathMacroManager;
 import jodd.madvoc.component.FiltersManager;
 import jodd.madvoc.component.InterceptorsManager;
@@ -155,6 +156,7 @@ public class WebApplication {
 		log.debug("Registering Madvoc components");
 
 		registerComponent(ActionMethodParser.class);
+		registerComponent(ActionMonitor.class);
 		registerComponent(ActionPathMapper.class);
 		registerComponent(ActionPathRewriter.class);
 		registerComponent(ActionPathMacroManager.class);
@@ -0,0 +1,179 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.component;
+
+import jodd.log.Logger;
+import jodd.log.LoggerFactory;
+import jodd.madvoc.ActionConfig;
+import jodd.madvoc.monitor.ActionStats;
+import jodd.madvoc.monitor.ActionStatsSnapshot;
+import jodd.petite.meta.PetiteInject;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects run-time statistics of invoked actions, when
+ * {@link MadvocConfig#isActionMonitoringEnabled() monitoring is enabled}.
+ * Statistics are stored per {@link ActionConfig action configuration};
+ * lookups and updates are lock-free, so monitoring may be left on
+ * in production. Statistics are available via {@link #snapshot() snapshot}
+ * and, optionally, via JMX.
+ */
+public class ActionMonitor implements ActionMonitorMBean {
+
+	private static final Logger log = LoggerFactory.getLogger(ActionMonitor.class);
+
+	@PetiteInject
+	protected MadvocConfig madvocConfig;
+
+	protected final ConcurrentMap<ActionConfig, ActionStats> stats;
+	protected ObjectName registeredName;
+
+	public ActionMonitor() {
+		this.stats = new ConcurrentHashMap<ActionConfig, ActionStats>();
+	}
+
+	// ---------------------------------------------------------------- stats
+
+	/**
+	 * Returns statistics for given action configuration.
+	 * Statistics are created on first lookup.
+	 */
+	public ActionStats lookup(ActionConfig actionConfig) {
+		ActionStats actionStats = stats.get(actionConfig);
+
+		if (actionStats == null) {
+			actionStats = createActionStats(actionConfig);
+
+			ActionStats existing = stats.putIfAbsent(actionConfig, actionStats);
+			if (existing != null) {
+				actionStats = existing;
+			}
+		}
+		return actionStats;
+	}
+
+	/**
+	 * Creates new action statistics.
+	 */
+	protected ActionStats createActionStats(ActionConfig actionConfig) {
+		return new ActionStats(actionConfig);
+	}
+
+	/**
+	 * Returns snapshots of all monitored actions.
+	 */
+	public List<ActionStatsSnapshot> snapshot() {
+		List<ActionStatsSnapshot> list = new ArrayList<ActionStatsSnapshot>(stats.size());
+
+		for (ActionStats actionStats : stats.values()) {
+			list.add(actionStats.snapshot());
+		}
+		return list;
+	}
+
+	// ---------------------------------------------------------------- mbean
+
+	public int getActionCount() {
+		return stats.size();
+	}
+
+	public long getInvocationCount() {
+		long count = 0;
+		for (ActionStats actionStats : stats.values()) {
+			count += actionStats.getInvocationCount();
+		}
+		return count;
+	}
+
+	public long getErrorCount() {
+		long count = 0;
+		for (ActionStats actionStats : stats.values()) {
+			count += actionStats.getErrorCount();
+		}
+		return count;
+	}
+
+	public String[] getActionReports() {
+		List<ActionStatsSnapshot> snapshots = snapshot();
+
+		String[] reports = new String[snapshots.size()];
+		for (int i = 0; i < reports.length; i++) {
+			reports[i] = snapshots.get(i).toString();
+		}
+		return reports;
+	}
+
+	public void reset() {
+		for (ActionStats actionStats : stats.values()) {
+			actionStats.reset();
+		}
+	}
+
+	// ---------------------------------------------------------------- lifecycle
+
+	/**
+	 * Starts the monitor. Registers it as MBean if monitoring is enabled
+	 * and {@link MadvocConfig#getActionMonitorMBeanName() MBean name} is set.
+	 * When the name is already taken (e.g. by another web application in
+	 * the same JVM), <code>instance</code> key is appended to it. Failed
+	 * registration is logged and monitor continues to work without JMX.
+	 */
+	public void start() {
+		if (!madvocConfig.isActionMonitoringEnabled()) {
+			return;
+		}
+		String mbeanName = madvocConfig.getActionMonitorMBeanName();
+		if (mbeanName == null) {
+			return;
+		}
+
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName objectName = new ObjectName(mbeanName);
+			StandardMBean mbean = new StandardMBean(this, ActionMonitorMBean.class);
+
+			try {
+				mBeanServer.registerMBean(mbean, objectName);
+			} catch (InstanceAlreadyExistsException ignore) {
+				objectName = new ObjectName(mbeanName + ",instance=" + Integer.toHexString(System.identityHashCode(this)));
+				mBeanServer.registerMBean(mbean, objectName);
+			}
+
+			registeredName = objectName;
+		} catch (Exception ex) {
+			log.warn("Unable to register action monitor MBean: " + mbeanName, ex);
+			return;
+		}
+
+		if (log.isInfoEnabled()) {
+			log.info("Action monitor registered as: " + registeredName);
+		}
+	}
+
+	/**
+	 * Stops the monitor and unregisters the MBean, if registered.
+	 */
+	public void stop() {
+		if (registeredName == null) {
+			return;
+		}
+
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			mBeanServer.unregisterMBean(registeredName);
+		} catch (Exception ex) {
+			log.warn("Unable to unregister action monitor MBean: " + registeredName, ex);
+		}
+		registeredName = null;
+	}
+
+}
@@ -0,0 +1,35 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.component;
+
+/**
+ * JMX management interface of {@link ActionMonitor}.
+ */
+public interface ActionMonitorMBean {
+
+	/**
+	 * Returns number of monitored actions.
+	 */
+	int getActionCount();
+
+	/**
+	 * Returns total number of invocations of all actions.
+	 */
+	long getInvocationCount();
+
+	/**
+	 * Returns total number of failed invocations of all actions.
+	 */
+	long getErrorCount();
+
+	/**
+	 * Returns one-line report for each monitored action.
+	 */
+	String[] getActionReports();
+
+	/**
+	 * Resets all statistics.
+	 */
+	void reset();
+
+}
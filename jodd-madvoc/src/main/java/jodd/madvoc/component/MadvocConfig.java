@@ -48,6 +48,10 @@ public class MadvocConfig {
 		attributeMoveId = "_m_move_id";
 		pathMacroClass = WildcardPathMacros.class;
 		resultPathPrefix = null;
+		resultPathCacheSize = 32;
+		dispatcherTargetCacheSize = 1024;
+		actionMonitoringEnabled = false;
+		actionMonitorMBeanName = "jodd.madvoc:type=ActionMonitor";
 	}
 
 	// ---------------------------------------------------------------- action method annotations
@@ -353,6 +357,34 @@ public class MadvocConfig {
 		this.resultPathPrefix = resultPathPrefix;
 	}
 
+	protected int resultPathCacheSize;
+	protected int dispatcherTargetCacheSize;
+
+	public int getResultPathCacheSize() {
+		return resultPathCacheSize;
+	}
+
+	/**
+	 * Sets max number of cached result paths per action.
+	 * Non-positive value disables the cache.
+	 */
+	public void setResultPathCacheSize(int resultPathCacheSize) {
+		this.resultPathCacheSize = resultPathCacheSize;
+	}
+
+	public int getDispatcherTargetCacheSize() {
+		return dispatcherTargetCacheSize;
+	}
+
+	/**
+	 * Sets max number of cached {@link ServletDispatcherResult dispatcher} targets,
+	 * i.e. located JSP pages. Non-positive value disables the cache, what might
+	 * be useful during the development, when new pages are added in run-time.
+	 */
+	public void setDispatcherTargetCacheSize(int dispatcherTargetCacheSize) {
+		this.dispatcherTargetCacheSize = dispatcherTargetCacheSize;
+	}
+
 	// ---------------------------------------------------------------- attributes names
 
 	protected String attributeMoveId;
@@ -386,6 +418,33 @@ public class MadvocConfig {
 		this.pathMacroClass = pathMacroClass;
 	}
 
+	// ---------------------------------------------------------------- monitoring
+
+	protected boolean actionMonitoringEnabled;
+	protected String actionMonitorMBeanName;
+
+	public boolean isActionMonitoringEnabled() {
+		return actionMonitoringEnabled;
+	}
+
+	/**
+	 * Enables collecting of {@link ActionMonitor action statistics}.
+	 */
+	public void setActionMonitoringEnabled(boolean actionMonitoringEnabled) {
+		this.actionMonitoringEnabled = actionMonitoringEnabled;
+	}
+
+	public String getActionMonitorMBeanName() {
+		return actionMonitorMBeanName;
+	}
+
+	/**
+	 * Sets JMX object name of the {@link ActionMonitor action monitor}.
+	 * If set to <code>null</code>, monitor will not be registered as MBean.
+	 */
+	public void setActionMonitorMBeanName(String actionMonitorMBeanName) {
+		this.actionMonitorMBeanName = actionMonitorMBeanName;
+	}
 
 	// ---------------------------------------------------------------- toString
 
@@ -396,6 +455,8 @@ public class MadvocConfig {
 	public String toString() {
 		return "MadvocConfig{" +
 				"\n\tactionAnnotations=" + (actionAnnotations == null ? null : toString(actionAnnotations)) +
+				",\n\tactionMonitoringEnabled=" + actionMonitoringEnabled +
+				",\n\tactionMonitorMBeanName='" + actionMonitorMBeanName + '\'' +
 				",\n\tactionPathMappingEnabled=" + actionPathMappingEnabled +
 				",\n\tapplyCharacterEncoding=" + applyCharacterEncoding +
 				",\n\tattributeMoveId='" + attributeMoveId + '\'' +
@@ -405,11 +466,13 @@ public class MadvocConfig {
 				",\n\tdefaultInterceptors=" + (defaultInterceptors == null ? null : toString(defaultInterceptors)) +
 				",\n\tdefaultResultType='" + defaultResultType + '\'' +
 				",\n\tdetectDuplicatePathsEnabled=" + detectDuplicatePathsEnabled +
+				",\n\tdispatcherTargetCacheSize=" + dispatcherTargetCacheSize +
 				",\n\tencoding='" + encoding + '\'' +
 				",\n\tfileUploadFactory=" + fileUploadFactory +
 				",\n\tpathMacroClass=" + pathMacroClass.getName() +
 				",\n\tpreventCaching=" + preventCaching +
 				",\n\trequestScopeInjectorConfig=" + requestScopeInjectorConfig +
+				",\n\tresultPathCacheSize=" + resultPathCacheSize +
 				",\n\trootPackages=" + rootPackages +
 				",\n\tmadvocRootPackageClassName='" + madvocRootPackageClassName + '\'' +
 				",\n\tstrictExtensionStripForResultPath=" + strictExtensionStripForResultPath +
@@ -5,6 +5,7 @@ package jodd.madvoc.component;
 import jodd.madvoc.ActionConfig;
 import jodd.madvoc.ActionRequest;
 import jodd.madvoc.MadvocException;
+import jodd.madvoc.monitor.ActionStats;
 import jodd.madvoc.result.ActionResult;
 import jodd.petite.meta.PetiteInject;
 import jodd.servlet.ServletUtil;
@@ -39,6 +40,9 @@ public class MadvocController {
 	@PetiteInject
 	protected ResultMapper resultMapper;
 
+	@PetiteInject
+	protected ActionMonitor actionMonitor;
+
 	protected ServletContext applicationContext;
 
 	/**
@@ -111,13 +115,34 @@ public class MadvocController {
 			actionRequest.setPreviousActionRequest(previousRequest);
 
 			// invoke and render
-			actionRequest.invoke();
+			if (madvocConfig.isActionMonitoringEnabled()) {
+				invokeMonitored(actionRequest);
+			} else {
+				actionRequest.invoke();
+			}
 
 			actionPath = actionRequest.getNextActionPath();
 		}
 		return null;
 	}
 
+	/**
+	 * Invokes action request and records its {@link ActionStats statistics}.
+	 */
+	protected void invokeMonitored(ActionRequest actionRequest) throws Exception {
+		ActionStats actionStats = actionMonitor.lookup(actionRequest.getActionConfig());
+
+		actionRequest.startMonitoring(actionStats);
+
+		boolean error = true;
+		try {
+			actionRequest.invoke();
+			error = false;
+		} finally {
+			actionRequest.stopMonitoring(error);
+		}
+	}
+
 
 	// ---------------------------------------------------------------- render
 
@@ -169,7 +194,7 @@ public class MadvocController {
 		if (madvocConfig.isPreventCaching()) {
 			ServletUtil.preventCaching(actionRequest.getHttpServletResponse());
 		}
-		String resultPath = resultMapper.resolveResultPath(actionRequest.getActionConfig(), resultValue);
+		String resultPath = resultMapper.lookupResultPath(actionRequest.getActionConfig(), resultValue);
 		result.render(actionRequest, resultObject, resultValue, resultPath);
 	}
 
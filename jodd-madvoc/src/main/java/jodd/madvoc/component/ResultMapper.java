@@ -8,13 +8,18 @@ import jodd.madvoc.MadvocUtil;
 import jodd.util.StringPool;
 import jodd.util.StringUtil;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Maps action results to result path. Invoked just before the result itself.
+ * Resolved result paths are cached per action configuration and result value.
  */
 public class ResultMapper {
 
 	protected static final String REPL_CLASS = "[class]";
 	protected static final String REPL_METHOD = "[method]";
+	protected static final String NULL_RESULT_VALUE = "\u0000";
 
 	@PetiteInject
 	protected ActionsManager actionsManager;
@@ -22,6 +27,52 @@ public class ResultMapper {
 	@PetiteInject
 	protected MadvocConfig madvocConfig;
 
+	protected final ConcurrentMap<ActionConfig, ConcurrentMap<String, String>> resultPaths =
+			new ConcurrentHashMap<ActionConfig, ConcurrentMap<String, String>>();
+
+	/**
+	 * Returns result path from the cache, or {@link #resolveResultPath(jodd.madvoc.ActionConfig, String) resolves}
+	 * and caches it. Number of cached result values for single action is limited by
+	 * {@link MadvocConfig#getResultPathCacheSize()}, so dynamic result values
+	 * (e.g. redirects with parameters) do not fill the cache.
+	 */
+	public String lookupResultPath(ActionConfig cfg, String resultValue) {
+		int cacheSize = madvocConfig.getResultPathCacheSize();
+		if (cacheSize <= 0) {
+			return resolveResultPath(cfg, resultValue);
+		}
+
+		ConcurrentMap<String, String> actionResultPaths = resultPaths.get(cfg);
+		if (actionResultPaths == null) {
+			actionResultPaths = new ConcurrentHashMap<String, String>();
+
+			ConcurrentMap<String, String> existing = resultPaths.putIfAbsent(cfg, actionResultPaths);
+			if (existing != null) {
+				actionResultPaths = existing;
+			}
+		}
+
+		String key = resultValue != null ? resultValue : NULL_RESULT_VALUE;
+
+		String resultPath = actionResultPaths.get(key);
+		if (resultPath == null) {
+			resultPath = resolveResultPath(cfg, resultValue);
+
+			if (actionResultPaths.size() < cacheSize) {
+				actionResultPaths.put(key, resultPath);
+			}
+		}
+		return resultPath;
+	}
+
+	/**
+	 * Clears result paths cache. Should be invoked if aliases or
+	 * result related configuration changes in run-time.
+	 */
+	public void clearCache() {
+		resultPaths.clear();
+	}
+
 	/**
 	 * Returns resolved alias result value or passed on, if alias doesn't exist.
 	 */
@@ -5,7 +5,10 @@ package jodd.madvoc.config;
 import jodd.introspector.ClassDescriptor;
 import jodd.introspector.ClassIntrospector;
 import jodd.introspector.MethodDescriptor;
+import jodd.io.FileUtil;
 import jodd.io.findfile.ClassFinder;
+import jodd.io.findfile.ClassScanSession;
+import jodd.io.findfile.FindFile;
 import jodd.madvoc.MadvocException;
 import jodd.madvoc.WebApplication;
 import jodd.madvoc.component.ActionsManager;
@@ -17,13 +20,17 @@ import jodd.madvoc.meta.Action;
 import jodd.madvoc.result.ActionResult;
 import jodd.util.ClassLoaderUtil;
 import jodd.util.ReflectUtil;
+import jodd.util.StringUtil;
 import jodd.petite.meta.PetiteInject;
 import jodd.log.Logger;
 import jodd.log.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Default Madvoc configurator uses auto-magic to configure {@link WebApplication}.
@@ -33,6 +40,14 @@ import java.lang.reflect.Modifier;
  * <p>
  * Action class is scanned for the {@link MadvocAction}. All public methods with {@link Action}
  * are registered as Madvoc actions.
+ * <p>
+ * When {@link #setIndexFile(java.io.File) index file} is set, names of founded action and result
+ * classes are stored in it after the scanning. On next start, if classpath fingerprint is not
+ * changed, classes are registered from the index and classpath is not scanned.
+ * <p>
+ * Configurator may be also {@link #configure(jodd.io.findfile.ClassScanSession) registered}
+ * to a shared scan session, together with other automagic configurators.
+ * Index is not used in that case.
  */
 public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocConfigurator {
 
@@ -50,6 +65,9 @@ public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocCo
 	protected String actionClassSuffix;         // default action class suffix, for class path search
 	protected String resultClassSuffix;         // default action result class suffix, for class path search
 	protected long elapsed;
+	protected File indexFile;                   // index file, if used
+	protected List<String> actionClassNames;    // founded action classes
+	protected List<String> resultClassNames;    // founded result classes
 
 	public AutomagicMadvocConfigurator() {
 		actionClassSuffix = "Action";
@@ -57,6 +75,21 @@ public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocCo
 		elapsed = 0;
 	}
 
+	/**
+	 * Returns index file or <code>null</code> if index is not used.
+	 */
+	public File getIndexFile() {
+		return indexFile;
+	}
+
+	/**
+	 * Sets index file of founded action and result classes.
+	 * If set to <code>null</code>, classpath is always scanned.
+	 */
+	public void setIndexFile(File indexFile) {
+		this.indexFile = indexFile;
+	}
+
 	/**
 	 * Configures web application from system classpath
 	 * @see #configure(java.io.File[])
@@ -77,15 +110,42 @@ public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocCo
 	public void configure(File[] classpath) {
 		elapsed = System.currentTimeMillis();
 
-		try {
-			scanPaths(classpath);
-		} catch (Exception ex) {
-			throw new MadvocException("Unable to scan classpath.", ex); 
+		actionClassNames = new ArrayList<String>();
+		resultClassNames = new ArrayList<String>();
+
+		String fingerprint = null;
+		boolean indexed = false;
+
+		if (indexFile != null) {
+			fingerprint = resolveClasspathFingerprint(classpath);
+			indexed = loadIndex(fingerprint);
+		}
+
+		if (indexed == false) {
+			try {
+				scanPaths(classpath);
+			} catch (Exception ex) {
+				throw new MadvocException("Unable to scan classpath.", ex);
+			}
+
+			if (indexFile != null) {
+				saveIndex(fingerprint);
+			}
 		}
 		elapsed = System.currentTimeMillis() - elapsed;
 		log.info("Madvoc configured in " + elapsed + " ms. Total actions: " + actionsManager.getActionsCount());
 	}
 
+	/**
+	 * Registers this configurator to the shared scan session. Web application
+	 * is configured once the session scans the classpath.
+	 */
+	public void configure(ClassScanSession classScanSession) {
+		actionClassNames = new ArrayList<String>();
+		resultClassNames = new ArrayList<String>();
+
+		classScanSession.register(this);
+	}
 
 	/**
 	 * Parses class name that matches madvoc-related names.
@@ -162,6 +222,8 @@ public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocCo
 
 		ClassDescriptor cd = ClassIntrospector.lookup(actionClass);
 
+		List<Method> actionMethods = new ArrayList<Method>();
+
 		MethodDescriptor[] allMethodDescriptors = cd.getAllMethodDescriptors();
 		for (MethodDescriptor methodDescriptor : allMethodDescriptors) {
 			if (!methodDescriptor.isPublic()) {
@@ -180,7 +242,16 @@ public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocCo
 			if (hasAnnotation == false) {
 				continue;
 			}
-			actionsManager.register(actionClass, method);
+			actionMethods.add(method);
+		}
+
+		// registration is synchronized, as classes may be scanned in parallel
+		synchronized (this) {
+			actionClassNames.add(className);
+
+			for (Method method : actionMethods) {
+				actionsManager.register(actionClass, method);
+			}
 		}
 	}
 
@@ -194,8 +265,153 @@ public class AutomagicMadvocConfigurator extends ClassFinder implements MadvocCo
 			return;
 		}
 		if (ReflectUtil.isSubclass(resultClass, ActionResult.class) == true) {
-			resultsManager.register(resultClass);
+			synchronized (this) {
+				resultClassNames.add(className);
+				resultsManager.register(resultClass);
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------- index
+
+	private static final String INDEX_FINGERPRINT = "#";
+	private static final String INDEX_ACTION = "A:";
+	private static final String INDEX_RESULT = "R:";
+
+	/**
+	 * Registers classes from the index file. Returns <code>false</code>
+	 * if index does not exist, can not be read, is malformed or if
+	 * fingerprint is changed; then the classpath is scanned instead.
+	 */
+	protected boolean loadIndex(String fingerprint) {
+		if (indexFile.exists() == false) {
+			return false;
+		}
+
+		String[] lines;
+		try {
+			lines = FileUtil.readLines(indexFile);
+		} catch (IOException ioex) {
+			log.warn("Unable to read Madvoc index: " + indexFile, ioex);
+			return false;
+		}
+
+		if (lines.length == 0 || lines[0].equals(INDEX_FINGERPRINT + fingerprint) == false) {
+			log.info("Madvoc index is outdated: " + indexFile);
+			return false;
+		}
+
+		// validate all lines before registering any class
+		for (int i = 1; i < lines.length; i++) {
+			String line = lines[i];
+			if (line.length() <= INDEX_ACTION.length() ||
+					(line.startsWith(INDEX_ACTION) == false && line.startsWith(INDEX_RESULT) == false)) {
+				log.warn("Madvoc index is invalid, line " + (i + 1) + ": " + indexFile);
+				return false;
+			}
+		}
+
+		for (int i = 1; i < lines.length; i++) {
+			String line = lines[i];
+			String className = line.substring(INDEX_ACTION.length());
+
+			try {
+				if (line.startsWith(INDEX_ACTION)) {
+					onActionClass(className);
+				} else {
+					onResultClass(className);
+				}
+			} catch (ClassNotFoundException cnfex) {
+				throw new MadvocException("Unable to load indexed Madvoc class: " + className, cnfex);
+			}
+		}
+
+		if (log.isInfoEnabled()) {
+			log.info("Madvoc classes loaded from index: " + indexFile);
+		}
+		return true;
+	}
+
+	/**
+	 * Saves names of founded action and result classes to the index file.
+	 * Failure to save index is not fatal.
+	 */
+	protected void saveIndex(String fingerprint) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(INDEX_FINGERPRINT).append(fingerprint).append('\n');
+
+		for (String className : actionClassNames) {
+			sb.append(INDEX_ACTION).append(className).append('\n');
+		}
+		for (String className : resultClassNames) {
+			sb.append(INDEX_RESULT).append(className).append('\n');
+		}
+
+		try {
+			FileUtil.writeString(indexFile, sb.toString());
+		} catch (IOException ioex) {
+			log.warn("Unable to save Madvoc index: " + indexFile, ioex);
+		}
+	}
+
+	/**
+	 * Resolves classpath fingerprint. It depends on scanning configuration and
+	 * on path, size and modification time of each accepted jar and class file.
+	 * Jars are not opened, but class folders are walked through.
+	 */
+	protected String resolveClasspathFingerprint(File[] classpath) {
+		long hash = 17;
+
+		hash = hash(hash, actionClassSuffix);
+		hash = hash(hash, resultClassSuffix);
+		hash = hash(hash, includedEntries);
+		hash = hash(hash, excludedEntries);
+		hash = hash(hash, includedJars);
+		hash = hash(hash, excludedJars);
+
+		for (File file : classpath) {
+			String path = file.getAbsolutePath();
+
+			if (StringUtil.endsWithIgnoreCase(path, ".jar")) {
+				if (acceptJar(file) == false) {
+					continue;
+				}
+				hash = hash(hash, path);
+				hash = 31 * hash + file.length();
+				hash = 31 * hash + file.lastModified();
+			} else if (file.isDirectory()) {
+				hash = hash(hash, path);
+
+				FindFile ff = new FindFile().setIncludeDirs(false).setRecursive(true).searchPath(file);
+				File f;
+				while ((f = ff.nextFile()) != null) {
+					hash = hash(hash, f.getAbsolutePath());
+					hash = 31 * hash + f.length();
+					hash = 31 * hash + f.lastModified();
+				}
+			}
+		}
+		return Long.toHexString(hash);
+	}
+
+	private static long hash(long hash, String[] values) {
+		if (values == null) {
+			return 31 * hash;
+		}
+		for (String value : values) {
+			hash = hash(hash, value);
+		}
+		return hash;
+	}
+
+	private static long hash(long hash, String value) {
+		if (value == null) {
+			return 31 * hash;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			hash = 31 * hash + value.charAt(i);
 		}
+		return hash;
 	}
 
 }
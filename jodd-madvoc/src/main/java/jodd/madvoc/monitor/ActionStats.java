@@ -0,0 +1,119 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.monitor;
+
+import jodd.madvoc.ActionConfig;
+import jodd.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run-time statistics of single {@link ActionConfig action}.
+ * Counts invocations and errors and tracks latency histograms
+ * for each {@link Phase execution phase}. All updates are lock-free.
+ */
+public class ActionStats {
+
+	/**
+	 * Execution phases of an action request.
+	 */
+	public enum Phase {
+		/**
+		 * Time spent in action filters, before and after the interceptors.
+		 */
+		FILTERS,
+		/**
+		 * Time spent in action interceptors, before and after the action.
+		 */
+		INTERCEPTORS,
+		/**
+		 * Time spent in action method.
+		 */
+		ACTION,
+		/**
+		 * Time spent in rendering action result.
+		 */
+		RENDER,
+		/**
+		 * Total action request time.
+		 */
+		TOTAL
+	}
+
+	protected final ActionConfig actionConfig;
+	protected final AtomicLong invocations = new AtomicLong();
+	protected final AtomicLong errors = new AtomicLong();
+	protected final LatencyHistogram[] histograms;
+
+	public ActionStats(ActionConfig actionConfig) {
+		this.actionConfig = actionConfig;
+
+		Phase[] phases = Phase.values();
+		this.histograms = new LatencyHistogram[phases.length];
+		for (int i = 0; i < phases.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Returns action configuration these stats belongs to.
+	 */
+	public ActionConfig getActionConfig() {
+		return actionConfig;
+	}
+
+	/**
+	 * Returns latency histogram of some phase.
+	 */
+	public LatencyHistogram getHistogram(Phase phase) {
+		return histograms[phase.ordinal()];
+	}
+
+	/**
+	 * Records single action request execution. All times are in nanoseconds.
+	 */
+	public void record(long filtersTime, long interceptorsTime, long actionTime, long renderTime, long totalTime, boolean error) {
+		invocations.incrementAndGet();
+		if (error) {
+			errors.incrementAndGet();
+		}
+		histograms[Phase.FILTERS.ordinal()].add(filtersTime);
+		histograms[Phase.INTERCEPTORS.ordinal()].add(interceptorsTime);
+		histograms[Phase.ACTION.ordinal()].add(actionTime);
+		histograms[Phase.RENDER.ordinal()].add(renderTime);
+		histograms[Phase.TOTAL.ordinal()].add(totalTime);
+	}
+
+	/**
+	 * Returns number of invocations.
+	 */
+	public long getInvocationCount() {
+		return invocations.get();
+	}
+
+	/**
+	 * Returns number of invocations that ended with an exception.
+	 */
+	public long getErrorCount() {
+		return errors.get();
+	}
+
+	/**
+	 * Resets all counters.
+	 */
+	public void reset() {
+		invocations.set(0);
+		errors.set(0);
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * Creates immutable snapshot of current statistics.
+	 */
+	public ActionStatsSnapshot snapshot() {
+		return new ActionStatsSnapshot(this);
+	}
+
+}
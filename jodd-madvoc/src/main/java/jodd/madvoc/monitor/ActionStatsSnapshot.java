@@ -0,0 +1,130 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.monitor;
+
+import jodd.madvoc.monitor.ActionStats.Phase;
+import jodd.util.LatencyHistogram;
+
+/**
+ * Point-in-time copy of {@link ActionStats action statistics}.
+ * Since counters are updated concurrently, values are
+ * not necessarily consistent between themselves.
+ * All times are in nanoseconds.
+ */
+public class ActionStatsSnapshot {
+
+	protected final String actionPath;
+	protected final String actionString;
+	protected final long invocationCount;
+	protected final long errorCount;
+	protected final long[] totalTimes;
+	protected final long[] maxTimes;
+	protected final long[][] buckets;
+
+	public ActionStatsSnapshot(ActionStats actionStats) {
+		this.actionPath = actionStats.actionConfig.actionPath;
+		this.actionString = actionStats.actionConfig.getActionString();
+		this.invocationCount = actionStats.getInvocationCount();
+		this.errorCount = actionStats.getErrorCount();
+
+		Phase[] phases = Phase.values();
+		totalTimes = new long[phases.length];
+		maxTimes = new long[phases.length];
+		buckets = new long[phases.length][];
+
+		for (int i = 0; i < phases.length; i++) {
+			LatencyHistogram histogram = actionStats.histograms[i];
+			totalTimes[i] = histogram.getTotalTime();
+			maxTimes[i] = histogram.getMaxTime();
+			buckets[i] = histogram.getBuckets();
+		}
+	}
+
+	/**
+	 * Returns action path.
+	 */
+	public String getActionPath() {
+		return actionPath;
+	}
+
+	/**
+	 * Returns action string in form 'actionClass#actionMethod'.
+	 */
+	public String getActionString() {
+		return actionString;
+	}
+
+	/**
+	 * Returns number of invocations.
+	 */
+	public long getInvocationCount() {
+		return invocationCount;
+	}
+
+	/**
+	 * Returns number of failed invocations.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Returns total time spent in given phase.
+	 */
+	public long getTotalTime(Phase phase) {
+		return totalTimes[phase.ordinal()];
+	}
+
+	/**
+	 * Returns max time spent in given phase.
+	 */
+	public long getMaxTime(Phase phase) {
+		return maxTimes[phase.ordinal()];
+	}
+
+	/**
+	 * Returns mean time of given phase.
+	 */
+	public long getMeanTime(Phase phase) {
+		if (invocationCount == 0) {
+			return 0;
+		}
+		return totalTimes[phase.ordinal()] / invocationCount;
+	}
+
+	/**
+	 * Returns estimated percentile (0.0 - 1.0) of given phase.
+	 * @see LatencyHistogram#percentile(long[], double, long)
+	 */
+	public long getPercentile(Phase phase, double percentile) {
+		int ndx = phase.ordinal();
+		return LatencyHistogram.percentile(buckets[ndx], percentile, maxTimes[ndx]);
+	}
+
+	/**
+	 * Returns histogram buckets of given phase.
+	 */
+	public long[] getBuckets(Phase phase) {
+		return buckets[phase.ordinal()].clone();
+	}
+
+	/**
+	 * Returns one-line report, with times in microseconds.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(actionPath)
+			.append(" count=").append(invocationCount)
+			.append(" errors=").append(errorCount);
+
+		for (Phase phase : Phase.values()) {
+			sb.append(' ').append(phase.name().toLowerCase())
+				.append("[mean=").append(getMeanTime(phase) / 1000)
+				.append(" p99=").append(getPercentile(phase, 0.99) / 1000)
+				.append(" max=").append(getMaxTime(phase) / 1000)
+				.append(']');
+		}
+		return sb.toString();
+	}
+}
@@ -9,15 +9,23 @@ import jodd.madvoc.meta.In;
 import jodd.madvoc.component.MadvocConfig;
 import jodd.servlet.ServletUtil;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Raw results directly writes byte context to the output.
  * Content type and charset encoding (e.g. set by Madvoc) is ignored
  * and new values should be set here. Output is closed after writing.
+ * <p>
+ * {@link RawStream Stream data} is written without loading the content
+ * into the memory. File content is transferred from the file channel
+ * and supports single HTTP range requests.
  */
 public class RawResult extends ActionResult {
 
@@ -35,6 +43,10 @@ public class RawResult extends ActionResult {
 		if (resultObject == null) {
 			return;
 		}
+		if (resultObject instanceof RawStream) {
+			renderStream(actionRequest, (RawStream) resultObject);
+			return;
+		}
 		if (resultObject instanceof RawResultData != true) {
 			String encoding = madvocConfig.getEncoding();
 			resultObject = new RawData(resultValue.getBytes(encoding));
@@ -58,4 +70,166 @@ public class RawResult extends ActionResult {
 
 		StreamUtil.close(contentInputStream);
 	}
+
+	// ---------------------------------------------------------------- stream
+
+	/**
+	 * Renders stream data. Content that is not available as a channel
+	 * is copied using the fixed buffer. Channel content is transferred
+	 * for requested range.
+	 */
+	protected void renderStream(ActionRequest actionRequest, RawStream rawStream) throws IOException {
+		HttpServletResponse response = actionRequest.getHttpServletResponse();
+
+		if (rawStream.isRangeSupported() == false) {
+			ServletUtil.prepareResponse(response, rawStream.getDownloadFileName(), rawStream.getMimeType(), -1);
+			setContentLength(response, rawStream.getStreamLength());
+
+			InputStream contentInputStream = rawStream.getContentInputStream();
+			try {
+				OutputStream out = response.getOutputStream();
+				StreamUtil.copy(contentInputStream, out);
+				out.flush();
+			} finally {
+				StreamUtil.close(contentInputStream);
+			}
+			return;
+		}
+
+		FileChannel channel = rawStream.getContentChannel();
+		try {
+			long size = channel.size();
+			long start = 0;
+			long end = size - 1;
+
+			response.setHeader("Accept-Ranges", "bytes");
+
+			HttpServletRequest request = actionRequest.getHttpServletRequest();
+			String range = request.getHeader("Range");
+
+			if (range != null) {
+				long[] bounds = resolveRange(range, size);
+
+				if (bounds == null) {
+					response.setHeader("Content-Range", "bytes */" + size);
+					response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					return;
+				}
+				if (bounds.length == 2) {
+					start = bounds[0];
+					end = bounds[1];
+					response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+					response.setHeader("Content-Range", "bytes " + start + '-' + end + '/' + size);
+				}
+			}
+
+			long count = end - start + 1;
+
+			ServletUtil.prepareResponse(response, rawStream.getDownloadFileName(), rawStream.getMimeType(), -1);
+			setContentLength(response, count);
+
+			OutputStream out = response.getOutputStream();
+			transfer(channel, start, count, out);
+			out.flush();
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException ignore) {
+			}
+		}
+	}
+
+	/**
+	 * Transfers part of the channel to the output using
+	 * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+	 * Servlet output is just a stream, wrapped with
+	 * {@link Channels#newChannel(OutputStream)}, so content is still copied
+	 * through a buffer, chunk by chunk; this is not a zero-copy transfer.
+	 */
+	protected void transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+		WritableByteChannel target = Channels.newChannel(out);
+
+		while (count > 0) {
+			long transferred = channel.transferTo(position, count, target);
+			if (transferred <= 0) {
+				break;
+			}
+			position += transferred;
+			count -= transferred;
+		}
+	}
+
+	/**
+	 * Sets content length that may be larger then <code>int</code>.
+	 * Negative length is ignored.
+	 */
+	protected void setContentLength(HttpServletResponse response, long length) {
+		if (length < 0) {
+			return;
+		}
+		if (length <= Integer.MAX_VALUE) {
+			response.setContentLength((int) length);
+		} else {
+			response.setHeader("Content-Length", String.valueOf(length));
+		}
+	}
+
+	/**
+	 * Resolves single byte range from the <code>Range</code> header value.
+	 * Returns array of first and last byte position, or an empty array
+	 * if header should be ignored and whole content returned (i.e. for
+	 * invalid and multiple ranges). Returns <code>null</code> if range
+	 * is not satisfiable.
+	 */
+	protected static long[] resolveRange(String range, long size) {
+		range = range.trim();
+		if (!range.startsWith("bytes=")) {
+			return new long[0];
+		}
+		range = range.substring(6).trim();
+		if (range.indexOf(',') != -1) {
+			return new long[0];
+		}
+
+		int dashIndex = range.indexOf('-');
+		if (dashIndex == -1) {
+			return new long[0];
+		}
+
+		String first = range.substring(0, dashIndex).trim();
+		String last = range.substring(dashIndex + 1).trim();
+
+		long start;
+		long end;
+		try {
+			if (first.length() == 0) {
+				// suffix range: last N bytes
+				if (last.length() == 0) {
+					return new long[0];
+				}
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0 || size == 0) {
+					return null;
+				}
+				start = suffix >= size ? 0 : size - suffix;
+				end = size - 1;
+			} else {
+				start = Long.parseLong(first);
+				if (start >= size) {
+					return null;
+				}
+				end = last.length() == 0 ? size - 1 : Long.parseLong(last);
+				if (end < start) {
+					return new long[0];
+				}
+				if (end >= size) {
+					end = size - 1;
+				}
+			}
+		} catch (NumberFormatException ignore) {
+			return new long[0];
+		}
+
+		return new long[] {start, end};
+	}
 }
@@ -0,0 +1,123 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.result;
+
+import jodd.madvoc.MadvocException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Streaming data for raw results. Content is never loaded into
+ * the memory, but written directly to the output using fixed buffer.
+ * File content is transferred using {@link FileChannel} and supports
+ * HTTP range requests, so downloads may be resumed.
+ * Content length is a <code>long</code>, so content may be larger then 2GB.
+ */
+public class RawStream extends RawResultData {
+
+	protected final File file;
+	protected FileChannel channel;
+	protected final long streamLength;
+
+	/**
+	 * Creates stream data from an input stream.
+	 * If length is negative, it will be ignored.
+	 */
+	public RawStream(InputStream inputStream, String downloadFileName, String mimeType, long length) {
+		super(inputStream, downloadFileName, mimeType, toIntLength(length));
+		this.file = null;
+		this.channel = null;
+		this.streamLength = length;
+	}
+
+	public RawStream(InputStream inputStream, String mimeType, long length) {
+		this(inputStream, null, mimeType, length);
+	}
+
+	/**
+	 * Creates stream data from a file. File is opened
+	 * lazily, during the rendering.
+	 */
+	public RawStream(File file, String downloadFileName, String mimeType) {
+		super(null, downloadFileName, mimeType, toIntLength(file.length()));
+		this.file = file;
+		this.channel = null;
+		this.streamLength = file.length();
+	}
+
+	public RawStream(File file, String mimeType) {
+		this(file, file.getName(), mimeType);
+	}
+
+	public RawStream(File file) {
+		this(file, null);
+	}
+
+	/**
+	 * Creates stream data from a file channel. Channel
+	 * is closed after the rendering.
+	 */
+	public RawStream(FileChannel channel, String downloadFileName, String mimeType, long length) {
+		super(null, downloadFileName, mimeType, toIntLength(length));
+		this.file = null;
+		this.channel = channel;
+		this.streamLength = length;
+	}
+
+	private static int toIntLength(long length) {
+		if (length > Integer.MAX_VALUE) {
+			return -1;
+		}
+		return (int) length;
+	}
+
+	// ---------------------------------------------------------------- content
+
+	/**
+	 * Returns content channel or <code>null</code> if content
+	 * is provided only as an input stream. Opens the file on first call.
+	 */
+	public FileChannel getContentChannel() {
+		if (channel == null && file != null) {
+			try {
+				channel = new FileInputStream(file).getChannel();
+			} catch (FileNotFoundException fnfex) {
+				throw new MadvocException(fnfex);
+			}
+		}
+		return channel;
+	}
+
+	/**
+	 * Returns content input stream. For file and channel content,
+	 * stream is created from the {@link #getContentChannel() channel}.
+	 */
+	@Override
+	public InputStream getContentInputStream() {
+		if (inputStream != null) {
+			return inputStream;
+		}
+		return Channels.newInputStream(getContentChannel());
+	}
+
+	/**
+	 * Returns content length, may be larger then <code>int</code>.
+	 * Returns negative value if length is not known.
+	 */
+	public long getStreamLength() {
+		return streamLength;
+	}
+
+	/**
+	 * Returns <code>true</code> if content supports range requests.
+	 */
+	public boolean isRangeSupported() {
+		return inputStream == null;
+	}
+
+}
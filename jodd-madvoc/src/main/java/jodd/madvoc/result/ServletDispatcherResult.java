@@ -4,6 +4,9 @@ package jodd.madvoc.result;
 
 import jodd.madvoc.ActionRequest;
 import jodd.madvoc.MadvocUtil;
+import jodd.madvoc.ScopeType;
+import jodd.madvoc.component.MadvocConfig;
+import jodd.madvoc.meta.In;
 import jodd.servlet.DispatcherUtil;
 
 import javax.servlet.RequestDispatcher;
@@ -12,9 +15,12 @@ import javax.servlet.http.HttpServletResponse;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Dispatches to a JSP page.
+ * Dispatches to a JSP page. Located targets are cached per result path,
+ * up to the {@link MadvocConfig#getDispatcherTargetCacheSize() limit}.
  * 
  * @see ServletRedirectResult
  */
@@ -27,6 +33,11 @@ public class ServletDispatcherResult extends ActionResult {
 		super(NAME);
 	}
 
+	@In(scope = ScopeType.CONTEXT)
+	protected MadvocConfig madvocConfig;
+
+	protected final ConcurrentMap<String, String> targets = new ConcurrentHashMap<String, String>();
+
 
 	/**
 	 * Dispatches to the JSP location created from result value and JSP extension.
@@ -38,23 +49,20 @@ public class ServletDispatcherResult extends ActionResult {
 		HttpServletRequest request = actionRequest.getHttpServletRequest();
 		HttpServletResponse response = actionRequest.getHttpServletResponse();
 
-		String target;
-		String originalResultPath = resultPath;
-		while (true) {
-			target = resultPath + EXTENSION;
-			try {
-				if (locateTarget(request, target) != null) {
-					break;
-				}
-			} catch (MalformedURLException muex) {
-				// ignore
-			}
-			int dotNdx = MadvocUtil.lastIndexOfDotAfterSlash(resultPath);
-			if (dotNdx == -1) {
-				response.sendError(SC_NOT_FOUND, "Result '" + originalResultPath + EXTENSION + "' or any its variant not found.");
+		String target = targets.get(resultPath);
+
+		if (target == null) {
+			target = resolveTarget(request, resultPath);
+
+			if (target == null) {
+				response.sendError(SC_NOT_FOUND, "Result '" + resultPath + EXTENSION + "' or any its variant not found.");
 				return;
 			}
-			resultPath = resultPath.substring(0, dotNdx);
+
+			int cacheSize = madvocConfig != null ? madvocConfig.getDispatcherTargetCacheSize() : 0;
+			if (targets.size() < cacheSize) {
+				targets.put(resultPath, target);
+			}
 		}
 
 		RequestDispatcher dispatcher = request.getRequestDispatcher(target);
@@ -73,6 +81,30 @@ public class ServletDispatcherResult extends ActionResult {
 	}
 
 
+	/**
+	 * Resolves target from the result path. Result path is
+	 * stripped from the end, one dot-separated part at a time,
+	 * until target is located. Returns <code>null</code> if
+	 * target is not found.
+	 */
+	protected String resolveTarget(HttpServletRequest request, String resultPath) throws Exception {
+		while (true) {
+			String target = resultPath + EXTENSION;
+			try {
+				if (locateTarget(request, target) != null) {
+					return target;
+				}
+			} catch (MalformedURLException muex) {
+				// ignore
+			}
+			int dotNdx = MadvocUtil.lastIndexOfDotAfterSlash(resultPath);
+			if (dotNdx == -1) {
+				return null;
+			}
+			resultPath = resultPath.substring(0, dotNdx);
+		}
+	}
+
 	/**
 	 * Locates target.
 	 */
@@ -6,9 +6,15 @@ import jodd.madvoc.component.ActionMethodParser;
 import jodd.madvoc.component.ActionsManager;
 import jodd.madvoc.component.MadvocConfig;
 import jodd.madvoc.component.ResultMapper;
+import jodd.madvoc.perf.ServletStub;
+import jodd.madvoc.result.ServletDispatcherResult;
 import jodd.madvoc.tst.BooAction;
 import org.junit.Test;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+
 import static org.junit.Assert.*;
 
 public class ActionResultTest extends MadvocTestCase {
@@ -391,4 +397,87 @@ public class ActionResultTest extends MadvocTestCase {
 		assertEquals("/boo.foo.ok", resultPath);
 	}
 
+	@Test
+	public void testLookupCache() {
+		WebApplication webapp = new WebApplication(true);
+		webapp.registerMadvocComponents();
+		ResultMapper resultMapper = webapp.getComponent(ResultMapper.class);
+		ActionMethodParser actionMethodParser = webapp.getComponent(ActionMethodParser.class);
+		MadvocConfig config = webapp.getComponent(MadvocConfig.class);
+
+		ActionConfig cfg = parse(actionMethodParser, "tst.BooAction#foo");
+
+		config.setResultPathCacheSize(2);
+
+		String resultPath = resultMapper.lookupResultPath(cfg, "#ok");
+		assertEquals("/boo.ok", resultPath);
+		assertSame(resultPath, resultMapper.lookupResultPath(cfg, "#ok"));
+
+		resultPath = resultMapper.lookupResultPath(cfg, null);
+		assertEquals("/boo.foo", resultPath);
+		assertSame(resultPath, resultMapper.lookupResultPath(cfg, null));
+
+		// cache is full
+		resultPath = resultMapper.lookupResultPath(cfg, "#[method].ok");
+		assertEquals("/boo.foo.ok", resultPath);
+		assertNotSame(resultPath, resultMapper.lookupResultPath(cfg, "#[method].ok"));
+
+		resultMapper.clearCache();
+		config.setResultPathCacheSize(0);
+
+		resultPath = resultMapper.lookupResultPath(cfg, "#ok");
+		assertEquals("/boo.ok", resultPath);
+		assertNotSame(resultPath, resultMapper.lookupResultPath(cfg, "#ok"));
+	}
+
+	static class CountingDispatcherResult extends ServletDispatcherResult {
+		int resolved;
+
+		CountingDispatcherResult(MadvocConfig madvocConfig) {
+			this.madvocConfig = madvocConfig;
+		}
+
+		@Override
+		protected String resolveTarget(HttpServletRequest request, String resultPath) throws Exception {
+			resolved++;
+			return super.resolveTarget(request, resultPath);
+		}
+	}
+
+	@Test
+	public void testDispatcherTargetCache() throws Exception {
+		WebApplication webapp = new WebApplication(true);
+		webapp.registerMadvocComponents();
+		ActionMethodParser actionMethodParser = webapp.getComponent(ActionMethodParser.class);
+		MadvocConfig config = webapp.getComponent(MadvocConfig.class);
+
+		config.setDispatcherTargetCacheSize(1);
+		CountingDispatcherResult result = new CountingDispatcherResult(config);
+
+		HttpServletRequest request = ServletStub.createRequest(
+				ServletStub.createSession(ServletStub.createServletContext()), "/boo.foo.html", new HashMap<String, String[]>());
+		HttpServletResponse response = ServletStub.createResponse();
+		ActionRequest actionRequest = new ActionRequest(
+				null, "/boo.foo.html", parse(actionMethodParser, "tst.BooAction#foo"), null, request, response);
+
+		result.render(actionRequest, null, "ok", "/boo.ok");
+		assertEquals("/boo.ok.jsp", ServletStub.getDispatchedPath(request));
+		result.render(actionRequest, null, "ok", "/boo.ok");
+		assertEquals(1, result.resolved);
+
+		// cache is full
+		result.render(actionRequest, null, "foo", "/boo.foo");
+		assertEquals("/boo.foo.jsp", ServletStub.getDispatchedPath(request));
+		result.render(actionRequest, null, "foo", "/boo.foo");
+		assertEquals(3, result.resolved);
+
+		// cache is disabled
+		config.setDispatcherTargetCacheSize(0);
+		result = new CountingDispatcherResult(config);
+		result.render(actionRequest, null, "ok", "/boo.ok");
+		result.render(actionRequest, null, "ok", "/boo.ok");
+		assertEquals(2, result.resolved);
+		assertEquals("/boo.ok.jsp", ServletStub.getDispatchedPath(request));
+	}
+
 }
\ No newline at end of file
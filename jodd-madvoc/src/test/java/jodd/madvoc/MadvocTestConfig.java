@@ -23,5 +23,6 @@ public class MadvocTestConfig implements MadvocConfigurator {
 
 		actionsManager.register(ResultsTest.class, "madvocEncoding", "/textResultEncoding");
 		actionsManager.register(ResultsTest.class, "madvocRawImage", "/madvocRawImage");
+		actionsManager.register(ResultsTest.class, "madvocRawStream", "/madvocRawStream");
 	}
 }
\ No newline at end of file
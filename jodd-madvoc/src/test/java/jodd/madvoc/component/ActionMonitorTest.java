@@ -0,0 +1,150 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.component;
+
+import jodd.madvoc.ActionConfig;
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.WebApplication;
+import jodd.madvoc.filter.ActionFilter;
+import jodd.madvoc.interceptor.ActionInterceptor;
+import jodd.madvoc.monitor.ActionStats;
+import jodd.madvoc.monitor.ActionStatsSnapshot;
+import jodd.util.ReflectUtil;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static jodd.madvoc.monitor.ActionStats.Phase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ActionMonitorTest {
+
+	public static class FooAction {
+		public void view() {
+		}
+		public void fail() {
+			throw new IllegalStateException();
+		}
+	}
+
+	public static class NoRenderMadvocController extends MadvocController {
+		@Override
+		public void render(ActionRequest actionRequest, Object resultObject) throws Exception {
+		}
+	}
+
+	@Test
+	public void testLookup() {
+		WebApplication webapp = new WebApplication(true);
+		webapp.registerMadvocComponents();
+		ActionMonitor actionMonitor = webapp.getComponent(ActionMonitor.class);
+
+		ActionConfig actionConfig = createActionConfig("view");
+
+		ActionStats actionStats = actionMonitor.lookup(actionConfig);
+		assertSame(actionStats, actionMonitor.lookup(actionConfig));
+		assertSame(actionConfig, actionStats.getActionConfig());
+		assertEquals(1, actionMonitor.getActionCount());
+	}
+
+	@Test
+	public void testMonitoring() throws Exception {
+		WebApplication webapp = new WebApplication(true);
+		webapp.registerMadvocComponents();
+		ActionMonitor actionMonitor = webapp.getComponent(ActionMonitor.class);
+
+		ActionConfig actionConfig = createActionConfig("view");
+		ActionStats actionStats = actionMonitor.lookup(actionConfig);
+
+		for (int i = 0; i < 3; i++) {
+			ActionRequest actionRequest = new ActionRequest(
+					new NoRenderMadvocController(), "/foo", actionConfig, new FooAction(), null, null);
+
+			actionRequest.startMonitoring(actionStats);
+			actionRequest.invoke();
+			actionRequest.stopMonitoring(false);
+		}
+
+		ActionConfig failConfig = createActionConfig("fail");
+		ActionRequest actionRequest = new ActionRequest(
+				new NoRenderMadvocController(), "/fail", failConfig, new FooAction(), null, null);
+		actionRequest.startMonitoring(actionMonitor.lookup(failConfig));
+		try {
+			actionRequest.invoke();
+			fail();
+		} catch (IllegalStateException ignore) {
+			actionRequest.stopMonitoring(true);
+		}
+
+		assertEquals(4, actionMonitor.getInvocationCount());
+		assertEquals(1, actionMonitor.getErrorCount());
+
+		ActionStatsSnapshot snapshot = actionStats.snapshot();
+		assertEquals(3, snapshot.getInvocationCount());
+		assertEquals(0, snapshot.getErrorCount());
+
+		long sum = 0;
+		for (Phase phase : new Phase[] {Phase.FILTERS, Phase.INTERCEPTORS, Phase.ACTION, Phase.RENDER}) {
+			sum += snapshot.getTotalTime(phase);
+		}
+		assertEquals(snapshot.getTotalTime(Phase.TOTAL), sum);
+		assertTrue(snapshot.getTotalTime(Phase.ACTION) > 0);
+
+		List<ActionStatsSnapshot> snapshots = actionMonitor.snapshot();
+		assertEquals(2, snapshots.size());
+		assertEquals(2, actionMonitor.getActionReports().length);
+
+		actionMonitor.reset();
+		assertEquals(0, actionMonitor.getInvocationCount());
+		assertEquals(0, actionStats.getHistogram(Phase.TOTAL).getMaxTime());
+	}
+
+	@Test
+	public void testMBeanNameClash() {
+		ActionMonitor first = createStartedMonitor();
+		ActionMonitor second = createStartedMonitor();
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+			assertNotNull(first.registeredName);
+			assertNotNull(second.registeredName);
+			assertFalse(first.registeredName.equals(second.registeredName));
+			assertTrue(mBeanServer.isRegistered(first.registeredName));
+			assertTrue(mBeanServer.isRegistered(second.registeredName));
+		} finally {
+			first.stop();
+			second.stop();
+		}
+		assertNull(first.registeredName);
+		assertNull(second.registeredName);
+	}
+
+	// ---------------------------------------------------------------- util
+
+	private ActionMonitor createStartedMonitor() {
+		WebApplication webapp = new WebApplication(true);
+		webapp.registerMadvocComponents();
+		webapp.getComponent(MadvocConfig.class).setActionMonitoringEnabled(true);
+
+		ActionMonitor actionMonitor = webapp.getComponent(ActionMonitor.class);
+		actionMonitor.start();
+		return actionMonitor;
+	}
+
+	private ActionConfig createActionConfig(String methodName) {
+		return new ActionConfig(
+				FooAction.class,
+				ReflectUtil.findMethod(FooAction.class, methodName),
+				new ActionFilter[0], new ActionInterceptor[0],
+				"/" + methodName, null, null, null);
+	}
+
+}
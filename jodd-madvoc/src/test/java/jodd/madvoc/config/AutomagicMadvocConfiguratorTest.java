@@ -0,0 +1,120 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.config;
+
+import jodd.io.FileUtil;
+import jodd.madvoc.WebApplication;
+import jodd.madvoc.component.ActionsManager;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AutomagicMadvocConfiguratorTest {
+
+	@Test
+	public void testIndex() throws IOException {
+		File indexFile = FileUtil.createTempFile();
+		indexFile.delete();
+
+		try {
+			// first run scans the classpath and creates the index
+
+			WebApplication webapp = new WebApplication(true);
+			webapp.registerMadvocComponents();
+
+			AutomagicMadvocConfigurator configurator = new AutomagicMadvocConfigurator();
+			configurator.setIncludedEntries("jodd.madvoc.tst.Boo1*");
+			configurator.setIndexFile(indexFile);
+			webapp.configure(configurator);
+
+			int actionsCount = webapp.getComponent(ActionsManager.class).getActionsCount();
+			assertTrue(actionsCount > 0);
+			assertTrue(indexFile.exists());
+
+			// second run uses the index
+
+			webapp = new WebApplication(true);
+			webapp.registerMadvocComponents();
+
+			configurator = new AutomagicMadvocConfigurator() {
+				@Override
+				protected void onEntry(EntryData entryData) {
+					fail("Index not used");
+				}
+			};
+			configurator.setIncludedEntries("jodd.madvoc.tst.Boo1*");
+			configurator.setIndexFile(indexFile);
+			webapp.configure(configurator);
+
+			assertEquals(actionsCount, webapp.getComponent(ActionsManager.class).getActionsCount());
+
+			// changed configuration invalidates the index
+
+			webapp = new WebApplication(true);
+			webapp.registerMadvocComponents();
+
+			final int[] entries = new int[1];
+			configurator = new AutomagicMadvocConfigurator() {
+				@Override
+				protected void onEntry(EntryData entryData) {
+					entries[0]++;
+					super.onEntry(entryData);
+				}
+			};
+			configurator.setIncludedEntries("jodd.madvoc.tst.Boo3*");
+			configurator.setIndexFile(indexFile);
+			webapp.configure(configurator);
+
+			assertTrue(entries[0] > 0);
+		} finally {
+			indexFile.delete();
+		}
+	}
+
+	@Test
+	public void testMalformedIndex() throws IOException {
+		File indexFile = FileUtil.createTempFile();
+		indexFile.delete();
+
+		try {
+			WebApplication webapp = new WebApplication(true);
+			webapp.registerMadvocComponents();
+
+			AutomagicMadvocConfigurator configurator = new AutomagicMadvocConfigurator();
+			configurator.setIncludedEntries("jodd.madvoc.tst.Boo1*");
+			configurator.setIndexFile(indexFile);
+			webapp.configure(configurator);
+
+			int actionsCount = webapp.getComponent(ActionsManager.class).getActionsCount();
+
+			// blank and truncated lines invalidate the index
+
+			FileUtil.appendString(indexFile, "\nA\n");
+
+			webapp = new WebApplication(true);
+			webapp.registerMadvocComponents();
+
+			final int[] entries = new int[1];
+			configurator = new AutomagicMadvocConfigurator() {
+				@Override
+				protected void onEntry(EntryData entryData) {
+					entries[0]++;
+					super.onEntry(entryData);
+				}
+			};
+			configurator.setIncludedEntries("jodd.madvoc.tst.Boo1*");
+			configurator.setIndexFile(indexFile);
+			webapp.configure(configurator);
+
+			assertTrue(entries[0] > 0);
+			assertEquals(actionsCount, webapp.getComponent(ActionsManager.class).getActionsCount());
+		} finally {
+			indexFile.delete();
+		}
+	}
+}
@@ -0,0 +1,276 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.perf;
+
+import jodd.madvoc.Madvoc;
+import jodd.madvoc.MadvocException;
+import jodd.madvoc.component.ActionMonitor;
+import jodd.madvoc.component.MadvocController;
+import jodd.madvoc.monitor.ActionStatsSnapshot;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Madvoc load-test harness. Runs {@link Scenario scenarios} against the
+ * {@link MadvocController} directly, using {@link ServletStub in-memory servlet stubs}
+ * instead of a web container, so results reflect the framework overhead only.
+ * Each scenario is executed by a number of threads for the warmup period,
+ * and then measured for the given duration.
+ * <p>
+ * Usage: <code>MadvocBenchmark [-threads N] [-warmup ms] [-time ms] [-monitor] [scenario...]</code>
+ */
+public class MadvocBenchmark {
+
+	/**
+	 * Benchmark scenarios.
+	 */
+	public static enum Scenario {
+		TEXT("/perf/text"),
+		PARAMS("/perf/params"),
+		INTERCEPTED("/perf/intercepted"),
+		CHAIN("/perf/chain"),
+		RAW("/perf/raw"),
+		DISPATCH("/perf/dispatch");
+
+		private final String actionPath;
+
+		Scenario(String actionPath) {
+			this.actionPath = actionPath;
+		}
+
+		public String getActionPath() {
+			return actionPath;
+		}
+	}
+
+	protected final Madvoc madvoc;
+	protected final MadvocController madvocController;
+	protected final ServletContext servletContext;
+	protected final HttpSession session;
+	protected final Map<String, String[]> parameters;
+
+	public MadvocBenchmark() {
+		servletContext = ServletStub.createServletContext();
+		session = ServletStub.createSession(servletContext);
+
+		parameters = new HashMap<String, String[]>();
+		parameters.put("name", new String[] {"jodd"});
+		parameters.put("id", new String[] {"173"});
+
+		madvoc = new Madvoc();
+		madvoc.setMadvocConfiguratorClass(PerfMadvocConfigurator.class);
+		madvoc.startNewWebApplication(servletContext);
+
+		madvocController = madvoc.getMadvocController();
+	}
+
+	/**
+	 * Enables or disables {@link ActionMonitor action monitoring}.
+	 */
+	public void setMonitoringEnabled(boolean enabled) {
+		madvoc.getMadvocConfig().setActionMonitoringEnabled(enabled);
+	}
+
+	/**
+	 * Returns action statistics collected while monitoring was enabled.
+	 */
+	public List<ActionStatsSnapshot> getActionStats() {
+		return madvoc.getWebApplication().getComponent(ActionMonitor.class).snapshot();
+	}
+
+	/**
+	 * Stops Madvoc.
+	 */
+	public void stop() {
+		madvoc.stopWebApplication();
+	}
+
+	// ---------------------------------------------------------------- invoke
+
+	/**
+	 * Invokes single scenario request and returns the response.
+	 */
+	public HttpServletResponse invoke(Scenario scenario) throws Exception {
+		String actionPath = scenario.getActionPath();
+
+		HttpServletRequest request = ServletStub.createRequest(session, actionPath, parameters);
+		HttpServletResponse response = ServletStub.createResponse();
+
+		String unhandledPath = madvocController.invoke(actionPath, request, response);
+
+		if (unhandledPath != null) {
+			throw new MadvocException("Action path not consumed: " + unhandledPath);
+		}
+		return response;
+	}
+
+	// ---------------------------------------------------------------- run
+
+	/**
+	 * Runs the scenario using given number of threads. Threads first run
+	 * for the warmup period, and then the invocations are measured.
+	 */
+	public Result run(final Scenario scenario, int threads, long warmupMillis, long measureMillis) throws Exception {
+		final AtomicLong operations = new AtomicLong();
+		final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch doneLatch = new CountDownLatch(threads);
+		final RunState state = new RunState();
+
+		for (int i = 0; i < threads; i++) {
+			Thread thread = new Thread("madvoc-perf-" + i) {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+						while (state.running) {
+							invoke(scenario);
+							if (state.measuring) {
+								operations.incrementAndGet();
+							}
+						}
+					} catch (Exception ex) {
+						failure.compareAndSet(null, ex);
+					} finally {
+						doneLatch.countDown();
+					}
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		startLatch.countDown();
+		Thread.sleep(warmupMillis);
+
+		state.measuring = true;
+		long start = System.nanoTime();
+		Thread.sleep(measureMillis);
+
+		state.running = false;
+		long elapsed = System.nanoTime() - start;
+		doneLatch.await();
+
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+
+		return new Result(scenario, threads, operations.get(), elapsed);
+	}
+
+	/**
+	 * Flags shared between the runner and worker threads.
+	 */
+	static class RunState {
+		volatile boolean running = true;
+		volatile boolean measuring;
+	}
+
+	/**
+	 * Benchmark result of single scenario.
+	 */
+	public static class Result {
+
+		protected final Scenario scenario;
+		protected final int threads;
+		protected final long operations;
+		protected final long elapsedNanos;
+
+		public Result(Scenario scenario, int threads, long operations, long elapsedNanos) {
+			this.scenario = scenario;
+			this.threads = threads;
+			this.operations = operations;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public Scenario getScenario() {
+			return scenario;
+		}
+
+		public long getOperations() {
+			return operations;
+		}
+
+		/**
+		 * Returns throughput in operations per second.
+		 */
+		public double getThroughput() {
+			return operations * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * Returns average latency in microseconds, as seen by a single thread.
+		 */
+		public double getAverageLatency() {
+			if (operations == 0) {
+				return 0;
+			}
+			return (elapsedNanos / 1000.0) * threads / operations;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-12s %3d threads %14.1f ops/s %10.2f us/op",
+					scenario.name(), Integer.valueOf(threads),
+					Double.valueOf(getThroughput()), Double.valueOf(getAverageLatency()));
+		}
+	}
+
+	// ---------------------------------------------------------------- main
+
+	public static void main(String[] args) throws Exception {
+		int threads = Runtime.getRuntime().availableProcessors();
+		long warmup = 2000;
+		long time = 5000;
+		boolean monitor = false;
+		List<Scenario> scenarios = new ArrayList<Scenario>();
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+
+			if (arg.equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (arg.equals("-warmup")) {
+				warmup = Long.parseLong(args[++i]);
+			} else if (arg.equals("-time")) {
+				time = Long.parseLong(args[++i]);
+			} else if (arg.equals("-monitor")) {
+				monitor = true;
+			} else {
+				scenarios.add(Scenario.valueOf(arg.toUpperCase()));
+			}
+		}
+		if (scenarios.isEmpty()) {
+			for (Scenario scenario : Scenario.values()) {
+				scenarios.add(scenario);
+			}
+		}
+
+		MadvocBenchmark benchmark = new MadvocBenchmark();
+		benchmark.setMonitoringEnabled(monitor);
+
+		try {
+			for (Scenario scenario : scenarios) {
+				System.out.println(benchmark.run(scenario, threads, warmup, time));
+			}
+
+			if (monitor) {
+				for (ActionStatsSnapshot snapshot : benchmark.getActionStats()) {
+					System.out.println(snapshot);
+				}
+			}
+		} finally {
+			benchmark.stop();
+		}
+	}
+}
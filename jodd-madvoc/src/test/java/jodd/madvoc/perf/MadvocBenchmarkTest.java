@@ -0,0 +1,74 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.perf;
+
+import jodd.madvoc.monitor.ActionStatsSnapshot;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MadvocBenchmarkTest {
+
+	static MadvocBenchmark benchmark;
+
+	@BeforeClass
+	public static void setUp() {
+		benchmark = new MadvocBenchmark();
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		benchmark.stop();
+	}
+
+	@Test
+	public void testScenarios() throws Exception {
+		HttpServletResponse response = benchmark.invoke(MadvocBenchmark.Scenario.TEXT);
+		assertEquals(5, ServletStub.getBytesWritten(response));
+
+		response = benchmark.invoke(MadvocBenchmark.Scenario.PARAMS);
+		assertEquals("jodd173".length(), ServletStub.getBytesWritten(response));
+
+		response = benchmark.invoke(MadvocBenchmark.Scenario.INTERCEPTED);
+		assertEquals("jodd173".length(), ServletStub.getBytesWritten(response));
+
+		response = benchmark.invoke(MadvocBenchmark.Scenario.CHAIN);
+		assertEquals(5, ServletStub.getBytesWritten(response));
+
+		response = benchmark.invoke(MadvocBenchmark.Scenario.RAW);
+		assertEquals(1024, ServletStub.getBytesWritten(response));
+
+		response = benchmark.invoke(MadvocBenchmark.Scenario.DISPATCH);
+		assertEquals(HttpServletResponse.SC_OK, ServletStub.getStatus(response));
+		assertEquals(0, ServletStub.getBytesWritten(response));
+	}
+
+	@Test
+	public void testRun() throws Exception {
+		benchmark.setMonitoringEnabled(true);
+		try {
+			for (MadvocBenchmark.Scenario scenario : MadvocBenchmark.Scenario.values()) {
+				MadvocBenchmark.Result result = benchmark.run(scenario, 2, 10, 50);
+
+				assertEquals(scenario, result.getScenario());
+				assertTrue(result.getOperations() > 0);
+				assertTrue(result.getThroughput() > 0);
+			}
+		} finally {
+			benchmark.setMonitoringEnabled(false);
+		}
+
+		List<ActionStatsSnapshot> stats = benchmark.getActionStats();
+		assertEquals(MadvocBenchmark.Scenario.values().length, stats.size());
+		for (ActionStatsSnapshot snapshot : stats) {
+			assertEquals(0, snapshot.getErrorCount());
+		}
+	}
+}
@@ -0,0 +1,72 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.perf;
+
+import jodd.madvoc.interceptor.ServletConfigInterceptor;
+import jodd.madvoc.meta.InterceptedBy;
+import jodd.madvoc.meta.MadvocAction;
+import jodd.madvoc.meta.In;
+import jodd.madvoc.meta.Out;
+import jodd.madvoc.result.RawData;
+
+/**
+ * Benchmark action, covers the common Madvoc request paths.
+ */
+@MadvocAction
+public class PerfAction {
+
+	private static final byte[] RAW_BYTES = new byte[1024];
+
+	@In
+	String name;
+
+	@In
+	Integer id;
+
+	@Out
+	String message;
+
+	/**
+	 * Plain text result, no parameters.
+	 */
+	public String text() {
+		return "text:hello";
+	}
+
+	/**
+	 * Injects request parameters and outjects the message.
+	 */
+	public String params() {
+		message = name + id;
+		return "text:" + message;
+	}
+
+	/**
+	 * Same as {@link #params()}, but with an additional interceptor in the stack.
+	 */
+	@InterceptedBy({PerfInterceptor.class, ServletConfigInterceptor.class})
+	public String intercepted() {
+		return params();
+	}
+
+	/**
+	 * Chains to the {@link #text() text action}.
+	 */
+	public String chain() {
+		return "chain:/perf/text";
+	}
+
+	/**
+	 * Returns raw bytes.
+	 */
+	public RawData raw() {
+		return new RawData(RAW_BYTES);
+	}
+
+	/**
+	 * Dispatches to the JSP page.
+	 */
+	public String dispatch() {
+		return "ok";
+	}
+}
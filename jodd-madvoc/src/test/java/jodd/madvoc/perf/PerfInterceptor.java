@@ -0,0 +1,28 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.perf;
+
+import jodd.madvoc.ActionRequest;
+import jodd.madvoc.interceptor.BaseActionInterceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor that just counts invocations.
+ */
+public class PerfInterceptor extends BaseActionInterceptor {
+
+	protected final AtomicLong counter = new AtomicLong();
+
+	public Object intercept(ActionRequest actionRequest) throws Exception {
+		counter.incrementAndGet();
+		return actionRequest.invoke();
+	}
+
+	/**
+	 * Returns number of intercepted requests.
+	 */
+	public long getCount() {
+		return counter.get();
+	}
+}
@@ -0,0 +1,29 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.perf;
+
+import jodd.madvoc.config.ManualMadvocConfigurator;
+import jodd.madvoc.result.ChainResult;
+import jodd.madvoc.result.RawResult;
+import jodd.madvoc.result.ServletDispatcherResult;
+import jodd.madvoc.result.TextResult;
+
+/**
+ * Registers {@link PerfAction benchmark actions} and results they use.
+ */
+public class PerfMadvocConfigurator extends ManualMadvocConfigurator {
+
+	public void configure() {
+		result(TextResult.class);
+		result(ChainResult.class);
+		result(RawResult.class);
+		result(ServletDispatcherResult.class);
+
+		actionsManager.register(PerfAction.class, "text", "/perf/text");
+		actionsManager.register(PerfAction.class, "params", "/perf/params");
+		actionsManager.register(PerfAction.class, "intercepted", "/perf/intercepted");
+		actionsManager.register(PerfAction.class, "chain", "/perf/chain");
+		actionsManager.register(PerfAction.class, "raw", "/perf/raw");
+		actionsManager.register(PerfAction.class, "dispatch", "/perf/dispatch");
+	}
+}
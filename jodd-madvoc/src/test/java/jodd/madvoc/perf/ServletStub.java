@@ -0,0 +1,362 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.madvoc.perf;
+
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lightweight in-memory stand-in for the servlet container, used for
+ * benchmarking Madvoc without a running web server. Servlet interfaces are
+ * implemented with dynamic proxies, so only methods that Madvoc actually
+ * uses are handled; all other methods return default values. This keeps
+ * stubs independent of the servlet API version.
+ */
+public class ServletStub {
+
+	/**
+	 * Creates servlet context that resolves all resources that
+	 * ends with <code>jsp</code> extension.
+	 */
+	public static ServletContext createServletContext() {
+		return (ServletContext) createProxy(ServletContext.class, new ContextHandler());
+	}
+
+	/**
+	 * Creates new session in the given servlet context.
+	 */
+	public static HttpSession createSession(ServletContext servletContext) {
+		return (HttpSession) createProxy(HttpSession.class, new SessionHandler(servletContext));
+	}
+
+	/**
+	 * Creates new GET request with given parameters.
+	 */
+	public static HttpServletRequest createRequest(HttpSession session, String requestUri, Map<String, String[]> parameters) {
+		return (HttpServletRequest) createProxy(HttpServletRequest.class, new RequestHandler(session, requestUri, parameters));
+	}
+
+	/**
+	 * Creates new response that discards all the output.
+	 */
+	public static HttpServletResponse createResponse() {
+		return (HttpServletResponse) createProxy(HttpServletResponse.class, new ResponseHandler());
+	}
+
+	/**
+	 * Returns the path to which request was dispatched, if any.
+	 */
+	public static String getDispatchedPath(HttpServletRequest request) {
+		return (String) request.getAttribute(DISPATCHED_PATH);
+	}
+
+	/**
+	 * Returns HTTP status of the response.
+	 */
+	public static int getStatus(HttpServletResponse response) {
+		return handlerOf(response, ResponseHandler.class).status;
+	}
+
+	/**
+	 * Returns the total number of bytes written to the response.
+	 */
+	public static long getBytesWritten(HttpServletResponse response) {
+		return handlerOf(response, ResponseHandler.class).out.count;
+	}
+
+	// ---------------------------------------------------------------- handlers
+
+	private static final String DISPATCHED_PATH = ServletStub.class.getName() + ".dispatched";
+
+	private static Object createProxy(Class type, InvocationHandler handler) {
+		return Proxy.newProxyInstance(ServletStub.class.getClassLoader(), new Class[] {type}, handler);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T handlerOf(Object proxy, Class<T> handlerType) {
+		return (T) Proxy.getInvocationHandler(proxy);
+	}
+
+	/**
+	 * Base handler: provides attributes and default return values.
+	 */
+	abstract static class StubHandler implements InvocationHandler {
+
+		protected final Map<String, Object> attributes = new HashMap<String, Object>();
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			if (name.equals("getAttribute")) {
+				return attributes.get(args[0]);
+			}
+			if (name.equals("setAttribute")) {
+				if (args[1] == null) {
+					attributes.remove(args[0]);
+				} else {
+					attributes.put((String) args[0], args[1]);
+				}
+				return null;
+			}
+			if (name.equals("removeAttribute")) {
+				attributes.remove(args[0]);
+				return null;
+			}
+			if (name.equals("getAttributeNames")) {
+				return Collections.enumeration(attributes.keySet());
+			}
+			if (name.equals("hashCode")) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			if (name.equals("equals")) {
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if (name.equals("toString")) {
+				return getClass().getSimpleName();
+			}
+
+			return handle(proxy, name, args, method.getReturnType());
+		}
+
+		/**
+		 * Handles specific method.
+		 */
+		protected abstract Object handle(Object proxy, String name, Object[] args, Class returnType) throws Throwable;
+
+		/**
+		 * Returns default value for given return type.
+		 */
+		protected Object defaultValue(Class returnType) {
+			if (returnType.isPrimitive() == false) {
+				return null;
+			}
+			if (returnType == boolean.class) {
+				return Boolean.FALSE;
+			}
+			if (returnType == int.class) {
+				return Integer.valueOf(0);
+			}
+			if (returnType == long.class) {
+				return Long.valueOf(0);
+			}
+			return null;
+		}
+	}
+
+	static class ContextHandler extends StubHandler {
+
+		@Override
+		protected Object handle(Object proxy, String name, Object[] args, Class returnType) throws Throwable {
+			if (name.equals("getResource")) {
+				String path = (String) args[0];
+				if (path.endsWith(".jsp")) {
+					return new URL("file:" + path);
+				}
+				return null;
+			}
+			if (name.equals("getContextPath")) {
+				return "";
+			}
+			return defaultValue(returnType);
+		}
+	}
+
+	static class SessionHandler extends StubHandler {
+
+		private final ServletContext servletContext;
+
+		SessionHandler(ServletContext servletContext) {
+			this.servletContext = servletContext;
+		}
+
+		@Override
+		protected Object handle(Object proxy, String name, Object[] args, Class returnType) throws Throwable {
+			if (name.equals("getServletContext")) {
+				return servletContext;
+			}
+			if (name.equals("getId")) {
+				return "perf";
+			}
+			return defaultValue(returnType);
+		}
+	}
+
+	static class RequestHandler extends StubHandler {
+
+		private final HttpSession session;
+		private final String requestUri;
+		private final Map<String, String[]> parameters;
+		private String characterEncoding;
+
+		RequestHandler(HttpSession session, String requestUri, Map<String, String[]> parameters) {
+			this.session = session;
+			this.requestUri = requestUri;
+			this.parameters = parameters;
+		}
+
+		@Override
+		protected Object handle(Object proxy, String name, Object[] args, Class returnType) throws Throwable {
+			if (name.equals("getMethod")) {
+				return "GET";
+			}
+			if (name.equals("getParameter")) {
+				String[] values = parameters.get(args[0]);
+				return values == null ? null : values[0];
+			}
+			if (name.equals("getParameterValues")) {
+				return parameters.get(args[0]);
+			}
+			if (name.equals("getParameterNames")) {
+				return Collections.enumeration(parameters.keySet());
+			}
+			if (name.equals("getParameterMap")) {
+				return parameters;
+			}
+			if (name.equals("getSession")) {
+				return session;
+			}
+			if (name.equals("getServletContext")) {
+				return session.getServletContext();
+			}
+			if (name.equals("getRequestURI") || name.equals("getServletPath")) {
+				return requestUri;
+			}
+			if (name.equals("getContextPath")) {
+				return "";
+			}
+			if (name.equals("getCharacterEncoding")) {
+				return characterEncoding;
+			}
+			if (name.equals("setCharacterEncoding")) {
+				characterEncoding = (String) args[0];
+				return null;
+			}
+			if (name.equals("getHeaders")) {
+				return EMPTY_ENUMERATION;
+			}
+			if (name.equals("getRequestDispatcher")) {
+				return createProxy(RequestDispatcher.class, new DispatcherHandler((String) args[0]));
+			}
+			return defaultValue(returnType);
+		}
+	}
+
+	static final Enumeration EMPTY_ENUMERATION = Collections.enumeration(Collections.emptyList());
+
+	static class DispatcherHandler implements InvocationHandler {
+
+		private final String path;
+
+		DispatcherHandler(String path) {
+			this.path = path;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("forward") || name.equals("include")) {
+				((HttpServletRequest) args[0]).setAttribute(DISPATCHED_PATH, path);
+			}
+			return null;
+		}
+	}
+
+	static class ResponseHandler extends StubHandler {
+
+		private final CountingOutputStream out = new CountingOutputStream();
+		private final Map<String, String> headers = new HashMap<String, String>();
+		private String characterEncoding = "ISO-8859-1";
+		private String contentType;
+		private int status = HttpServletResponse.SC_OK;
+		private PrintWriter writer;
+
+		@Override
+		protected Object handle(Object proxy, String name, Object[] args, Class returnType) throws Throwable {
+			if (name.equals("getOutputStream")) {
+				return out;
+			}
+			if (name.equals("getWriter")) {
+				if (writer == null) {
+					writer = new PrintWriter(out);
+				}
+				return writer;
+			}
+			if (name.equals("getCharacterEncoding")) {
+				return characterEncoding;
+			}
+			if (name.equals("setCharacterEncoding")) {
+				if (args[0] != null) {
+					characterEncoding = (String) args[0];
+				}
+				return null;
+			}
+			if (name.equals("getContentType")) {
+				return contentType;
+			}
+			if (name.equals("setContentType")) {
+				contentType = (String) args[0];
+				return null;
+			}
+			if (name.equals("setHeader") || name.equals("addHeader")
+					|| name.equals("setDateHeader") || name.equals("setIntHeader")) {
+				headers.put((String) args[0], String.valueOf(args[1]));
+				return null;
+			}
+			if (name.equals("getHeader")) {
+				return headers.get(args[0]);
+			}
+			if (name.equals("containsHeader")) {
+				return Boolean.valueOf(headers.containsKey(args[0]));
+			}
+			if (name.equals("setStatus") || name.equals("sendError")) {
+				status = ((Integer) args[0]).intValue();
+				return null;
+			}
+			if (name.equals("getStatus")) {
+				return Integer.valueOf(status);
+			}
+			if (name.equals("sendRedirect")) {
+				status = HttpServletResponse.SC_MOVED_TEMPORARILY;
+				headers.put("Location", (String) args[0]);
+				return null;
+			}
+			if (name.startsWith("encode")) {
+				return args[0];
+			}
+			return defaultValue(returnType);
+		}
+	}
+
+	/**
+	 * Output stream that just counts the written bytes.
+	 */
+	static class CountingOutputStream extends ServletOutputStream {
+
+		long count;
+
+		@Override
+		public void write(int b) throws IOException {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count += len;
+		}
+
+	}
+
+}
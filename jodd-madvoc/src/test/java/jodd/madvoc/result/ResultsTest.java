@@ -4,6 +4,7 @@ package jodd.madvoc.result;
 
 import jodd.http.HttpRequest;
 import jodd.http.HttpResponse;
+import jodd.io.FileUtil;
 import jodd.madvoc.MadvocTomcatServer;
 import jodd.madvoc.TestServer;
 import jodd.util.MimeTypes;
@@ -11,8 +12,12 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class ResultsTest {
 
@@ -44,6 +49,50 @@ public class ResultsTest {
 		return new RawData(SMALLEST_GIF, MimeTypes.lookupMimeType("gif"));
 	}
 
+	@Test
+	public void testRawStream() {
+		HttpResponse httpResponse = HttpRequest.get("localhost:8080/madvocRawStream").send();
+		assertEquals(200, httpResponse.statusCode());
+		assertEquals("image/gif", httpResponse.contentType());
+		assertEquals("bytes", httpResponse.header("Accept-Ranges"));
+		assertArrayEquals(SMALLEST_GIF, httpResponse.bodyBytes());
+	}
+
+	@Test
+	public void testRawStreamRange() {
+		HttpResponse httpResponse = HttpRequest.get("localhost:8080/madvocRawStream").header("Range", "bytes=2-5").send();
+		assertEquals(206, httpResponse.statusCode());
+		assertEquals("bytes 2-5/" + SMALLEST_GIF.length, httpResponse.header("Content-Range"));
+		assertArrayEquals(new byte[] {0x46, 0x38, 0x39, 0x61}, httpResponse.bodyBytes());
+
+		httpResponse = HttpRequest.get("localhost:8080/madvocRawStream").header("Range", "bytes=-2").send();
+		assertEquals(206, httpResponse.statusCode());
+		assertArrayEquals(new byte[] {0x00, 0x3b}, httpResponse.bodyBytes());
+
+		httpResponse = HttpRequest.get("localhost:8080/madvocRawStream").header("Range", "bytes=100-").send();
+		assertEquals(416, httpResponse.statusCode());
+	}
+
+	@Test
+	public void testResolveRange() {
+		assertArrayEquals(new long[] {0, 9}, RawResult.resolveRange("bytes=0-9", 100));
+		assertArrayEquals(new long[] {10, 99}, RawResult.resolveRange("bytes=10-", 100));
+		assertArrayEquals(new long[] {90, 99}, RawResult.resolveRange("bytes=-10", 100));
+		assertArrayEquals(new long[] {0, 99}, RawResult.resolveRange("bytes=-200", 100));
+		assertArrayEquals(new long[] {50, 99}, RawResult.resolveRange("bytes=50-200", 100));
+		assertEquals(0, RawResult.resolveRange("bytes=0-1,5-6", 100).length);
+		assertEquals(0, RawResult.resolveRange("items=0-1", 100).length);
+		assertEquals(0, RawResult.resolveRange("bytes=5-1", 100).length);
+		assertNull(RawResult.resolveRange("bytes=100-", 100));
+	}
+
+	public RawStream madvocRawStream() throws IOException {
+		File file = FileUtil.createTempFile();
+		file.deleteOnExit();
+		FileUtil.writeBytes(file, SMALLEST_GIF);
+		return new RawStream(file, null, MimeTypes.lookupMimeType("gif"));
+	}
+
 	public static final byte[] SMALLEST_GIF = new byte[] {
 		0x47, 0x49, 0x46, 0x38, 0x39, 0x61, 0x01, 0x00,
 		0x01, 0x00, 0x00, 0x00, 0x00, 0x2c, 0x00, 0x00,
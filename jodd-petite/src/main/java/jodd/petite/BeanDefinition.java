@@ -34,6 +34,9 @@ public class BeanDefinition {
 	protected DestroyMethodPoint[] destroyMethods;
 	protected String[] params;
 
+	// generated wirer, may be null
+	protected volatile BeanWirer wirer;
+
 	// ---------------------------------------------------------------- definition getters
 
 	/**
@@ -111,6 +114,13 @@ public class BeanDefinition {
 		return destroyMethods;
 	}
 
+	/**
+	 * Returns generated {@link BeanWirer bean wirer}, if any.
+	 */
+	public BeanWirer getBeanWirer() {
+		return wirer;
+	}
+
 	/**
 	 * Returns parameters.
 	 */
@@ -0,0 +1,55 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+/**
+ * Bean wirer creates and wires beans of single {@link BeanDefinition} using
+ * direct calls instead of reflection. Injection points are referenced by their
+ * index in the bean definition. Wirers are generated by {@link BeanWirerGenerator}.
+ * This default implementation handles nothing, so all its methods return
+ * <code>null</code> or <code>false</code> and container falls back to reflection.
+ * The same happens for injection points that are not accessible
+ * from the generated code.
+ */
+public class BeanWirer {
+
+	/**
+	 * Creates new bean instance using {@link CtorInjectionPoint constructor injection point}.
+	 * Returns <code>null</code> if not handled.
+	 */
+	public Object newInstance(Object[] args) {
+		return null;
+	}
+
+	/**
+	 * Injects a value into the {@link PropertyInjectionPoint property injection point}
+	 * of given index. Returns <code>false</code> if not handled.
+	 */
+	public boolean wireProperty(Object bean, int index, Object value) {
+		return false;
+	}
+
+	/**
+	 * Injects a value into the {@link SetInjectionPoint set injection point}
+	 * of given index. Returns <code>false</code> if not handled.
+	 */
+	public boolean wireSet(Object bean, int index, Object value) {
+		return false;
+	}
+
+	/**
+	 * Invokes {@link MethodInjectionPoint method injection point} of given index.
+	 * Returns <code>false</code> if not handled.
+	 */
+	public boolean wireMethod(Object bean, int index, Object[] args) {
+		return false;
+	}
+
+	/**
+	 * Invokes {@link InitMethodPoint init method} of given index.
+	 * Returns <code>false</code> if not handled.
+	 */
+	public boolean invokeInitMethod(Object bean, int index) {
+		return false;
+	}
+}
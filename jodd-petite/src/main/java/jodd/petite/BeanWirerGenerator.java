@@ -0,0 +1,429 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+import jodd.asm4.ClassWriter;
+import jodd.asm4.Label;
+import jodd.asm4.MethodVisitor;
+import jodd.asm4.Type;
+import jodd.introspector.ClassDescriptor;
+import jodd.introspector.ClassIntrospector;
+import jodd.introspector.FieldDescriptor;
+import jodd.introspector.MethodDescriptor;
+import jodd.introspector.PropertyDescriptor;
+import jodd.introspector.Setter;
+import jodd.log.Logger;
+import jodd.log.LoggerFactory;
+import jodd.util.ClassLoaderUtil;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static jodd.asm4.Opcodes.*;
+
+/**
+ * Generates {@link BeanWirer bean wirers} using Proxetta ASM. Wirer class is
+ * defined in the same package and class loader as the bean, so it can access
+ * all non-private members of the bean type directly. Only members with
+ * reference types are handled; everything else (private or final members,
+ * primitive arguments) is left to reflection.
+ * <p>
+ * Property values are set the same way as <code>BeanUtil</code> sets declared
+ * properties: using setter method if one exists, otherwise using the field.
+ * Values that are not instances of target type are left to reflection as well,
+ * so conversion rules stay the same.
+ */
+public class BeanWirerGenerator {
+
+	private static final Logger log = LoggerFactory.getLogger(BeanWirerGenerator.class);
+
+	/**
+	 * Wirer that handles nothing. Used for beans for which wirer can't be generated.
+	 */
+	public static final BeanWirer NO_WIRER = new BeanWirer();
+
+	protected static final String WIRER_CLASS_NAME_SUFFIX = "$PetiteWirer";
+	protected static final String WIRER_SUPER = Type.getInternalName(BeanWirer.class);
+	protected static final String INIT = "<init>";
+
+	protected static final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * Generates and instantiates wirer for given bean definition.
+	 * All injection points should be already resolved.
+	 * Returns {@link #NO_WIRER} if wirer can not be created.
+	 */
+	public BeanWirer createWirer(BeanDefinition def) {
+		Class type = def.type;
+		ClassLoader classLoader = type.getClassLoader();
+
+		if (classLoader == null || type.isInterface() || type.isArray() || type.isPrimitive()) {
+			return NO_WIRER;
+		}
+
+		String wirerClassName = type.getName() + WIRER_CLASS_NAME_SUFFIX + counter.incrementAndGet();
+
+		try {
+			byte[] bytes = generate(def, wirerClassName.replace('.', '/'));
+
+			Class wirerClass = ClassLoaderUtil.defineClass(wirerClassName, bytes, classLoader);
+
+			return (BeanWirer) wirerClass.newInstance();
+		} catch (Throwable th) {
+			if (log.isDebugEnabled()) {
+				log.debug("Unable to generate wirer for bean: " + def.name + ", " + th);
+			}
+			return NO_WIRER;
+		}
+	}
+
+	// ---------------------------------------------------------------- generate
+
+	/**
+	 * Generates wirer class bytecode.
+	 */
+	protected byte[] generate(BeanDefinition def, String wirerInternalName) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+		cw.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, wirerInternalName, null, WIRER_SUPER, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, WIRER_SUPER, INIT, "()V");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		Class type = def.type;
+		String typeName = Type.getInternalName(type);
+
+		if (def.ctor != null) {
+			generateNewInstance(cw, type, typeName, def.ctor.constructor);
+		}
+
+		ClassDescriptor cd = ClassIntrospector.lookup(type);
+
+		if (def.properties != null && def.properties.length > 0) {
+			Field[] fields = new Field[def.properties.length];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = def.properties[i].field;
+			}
+			generateWireFields(cw, "wireProperty", type, typeName, cd, fields);
+		}
+
+		if (def.sets != null && def.sets.length > 0) {
+			Field[] fields = new Field[def.sets.length];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = def.sets[i].field;
+			}
+			generateWireFields(cw, "wireSet", type, typeName, cd, fields);
+		}
+
+		if (def.methods != null && def.methods.length > 0) {
+			Method[] methods = new Method[def.methods.length];
+			for (int i = 0; i < methods.length; i++) {
+				methods[i] = def.methods[i].method;
+			}
+			generateInvokeMethods(cw, "wireMethod", "(Ljava/lang/Object;I[Ljava/lang/Object;)Z", type, typeName, methods);
+		}
+
+		if (def.initMethods != null && def.initMethods.length > 0) {
+			Method[] methods = new Method[def.initMethods.length];
+			for (int i = 0; i < methods.length; i++) {
+				methods[i] = def.initMethods[i].method;
+			}
+			generateInvokeMethods(cw, "invokeInitMethod", "(Ljava/lang/Object;I)Z", type, typeName, methods);
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Generates <code>newInstance</code> that directly invokes the constructor.
+	 */
+	protected void generateNewInstance(ClassWriter cw, Class type, String typeName, Constructor ctor) {
+		if (Modifier.isAbstract(type.getModifiers()) || !isAccessible(type, ctor)) {
+			return;
+		}
+		Class[] paramTypes = ctor.getParameterTypes();
+		if (!isReferenceTypes(type, paramTypes)) {
+			return;
+		}
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, typeName);
+		mv.visitInsn(DUP);
+		loadArguments(mv, 1, paramTypes);
+		mv.visitMethodInsn(INVOKESPECIAL, typeName, INIT, Type.getConstructorDescriptor(ctor));
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generates method that injects value into one of the fields,
+	 * selected by the index. Setter is used if it exists.
+	 */
+	protected void generateWireFields(ClassWriter cw, String methodName, Class type, String typeName, ClassDescriptor cd, Field[] fields) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, "(Ljava/lang/Object;ILjava/lang/Object;)Z", null, null);
+		mv.visitCode();
+
+		Label defaultLabel = new Label();
+		Label[] labels = createLabels(fields.length);
+
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitTableSwitchInsn(0, fields.length - 1, defaultLabel, labels);
+
+		for (int i = 0; i < fields.length; i++) {
+			mv.visitLabel(labels[i]);
+
+			Member member = resolveSetter(cd, fields[i]);
+
+			Class valueType;
+			if (member instanceof Method) {
+				valueType = ((Method) member).getParameterTypes()[0];
+			} else {
+				valueType = ((Field) member).getType();
+			}
+
+			if (!isAccessible(type, member) || !isReferenceTypes(type, valueType)) {
+				mv.visitJumpInsn(GOTO, defaultLabel);
+				continue;
+			}
+
+			String valueTypeName = Type.getInternalName(valueType);
+
+			// null or instance of value type
+
+			Label setLabel = new Label();
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitJumpInsn(IFNULL, setLabel);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitTypeInsn(INSTANCEOF, valueTypeName);
+			mv.visitJumpInsn(IFEQ, defaultLabel);
+
+			mv.visitLabel(setLabel);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, typeName);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitTypeInsn(CHECKCAST, valueTypeName);
+
+			if (member instanceof Method) {
+				Method setter = (Method) member;
+				mv.visitMethodInsn(INVOKEVIRTUAL, resolveOwner(type, setter), setter.getName(), Type.getMethodDescriptor(setter));
+				popReturnValue(mv, setter.getReturnType());
+			} else {
+				mv.visitFieldInsn(PUTFIELD, resolveOwner(type, member), member.getName(), Type.getDescriptor(valueType));
+			}
+
+			mv.visitInsn(ICONST_1);
+			mv.visitInsn(IRETURN);
+		}
+
+		mv.visitLabel(defaultLabel);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generates method that invokes one of the methods, selected by the index.
+	 * Arguments, if any, are provided in an array.
+	 */
+	protected void generateInvokeMethods(ClassWriter cw, String methodName, String methodDescription, Class type, String typeName, Method[] methods) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, methodDescription, null, null);
+		mv.visitCode();
+
+		Label defaultLabel = new Label();
+		Label[] labels = createLabels(methods.length);
+
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitTableSwitchInsn(0, methods.length - 1, defaultLabel, labels);
+
+		for (int i = 0; i < methods.length; i++) {
+			mv.visitLabel(labels[i]);
+
+			Method method = methods[i];
+			Class[] paramTypes = method.getParameterTypes();
+
+			if (!isAccessible(type, method) || Modifier.isStatic(method.getModifiers()) || !isReferenceTypes(type, paramTypes)) {
+				mv.visitJumpInsn(GOTO, defaultLabel);
+				continue;
+			}
+
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, typeName);
+			loadArguments(mv, 3, paramTypes);
+			mv.visitMethodInsn(INVOKEVIRTUAL, resolveOwner(type, method), method.getName(), Type.getMethodDescriptor(method));
+			popReturnValue(mv, method.getReturnType());
+
+			mv.visitInsn(ICONST_1);
+			mv.visitInsn(IRETURN);
+		}
+
+		mv.visitLabel(defaultLabel);
+		mv.visitInsn(ICONST_0);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	// ---------------------------------------------------------------- util
+
+	/**
+	 * Creates labels for table switch.
+	 */
+	protected Label[] createLabels(int count) {
+		Label[] labels = new Label[count];
+		for (int i = 0; i < count; i++) {
+			labels[i] = new Label();
+		}
+		return labels;
+	}
+
+	/**
+	 * Loads elements of an argument array and casts them to parameter types.
+	 */
+	protected void loadArguments(MethodVisitor mv, int arrayOffset, Class[] paramTypes) {
+		for (int i = 0; i < paramTypes.length; i++) {
+			mv.visitVarInsn(ALOAD, arrayOffset);
+			pushInt(mv, i);
+			mv.visitInsn(AALOAD);
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(paramTypes[i]));
+		}
+	}
+
+	/**
+	 * Pushes int constant.
+	 */
+	protected void pushInt(MethodVisitor mv, int value) {
+		if (value <= 5) {
+			mv.visitInsn(ICONST_0 + value);
+		} else if (value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(BIPUSH, value);
+		} else {
+			mv.visitIntInsn(SIPUSH, value);
+		}
+	}
+
+	/**
+	 * Pops method return value, if any.
+	 */
+	protected void popReturnValue(MethodVisitor mv, Class returnType) {
+		if (returnType == void.class) {
+			return;
+		}
+		if (returnType == long.class || returnType == double.class) {
+			mv.visitInsn(POP2);
+		} else {
+			mv.visitInsn(POP);
+		}
+	}
+
+	/**
+	 * Resolves member that sets the property, in the same way as
+	 * <code>BeanUtil</code> does for declared properties.
+	 */
+	protected Member resolveSetter(ClassDescriptor cd, Field field) {
+		PropertyDescriptor pd = cd.getPropertyDescriptor(field.getName(), true);
+		if (pd != null) {
+			Setter setter = pd.getSetter(true);
+			if (setter instanceof MethodDescriptor) {
+				return ((MethodDescriptor) setter).getMethod();
+			}
+			if (setter instanceof FieldDescriptor) {
+				return ((FieldDescriptor) setter).getField();
+			}
+		}
+		return field;
+	}
+
+	/**
+	 * Returns <code>true</code> if all types are reference types
+	 * that can be referenced from the wirer.
+	 */
+	protected boolean isReferenceTypes(Class beanType, Class... types) {
+		for (Class type : types) {
+			if (type.isPrimitive()) {
+				return false;
+			}
+			if (!isAccessible(beanType, type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if member can be accessed from the wirer,
+	 * defined in the package of the bean type.
+	 */
+	protected boolean isAccessible(Class type, Member member) {
+		int modifiers = member.getModifiers();
+
+		if (Modifier.isPrivate(modifiers)) {
+			return false;
+		}
+		if (member instanceof Field && Modifier.isFinal(modifiers)) {
+			return false;
+		}
+		if (Modifier.isPublic(modifiers)) {
+			return true;
+		}
+		return samePackage(type, member.getDeclaringClass());
+	}
+
+	/**
+	 * Returns <code>true</code> if type may be referenced from the wirer,
+	 * defined in the package of the bean type.
+	 */
+	protected boolean isAccessible(Class beanType, Class type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (Modifier.isPublic(type.getModifiers())) {
+			return true;
+		}
+		return samePackage(beanType, type);
+	}
+
+	/**
+	 * Returns internal name of the class that owns the member. Declaring class
+	 * is used when accessible, so the member can't be hidden by some other
+	 * member of the bean type.
+	 */
+	protected String resolveOwner(Class type, Member member) {
+		Class declaringClass = member.getDeclaringClass();
+		if (isAccessible(type, declaringClass)) {
+			return Type.getInternalName(declaringClass);
+		}
+		return Type.getInternalName(type);
+	}
+
+	/**
+	 * Returns <code>true</code> if two classes are in the same package and class loader.
+	 */
+	protected boolean samePackage(Class type1, Class type2) {
+		if (type1.getClassLoader() != type2.getClassLoader()) {
+			return false;
+		}
+		return packageName(type1).equals(packageName(type2));
+	}
+
+	private static String packageName(Class type) {
+		String name = type.getName();
+		int ndx = name.lastIndexOf('.');
+		return ndx == -1 ? "" : name.substring(0, ndx);
+	}
+}
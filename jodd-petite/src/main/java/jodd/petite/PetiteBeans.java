@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Base layer of {@link PetiteContainer Petite Container}.
@@ -35,22 +37,22 @@ public abstract class PetiteBeans {
 	/**
 	 * Map of all beans definitions.
 	 */
-	protected final Map<String, BeanDefinition> beans = new HashMap<String, BeanDefinition>();
+	protected final Map<String, BeanDefinition> beans;
 
 	/**
 	 * Map of all bean scopes.
 	 */
-	protected final Map<Class<? extends Scope>, Scope> scopes = new HashMap<Class<? extends Scope>, Scope>();
+	protected final Map<Class<? extends Scope>, Scope> scopes;
 
 	/**
 	 * Map of all providers.
 	 */
-	protected final Map<String, ProviderDefinition> providers = new HashMap<String, ProviderDefinition>();
+	protected final Map<String, ProviderDefinition> providers;
 
 	/**
 	 * Map of all bean collections.
 	 */
-	protected final Map<Class, String[]> beanCollections = new HashMap<Class, String[]>();
+	protected final Map<Class, String[]> beanCollections;
 
 	/**
 	 * {@link PetiteConfig Petite configuration}.
@@ -74,11 +76,26 @@ public abstract class PetiteBeans {
 
 	protected PetiteBeans(PetiteConfig petiteConfig) {
 		this.petiteConfig = petiteConfig;
+		this.beans = createMap();
+		this.scopes = createMap();
+		this.providers = createMap();
+		this.beanCollections = createMap();
 		this.injectionPointFactory = new InjectionPointFactory(petiteConfig);
 		this.petiteResolvers = new PetiteResolvers(injectionPointFactory);
 		this.paramManager = new ParamManager();
 	}
 
+	/**
+	 * Creates new registry map. Maps are concurrent
+	 * when container is in {@link PetiteConfig#isConcurrent() concurrent mode}.
+	 */
+	protected <K, V> Map<K, V> createMap() {
+		if (petiteConfig.isConcurrent()) {
+			return new ConcurrentHashMap<K, V>();
+		}
+		return new HashMap<K, V>();
+	}
+
 	/**
 	 * Returns parameter manager.
 	 */
@@ -111,8 +128,15 @@ public abstract class PetiteBeans {
 				throw new PetiteException("Unable to create Petite scope: " + scopeType.getName(), ex);
 			}
 
-			registerScope(scopeType, scope);
-			scopes.put(scopeType, scope);
+			if (scopes instanceof ConcurrentMap) {
+				// concurrent mode: the first registered scope instance wins
+				S existing = (S) ((ConcurrentMap<Class<? extends Scope>, Scope>) scopes).putIfAbsent(scopeType, scope);
+				if (existing != null) {
+					return existing;
+				}
+			} else {
+				registerScope(scopeType, scope);
+			}
 		}
 		return scope;
 	}
@@ -620,4 +644,4 @@ public abstract class PetiteBeans {
 		defineParameters(map);
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
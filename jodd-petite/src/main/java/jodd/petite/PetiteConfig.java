@@ -26,6 +26,8 @@ public class PetiteConfig {
 		useParamo = Jodd.isProxettaLoaded();
 		wireScopedProxy = false;
 		detectMixedScopes = false;
+		concurrent = false;
+		generateBeanWirers = false;
 	}
 
 	// ----------------------------------------------------------------
@@ -181,4 +183,46 @@ public class PetiteConfig {
 		}
 		this.detectMixedScopes = detectMixedScopes;
 	}
+
+	// ----------------------------------------------------------------
+
+	protected boolean concurrent;
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Enables concurrent container mode. In this mode container registries
+	 * are thread-safe and each singleton bean is created only once, even
+	 * when it is concurrently accessed for the first time. Singleton creation
+	 * locks just the bean being created, so independent beans may be created
+	 * in parallel. Must be set <b>before</b> container is created.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	// ----------------------------------------------------------------
+
+	protected boolean generateBeanWirers;
+
+	public boolean isGenerateBeanWirers() {
+		return generateBeanWirers;
+	}
+
+	/**
+	 * Defines if {@link BeanWirer bean wirers} should be generated for
+	 * non-singleton beans. Wirers create and wire beans using direct calls
+	 * instead of reflection. Wirer is generated after the first bean instance
+	 * is created, since then all injection points are known.
+	 * Only available with Proxetta.
+	 */
+	public void setGenerateBeanWirers(boolean generateBeanWirers) {
+		if (Jodd.isProxettaLoaded() == false) {
+			log.warn("Feature not available without Proxetta");
+			return;
+		}
+		this.generateBeanWirers = generateBeanWirers;
+	}
 }
@@ -11,6 +11,9 @@ import jodd.petite.scope.SingletonScope;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
 import jodd.typeconverter.Convert;
 import jodd.log.Logger;
@@ -32,6 +35,17 @@ public class PetiteContainer extends PetiteBeans {
 	public static final String PETITE_CONTAINER_REF_NAME = "petiteContainer";
 
 	protected final ScopedProxyManager scopedProxyManager;
+	protected final BeanWirerGenerator beanWirerGenerator;
+
+	/**
+	 * Singleton beans being created in concurrent mode.
+	 */
+	protected final ConcurrentMap<BeanDefinition, SingletonCreation> creations = new ConcurrentHashMap<BeanDefinition, SingletonCreation>();
+
+	/**
+	 * Beans that threads are waiting for, in concurrent mode.
+	 */
+	protected final ConcurrentMap<Thread, BeanDefinition> creationWaits = new ConcurrentHashMap<Thread, BeanDefinition>();
 
 	/**
 	 * Creates new Petite container using {@link PetiteConfig default configuration}.
@@ -48,8 +62,10 @@ public class PetiteContainer extends PetiteBeans {
 
 		if (Jodd.isProxettaLoaded()) {
 			scopedProxyManager = new ScopedProxyManager();
+			beanWirerGenerator = new BeanWirerGenerator();
 		} else {
 			scopedProxyManager = null;
+			beanWirerGenerator = null;
 		}
 
 		if (log.isDebugEnabled()) {
@@ -96,9 +112,14 @@ public class PetiteContainer extends PetiteBeans {
 		}
 
 		// create instance
-		Object bean;
+		Object bean = null;
 		try {
-			bean = def.ctor.constructor.newInstance(args);
+			if (def.wirer != null) {
+				bean = def.wirer.newInstance(args);
+			}
+			if (bean == null) {
+				bean = def.ctor.constructor.newInstance(args);
+			}
 		} catch (Exception ex) {
 			throw new PetiteException("Unable to create new bean instance '" + def.type.getName() + "' using constructor: " + def.ctor.constructor, ex);
 		}
@@ -133,7 +154,10 @@ public class PetiteContainer extends PetiteBeans {
 
 		boolean mixing = petiteConfig.wireScopedProxy || petiteConfig.detectMixedScopes;
 
-		for (PropertyInjectionPoint pip : def.properties) {
+		BeanWirer wirer = def.wirer;
+
+		for (int i = 0; i < def.properties.length; i++) {
+			PropertyInjectionPoint pip = def.properties[i];
 			String[] refNames = pip.references;
 
 			Object value = null;
@@ -157,14 +181,17 @@ public class PetiteContainer extends PetiteBeans {
 				}
 				continue;
 			}
-			BeanUtil.setDeclaredProperty(bean, pip.field.getName(), value);
+			if (wirer == null || !wirer.wireProperty(bean, i, value)) {
+				BeanUtil.setDeclaredProperty(bean, pip.field.getName(), value);
+			}
 		}
 
 		// sets
 		if (def.sets == null) {
 			def.sets = petiteResolvers.resolveSetInjectionPoint(def.type, def.wiringMode == WiringMode.AUTOWIRE);
 		}
-		for (SetInjectionPoint sip : def.sets) {
+		for (int i = 0; i < def.sets.length; i++) {
+			SetInjectionPoint sip = def.sets[i];
 
 			String[] beanNames = resolveBeanNamesForType(sip.targetClass);
 
@@ -177,7 +204,9 @@ public class PetiteContainer extends PetiteBeans {
 				}
 			}
 
-			BeanUtil.setDeclaredProperty(bean, sip.field.getName(), beans);
+			if (wirer == null || !wirer.wireSet(bean, i, beans)) {
+				BeanUtil.setDeclaredProperty(bean, sip.field.getName(), beans);
+			}
 		}
 	}
 
@@ -188,7 +217,10 @@ public class PetiteContainer extends PetiteBeans {
 		if (def.methods == null) {
 			def.methods = petiteResolvers.resolveMethodInjectionPoint(def.type);
 		}
-		for (MethodInjectionPoint methodRef : def.methods) {
+		BeanWirer wirer = def.wirer;
+
+		for (int m = 0; m < def.methods.length; m++) {
+			MethodInjectionPoint methodRef = def.methods[m];
 			String[][] refNames = methodRef.references;
 			Object[] args = new Object[refNames.length];
 			for (int i = 0; i < refNames.length; i++) {
@@ -219,7 +251,9 @@ public class PetiteContainer extends PetiteBeans {
 			}
 
 			try {
-				methodRef.method.invoke(bean, args);
+				if (wirer == null || !wirer.wireMethod(bean, m, args)) {
+					methodRef.method.invoke(bean, args);
+				}
 			} catch (Exception ex) {
 				throw new PetiteException(ex);
 			}
@@ -237,12 +271,17 @@ public class PetiteContainer extends PetiteBeans {
 		if (def.destroyMethods == null) {
 			def.destroyMethods = petiteResolvers.resolveDestroyMethodPoint(bean);
 		}
-		for (InitMethodPoint initMethod : def.initMethods) {
+		BeanWirer wirer = def.wirer;
+
+		for (int i = 0; i < def.initMethods.length; i++) {
+			InitMethodPoint initMethod = def.initMethods[i];
 			if (invocationStrategy != initMethod.invocationStrategy) {
 				continue;
 			}
 			try {
-				initMethod.method.invoke(bean);
+				if (wirer == null || !wirer.invokeInitMethod(bean, i)) {
+					initMethod.method.invoke(bean);
+				}
 			} catch (Exception ex) {
 				throw new PetiteException("Unable to invoke init method: " + initMethod, ex);
 			}
@@ -293,6 +332,17 @@ public class PetiteContainer extends PetiteBeans {
 	 * @see PetiteContainer#createBean(Class)
 	 */
 	public Object getBean(String name) {
+
+		// fast path: bean already exists in its scope
+
+		BeanDefinition def = lookupBeanDefinition(name);
+		if (def != null) {
+			Object bean = def.scopeLookup();
+			if (bean != null) {
+				return bean;
+			}
+		}
+
 		return getBean(name, new HashMap<String, Object>());
 	}
 
@@ -346,14 +396,145 @@ public class PetiteContainer extends PetiteBeans {
 		// Find the bean in its scope
 		bean = def.scopeLookup();
 		if (bean == null) {
+			if (petiteConfig.concurrent && (def.scope instanceof SingletonScope)) {
+				return createSingletonBean(def, acquiredBeans);
+			}
 			// Create new bean in the scope
-			bean = newBeanInstance(def, acquiredBeans);
-			wireBeanInjectParamsAndInvokeInitMethods(def, bean, acquiredBeans);
-			def.scopeRegister(bean);
+			bean = createBeanInScope(def, acquiredBeans);
+		}
+		return bean;
+	}
+
+	/**
+	 * Creates new bean, wires it and registers it in the scope.
+	 * When enabled, {@link BeanWirer bean wirer} is generated after
+	 * the first bean instance is created.
+	 */
+	protected Object createBeanInScope(BeanDefinition def, Map<String, Object> acquiredBeans) {
+		Object bean = newBeanInstance(def, acquiredBeans);
+		wireBeanInjectParamsAndInvokeInitMethods(def, bean, acquiredBeans);
+		def.scopeRegister(bean);
+
+		if (def.wirer == null && petiteConfig.generateBeanWirers && !(def.scope instanceof SingletonScope)) {
+			// all injection points are resolved now
+			createBeanWirer(def);
 		}
 		return bean;
 	}
 
+	/**
+	 * Creates {@link BeanWirer bean wirer} under the bean definition lock,
+	 * so concurrent threads don't generate and define wirer classes for
+	 * the same bean.
+	 */
+	protected void createBeanWirer(BeanDefinition def) {
+		synchronized (def) {
+			if (def.wirer == null) {
+				def.wirer = beanWirerGenerator.createWirer(def);
+			}
+		}
+	}
+
+	/**
+	 * Singleton bean creation in progress, in concurrent mode.
+	 */
+	protected static class SingletonCreation {
+		protected final Thread creator = Thread.currentThread();
+		protected final CountDownLatch done = new CountDownLatch(1);
+		protected volatile Object instance;		// created, but not yet wired bean
+	}
+
+	/**
+	 * Creates singleton bean in {@link PetiteConfig#isConcurrent() concurrent mode}.
+	 * Only one thread creates the bean, while other threads requesting the
+	 * same bean wait for it. Each bean has its own creation, so other beans
+	 * may be created at the same time.
+	 */
+	protected Object createSingletonBean(BeanDefinition def, Map<String, Object> acquiredBeans) {
+		while (true) {
+			Object bean = def.scopeLookup();
+			if (bean != null) {
+				return bean;
+			}
+
+			SingletonCreation creation = new SingletonCreation();
+			SingletonCreation existing = creations.putIfAbsent(def, creation);
+
+			if (existing != null) {
+				bean = waitForSingletonBean(def, existing);
+				if (bean != null) {
+					return bean;
+				}
+				continue;
+			}
+
+			try {
+				// bean might be registered after the lookup
+				bean = def.scopeLookup();
+				if (bean == null) {
+					bean = newBeanInstance(def, acquiredBeans);
+					creation.instance = bean;
+					wireBeanInjectParamsAndInvokeInitMethods(def, bean, acquiredBeans);
+					def.scopeRegister(bean);
+				}
+				return bean;
+			} finally {
+				creations.remove(def);
+				creation.done.countDown();
+			}
+		}
+	}
+
+	/**
+	 * Waits for singleton bean that is created by another thread. Returns
+	 * <code>null</code> when waiting is over, so the bean has to be looked up
+	 * again. If waiting would close a cycle of threads creating dependent beans,
+	 * bean instance that is not yet wired is returned, the same way as it is
+	 * for cyclic dependencies resolved within a single thread.
+	 */
+	protected Object waitForSingletonBean(BeanDefinition def, SingletonCreation creation) {
+		Thread currentThread = Thread.currentThread();
+
+		creationWaits.put(currentThread, def);
+		try {
+			if (isCreationCycle(currentThread, creation)) {
+				Object bean = creation.instance;
+				if (bean == null) {
+					throw new PetiteException(
+							"Cycle dependencies on constructor injection detected while concurrently creating singleton: " + def.name);
+				}
+				return bean;
+			}
+			creation.done.await();
+		} catch (InterruptedException iex) {
+			currentThread.interrupt();
+			throw new PetiteException("Interrupted while waiting for singleton: " + def.name, iex);
+		} finally {
+			creationWaits.remove(currentThread);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns <code>true</code> if creator of the bean waits, directly
+	 * or over other creators, for the bean created by current thread.
+	 */
+	protected boolean isCreationCycle(Thread currentThread, SingletonCreation creation) {
+		int steps = creationWaits.size();
+
+		while (creation != null && steps-- >= 0) {
+			if (creation.creator == currentThread) {
+				return true;
+			}
+			BeanDefinition awaited = creationWaits.get(creation.creator);
+			if (awaited == null) {
+				return false;
+			}
+			creation = creations.get(awaited);
+		}
+		return false;
+	}
+
 	/**
 	 * Wires bean, injects parameters and invokes init methods.
 	 */
@@ -531,6 +712,46 @@ public class PetiteContainer extends PetiteBeans {
 		}
 	}
 
+	// ---------------------------------------------------------------- startup
+
+	/**
+	 * Resolves all injection points and parameters of a bean definition,
+	 * so they are not resolved lazily on bean creation. Init and destroy
+	 * methods are resolved from the bean instance, so they are not resolved here.
+	 */
+	protected void resolveInjectionPoints(BeanDefinition def) {
+		if (def.ctor == null) {
+			def.ctor = petiteResolvers.resolveCtorInjectionPoint(def.type);
+		}
+		if (def.wiringMode != WiringMode.NONE) {
+			boolean autowire = def.wiringMode == WiringMode.AUTOWIRE;
+
+			if (def.properties == null) {
+				def.properties = petiteResolvers.resolvePropertyInjectionPoint(def.type, autowire);
+			}
+			if (def.sets == null) {
+				def.sets = petiteResolvers.resolveSetInjectionPoint(def.type, autowire);
+			}
+			if (def.methods == null) {
+				def.methods = petiteResolvers.resolveMethodInjectionPoint(def.type);
+			}
+		}
+		if (def.name != null && def.params == null) {
+			def.params = resolveBeanParams(def.name, petiteConfig.getResolveReferenceParameters());
+		}
+	}
+
+	/**
+	 * Starts up the container: resolves injection points of all registered beans,
+	 * detects cyclic dependencies and creates all singletons using given number
+	 * of threads. Parallel startup requires {@link PetiteConfig#isConcurrent() concurrent mode}.
+	 * Returns report with bean initialization times.
+	 * @see PetiteStartup
+	 */
+	public PetiteStartupReport startup(int threads) {
+		return new PetiteStartup(this).start(threads);
+	}
+
 	// ---------------------------------------------------------------- shutdown
 
 	/**
@@ -0,0 +1,420 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+import jodd.log.Logger;
+import jodd.log.LoggerFactory;
+import jodd.petite.scope.SingletonScope;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Container startup phase. Resolves injection points of all registered
+ * beans and builds the dependency graph. Cycles are detected up front:
+ * cycles of constructor injections can never be created, so they are
+ * reported as errors. Then all singletons are created, dependencies first.
+ * Beans that depend on each other are grouped and created together, while
+ * independent groups may be created in parallel.
+ */
+public class PetiteStartup {
+
+	private static final Logger log = LoggerFactory.getLogger(PetiteStartup.class);
+
+	protected final PetiteContainer petiteContainer;
+	protected final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+
+	public PetiteStartup(PetiteContainer petiteContainer) {
+		this.petiteContainer = petiteContainer;
+	}
+
+	/**
+	 * Bean in the dependency graph.
+	 */
+	protected static class Node {
+		protected final BeanDefinition def;
+		protected final Set<Node> dependencies = new LinkedHashSet<Node>();
+		protected final Set<Node> ctorDependencies = new LinkedHashSet<Node>();
+		protected Group group;
+
+		// cycles detection
+		protected int index = -1;
+		protected int lowLink;
+		protected boolean onStack;
+
+		protected Node(BeanDefinition def) {
+			this.def = def;
+		}
+	}
+
+	/**
+	 * Group of beans that depend on each other and therefore
+	 * have to be created together.
+	 */
+	protected static class Group {
+		protected final List<Node> nodes = new ArrayList<Node>();
+		protected final Set<Group> dependents = new LinkedHashSet<Group>();
+		protected final AtomicInteger pendingDependencies = new AtomicInteger();
+	}
+
+	// ---------------------------------------------------------------- graph
+
+	/**
+	 * Resolves injection points of all beans and builds the dependency graph.
+	 */
+	public void resolveGraph() {
+		nodes.clear();
+
+		for (BeanDefinition def : petiteContainer.beans.values()) {
+			petiteContainer.resolveInjectionPoints(def);
+			nodes.put(def.name, new Node(def));
+		}
+
+		for (Node node : nodes.values()) {
+			resolveDependencies(node);
+		}
+	}
+
+	/**
+	 * Resolves dependencies of a bean from its injection points.
+	 */
+	protected void resolveDependencies(Node node) {
+		BeanDefinition def = node.def;
+
+		if (def.wiringMode == WiringMode.NONE) {
+			return;
+		}
+
+		for (String[] references : def.ctor.references) {
+			addDependency(node, references, true);
+		}
+		for (PropertyInjectionPoint pip : def.properties) {
+			addDependency(node, pip.references, false);
+		}
+		for (SetInjectionPoint sip : def.sets) {
+			for (String beanName : petiteContainer.resolveBeanNamesForType(sip.targetClass)) {
+				if (beanName.equals(def.name) == false) {
+					addDependency(node, new String[] {beanName}, false);
+				}
+			}
+		}
+		for (MethodInjectionPoint mip : def.methods) {
+			for (String[] references : mip.references) {
+				addDependency(node, references, false);
+			}
+		}
+	}
+
+	/**
+	 * Adds dependency on the first bean or provider that
+	 * matches one of the references, in the same way as the container
+	 * resolves them.
+	 */
+	protected void addDependency(Node node, String[] references, boolean ctor) {
+		for (String reference : references) {
+			if (reference == null) {
+				continue;
+			}
+
+			Node dependency = nodes.get(reference);
+
+			if (dependency == null) {
+				ProviderDefinition provider = petiteContainer.providers.get(reference);
+				if (provider == null) {
+					continue;
+				}
+				if (provider.beanName == null) {
+					return;
+				}
+				dependency = nodes.get(provider.beanName);
+				if (dependency == null) {
+					return;
+				}
+			}
+
+			node.dependencies.add(dependency);
+			if (ctor) {
+				node.ctorDependencies.add(dependency);
+			}
+			return;
+		}
+	}
+
+	// ---------------------------------------------------------------- groups
+
+	/**
+	 * Groups beans that depend on each other (strongly connected components)
+	 * and returns groups ordered so that dependencies come first.
+	 */
+	protected List<Group> resolveGroups() {
+		List<Group> groups = new ArrayList<Group>();
+		List<Node> stack = new ArrayList<Node>();
+		int[] index = new int[1];
+
+		for (Node node : nodes.values()) {
+			node.index = -1;
+			node.group = null;
+		}
+		for (Node node : nodes.values()) {
+			if (node.index == -1) {
+				connect(node, index, stack, groups);
+			}
+		}
+
+		for (Group group : groups) {
+			for (Node node : group.nodes) {
+				for (Node dependency : node.dependencies) {
+					Group dependencyGroup = dependency.group;
+					if (dependencyGroup != group && dependencyGroup.dependents.add(group)) {
+						group.pendingDependencies.incrementAndGet();
+					}
+				}
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Tarjan's algorithm for strongly connected components.
+	 * Components are emitted after all components they depend on.
+	 */
+	private void connect(Node node, int[] index, List<Node> stack, List<Group> groups) {
+		node.index = index[0];
+		node.lowLink = index[0];
+		index[0]++;
+		stack.add(node);
+		node.onStack = true;
+
+		for (Node dependency : node.dependencies) {
+			if (dependency.index == -1) {
+				connect(dependency, index, stack, groups);
+				node.lowLink = Math.min(node.lowLink, dependency.lowLink);
+			} else if (dependency.onStack) {
+				node.lowLink = Math.min(node.lowLink, dependency.index);
+			}
+		}
+
+		if (node.lowLink == node.index) {
+			Group group = new Group();
+			Node member;
+			do {
+				member = stack.remove(stack.size() - 1);
+				member.onStack = false;
+				member.group = group;
+				group.nodes.add(0, member);
+			} while (member != node);
+
+			groups.add(group);
+		}
+	}
+
+	/**
+	 * Checks groups for cycles. Cycles made only of constructor injections
+	 * can't be created and {@link PetiteException exception} is thrown. Cycles
+	 * that contain some constructor injections may fail, depending on
+	 * which bean is created first, so they are just logged.
+	 */
+	protected void checkCycles(List<Group> groups) {
+		for (Group group : groups) {
+			boolean ctorCycle = false;
+
+			for (Node node : group.nodes) {
+				for (Node dependency : node.ctorDependencies) {
+					if (dependency.group == group) {
+						ctorCycle = true;
+						break;
+					}
+				}
+			}
+			if (ctorCycle == false) {
+				continue;
+			}
+
+			List<Node> cycle = findCtorCycle(group);
+			if (cycle != null) {
+				throw new PetiteException("Cycle dependencies on constructor injection detected: " + toString(cycle));
+			}
+
+			if (log.isWarnEnabled()) {
+				log.warn("Cycle dependencies with constructor injection detected: " + toString(group.nodes));
+			}
+		}
+	}
+
+	/**
+	 * Finds cycle made only of constructor injections within the group.
+	 */
+	protected List<Node> findCtorCycle(Group group) {
+		Set<Node> visited = new LinkedHashSet<Node>();
+		for (Node node : group.nodes) {
+			List<Node> path = new ArrayList<Node>();
+			List<Node> cycle = findCtorCycle(group, node, path, visited);
+			if (cycle != null) {
+				return cycle;
+			}
+		}
+		return null;
+	}
+
+	private List<Node> findCtorCycle(Group group, Node node, List<Node> path, Set<Node> visited) {
+		int ndx = path.indexOf(node);
+		if (ndx != -1) {
+			List<Node> cycle = new ArrayList<Node>(path.subList(ndx, path.size()));
+			cycle.add(node);
+			return cycle;
+		}
+		if (visited.add(node) == false) {
+			return null;
+		}
+		path.add(node);
+		for (Node dependency : node.ctorDependencies) {
+			if (dependency.group != group) {
+				continue;
+			}
+			List<Node> cycle = findCtorCycle(group, dependency, path, visited);
+			if (cycle != null) {
+				return cycle;
+			}
+		}
+		path.remove(path.size() - 1);
+		return null;
+	}
+
+	private String toString(List<Node> nodes) {
+		StringBuilder sb = new StringBuilder();
+		for (Node node : nodes) {
+			if (sb.length() > 0) {
+				sb.append(" -> ");
+			}
+			sb.append(node.def.name);
+		}
+		return sb.toString();
+	}
+
+	// ---------------------------------------------------------------- start
+
+	/**
+	 * Resolves the graph, checks cycles and creates all singletons
+	 * using given number of threads.
+	 */
+	public PetiteStartupReport start(int threads) {
+		if (threads > 1 && petiteContainer.petiteConfig.isConcurrent() == false) {
+			throw new PetiteException("Parallel startup requires concurrent container mode");
+		}
+
+		long startTime = System.nanoTime();
+
+		resolveGraph();
+
+		List<Group> groups = resolveGroups();
+
+		checkCycles(groups);
+
+		PetiteStartupReport report = new PetiteStartupReport(threads);
+
+		if (threads <= 1) {
+			for (Group group : groups) {
+				createSingletons(group, report);
+			}
+		} else {
+			createSingletons(groups, threads, report);
+		}
+
+		report.setTotalTime(System.nanoTime() - startTime);
+
+		if (log.isDebugEnabled()) {
+			log.debug(report.toString());
+		}
+		return report;
+	}
+
+	/**
+	 * Creates all singletons of the group.
+	 */
+	protected void createSingletons(Group group, PetiteStartupReport report) {
+		for (Node node : group.nodes) {
+			if ((node.def.scope instanceof SingletonScope) == false) {
+				continue;
+			}
+			long start = System.nanoTime();
+
+			petiteContainer.getBean(node.def.name);
+
+			report.addInitTime(node.def.name, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Creates singletons in parallel. Group is created once
+	 * all groups it depends on are created.
+	 */
+	protected void createSingletons(List<Group> groups, int threads, final PetiteStartupReport report) {
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "petite-startup-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		final CountDownLatch latch = new CountDownLatch(groups.size());
+		final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+		try {
+			for (Group group : groups) {
+				if (group.pendingDependencies.get() == 0) {
+					submit(executorService, group, latch, failure, report);
+				}
+			}
+
+			latch.await();
+		} catch (InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new PetiteException("Startup interrupted", iex);
+		} finally {
+			executorService.shutdownNow();
+		}
+
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+	}
+
+	private void submit(
+			final ExecutorService executorService, final Group group,
+			final CountDownLatch latch, final AtomicReference<RuntimeException> failure,
+			final PetiteStartupReport report) {
+
+		executorService.execute(new Runnable() {
+			public void run() {
+				try {
+					if (failure.get() == null) {
+						createSingletons(group, report);
+					}
+				} catch (RuntimeException rex) {
+					failure.compareAndSet(null, rex);
+				} finally {
+					for (Group dependent : group.dependents) {
+						if (dependent.pendingDependencies.decrementAndGet() == 0) {
+							submit(executorService, dependent, latch, failure, report);
+						}
+					}
+					latch.countDown();
+				}
+			}
+		});
+	}
+
+}
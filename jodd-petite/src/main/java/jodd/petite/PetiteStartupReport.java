@@ -0,0 +1,106 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report of the {@link PetiteStartup container startup}. Holds initialization
+ * times of created singletons. Bean initialization time includes creation of
+ * all beans that are not created before, like non-singleton dependencies
+ * or beans that depend on each other.
+ */
+public class PetiteStartupReport {
+
+	protected final int threads;
+	protected final Map<String, Long> initTimes = new LinkedHashMap<String, Long>();
+	protected long totalTime;
+
+	public PetiteStartupReport(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Adds bean initialization time in nanoseconds.
+	 */
+	protected synchronized void addInitTime(String beanName, long time) {
+		initTimes.put(beanName, Long.valueOf(time));
+	}
+
+	protected void setTotalTime(long totalTime) {
+		this.totalTime = totalTime;
+	}
+
+	/**
+	 * Returns number of threads used for startup.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Returns total startup time in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Returns number of created singletons.
+	 */
+	public synchronized int getBeansCount() {
+		return initTimes.size();
+	}
+
+	/**
+	 * Returns initialization time of a bean in nanoseconds,
+	 * or <code>-1</code> if bean was not created during the startup.
+	 */
+	public synchronized long getInitTime(String beanName) {
+		Long time = initTimes.get(beanName);
+		if (time == null) {
+			return -1;
+		}
+		return time.longValue();
+	}
+
+	/**
+	 * Returns names of created beans, slowest first.
+	 */
+	public synchronized List<String> getSlowestBeans() {
+		List<String> names = new ArrayList<String>(initTimes.keySet());
+
+		Collections.sort(names, new Comparator<String>() {
+			public int compare(String name1, String name2) {
+				long time1 = initTimes.get(name1).longValue();
+				long time2 = initTimes.get(name2).longValue();
+				return time1 < time2 ? 1 : (time1 == time2 ? 0 : -1);
+			}
+		});
+		return names;
+	}
+
+	/**
+	 * Returns the report with all bean initialization times, slowest first.
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Petite startup: ").append(initTimes.size()).append(" singletons in ")
+				.append(toMillis(totalTime)).append(" ms using ").append(threads).append(" thread(s)");
+
+		for (String name : getSlowestBeans()) {
+			sb.append("\n  ").append(name).append(": ").append(toMillis(initTimes.get(name).longValue())).append(" ms");
+		}
+		return sb.toString();
+	}
+
+	private static String toMillis(long nanos) {
+		return String.valueOf(nanos / 1000 / 1000.0);
+	}
+}
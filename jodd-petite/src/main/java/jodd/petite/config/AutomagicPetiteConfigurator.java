@@ -6,12 +6,12 @@ import jodd.petite.PetiteContainer;
 import jodd.petite.PetiteException;
 import jodd.petite.meta.PetiteBean;
 import jodd.io.findfile.ClassFinder;
+import jodd.io.findfile.ClassScanSession;
 import jodd.util.ClassLoaderUtil;
 import jodd.log.Logger;
 import jodd.log.LoggerFactory;
 
 import java.io.File;
-import java.io.InputStream;
 
 /**
  * Auto-magically configures Petite container by analyzing the classpath.
@@ -19,6 +19,9 @@ import java.io.InputStream;
  * Scans all classes on classpath and in jar files, and scans for {@link jodd.petite.meta.PetiteBean}
  * annotation (not by loading the class!). If annotation is founded, class will be loaded and
  * registered as Petite bean.
+ * <p>
+ * Configurator may also be {@link #configure(jodd.petite.PetiteContainer, jodd.io.findfile.ClassScanSession) registered}
+ * to a shared scan session, so the classpath is scanned just once for several configurators.
  */
 public class AutomagicPetiteConfigurator extends ClassFinder implements PetiteConfigurator {
 
@@ -65,6 +68,16 @@ public class AutomagicPetiteConfigurator extends ClassFinder implements PetiteCo
 		configure(petiteContainer, ClassLoaderUtil.getDefaultClasspath());
 	}
 
+	/**
+	 * Registers this configurator to the shared scan session. Container is
+	 * configured once the session {@link jodd.io.findfile.ClassScanSession#scan(java.io.File...) scans}
+	 * the classpath.
+	 */
+	public void configure(PetiteContainer petiteContainer, ClassScanSession classScanSession) {
+		this.container = petiteContainer;
+		classScanSession.register(this);
+	}
+
 	/**
 	 * Scans all classes and registers only those annotated with {@link jodd.petite.meta.PetiteBean}.
 	 * Because of performance purposes, classes are not dynamically loaded; instead, their
@@ -73,8 +86,7 @@ public class AutomagicPetiteConfigurator extends ClassFinder implements PetiteCo
 	@Override
 	protected void onEntry(EntryData entryData) {
 		String entryName = entryData.getName();
-		InputStream inputStream = entryData.openInputStream();
-		if (isTypeSignatureInUse(inputStream, petiteBeanAnnotationBytes) == false) {
+		if (isTypeSignatureInUse(entryData, petiteBeanAnnotationBytes) == false) {
 			return;
 		}
 		Class<?> beanClass;
@@ -87,7 +99,9 @@ public class AutomagicPetiteConfigurator extends ClassFinder implements PetiteCo
 		if (petiteBean == null) {
 			return;
 		}
-		container.registerPetiteBean(beanClass, null, null, null, false);
+		synchronized (container) {
+			container.registerPetiteBean(beanClass, null, null, null, false);
+		}
 	}
 
 	/**
@@ -7,15 +7,15 @@ import jodd.petite.BeanDefinition;
 import jodd.petite.PetiteUtil;
 
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Singleton scope pools all bean instances so they will be created only once in
- * the container context.
+ * the container context. Lookups are thread-safe and lock-free.
  */
 public class SingletonScope implements Scope {
 
-	protected Map<String, BeanData> instances = new HashMap<String, BeanData>();
+	protected Map<String, BeanData> instances = new ConcurrentHashMap<String, BeanData>();
 
 	public Object lookup(String name) {
 		BeanData beanData = instances.get(name);
@@ -0,0 +1,141 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+import jodd.petite.meta.PetiteInitMethod;
+import jodd.petite.meta.PetiteInject;
+import jodd.petite.scope.ProtoScope;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class BeanWirerTest {
+
+	public static class Foo {
+	}
+
+	public static class Bar {
+		final Foo ctorFoo;
+
+		@PetiteInject
+		Foo fieldFoo;
+
+		@PetiteInject
+		private Foo privateFoo;
+
+		@PetiteInject
+		Foo setterFoo;
+		int setterCount;
+
+		Foo methodFoo;
+
+		@PetiteInject
+		Set<Foo> foos;
+
+		int initCount;
+
+		public Bar(Foo ctorFoo) {
+			this.ctorFoo = ctorFoo;
+		}
+
+		public void setSetterFoo(Foo setterFoo) {
+			this.setterFoo = setterFoo;
+			setterCount++;
+		}
+
+		@PetiteInject
+		void injectFoo(Foo foo) {
+			this.methodFoo = foo;
+		}
+
+		@PetiteInitMethod
+		void init() {
+			initCount++;
+		}
+
+		public Foo getPrivateFoo() {
+			return privateFoo;
+		}
+	}
+
+	@Test
+	public void testBeanWirer() {
+		PetiteConfig petiteConfig = new PetiteConfig();
+		petiteConfig.setGenerateBeanWirers(true);
+
+		PetiteContainer pc = new PetiteContainer(petiteConfig);
+		pc.registerPetiteBean(Foo.class, "foo", null, null, false);
+		pc.registerPetiteBean(Bar.class, "bar", ProtoScope.class, null, false);
+
+		BeanDefinition def = pc.lookupBeanDefinition("bar");
+		assertNull(def.getBeanWirer());
+
+		Foo foo = (Foo) pc.getBean("foo");
+		assertNull(pc.lookupBeanDefinition("foo").getBeanWirer());
+
+		Bar bar1 = (Bar) pc.getBean("bar");
+		BeanWirer wirer = def.getBeanWirer();
+		assertNotNull(wirer);
+		assertNotSame(BeanWirerGenerator.NO_WIRER, wirer);
+		assertTrue(wirer.getClass().getName().startsWith(Bar.class.getName() + "$PetiteWirer"));
+
+		Bar bar2 = (Bar) pc.getBean("bar");
+		assertSame(wirer, def.getBeanWirer());
+		assertNotSame(bar1, bar2);
+
+		for (Bar bar : new Bar[] {bar1, bar2}) {
+			assertSame(foo, bar.ctorFoo);
+			assertSame(foo, bar.fieldFoo);
+			assertSame(foo, bar.getPrivateFoo());
+			assertSame(foo, bar.setterFoo);
+			assertEquals(1, bar.setterCount);
+			assertSame(foo, bar.methodFoo);
+			assertEquals(1, bar.foos.size());
+			assertSame(foo, bar.foos.iterator().next());
+			assertEquals(1, bar.initCount);
+		}
+	}
+
+	@Test
+	public void testGeneratedCalls() {
+		PetiteConfig petiteConfig = new PetiteConfig();
+		petiteConfig.setGenerateBeanWirers(true);
+
+		PetiteContainer pc = new PetiteContainer(petiteConfig);
+		pc.registerPetiteBean(Foo.class, "foo", null, null, false);
+		pc.registerPetiteBean(Bar.class, "bar", ProtoScope.class, null, false);
+		pc.getBean("bar");
+
+		BeanDefinition def = pc.lookupBeanDefinition("bar");
+		BeanWirer wirer = def.getBeanWirer();
+		Foo foo = new Foo();
+
+		Bar bar = (Bar) wirer.newInstance(new Object[] {foo});
+		assertSame(foo, bar.ctorFoo);
+
+		for (int i = 0; i < def.getPropertyInjectionPoints().length; i++) {
+			String name = def.getPropertyInjectionPoints()[i].field.getName();
+
+			boolean wired = wirer.wireProperty(bar, i, foo);
+			assertEquals(!name.equals("privateFoo"), wired);
+
+			// not an instance of the property type
+			assertFalse(wirer.wireProperty(bar, i, "foo"));
+		}
+		assertSame(foo, bar.fieldFoo);
+		assertSame(foo, bar.setterFoo);
+		assertEquals(1, bar.setterCount);
+		assertNull(bar.getPrivateFoo());
+
+		assertTrue(wirer.wireMethod(bar, 0, new Object[] {foo}));
+		assertSame(foo, bar.methodFoo);
+
+		assertTrue(wirer.invokeInitMethod(bar, 0));
+		assertEquals(1, bar.initCount);
+
+		assertFalse(wirer.wireProperty(bar, 100, foo));
+		assertFalse(wirer.invokeInitMethod(bar, 100));
+	}
+}
@@ -0,0 +1,205 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+import jodd.petite.meta.PetiteInject;
+import jodd.petite.scope.ProtoScope;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentTest {
+
+	public static class Slow {
+		static final AtomicInteger instances = new AtomicInteger();
+
+		public Slow() throws InterruptedException {
+			instances.incrementAndGet();
+			Thread.sleep(50);
+		}
+	}
+
+	public static class User {
+		static final AtomicInteger instances = new AtomicInteger();
+
+		@PetiteInject
+		Slow slow;
+
+		public User() {
+			instances.incrementAndGet();
+		}
+	}
+
+	public static class CycleA {
+		static CountDownLatch created;
+
+		@PetiteInject
+		CycleB cycleB;
+
+		public CycleA() throws InterruptedException {
+			created.countDown();
+			created.await(1, TimeUnit.SECONDS);
+		}
+
+		public void setCycleB(CycleB cycleB) {
+			this.cycleB = cycleB;
+		}
+	}
+
+	public static class CycleB {
+		@PetiteInject
+		CycleA cycleA;
+
+		public CycleB() throws InterruptedException {
+			CycleA.created.countDown();
+			CycleA.created.await(1, TimeUnit.SECONDS);
+		}
+
+		public void setCycleA(CycleA cycleA) {
+			this.cycleA = cycleA;
+		}
+	}
+
+	@Test
+	public void testSingletonCreatedOnce() throws Exception {
+		Slow.instances.set(0);
+		User.instances.set(0);
+
+		PetiteConfig petiteConfig = new PetiteConfig();
+		petiteConfig.setConcurrent(true);
+
+		final PetiteContainer pc = new PetiteContainer(petiteConfig);
+		pc.registerPetiteBean(Slow.class, "slow", null, null, false);
+		pc.registerPetiteBean(User.class, "user", null, null, false);
+
+		int threads = 8;
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+		for (int i = 0; i < threads; i++) {
+			final String name = (i % 2 == 0) ? "slow" : "user";
+			futures.add(executorService.submit(new Callable<Object>() {
+				public Object call() throws Exception {
+					return pc.getBean(name);
+				}
+			}));
+		}
+
+		Slow slow = null;
+		User user = null;
+		for (Future<Object> future : futures) {
+			Object bean = future.get();
+			if (bean instanceof Slow) {
+				if (slow == null) {
+					slow = (Slow) bean;
+				}
+				assertSame(slow, bean);
+			} else {
+				if (user == null) {
+					user = (User) bean;
+				}
+				assertSame(user, bean);
+			}
+		}
+		executorService.shutdown();
+
+		assertEquals(1, Slow.instances.get());
+		assertEquals(1, User.instances.get());
+		assertSame(slow, user.slow);
+		assertSame(slow, pc.getBean("slow"));
+	}
+
+	@Test
+	public void testConcurrentRegistries() {
+		PetiteConfig petiteConfig = new PetiteConfig();
+		assertFalse(petiteConfig.isConcurrent());
+		assertFalse(new PetiteContainer(petiteConfig).beans instanceof ConcurrentMap);
+
+		petiteConfig.setConcurrent(true);
+		PetiteContainer pc = new PetiteContainer(petiteConfig);
+		assertTrue(pc.beans instanceof ConcurrentMap);
+		assertTrue(pc.scopes instanceof ConcurrentMap);
+		assertTrue(pc.providers instanceof ConcurrentMap);
+		assertTrue(pc.beanCollections instanceof ConcurrentMap);
+	}
+
+	@Test
+	public void testSetterCycleCreatedConcurrently() throws Exception {
+		CycleA.created = new CountDownLatch(2);
+
+		PetiteConfig petiteConfig = new PetiteConfig();
+		petiteConfig.setConcurrent(true);
+
+		final PetiteContainer pc = new PetiteContainer(petiteConfig);
+		pc.registerPetiteBean(CycleA.class, "cycleA", null, null, false);
+		pc.registerPetiteBean(CycleB.class, "cycleB", null, null, false);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+		// both beans are constructed at the same time, before wiring each other
+		Future<Object> futureA = executorService.submit(new Callable<Object>() {
+			public Object call() throws Exception {
+				return pc.getBean("cycleA");
+			}
+		});
+		Future<Object> futureB = executorService.submit(new Callable<Object>() {
+			public Object call() throws Exception {
+				return pc.getBean("cycleB");
+			}
+		});
+
+		CycleA cycleA = (CycleA) futureA.get(5, TimeUnit.SECONDS);
+		CycleB cycleB = (CycleB) futureB.get(5, TimeUnit.SECONDS);
+		executorService.shutdown();
+
+		assertEquals(0, CycleA.created.getCount());
+		assertSame(cycleB, cycleA.cycleB);
+		assertSame(cycleA, cycleB.cycleA);
+		assertSame(cycleA, pc.getBean("cycleA"));
+		assertSame(cycleB, pc.getBean("cycleB"));
+	}
+
+	@Test
+	public void testBeanWirerCreatedOnce() throws Exception {
+		PetiteConfig petiteConfig = new PetiteConfig();
+		petiteConfig.setConcurrent(true);
+		petiteConfig.setGenerateBeanWirers(true);
+
+		final PetiteContainer pc = new PetiteContainer(petiteConfig);
+		pc.registerPetiteBean(Slow.class, "slow", null, null, false);
+		pc.registerPetiteBean(User.class, "user", ProtoScope.class, null, false);
+		pc.getBean("slow");
+
+		int wirers = BeanWirerGenerator.counter.get();
+
+		int threads = 8;
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+		for (int i = 0; i < threads; i++) {
+			futures.add(executorService.submit(new Callable<Object>() {
+				public Object call() throws Exception {
+					return pc.getBean("user");
+				}
+			}));
+		}
+		for (Future<Object> future : futures) {
+			assertNotNull(((User) future.get()).slow);
+		}
+		executorService.shutdown();
+
+		assertNotNull(pc.lookupBeanDefinition("user").getBeanWirer());
+		assertEquals(wirers + 1, BeanWirerGenerator.counter.get());
+	}
+}
@@ -0,0 +1,159 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.petite;
+
+import jodd.petite.meta.PetiteInject;
+import jodd.petite.scope.ProtoScope;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class StartupTest {
+
+	static final List<String> created = new CopyOnWriteArrayList<String>();
+
+	public static class Dee {
+		public Dee() throws InterruptedException {
+			Thread.sleep(20);
+			created.add("dee");
+		}
+	}
+
+	public static class Bee {
+		@PetiteInject
+		Dee dee;
+
+		public Bee() {
+			created.add("bee");
+		}
+	}
+
+	public static class Cee {
+		final Dee dee;
+
+		public Cee(Dee dee) {
+			this.dee = dee;
+			created.add("cee");
+		}
+	}
+
+	public static class Aye {
+		@PetiteInject
+		Bee bee;
+		@PetiteInject
+		Cee cee;
+		@PetiteInject
+		Proto proto;
+
+		public Aye() {
+			created.add("aye");
+		}
+	}
+
+	public static class Proto {
+		public Proto() {
+			created.add("proto");
+		}
+	}
+
+	public static class Pee {
+		@PetiteInject
+		Que que;
+	}
+
+	public static class Que {
+		@PetiteInject
+		Pee pee;
+	}
+
+	public static class Ex {
+		public Ex(Why why) {
+		}
+	}
+
+	public static class Why {
+		public Why(Ex ex) {
+		}
+	}
+
+	private PetiteContainer createContainer(boolean concurrent) {
+		PetiteConfig petiteConfig = new PetiteConfig();
+		petiteConfig.setConcurrent(concurrent);
+
+		PetiteContainer pc = new PetiteContainer(petiteConfig);
+		pc.registerPetiteBean(Aye.class, "aye", null, null, false);
+		pc.registerPetiteBean(Bee.class, "bee", null, null, false);
+		pc.registerPetiteBean(Cee.class, "cee", null, null, false);
+		pc.registerPetiteBean(Dee.class, "dee", null, null, false);
+		pc.registerPetiteBean(Proto.class, "proto", ProtoScope.class, null, false);
+		pc.registerPetiteBean(Pee.class, "pee", null, null, false);
+		pc.registerPetiteBean(Que.class, "que", null, null, false);
+		return pc;
+	}
+
+	@Test
+	public void testStartup() {
+		for (int threads = 1; threads <= 4; threads += 3) {
+			created.clear();
+
+			PetiteContainer pc = createContainer(threads > 1);
+
+			PetiteStartupReport report = pc.startup(threads);
+
+			assertEquals(threads, report.getThreads());
+			assertEquals(6, report.getBeansCount());
+			assertEquals(-1, report.getInitTime("proto"));
+			assertTrue(report.getInitTime("dee") > 0);
+			assertTrue(report.getTotalTime() > 0);
+			assertEquals(6, report.getSlowestBeans().size());
+			assertTrue(report.toString().startsWith("Petite startup: 6 singletons"));
+
+			// dependencies first
+			assertEquals(5, created.size());
+			assertEquals("dee", created.get(0));
+			assertTrue(created.indexOf("aye") > created.indexOf("bee"));
+			assertTrue(created.indexOf("aye") > created.indexOf("cee"));
+			assertTrue(created.contains("proto"));
+
+			// injection points are resolved
+			BeanDefinition def = pc.lookupBeanDefinition("proto");
+			assertNotNull(def.getCtorInjectionPoint());
+			assertNotNull(def.getPropertyInjectionPoints());
+
+			// singletons are created
+			Aye aye = (Aye) pc.getBean("aye");
+			assertSame(pc.getBean("bee"), aye.bee);
+			assertSame(pc.getBean("dee"), aye.cee.dee);
+			assertSame(aye.bee.dee, aye.cee.dee);
+
+			Pee pee = (Pee) pc.getBean("pee");
+			Que que = (Que) pc.getBean("que");
+			assertSame(que, pee.que);
+			assertSame(pee, que.pee);
+
+			assertEquals(5, created.size());
+		}
+	}
+
+	@Test
+	public void testCtorCycle() {
+		PetiteContainer pc = new PetiteContainer();
+		pc.registerPetiteBean(Ex.class, "ex", null, null, false);
+		pc.registerPetiteBean(Why.class, "why", null, null, false);
+
+		try {
+			pc.startup(1);
+			fail();
+		} catch (PetiteException pex) {
+			assertTrue(pex.getMessage().contains("ex -> why -> ex"));
+		}
+	}
+
+	@Test(expected = PetiteException.class)
+	public void testParallelRequiresConcurrentMode() {
+		createContainer(false).startup(2);
+	}
+}
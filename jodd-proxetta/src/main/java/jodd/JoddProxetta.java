@@ -2,6 +2,8 @@
 
 package jodd;
 
+import jodd.proxetta.asm.ClassDataCache;
+
 /**
  * Jodd PROXETTA module.
  */
@@ -62,4 +64,9 @@ public class JoddProxetta {
 	 */
 	public static String wrapperTargetFieldName = "_target";
 
-}
\ No newline at end of file
+	/**
+	 * Shared cache of parsed classes, used when target class hierarchy is inspected.
+	 */
+	public static ClassDataCache classDataCache = new ClassDataCache();
+
+}
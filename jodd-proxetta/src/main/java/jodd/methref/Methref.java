@@ -2,6 +2,10 @@
 
 package jodd.methref;
 
+import jodd.util.ref.ReferenceMap;
+import jodd.util.ref.ReferenceType;
+
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
 import java.util.Map;
 import java.util.WeakHashMap;
@@ -10,20 +14,36 @@ import java.util.WeakHashMap;
 public class Methref<C> {
 
 	protected static final MethrefProxetta proxetta = new MethrefProxetta();
-	private static final Map<Class, Class> cache = new WeakHashMap<Class, Class>();
+
+	/**
+	 * Proxy classes, weakly referenced: proxy is defined in the targets
+	 * class loader and references the target, so strong values would
+	 * prevent targets from being collected.
+	 */
+	private static final Map<Class, Class> cache = new ReferenceMap<Class, Class>(ReferenceType.WEAK, ReferenceType.WEAK);
+
+	/**
+	 * Per-thread pool of reusable methrefs. Methrefs are softly referenced,
+	 * so they survive ordinary garbage collections and are cleared only
+	 * under memory pressure. Strong values would prevent targets from
+	 * being collected, for the same reason as with proxy classes.
+	 */
+	private static final ThreadLocal<Map<Class, SoftReference<Methref>>> threadPool = new ThreadLocal<Map<Class, SoftReference<Methref>>>() {
+		@Override
+		protected Map<Class, SoftReference<Methref>> initialValue() {
+			return new WeakHashMap<Class, SoftReference<Methref>>();
+		}
+	};
 
 	private final C instance;
+	private Field methodNameField;
 
 	/**
 	 * Creates new proxified instance of target. Proxies are cached.
 	 */
-	@SuppressWarnings({"unchecked"})
 	public Methref(Class<C> target) {
-		Class<C> proxifiedTarget = cache.get(target);
-		if (proxifiedTarget == null) {
-			proxifiedTarget = proxetta.defineProxy(target);
-			cache.put(target, proxifiedTarget);
-		}
+		Class<C> proxifiedTarget = proxify(target);
+
 		// create new instance
 		try {
 			instance = proxifiedTarget.newInstance();
@@ -32,6 +52,29 @@ public class Methref<C> {
 		}
 	}
 
+	/**
+	 * Returns cached proxy class of the target or defines a new one.
+	 * Cached proxies are returned without locking. Missing proxy is
+	 * defined while holding the lock, so it is defined only once.
+	 */
+	@SuppressWarnings({"unchecked"})
+	protected static <T> Class<T> proxify(Class<T> target) {
+		Class<T> proxifiedTarget = cache.get(target);
+		if (proxifiedTarget != null) {
+			return proxifiedTarget;
+		}
+
+		synchronized (cache) {
+			proxifiedTarget = cache.get(target);
+
+			if (proxifiedTarget == null) {
+				proxifiedTarget = proxetta.defineProxy(target);
+				cache.put(target, proxifiedTarget);
+			}
+			return proxifiedTarget;
+		}
+	}
+
 
 	// ---------------------------------------------------------------- use
 
@@ -39,7 +82,7 @@ public class Methref<C> {
 	 * Shorten version for methods that returns strings.
 	 */
 	public static <T> T sref(Class<T> target) {
-		return on(target).instance;
+		return onThread(target).instance;
 	}
 
 	/**
@@ -49,6 +92,38 @@ public class Methref<C> {
 		return new Methref<T>(target);
 	}
 
+	/**
+	 * Returns methref of the target that is reused within the current thread,
+	 * without creating new instances and without locking. Each call on the same thread
+	 * returns the same methref, so method reference has to be resolved before
+	 * the next call for the same target: <code>m.ref(m.method().foo())</code>.
+	 * Threads that are reused, e.g. by containers, should
+	 * {@link #releaseThread() release} the pool when done.
+	 */
+	@SuppressWarnings({"unchecked"})
+	public static <T> Methref<T> onThread(Class<T> target) {
+		Map<Class, SoftReference<Methref>> pool = threadPool.get();
+
+		SoftReference<Methref> ref = pool.get(target);
+		Methref<T> methref = ref != null ? ref.get() : null;
+
+		if (methref == null) {
+			methref = new Methref<T>(target);
+			pool.put(target, new SoftReference<Methref>(methref));
+		}
+		return methref;
+	}
+
+	/**
+	 * Releases methrefs pooled by the current thread. Pooled thread
+	 * (e.g. request thread of a web container) has to call this when
+	 * it is done with the {@link #onThread(Class) thread methrefs},
+	 * otherwise the pool lives as long as the thread does.
+	 */
+	public static void releaseThread() {
+		threadPool.remove();
+	}
+
 	public String ref(int dummy) {
 		return ref(null);
 	}
@@ -97,9 +172,12 @@ public class Methref<C> {
 			return null;
 		}
 		try {
-			Field f = instance.getClass().getDeclaredField("$__methodName$0");
-			f.setAccessible(true);
-			return f.get(instance).toString();
+			if (methodNameField == null) {
+				Field f = instance.getClass().getDeclaredField("$__methodName$0");
+				f.setAccessible(true);
+				methodNameField = f;
+			}
+			return methodNameField.get(instance).toString();
 		} catch (Exception ex) {
 			throw new MethrefException("Unable to find injected field.", ex);
 		}
@@ -0,0 +1,58 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.paramo;
+
+import jodd.asm.EmptyClassVisitor;
+import jodd.asm4.MethodVisitor;
+import jodd.asm4.Type;
+
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads all methods and constructors of a class in a single pass and
+ * {@link jodd.paramo.ParamExtractor extracts parameters} of each one.
+ * Extractors are mapped by method name and description.
+ */
+final class ClassParametersReader extends EmptyClassVisitor {
+
+	private static final String TYPE_LONG = "long";
+	private static final String TYPE_DOUBLE = "double";
+
+	private final Map<String, ParamExtractor> paramExtractors = new HashMap<String, ParamExtractor>();
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+		Type[] argumentTypes = Type.getArgumentTypes(desc);
+		if (argumentTypes.length == 0) {
+			return null;				// nothing to extract
+		}
+
+		int dwordsCount = 0;
+		for (Type t : argumentTypes) {
+			if (t.getClassName().equals(TYPE_LONG) || t.getClassName().equals(TYPE_DOUBLE)) {
+				dwordsCount++;
+			}
+		}
+
+		ParamExtractor paramExtractor = new ParamExtractor((Modifier.isStatic(access) ? 0 : 1), argumentTypes.length + dwordsCount);
+		paramExtractors.put(createKey(name, desc), paramExtractor);
+		return paramExtractor;
+	}
+
+	/**
+	 * Returns extractors of all methods with parameters.
+	 */
+	Map<String, ParamExtractor> getParamExtractors() {
+		return paramExtractors;
+	}
+
+	/**
+	 * Creates the key of the method.
+	 */
+	static String createKey(String name, String desc) {
+		return name + desc;
+	}
+
+}
\ No newline at end of file
@@ -2,48 +2,103 @@
 
 package jodd.paramo;
 
+import jodd.io.StreamUtil;
 import jodd.util.ClassLoaderUtil;
+import jodd.util.ref.ReferenceMap;
+import jodd.util.ref.ReferenceType;
 import jodd.asm4.ClassReader;
+import jodd.asm4.Type;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Extracts method or constructor parameter names from bytecode debug information in runtime.
+ * Class bytecode is examined only once: parameters of all its methods and constructors
+ * are extracted in single pass and cached.
  */
 public class Paramo {
 
 	protected static final String CTOR_METHOD = "<init>";
 
+	/**
+	 * Parameter extractors of all methods, per class. Cache is weakly keyed,
+	 * so classes can be unloaded. Cache is concurrent, so lookups don't lock.
+	 */
+	private static final ConcurrentMap<Class, Map<String, ParamExtractor>> cache =
+			new ReferenceMap<Class, Map<String, ParamExtractor>>(ReferenceType.WEAK, ReferenceType.STRONG);
+
 	/**
 	 * Resolves method parameters from a method or constructor.
 	 * Returns an empty array when target does not contain any parameter.
-	 * No caching is involved in this process, i.e. class bytecode
-	 * is examined every time this method is called.
+	 * Class bytecode is read and examined on first call for any of its
+	 * methods; all further calls are resolved from the cache.
 	 */
 	public static MethodParameter[] resolveParameters(AccessibleObject methodOrCtor) {
-		Class[] paramTypes;
 		Class declaringClass;
 		String name;
+		String desc;
+		int paramCount;
 		if (methodOrCtor instanceof Method) {
 			Method method = (Method) methodOrCtor;
-			paramTypes = method.getParameterTypes();
+			paramCount = method.getParameterTypes().length;
+			if (paramCount == 0) {
+				return MethodParameter.EMPTY_ARRAY;
+			}
 			name = method.getName();
 			declaringClass = method.getDeclaringClass();
+			desc = Type.getMethodDescriptor(method);
 		} else {
 			Constructor constructor = (Constructor) methodOrCtor;
-			paramTypes = constructor.getParameterTypes();
+			paramCount = constructor.getParameterTypes().length;
+			if (paramCount == 0) {
+				return MethodParameter.EMPTY_ARRAY;
+			}
 			declaringClass = constructor.getDeclaringClass();
 			name = CTOR_METHOD;
+			desc = Type.getConstructorDescriptor(constructor);
+		}
+
+		Map<String, ParamExtractor> paramExtractors = cache.get(declaringClass);
+
+		if (paramExtractors == null) {
+			// concurrent callers may read the same class, the first one is cached
+			paramExtractors = readParamExtractors(declaringClass);
+
+			Map<String, ParamExtractor> existing = cache.putIfAbsent(declaringClass, paramExtractors);
+			if (existing != null) {
+				paramExtractors = existing;
+			}
 		}
 
-		if (paramTypes.length == 0) {
+		ParamExtractor paramExtractor = paramExtractors.get(ClassParametersReader.createKey(name, desc));
+
+		if (paramExtractor == null) {
 			return MethodParameter.EMPTY_ARRAY;
 		}
+		if (paramExtractor.debugInfoPresent == false) {
+			throw new ParamoException("Parameter names not available for method: "
+					+ declaringClass.getName() + '#' + name);
+		}
+		return paramExtractor.getMethodParameters().clone();
+	}
+
+	/**
+	 * Clears the cache of resolved parameters.
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
 
+	/**
+	 * Reads class bytecode and extracts parameters of all its methods.
+	 */
+	protected static Map<String, ParamExtractor> readParamExtractors(Class declaringClass) {
 		InputStream stream;
 		try {
 			stream = ClassLoaderUtil.getClassAsStream(declaringClass);
@@ -57,11 +112,13 @@ public class Paramo {
 
 		try {
 			ClassReader reader = new ClassReader(stream);
-			MethodFinder visitor = new MethodFinder(declaringClass, name, paramTypes);
+			ClassParametersReader visitor = new ClassParametersReader();
 			reader.accept(visitor, 0);
-			return visitor.getResolvedParameters();
+			return visitor.getParamExtractors();
 		} catch (IOException ioex) {
 			throw new ParamoException(ioex);
+		} finally {
+			StreamUtil.close(stream);
 		}
 	}
 
@@ -0,0 +1,22 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta;
+
+/**
+ * Pointcut or invoke aspect that can be used with
+ * {@link ProxettaAot ahead-of-time created proxies}. Stored proxy is
+ * identified by the bytecode of pointcuts and aspects and by their keys,
+ * that describe the state of the instances. Proxies are neither stored
+ * nor loaded when some pointcut or aspect does not provide the key.
+ */
+public interface AotKeyed {
+
+	/**
+	 * Returns stable key of all the instance state that affects matching.
+	 * Two instances of the same class with equal keys must match the
+	 * same methods. Returns <code>null</code> if state can't be described,
+	 * e.g. for subclasses that add their own state.
+	 */
+	String getAotKey();
+
+}
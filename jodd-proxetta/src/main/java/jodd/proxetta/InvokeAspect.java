@@ -6,7 +6,16 @@ package jodd.proxetta;
  * Invoke aspect defines method pointcuts that should be replaced and
  * their advice replacements.
  */
-public abstract class InvokeAspect {
+public abstract class InvokeAspect implements AotKeyed {
+
+	/**
+	 * Returns <code>null</code>, as the state of the aspect is unknown.
+	 * Aspects that are used with {@link ProxettaAot stored proxies}
+	 * should return the key of their state.
+	 */
+	public String getAotKey() {
+		return null;
+	}
 
 	/**
 	 * Determines if some method should be scanned for pointcuts.
@@ -37,6 +37,8 @@ public abstract class Proxetta<T extends Proxetta> {
 	protected boolean variableClassName;
 	protected String classNameSuffix;
 	protected String debugFolder;
+	protected String aotFolder;
+	protected boolean aotStore;
 
 	/**
 	 * Specifies 'forced' mode. If <code>true</code>, new proxy class will be created even if there are no
@@ -116,6 +118,35 @@ public abstract class Proxetta<T extends Proxetta> {
 		return debugFolder;
 	}
 
+	/**
+	 * Specifies the folder of {@link ProxettaAot ahead-of-time created proxies}.
+	 * When set, stored proxy is defined instead of creating a new one,
+	 * if target bytecode and proxetta configuration are not changed.
+	 * Otherwise, proxy is created as usual.
+	 */
+	public T setAotFolder(String aotFolder) {
+		this.aotFolder = aotFolder;
+		return (T) this;
+	}
+
+	public String getAotFolder() {
+		return aotFolder;
+	}
+
+	/**
+	 * Specifies if created proxies are stored in the {@link #setAotFolder(String) AOT folder}.
+	 * Usually enabled only during the build, when all proxies are created and stored,
+	 * so they can be just loaded later on runtime.
+	 */
+	public T setAotStore(boolean aotStore) {
+		this.aotStore = aotStore;
+		return (T) this;
+	}
+
+	public boolean isAotStore() {
+		return aotStore;
+	}
+
 	// ---------------------------------------------------------------- builder
 
 	/**
@@ -0,0 +1,257 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta;
+
+import jodd.io.FileUtil;
+import jodd.io.StreamUtil;
+import jodd.util.ClassLoaderUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Store of ahead-of-time created proxies. Each proxy is stored in its own
+ * file, named by the target class name and by the digest of the proxetta
+ * configuration (type, options, bytecode of aspects and {@link AotKeyed keys}
+ * of pointcuts and invoke aspects). The file also holds
+ * the digest of target bytecode the proxy was created for, so outdated proxies
+ * are detected and created again.
+ * <p>
+ * Proxies are written to the store when {@link Proxetta#setAotStore(boolean) store mode}
+ * is enabled, e.g. during the build, and loaded from the store on
+ * {@link ProxettaBuilder#define() definition} on runtime.
+ */
+public class ProxettaAot {
+
+	private static final int MAGIC = 0x4A505841;		// JPXA
+	private static final String FILE_EXT = ".proxetta";
+
+	protected final File folder;
+
+	public ProxettaAot(File folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * Returns the store folder.
+	 */
+	public File getFolder() {
+		return folder;
+	}
+
+	/**
+	 * Stored proxy.
+	 */
+	public static class Entry {
+		protected final String targetDigest;
+		protected final boolean proxyApplied;
+		protected final String proxyClassName;
+		protected final byte[] bytes;
+
+		public Entry(String targetDigest, boolean proxyApplied, String proxyClassName, byte[] bytes) {
+			this.targetDigest = targetDigest;
+			this.proxyApplied = proxyApplied;
+			this.proxyClassName = proxyClassName;
+			this.bytes = bytes;
+		}
+
+		public String getTargetDigest() {
+			return targetDigest;
+		}
+
+		public boolean isProxyApplied() {
+			return proxyApplied;
+		}
+
+		public String getProxyClassName() {
+			return proxyClassName;
+		}
+
+		public byte[] getBytes() {
+			return bytes;
+		}
+	}
+
+	// ---------------------------------------------------------------- load/store
+
+	/**
+	 * Returns the file of stored proxy.
+	 */
+	protected File resolveFile(String targetClassName, String configDigest) {
+		return new File(folder, targetClassName + '-' + configDigest + FILE_EXT);
+	}
+
+	/**
+	 * Loads stored proxy. Returns <code>null</code> if proxy is not stored
+	 * or if it can not be read.
+	 */
+	public Entry load(String targetClassName, String configDigest) {
+		File file = resolveFile(targetClassName, configDigest);
+		if (file.exists() == false) {
+			return null;
+		}
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new ByteArrayInputStream(FileUtil.readBytes(file)));
+
+			if (in.readInt() != MAGIC) {
+				return null;
+			}
+			String targetDigest = in.readUTF();
+			boolean proxyApplied = in.readBoolean();
+			String proxyClassName = in.readUTF();
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+
+			return new Entry(targetDigest, proxyApplied, proxyClassName, bytes);
+		} catch (IOException ioex) {
+			return null;
+		} finally {
+			StreamUtil.close(in);
+		}
+	}
+
+	/**
+	 * Stores the proxy.
+	 */
+	public void store(String targetClassName, String configDigest, Entry entry) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.bytes.length + 256);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(MAGIC);
+		out.writeUTF(entry.targetDigest);
+		out.writeBoolean(entry.proxyApplied);
+		out.writeUTF(entry.proxyClassName);
+		out.writeInt(entry.bytes.length);
+		out.write(entry.bytes);
+		out.flush();
+
+		FileUtil.mkdirs(folder);
+		FileUtil.writeBytes(resolveFile(targetClassName, configDigest), bytes.toByteArray());
+	}
+
+	// ---------------------------------------------------------------- digest
+
+	/**
+	 * SHA-1 digest of strings and class bytecode.
+	 */
+	public static class Digest {
+
+		protected final MessageDigest messageDigest;
+
+		public Digest() {
+			try {
+				messageDigest = MessageDigest.getInstance("SHA-1");
+			} catch (NoSuchAlgorithmException nsaex) {
+				throw new ProxettaException(nsaex);
+			}
+		}
+
+		/**
+		 * Adds a string value.
+		 */
+		public Digest add(String value) {
+			if (value == null) {
+				messageDigest.update((byte) 0);
+			} else {
+				messageDigest.update((byte) 1);
+				messageDigest.update(value.getBytes());
+			}
+			return this;
+		}
+
+		/**
+		 * Adds raw bytes.
+		 */
+		public Digest add(byte[] bytes) {
+			messageDigest.update(bytes);
+			return this;
+		}
+
+		/**
+		 * Adds class name and the bytecode of the class and
+		 * all its super classes, except the JDK ones.
+		 */
+		public Digest add(Class type) {
+			while (type != null && type.getName().startsWith("java.") == false) {
+				addClassBytes(type);
+				type = type.getSuperclass();
+			}
+			return this;
+		}
+
+		/**
+		 * Adds class name and its bytecode.
+		 */
+		protected void addClassBytes(Class type) {
+			add(type.getName());
+
+			InputStream inputStream = null;
+			try {
+				inputStream = ClassLoaderUtil.getClassAsStream(type);
+				if (inputStream == null) {
+					throw new ProxettaException("Class not found: " + type.getName());
+				}
+				add(StreamUtil.readBytes(inputStream));
+			} catch (IOException ioex) {
+				throw new ProxettaException("Unable to read class: " + type.getName(), ioex);
+			} finally {
+				StreamUtil.close(inputStream);
+			}
+		}
+
+		/**
+		 * Adds the class and the {@link AotKeyed#getAotKey() key} of
+		 * pointcut or invoke aspect. Returns <code>false</code> if
+		 * the key is not available, so the state can't be digested.
+		 */
+		public boolean addKeyed(Object keyed) {
+			if (!(keyed instanceof AotKeyed)) {
+				return false;
+			}
+			String key = ((AotKeyed) keyed).getAotKey();
+			if (key == null) {
+				return false;
+			}
+			add(keyed.getClass());
+			add(key);
+			return true;
+		}
+
+		/**
+		 * Adds advices and pointcuts of given aspects. Returns <code>false</code>
+		 * if some pointcut doesn't provide the {@link AotKeyed key}.
+		 */
+		public boolean addAspects(ProxyAspect[] aspects) {
+			for (ProxyAspect aspect : aspects) {
+				add(aspect.getAdvice());
+				if (addKeyed(aspect.getPointcut()) == false) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Returns digest as hex string.
+		 */
+		public String toHexString() {
+			byte[] digest = messageDigest.digest();
+			StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+				sb.append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+	}
+
+}
@@ -2,20 +2,25 @@
 
 package jodd.proxetta;
 
+import jodd.JoddProxetta;
 import jodd.io.FileUtil;
+import jodd.proxetta.asm.ClassDataCache;
 import jodd.proxetta.asm.TargetClassInfoReader;
 import jodd.proxetta.asm.WorkData;
 import jodd.util.StringUtil;
 import jodd.asm4.ClassReader;
 import jodd.asm4.ClassWriter;
 import jodd.util.ClassLoaderUtil;
-import jodd.io.StreamUtil;
 import jodd.log.Logger;
 import jodd.log.LoggerFactory;
 
 import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
 
 /**
  * Proxetta builder. While {@link Proxetta} only holds aspects and
@@ -41,6 +46,11 @@ public abstract class ProxettaBuilder {
 	 */
 	private InputStream targetInputStream;
 
+	/**
+	 * Main target source, when target is a class or class name.
+	 */
+	private ClassReader targetClassReader;
+
 	/**
 	 * Target class, when available.
 	 */
@@ -83,14 +93,9 @@ public abstract class ProxettaBuilder {
 	protected void setTarget(String targetName) {
 		checkTarget();
 
-		try {
-			targetInputStream = ClassLoaderUtil.getClassAsStream(targetName);
-			targetClassName = targetName;
-			targetClass = null;
-		} catch (IOException ioex) {
-			StreamUtil.close(targetInputStream);
-			throw new ProxettaException("Unable to stream class name: " + targetName, ioex);
-		}
+		targetClassReader = ClassDataCache.readClass(targetName.replace('.', '/'), null);
+		targetClassName = targetName;
+		targetClass = null;
 	}
 
 	/**
@@ -99,21 +104,25 @@ public abstract class ProxettaBuilder {
 	protected void setTarget(Class target) {
 		checkTarget();
 
-		try {
-			targetInputStream = ClassLoaderUtil.getClassAsStream(target);
-			targetClass = target;
-			targetClassName = target.getName();
-		} catch (IOException ioex) {
-			StreamUtil.close(targetInputStream);
-			throw new ProxettaException("Unable to stream class: " + target.getName(), ioex);
-		}
+		targetClassReader = ClassDataCache.readClass(target.getName().replace('.', '/'), target.getClassLoader());
+		targetClass = target;
+		targetClassName = target.getName();
+	}
+
+	/**
+	 * Returns class loader of the target class, used for reading its super
+	 * classes. Returns <code>null</code> when target is not given as a class,
+	 * so the default class loader strategy is used.
+	 */
+	protected ClassLoader getTargetClassLoader() {
+		return targetClass != null ? targetClass.getClassLoader() : null;
 	}
 
 	/**
 	 * Checks if target is not defined yet.
 	 */
 	private void checkTarget() {
-		if (targetInputStream != null) {
+		if (targetInputStream != null || targetClassReader != null) {
 			throw new ProxettaException("Target already defined");
 		}
 
@@ -144,8 +153,10 @@ public abstract class ProxettaBuilder {
 			return classNameSuffix;
 		}
 
-		suffixCounter++;
-		return classNameSuffix + suffixCounter;
+		synchronized (ProxettaBuilder.class) {
+			suffixCounter++;
+			return classNameSuffix + suffixCounter;
+		}
 	}
 
 	// ---------------------------------------------------------------- PROCESS
@@ -165,19 +176,21 @@ public abstract class ProxettaBuilder {
 	 * Reads the target and creates destination class.
 	 */
 	protected void process() {
-		if (targetInputStream == null) {
+		if (targetInputStream == null && targetClassReader == null) {
 			throw new ProxettaException("Target not defined");
 		}
 		// create class reader
-		ClassReader classReader;
-		try {
-			classReader = new ClassReader(targetInputStream);
-		} catch (IOException ioex) {
-			throw new ProxettaException("Error reading class input stream.", ioex);
+		ClassReader classReader = targetClassReader;
+		if (classReader == null) {
+			try {
+				classReader = new ClassReader(targetInputStream);
+			} catch (IOException ioex) {
+				throw new ProxettaException("Error reading class input stream.", ioex);
+			}
 		}
 
 		// reads information
-		TargetClassInfoReader targetClassInfoReader = new TargetClassInfoReader();
+		TargetClassInfoReader targetClassInfoReader = new TargetClassInfoReader(JoddProxetta.classDataCache, getTargetClassLoader());
 		classReader.accept(targetClassInfoReader, 0);
 
 		this.destClassWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
@@ -193,11 +206,127 @@ public abstract class ProxettaBuilder {
 		proxyClassName = wd.thisReference.replace('/', '.');
 	}
 
+	// ---------------------------------------------------------------- AOT
+
+	protected byte[] aotBytes;			// bytecode of the stored proxy
+
+	/**
+	 * Returns {@link ProxettaAot store of ahead-of-time created proxies} or
+	 * <code>null</code> if stored proxies are not used for current target.
+	 * Targets given as input streams are not stored, as well as
+	 * proxies with variable class names.
+	 */
+	protected ProxettaAot resolveAot() {
+		String aotFolder = proxetta.getAotFolder();
+		if (aotFolder == null) {
+			return null;
+		}
+		if (targetClassName == null || proxetta.isVariableClassName()) {
+			return null;
+		}
+		return new ProxettaAot(new File(aotFolder));
+	}
+
+	/**
+	 * Adds proxetta configuration to the digest that identifies the stored proxy.
+	 * Builders add their own options and the bytecode and keys of used aspects.
+	 * Returns <code>false</code> if configuration can't be digested and
+	 * therefore proxy can not be stored.
+	 */
+	protected boolean digestConfiguration(ProxettaAot.Digest digest) {
+		digest.add(getClass().getName());
+		digest.add(String.valueOf(proxetta.isForced()));
+		digest.add(proxetta.getClassNameSuffix());
+		digest.add(requestedProxyClassName);
+		return true;
+	}
+
+	/**
+	 * Adds target bytecode to the digest, together with the bytecode of all
+	 * its super classes and interfaces, except the JDK ones.
+	 */
+	protected void digestTarget(ProxettaAot.Digest digest) {
+		digest.add(targetClassReader.b);
+
+		Set<String> visited = new HashSet<String>();
+		LinkedList<String> names = new LinkedList<String>();
+		names.add(targetClassReader.getSuperName());
+		Collections.addAll(names, targetClassReader.getInterfaces());
+
+		while (names.isEmpty() == false) {
+			String name = names.removeFirst();
+			if (name == null || name.startsWith("java/") || visited.add(name) == false) {
+				continue;
+			}
+			ClassReader classReader = ClassDataCache.readClass(name, getTargetClassLoader());
+
+			digest.add(name);
+			digest.add(classReader.b);
+
+			names.add(classReader.getSuperName());
+			Collections.addAll(names, classReader.getInterfaces());
+		}
+	}
+
+	/**
+	 * Loads the stored proxy if it matches the target and configuration.
+	 * Otherwise, {@link #process() processes} the target and stores the
+	 * result when {@link Proxetta#isAotStore() store mode} is on.
+	 */
+	protected void processOrLoad() {
+		ProxettaAot aot = resolveAot();
+		if (aot == null) {
+			process();
+			return;
+		}
+
+		ProxettaAot.Digest digest = new ProxettaAot.Digest();
+		if (digestConfiguration(digest) == false) {
+			if (proxetta.isAotStore()) {
+				log.warn("proxy not stored, pointcut or aspect without AOT key: " + targetClassName);
+			}
+			process();
+			return;
+		}
+		String configDigest = digest.toHexString();
+
+		digest = new ProxettaAot.Digest();
+		digestTarget(digest);
+		String targetDigest = digest.toHexString();
+
+		if (proxetta.isAotStore() == false) {
+			ProxettaAot.Entry entry = aot.load(targetClassName, configDigest);
+
+			if (entry != null && entry.getTargetDigest().equals(targetDigest)) {
+				if (log.isDebugEnabled()) {
+					log.debug("proxy loaded " + targetClassName);
+				}
+				aotBytes = entry.getBytes();
+				proxyApplied = entry.isProxyApplied();
+				proxyClassName = entry.getProxyClassName();
+				return;
+			}
+		}
+
+		process();
+
+		if (proxetta.isAotStore()) {
+			try {
+				aot.store(targetClassName, configDigest,
+						new ProxettaAot.Entry(targetDigest, proxyApplied, proxyClassName, toByteArray()));
+			} catch (IOException ioex) {
+				throw new ProxettaException("Unable to store proxy: " + proxyClassName, ioex);
+			}
+		}
+	}
+
+	// ---------------------------------------------------------------- create
+
 	/**
 	 * Returns byte array of created class.
 	 */
 	public byte[] create() {
-		process();
+		processOrLoad();
 
 		byte[] result = toByteArray();
 
@@ -221,7 +350,7 @@ public abstract class ProxettaBuilder {
 	 * Defines class.
 	 */
 	public Class define() {
-		process();
+		processOrLoad();
 
 		if ((proxetta.isForced() == false) && (isProxyApplied() == false)) {
 			if (log.isDebugEnabled()) {
@@ -318,7 +447,7 @@ public abstract class ProxettaBuilder {
 	 * Checks if proxy is created and throws an exception if not.
 	 */
 	protected void checkAccepted() {
-		if (destClassWriter == null) {
+		if (destClassWriter == null && aotBytes == null) {
 			throw new ProxettaException("Target not accepted yet!");
 		}
 	}
@@ -328,6 +457,9 @@ public abstract class ProxettaBuilder {
 	 */
 	protected byte[] toByteArray() {
 		checkAccepted();
+		if (aotBytes != null) {
+			return aotBytes;
+		}
 		return destClassWriter.toByteArray();
 	}
 
@@ -6,7 +6,7 @@ import jodd.asm.AsmUtil;
 import jodd.asm4.AnnotationVisitor;
 
 import java.util.Map;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Set;
@@ -29,7 +29,7 @@ public class AnnotationReader extends EmptyAnnotationVisitor implements Annotati
 	public AnnotationReader(String desc, boolean visible) {
 		this.desc = desc;
 		this.visible = visible;
-		this.elements = new HashMap<String, Object>();
+		this.elements = new LinkedHashMap<String, Object>();
 		this.className = AsmUtil.typeref2Name(desc);
 	}
 
@@ -85,6 +85,18 @@ public class AnnotationReader extends EmptyAnnotationVisitor implements Annotati
 				array.add(value);
 			}
 
+			@Override
+			public void visitEnum(String name, String desc, String value) {
+				array.add(new String[]{desc, value});
+			}
+
+			@Override
+			public AnnotationVisitor visitAnnotation(String name, String desc) {
+				AnnotationReader nestedAnnotation = new AnnotationReader(desc, true);
+				array.add(nestedAnnotation);
+				return nestedAnnotation;
+			}
+
 			@Override
 			public void visitEnd() {
 				Object[] data = array.toArray(new Object[array.size()]);
@@ -0,0 +1,296 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta.asm;
+
+import jodd.asm.EmptyClassVisitor;
+import jodd.asm.EmptyMethodVisitor;
+import jodd.asm4.AnnotationVisitor;
+import jodd.asm4.ClassReader;
+import jodd.asm4.MethodVisitor;
+import jodd.io.StreamUtil;
+import jodd.proxetta.AnnotationInfo;
+import jodd.proxetta.ProxettaException;
+import jodd.util.ClassLoaderUtil;
+import jodd.util.ref.ReferenceMap;
+import jodd.util.ref.ReferenceType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of parsed class data (hierarchy and methods), shared by all
+ * {@link TargetClassInfoReader target readers}. Classes that are common
+ * to many proxy targets (e.g. base classes and interfaces) are read and
+ * parsed only once. Class bytecode is not cached. Cache is weakly keyed
+ * by class loader, so data is released together with the class loader.
+ * <p>
+ * Cached data is immutable and therefore may be shared between threads.
+ * Lookups don't lock.
+ */
+public class ClassDataCache {
+
+	protected final ConcurrentMap<ClassLoader, ConcurrentMap<String, ClassData>> cache =
+			new ReferenceMap<ClassLoader, ConcurrentMap<String, ClassData>>(ReferenceType.WEAK, ReferenceType.STRONG);
+
+	protected boolean enabled = true;
+
+	/**
+	 * Returns <code>true</code> if cache is enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enables or disables the cache. When disabled,
+	 * classes are read and parsed on each lookup.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (enabled == false) {
+			clear();
+		}
+	}
+
+	/**
+	 * Clears the cache.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	// ---------------------------------------------------------------- lookup
+
+	/**
+	 * Returns class data of a class with given bytecode name, using
+	 * the default class loader strategy for loading class bytes.
+	 */
+	public ClassData lookup(String bytecodeName) {
+		return lookup(bytecodeName, null);
+	}
+
+	/**
+	 * Returns class data of a class with given bytecode name. If class loader
+	 * is not specified, context class loader is used as a key.
+	 */
+	public ClassData lookup(String bytecodeName, ClassLoader classLoader) {
+		if (enabled == false) {
+			return readClassData(bytecodeName, classLoader);
+		}
+
+		ClassLoader key = classLoader;
+		if (key == null) {
+			key = Thread.currentThread().getContextClassLoader();
+			if (key == null) {
+				key = ClassDataCache.class.getClassLoader();
+			}
+		}
+
+		ConcurrentMap<String, ClassData> classes = cache.get(key);
+		if (classes == null) {
+			classes = new ConcurrentHashMap<String, ClassData>();
+			ConcurrentMap<String, ClassData> existing = cache.putIfAbsent(key, classes);
+			if (existing != null) {
+				classes = existing;
+			}
+		}
+
+		ClassData classData = classes.get(bytecodeName);
+		if (classData == null) {
+			// concurrent readers may parse the same class
+			classData = readClassData(bytecodeName, classLoader);
+			ClassData existing = classes.putIfAbsent(bytecodeName, classData);
+			if (existing != null) {
+				classData = existing;
+			}
+		}
+		return classData;
+	}
+
+	/**
+	 * Reads and parses class bytecode.
+	 */
+	protected ClassData readClassData(String bytecodeName, ClassLoader classLoader) {
+		ClassReader classReader = readClass(bytecodeName, classLoader);
+
+		ClassData classData = new ClassData();
+		classReader.accept(new ClassDataReader(classData), ClassReader.SKIP_CODE);
+		return classData;
+	}
+
+	/**
+	 * Reads class bytecode, without caching it. If class loader is
+	 * not specified, default class loader strategy is used.
+	 */
+	public static ClassReader readClass(String bytecodeName, ClassLoader classLoader) {
+		String className = bytecodeName.replace('/', '.');
+
+		InputStream inputStream = null;
+		try {
+			inputStream = ClassLoaderUtil.getResourceAsStream(ClassLoaderUtil.getClassFileName(className), classLoader);
+			return new ClassReader(inputStream);
+		} catch (IOException ioex) {
+			throw new ProxettaException("Unable to inspect class: " + className, ioex);
+		} finally {
+			StreamUtil.close(inputStream);
+		}
+	}
+
+	// ---------------------------------------------------------------- data
+
+	/**
+	 * Parsed class data.
+	 */
+	public static class ClassData {
+
+		protected final List<MethodData> methods = new ArrayList<MethodData>();
+		protected int access;
+		protected String name;
+		protected String superName;
+		protected String[] interfaces;
+
+		public int getAccess() {
+			return access;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getSuperName() {
+			return superName;
+		}
+
+		public String[] getInterfaces() {
+			return interfaces;
+		}
+
+		/**
+		 * Returns all declared methods, in bytecode order.
+		 */
+		public List<MethodData> getMethods() {
+			return methods;
+		}
+	}
+
+	/**
+	 * Parsed method data.
+	 */
+	public static class MethodData {
+
+		protected final int access;
+		protected final String name;
+		protected final String desc;
+		protected final String signature;
+		protected AnnotationInfo[] annotations;
+		protected AnnotationInfo[][] parameterAnnotations;
+
+		protected MethodData(int access, String name, String desc, String signature) {
+			this.access = access;
+			this.name = name;
+			this.desc = desc;
+			this.signature = signature;
+		}
+
+		public int getAccess() {
+			return access;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getDesc() {
+			return desc;
+		}
+
+		public String getSignature() {
+			return signature;
+		}
+
+		/**
+		 * Returns method annotations or <code>null</code> if there are none.
+		 */
+		public AnnotationInfo[] getAnnotations() {
+			return annotations;
+		}
+
+		/**
+		 * Returns annotations of each method parameter or <code>null</code>
+		 * if there are none. Array may be shorter than number of parameters.
+		 */
+		public AnnotationInfo[][] getParameterAnnotations() {
+			return parameterAnnotations;
+		}
+	}
+
+	// ---------------------------------------------------------------- reader
+
+	/**
+	 * Reads class and method data.
+	 */
+	static class ClassDataReader extends EmptyClassVisitor {
+
+		final ClassData classData;
+
+		ClassDataReader(ClassData classData) {
+			this.classData = classData;
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+			classData.access = access;
+			classData.name = name;
+			classData.superName = superName;
+			classData.interfaces = interfaces;
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+			final MethodData methodData = new MethodData(access, name, desc, signature);
+			classData.methods.add(methodData);
+
+			return new EmptyMethodVisitor() {
+				final List<AnnotationInfo> methodAnns = new ArrayList<AnnotationInfo>();
+				final List<List<AnnotationInfo>> parameterAnns = new ArrayList<List<AnnotationInfo>>();
+
+				@Override
+				public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+					AnnotationReader ar = new AnnotationReader(desc, visible);
+					methodAnns.add(ar);
+					return ar;
+				}
+
+				@Override
+				public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+					while (parameterAnns.size() <= parameter) {
+						parameterAnns.add(new ArrayList<AnnotationInfo>());
+					}
+					AnnotationReader ar = new AnnotationReader(desc, visible);
+					parameterAnns.get(parameter).add(ar);
+					return ar;
+				}
+
+				@Override
+				public void visitEnd() {
+					if (methodAnns.isEmpty() == false) {
+						methodData.annotations = methodAnns.toArray(new AnnotationInfo[methodAnns.size()]);
+					}
+					if (parameterAnns.isEmpty() == false) {
+						AnnotationInfo[][] anns = new AnnotationInfo[parameterAnns.size()][];
+						for (int i = 0; i < anns.length; i++) {
+							List<AnnotationInfo> list = parameterAnns.get(i);
+							anns[i] = list.toArray(new AnnotationInfo[list.size()]);
+						}
+						methodData.parameterAnnotations = anns;
+					}
+				}
+			};
+		}
+	}
+
+}
@@ -4,10 +4,12 @@ package jodd.proxetta.asm;
 
 import jodd.asm.AsmUtil;
 import jodd.util.StringBand;
+import jodd.asm4.AnnotationVisitor;
 import jodd.asm4.Label;
 import jodd.asm4.MethodVisitor;
 import jodd.asm4.Type;
 import static jodd.asm4.Opcodes.*;
+import jodd.proxetta.AnnotationInfo;
 import jodd.proxetta.ProxyAdvice;
 import jodd.proxetta.ProxettaException;
 import static jodd.JoddProxetta.*;
@@ -46,6 +48,38 @@ public class ProxettaAsmUtil {
 		return (access & 0xFFFFFFF0) | AsmUtil.ACC_PRIVATE | AsmUtil.ACC_FINAL;
 	}
 
+	/**
+	 * Visits all elements of annotation read by {@link AnnotationReader}
+	 * and ends the visit. Used for copying cached annotations.
+	 */
+	public static void visitAnnotation(AnnotationVisitor av, AnnotationInfo annotationInfo) {
+		for (String name : annotationInfo.getElementNames()) {
+			visitAnnotationElement(av, name, annotationInfo.getElement(name));
+		}
+		av.visitEnd();
+	}
+
+	/**
+	 * Visits single annotation element value.
+	 */
+	private static void visitAnnotationElement(AnnotationVisitor av, String name, Object value) {
+		if (value instanceof AnnotationInfo) {
+			AnnotationInfo nested = (AnnotationInfo) value;
+			visitAnnotation(av.visitAnnotation(name, nested.getAnnotationSignature()), nested);
+		} else if (value instanceof String[]) {
+			String[] enumValue = (String[]) value;		// enum description and value
+			av.visitEnum(name, enumValue[0], enumValue[1]);
+		} else if (value instanceof Object[]) {
+			AnnotationVisitor arrayVisitor = av.visitArray(name);
+			for (Object element : (Object[]) value) {
+				visitAnnotationElement(arrayVisitor, null, element);
+			}
+			arrayVisitor.visitEnd();
+		} else {
+			av.visit(name, value);
+		}
+	}
+
 	/**
 	 * Validates argument index.
 	 */
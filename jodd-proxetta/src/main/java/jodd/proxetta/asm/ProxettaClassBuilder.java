@@ -3,11 +3,11 @@
 package jodd.proxetta.asm;
 
 import jodd.asm.AsmUtil;
+import jodd.proxetta.AnnotationInfo;
 import jodd.proxetta.ProxettaException;
 import jodd.asm4.ClassVisitor;
 import jodd.asm4.MethodVisitor;
 import jodd.asm4.AnnotationVisitor;
-import jodd.asm4.ClassReader;
 import jodd.asm4.Attribute;
 import jodd.asm4.FieldVisitor;
 
@@ -187,30 +187,50 @@ public class ProxettaClassBuilder extends EmptyClassVisitor {
 
 	/**
 	 * Checks for all public super methods that are not overridden.
+	 * Super classes are not read again, methods and their annotations
+	 * are taken from the {@link ClassDataCache cached class data}.
 	 */
 	protected void processSuperMethods() {
-		for (ClassReader cr : targetClassInfo.superClassReaders) {
-			cr.accept(new EmptyClassVisitor() {
+		for (ClassDataCache.ClassData classData : targetClassInfo.superClassData) {
+			String declaredClassName = classData.getName();
 
-				String declaredClassName;
-
-				@Override
-				public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-					declaredClassName = name;
+			for (ClassDataCache.MethodData methodData : classData.getMethods()) {
+				String name = methodData.getName();
+				if (name.equals(INIT) || name.equals(CLINIT)) {
+					continue;
+				}
+				MethodSignatureVisitor msign = targetClassInfo.lookupMethodSignatureVisitor(
+						methodData.getAccess(), name, methodData.getDesc(), declaredClassName);
+				if (msign == null) {
+					continue;
+				}
+				MethodVisitor mv = applyProxy(msign);
+				if (mv == null) {
+					continue;
 				}
+				visitMethodAnnotations(mv, methodData);
+				mv.visitEnd();
+			}
+		}
+	}
 
-				@Override
-				public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
-					if (name.equals(INIT) || name.equals(CLINIT)) {
-						return null;
-					}
-					MethodSignatureVisitor msign = targetClassInfo.lookupMethodSignatureVisitor(access, name, desc, declaredClassName);
-					if (msign == null) {
-						return null;
-					}
-					return applyProxy(msign);
+	/**
+	 * Visits cached method and parameter annotations.
+	 */
+	protected void visitMethodAnnotations(MethodVisitor mv, ClassDataCache.MethodData methodData) {
+		AnnotationInfo[] annotations = methodData.getAnnotations();
+		if (annotations != null) {
+			for (AnnotationInfo ann : annotations) {
+				ProxettaAsmUtil.visitAnnotation(mv.visitAnnotation(ann.getAnnotationSignature(), ann.isVisible()), ann);
+			}
+		}
+		AnnotationInfo[][] parameterAnnotations = methodData.getParameterAnnotations();
+		if (parameterAnnotations != null) {
+			for (int i = 0; i < parameterAnnotations.length; i++) {
+				for (AnnotationInfo ann : parameterAnnotations[i]) {
+					ProxettaAsmUtil.visitAnnotation(mv.visitParameterAnnotation(i, ann.getAnnotationSignature(), ann.isVisible()), ann);
 				}
-			}, 0);
+			}
 		}
 	}
 
@@ -2,9 +2,9 @@
 
 package jodd.proxetta.asm;
 
+import jodd.JoddProxetta;
 import jodd.asm.AsmUtil;
 import jodd.asm4.MethodVisitor;
-import jodd.asm4.ClassReader;
 import jodd.asm4.AnnotationVisitor;
 import jodd.asm4.signature.SignatureReader;
 
@@ -15,16 +15,11 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
-import java.io.InputStream;
-import java.io.IOException;
 
 import static jodd.proxetta.asm.ProxettaAsmUtil.INIT;
 import static jodd.proxetta.asm.ProxettaAsmUtil.CLINIT;
-import jodd.proxetta.ProxettaException;
 import jodd.proxetta.ClassInfo;
 import jodd.proxetta.AnnotationInfo;
-import jodd.util.ClassLoaderUtil;
-import jodd.io.StreamUtil;
 import jodd.asm.EmptyClassVisitor;
 import jodd.asm.EmptyMethodVisitor;
 
@@ -37,12 +32,33 @@ public class TargetClassInfoReader extends EmptyClassVisitor implements ClassInf
 	//protected ClassInfo classInfo;
 
 	protected final Map<String, MethodSignatureVisitor> methodSignatures;
-	protected final List<ClassReader> superClassReaders;					// list of all super class readers
+	protected final List<ClassDataCache.ClassData> superClassData;	// list of all super classes and interfaces
 	protected final Set<String> allMethodSignatures;
 
+	protected final ClassDataCache classDataCache;
+	protected final ClassLoader classLoader;
+
 	public TargetClassInfoReader() {
+		this(JoddProxetta.classDataCache);
+	}
+
+	/**
+	 * Creates target reader that uses given cache for reading super classes.
+	 */
+	public TargetClassInfoReader(ClassDataCache classDataCache) {
+		this(classDataCache, null);
+	}
+
+	/**
+	 * Creates target reader that uses given cache for reading super classes
+	 * with given class loader. If class loader is not specified, default
+	 * class loader strategy is used.
+	 */
+	public TargetClassInfoReader(ClassDataCache classDataCache, ClassLoader classLoader) {
+		this.classDataCache = classDataCache;
+		this.classLoader = classLoader;
 		this.methodSignatures = new HashMap<String, MethodSignatureVisitor>();
-		this.superClassReaders = new ArrayList<ClassReader>();
+		this.superClassData = new ArrayList<ClassDataCache.ClassData>();
 		this.allMethodSignatures = new HashSet<String>();
 	}
 
@@ -172,20 +188,11 @@ public class TargetClassInfoReader extends EmptyClassVisitor implements ClassInf
 		List<String> superList = new ArrayList<String>();
 		// check all public super methods that are not overridden in superclass
 		while (nextSupername != null) {
-			InputStream inputStream = null;
-			ClassReader cr = null;
-			try {
-				inputStream = ClassLoaderUtil.getClassAsStream(nextSupername);
-				cr = new ClassReader(inputStream);
-			} catch (IOException ioex) {
-				throw new ProxettaException("Unable to inspect super class: " + nextSupername, ioex);
-			} finally {
-				StreamUtil.close(inputStream);
-			}
+			ClassDataCache.ClassData classData = classDataCache.lookup(nextSupername, classLoader);
 			hierarchyLevel++;
 			superList.add(nextSupername);
-			superClassReaders.add(cr);	// remember the super class reader
-			cr.accept(new SuperClassVisitor(), 0);
+			superClassData.add(classData);	// remember the super class
+			visitSuperClass(classData);
 		}
 		superClasses = superList.toArray(new String[superList.size()]);
 
@@ -196,25 +203,15 @@ public class TargetClassInfoReader extends EmptyClassVisitor implements ClassInf
 				String next = iterator.next();
 				iterator.remove();
 
-				InputStream inputStream = null;
-				ClassReader cr = null;
-				try {
-					inputStream = ClassLoaderUtil.getClassAsStream(next);
-					cr = new ClassReader(inputStream);
-				} catch (IOException ioex) {
-					throw new ProxettaException("Unable to inspect super interface: " + next, ioex);
-				} finally {
-					StreamUtil.close(inputStream);
-				}
+				ClassDataCache.ClassData classData = classDataCache.lookup(next, classLoader);
 				hierarchyLevel++;
-				superClassReaders.add(cr);				// remember the super class reader
-				cr.accept(new SuperClassVisitor(), 0);
+				superClassData.add(classData);		// remember the super interface
+				visitSuperClass(classData);
 			}
 		}
 
 	}
 
-
 	/**
 	 * Creates method signature from method name.
 	 */
@@ -255,50 +252,51 @@ public class TargetClassInfoReader extends EmptyClassVisitor implements ClassInf
 		}
 	}
 
-	// ---------------------------------------------------------------- super class visitor
+	// ---------------------------------------------------------------- super class
 
-	private class SuperClassVisitor extends EmptyClassVisitor {
-
-		String declaredClassName;
+	/**
+	 * Collects signatures of super class or super interface methods from
+	 * {@link ClassDataCache cached class data}.
+	 */
+	protected void visitSuperClass(ClassDataCache.ClassData classData) {
+		nextSupername = classData.getSuperName();
+		String declaredClassName = classData.getName();
 
-		@Override
-		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-			nextSupername = superName;
-			declaredClassName = name;
-
-			// append inner interfaces
-			if (nextInterfaces != null) {
-				if (interfaces != null) {
-					for (String inter : interfaces) {
-						nextInterfaces.add(inter);
-					}
+		// append inner interfaces
+		if (nextInterfaces != null) {
+			String[] interfaces = classData.getInterfaces();
+			if (interfaces != null) {
+				for (String inter : interfaces) {
+					nextInterfaces.add(inter);
 				}
 			}
-
 		}
 
-		@Override
-		public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+		for (ClassDataCache.MethodData methodData : classData.getMethods()) {
+			String name = methodData.getName();
 			if (name.equals(INIT) || name.equals(CLINIT)) {
-				return null;
+				continue;
 			}
-			MethodSignatureVisitor msign = createMethodSignature(access, name, desc, signature, thisReference);
+			int access = methodData.getAccess();
+			String desc = methodData.getDesc();
+
+			MethodSignatureVisitor msign = createMethodSignature(access, name, desc, methodData.getSignature(), thisReference);
 			int acc = msign.getAccessFlags();
 			if ((acc & AsmUtil.ACC_PUBLIC) == 0) {   	// skip non-public
-				return null;
+				continue;
 			}
 			if ((access & AsmUtil.ACC_FINAL) != 0) {		// skip finals
-				return null;
+				continue;
 			}
 			if (allMethodSignatures.contains(msign.getSignature())) {		// skip overridden method by some in above classes
-				return null;
+				continue;
 			}
 
 			msign.setDeclaredClassName(declaredClassName);		// indicates it is not a top level class
+			msign.annotations = methodData.getAnnotations();
 			String key = ProxettaAsmUtil.createMethodSignaturesKey(access, name, desc, declaredClassName);
 			methodSignatures.put(key, msign);
 			allMethodSignatures.add(msign.getSignature());
-			return new MethodAnnotationReader(msign);
 		}
 	}
 
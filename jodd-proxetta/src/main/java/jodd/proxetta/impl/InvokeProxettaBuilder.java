@@ -2,6 +2,8 @@
 
 package jodd.proxetta.impl;
 
+import jodd.proxetta.InvokeAspect;
+import jodd.proxetta.ProxettaAot;
 import jodd.proxetta.ProxettaBuilder;
 import jodd.proxetta.asm.InvokeClassBuilder;
 import jodd.proxetta.asm.TargetClassInfoReader;
@@ -55,4 +57,20 @@ public class InvokeProxettaBuilder extends ProxettaBuilder {
 		return icb.getWorkData();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean digestConfiguration(ProxettaAot.Digest digest) {
+		if (super.digestConfiguration(digest) == false) {
+			return false;
+		}
+		for (InvokeAspect aspect : invokeProxetta.getAspects()) {
+			if (digest.addKeyed(aspect) == false) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
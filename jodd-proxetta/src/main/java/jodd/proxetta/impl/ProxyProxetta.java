@@ -4,7 +4,22 @@ package jodd.proxetta.impl;
 
 import jodd.JoddProxetta;
 import jodd.proxetta.Proxetta;
+import jodd.proxetta.ProxettaException;
 import jodd.proxetta.ProxyAspect;
+import jodd.util.ClassLoaderUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Proxetta that creates proxies.
@@ -57,4 +72,108 @@ public class ProxyProxetta extends Proxetta<ProxyProxetta> {
 		return builder;
 	}
 
+	// ---------------------------------------------------------------- batch
+
+	/**
+	 * Creates and defines proxies of many targets at once. Proxies are created
+	 * concurrently using given number of threads, and then all are defined in a
+	 * single pass. If {@link #setClassLoader(ClassLoader) class loader} is specified,
+	 * proxies are defined in it. Otherwise, each proxy is defined in the class loader
+	 * of its target, the same as when proxy is defined by the builder, so proxy stays
+	 * in the runtime package of the target.
+	 * <p>
+	 * Returns mapping from target to proxy class, in targets order. If proxy is not
+	 * applied to some target (and proxetta is not forced), target is mapped to itself.
+	 */
+	public Map<Class, Class> defineProxies(Collection<Class> targets, int threads) {
+		List<Class> targetList = new ArrayList<Class>(targets);
+		List<Future<ProxyBytes>> futures = new ArrayList<Future<ProxyBytes>>(targetList.size());
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+				Math.max(1, Math.min(threads, targetList.size())), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "proxetta-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		List<ProxyBytes> proxies = new ArrayList<ProxyBytes>(targetList.size());
+		try {
+			for (final Class target : targetList) {
+				futures.add(executorService.submit(new Callable<ProxyBytes>() {
+					public ProxyBytes call() {
+						ProxyProxettaBuilder builder = builder(target);
+						byte[] bytes = builder.create();
+						return new ProxyBytes(target, builder.getProxyClassName(), bytes);
+					}
+				}));
+			}
+			for (Future<ProxyBytes> future : futures) {
+				proxies.add(future.get());
+			}
+		} catch (ExecutionException eex) {
+			Throwable cause = eex.getCause();
+			if (cause instanceof ProxettaException) {
+				throw (ProxettaException) cause;
+			}
+			throw new ProxettaException("Proxy creation failed.", cause);
+		} catch (InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new ProxettaException("Proxy creation interrupted.", iex);
+		} finally {
+			executorService.shutdownNow();
+		}
+
+		return defineProxies(proxies);
+	}
+
+	/**
+	 * Defines created proxies.
+	 */
+	protected Map<Class, Class> defineProxies(List<ProxyBytes> proxies) {
+		Map<Class, Class> result = new LinkedHashMap<Class, Class>(proxies.size());
+
+		for (ProxyBytes proxy : proxies) {
+			if (proxy.bytes == null) {
+				result.put(proxy.target, proxy.target);
+				continue;
+			}
+
+			ClassLoader proxyClassLoader = classLoader;
+			if (proxyClassLoader == null) {
+				proxyClassLoader = proxy.target.getClassLoader();
+				if (proxyClassLoader == null) {
+					proxyClassLoader = ClassLoaderUtil.getDefaultClassLoader();
+				}
+			}
+
+			Class proxyClass;
+			try {
+				proxyClass = ClassLoaderUtil.defineClass(proxy.proxyClassName, proxy.bytes, proxyClassLoader);
+			} catch (Throwable th) {
+				throw new ProxettaException("Class definition failed: " + proxy.proxyClassName, th);
+			}
+			result.put(proxy.target, proxyClass);
+		}
+		return result;
+	}
+
+	/**
+	 * Created proxy bytecode.
+	 */
+	protected static class ProxyBytes {
+		protected final Class target;
+		protected final String proxyClassName;
+		protected final byte[] bytes;
+
+		protected ProxyBytes(Class target, String proxyClassName, byte[] bytes) {
+			this.target = target;
+			this.proxyClassName = proxyClassName;
+			this.bytes = bytes;
+		}
+	}
+
 }
@@ -2,6 +2,7 @@
 
 package jodd.proxetta.impl;
 
+import jodd.proxetta.ProxettaAot;
 import jodd.proxetta.ProxettaBuilder;
 import jodd.proxetta.asm.ProxettaClassBuilder;
 import jodd.proxetta.asm.TargetClassInfoReader;
@@ -55,4 +56,12 @@ public class ProxyProxettaBuilder extends ProxettaBuilder {
 		return pcb.getWorkData();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean digestConfiguration(ProxettaAot.Digest digest) {
+		return super.digestConfiguration(digest) && digest.addAspects(proxyProxetta.getAspects());
+	}
+
 }
\ No newline at end of file
@@ -3,6 +3,7 @@
 package jodd.proxetta.impl;
 
 import jodd.JoddProxetta;
+import jodd.proxetta.ProxettaAot;
 import jodd.proxetta.ProxettaBuilder;
 import jodd.proxetta.ProxettaException;
 import jodd.proxetta.ProxettaUtil;
@@ -76,6 +77,19 @@ public class WrapperProxettaBuilder extends ProxettaBuilder {
 		return pcb.getWorkData();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean digestConfiguration(ProxettaAot.Digest digest) {
+		if (super.digestConfiguration(digest) == false) {
+			return false;
+		}
+		digest.add(targetInterface == null ? null : targetInterface.getName());
+		digest.add(targetFieldName);
+		return digest.addAspects(wrapperProxetta.getAspects());
+	}
+
 
 	/**
 	 * Injects target into wrapper.
@@ -17,4 +17,11 @@ public class AllGettersPointcut extends ProxyPointcutSupport {
 				&& hasNoArguments(methodInfo)
 				;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getAotKey() {
+		return getClass() == AllGettersPointcut.class ? "" : null;
+	}
 }
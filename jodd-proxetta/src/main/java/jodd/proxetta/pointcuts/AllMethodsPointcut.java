@@ -12,4 +12,11 @@ public class AllMethodsPointcut extends ProxyPointcutSupport {
 	public boolean apply(MethodInfo methodInfo) {
 		return isPublic(methodInfo);
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getAotKey() {
+		return getClass() == AllMethodsPointcut.class ? "" : null;
+	}
 }
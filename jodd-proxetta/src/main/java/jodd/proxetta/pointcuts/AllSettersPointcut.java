@@ -16,4 +16,11 @@ public class AllSettersPointcut extends ProxyPointcutSupport {
 				&& hasOneArgument(methodInfo)
 				;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getAotKey() {
+		return getClass() == AllSettersPointcut.class ? "" : null;
+	}
 }
\ No newline at end of file
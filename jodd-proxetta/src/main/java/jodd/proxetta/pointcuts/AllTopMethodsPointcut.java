@@ -14,4 +14,11 @@ public class AllTopMethodsPointcut extends ProxyPointcutSupport {
 				isTopLevelMethod(methodInfo) &&
 				isPublic(methodInfo);
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getAotKey() {
+		return getClass() == AllTopMethodsPointcut.class ? "" : null;
+	}
 }
@@ -26,4 +26,19 @@ public class MethodAnnotationPointcut extends ProxyPointcutSupport {
 	public boolean apply(MethodInfo methodInfo) {
 		return hasAnnotation(methodInfo, annotationClasses);
 	}
+
+	/**
+	 * Returns names of annotation classes. Subclasses
+	 * have to provide their own key.
+	 */
+	public String getAotKey() {
+		if (getClass() != MethodAnnotationPointcut.class) {
+			return null;
+		}
+		StringBuilder key = new StringBuilder();
+		for (Class<? extends Annotation> annotationClass : annotationClasses) {
+			key.append(annotationClass.getName()).append(',');
+		}
+		return key.toString();
+	}
 }
@@ -3,6 +3,7 @@
 package jodd.proxetta.pointcuts;
 
 import jodd.asm.AsmUtil;
+import jodd.proxetta.AotKeyed;
 import jodd.proxetta.ProxyPointcut;
 import jodd.proxetta.MethodInfo;
 import jodd.proxetta.AnnotationInfo;
@@ -15,7 +16,16 @@ import java.lang.annotation.Annotation;
 /**
  * {@link jodd.proxetta.ProxyPointcut} support methods.
  */
-public abstract class ProxyPointcutSupport implements ProxyPointcut {
+public abstract class ProxyPointcutSupport implements ProxyPointcut, AotKeyed {
+
+	/**
+	 * Returns <code>null</code>, as the state of the pointcut is unknown.
+	 * Pointcuts that are used with {@link jodd.proxetta.ProxettaAot stored proxies}
+	 * should return the key of their state.
+	 */
+	public String getAotKey() {
+		return null;
+	}
 
 	/**
 	 * Returns <code>true</code> if method is public.
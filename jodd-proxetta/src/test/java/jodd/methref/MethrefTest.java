@@ -5,7 +5,15 @@ package jodd.methref;
 import jodd.proxetta.data.Str;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MethrefTest {
 
@@ -41,4 +49,56 @@ public class MethrefTest {
 		m.method().voo();
 		assertEquals("voo", m.ref());
 	}
+
+	@Test
+	public void testOnThread() {
+		Methref<Str> m = Methref.onThread(Str.class);
+		assertSame(m, Methref.onThread(Str.class));
+		assertNotSame(m, Methref.on(Str.class));
+		assertSame(m.method().getClass(), Methref.on(Str.class).method().getClass());
+
+		assertEquals("boo", m.ref(m.method().boo()));
+		assertEquals("izoo", m.ref(m.method().izoo()));
+
+		Methref.releaseThread();
+		assertNotSame(m, Methref.onThread(Str.class));
+	}
+
+	@Test
+	public void testConcurrentUse() throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 8; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int j = 0; j < 100; j++) {
+							Methref<Str> m = Methref.onThread(Str.class);
+							results.add(m.ref(m.method().boo()));
+							results.add(Methref.sref(Str.class).foo());
+						}
+						results.add(Methref.onThread(Str.class).method().getClass());
+					} catch (Throwable th) {
+						results.add(th);
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(8 * 201, results.size());
+		Class proxyClass = Methref.on(Str.class).method().getClass();
+		for (Object result : results) {
+			assertTrue(result.equals("boo") || result.equals("foo") || result == proxyClass);
+		}
+	}
 }
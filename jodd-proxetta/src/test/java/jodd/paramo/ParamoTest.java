@@ -13,6 +13,7 @@ import java.lang.reflect.Method;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 
 public class ParamoTest {
 
@@ -154,4 +155,25 @@ public class ParamoTest {
 		assertEquals("Ljava/util/Map<Ljava/lang/String;Ljodd/paramo/data/Bar<Ljava/lang/Long;>;>;", mps[0].getSignature());
 	}
 
+	@Test
+	public void testCache() throws NoSuchMethodException {
+		Paramo.clearCache();
+
+		Method m = Foo.class.getMethod("two", String.class, String.class);
+		MethodParameter[] mps1 = Paramo.resolveParameters(m);
+		MethodParameter[] mps2 = Paramo.resolveParameters(m);
+
+		assertNotSame(mps1, mps2);
+		assertEquals(2, mps2.length);
+		assertEquals("username", mps2[0].getName());
+		assertEquals("password", mps2[1].getName());
+
+		// other members of the same class
+		Constructor c = Foo.class.getConstructor(String.class);
+		assertEquals("something", Paramo.resolveParameters(c)[0].getName());
+
+		m = Foo.class.getMethod("one", String.class);
+		assertEquals("foo", Paramo.resolveParameters(m)[0].getName());
+	}
+
 }
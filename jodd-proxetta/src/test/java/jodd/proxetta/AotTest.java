@@ -0,0 +1,131 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta;
+
+import jodd.io.FileUtil;
+import jodd.proxetta.data.Action;
+import jodd.proxetta.data.Foo;
+import jodd.proxetta.data.StatCounter;
+import jodd.proxetta.data.StatCounterAdvice;
+import jodd.proxetta.data.Transaction;
+import jodd.proxetta.impl.ProxyProxetta;
+import jodd.proxetta.pointcuts.AllMethodsPointcut;
+import jodd.proxetta.pointcuts.MethodAnnotationPointcut;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class AotTest {
+
+	File aotFolder;
+
+	@Before
+	public void setUp() {
+		aotFolder = new File(System.getProperty("java.io.tmpdir"), "jodd-proxetta-aot-" + System.currentTimeMillis());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (aotFolder.exists()) {
+			FileUtil.deleteDir(aotFolder);
+		}
+	}
+
+	private ProxyProxetta createProxetta(boolean store) {
+		return createProxetta(store, new AllMethodsPointcut());
+	}
+
+	private ProxyProxetta createProxetta(boolean store, ProxyPointcut pointcut) {
+		ProxyProxetta proxetta = ProxyProxetta.withAspects(
+				new ProxyAspect(StatCounterAdvice.class, pointcut));
+		proxetta.setClassLoader(new ClassLoader(AotTest.class.getClassLoader()) {});
+		proxetta.setAotFolder(aotFolder.getAbsolutePath());
+		proxetta.setAotStore(store);
+		return proxetta;
+	}
+
+	private String configDigest() {
+		File[] files = aotFolder.listFiles();
+		assertEquals(1, files.length);
+
+		String name = files[0].getName();
+		assertTrue(name.startsWith(Foo.class.getName() + '-'));
+		assertTrue(name.endsWith(".proxetta"));
+		return name.substring(Foo.class.getName().length() + 1, name.length() - 9);
+	}
+
+	@Test
+	public void testStoreAndLoad() throws Exception {
+		Class proxy = createProxetta(true).builder(Foo.class, ".AotFoo").define();
+		assertEquals("jodd.proxetta.data.AotFoo$$Proxetta", proxy.getName());
+
+		ProxettaAot aot = new ProxettaAot(aotFolder);
+		String configDigest = configDigest();
+		ProxettaAot.Entry entry = aot.load(Foo.class.getName(), configDigest);
+		assertNotNull(entry);
+		assertTrue(entry.isProxyApplied());
+		assertEquals("jodd.proxetta.data.AotFoo$$Proxetta", entry.getProxyClassName());
+
+		// load
+		Class loaded = createProxetta(false).builder(Foo.class, ".AotFoo").define();
+		assertEquals(proxy.getName(), loaded.getName());
+		assertNotSame(proxy, loaded);
+
+		Foo foo = (Foo) loaded.newInstance();
+		int count = StatCounter.counter;
+		foo.m1();
+		assertEquals(count + 1, StatCounter.counter);
+
+		// stored entry is used instead of creating new proxy
+		aot.store(Foo.class.getName(), configDigest,
+				new ProxettaAot.Entry(entry.getTargetDigest(), false, entry.getProxyClassName(), entry.getBytes()));
+
+		assertSame(Foo.class, createProxetta(false).builder(Foo.class, ".AotFoo").define());
+	}
+
+	@Test
+	public void testFallback() throws Exception {
+		createProxetta(true).builder(Foo.class, ".AotFoo").define();
+
+		ProxettaAot aot = new ProxettaAot(aotFolder);
+		String configDigest = configDigest();
+		ProxettaAot.Entry entry = aot.load(Foo.class.getName(), configDigest);
+
+		// target changed
+		aot.store(Foo.class.getName(), configDigest,
+				new ProxettaAot.Entry("changed", false, entry.getProxyClassName(), entry.getBytes()));
+
+		Class proxy = createProxetta(false).builder(Foo.class, ".AotFoo").define();
+		assertNotSame(Foo.class, proxy);
+		assertSame(Foo.class, proxy.getSuperclass());
+
+		// configuration changed
+		proxy = createProxetta(false).builder(Foo.class, ".AotFoo2").define();
+		assertEquals("jodd.proxetta.data.AotFoo2$$Proxetta", proxy.getName());
+		assertEquals(1, aotFolder.listFiles().length);
+	}
+
+	@Test
+	public void testPointcutKey() {
+		createProxetta(true, new MethodAnnotationPointcut(Transaction.class)).builder(Foo.class, ".AotFoo").define();
+		createProxetta(true, new MethodAnnotationPointcut(Action.class)).builder(Foo.class, ".AotFoo").define();
+		assertEquals(2, aotFolder.listFiles().length);
+
+		createProxetta(true, new MethodAnnotationPointcut(Action.class)).builder(Foo.class, ".AotFoo").define();
+		assertEquals(2, aotFolder.listFiles().length);
+
+		// pointcuts without the key are not stored
+		createProxetta(true, new AllMethodsPointcut() {}).builder(Foo.class, ".AotFoo").define();
+		createProxetta(true, new ProxyPointcut() {
+			public boolean apply(MethodInfo methodInfo) {
+				return true;
+			}
+		}).builder(Foo.class, ".AotFoo").define();
+		assertEquals(2, aotFolder.listFiles().length);
+	}
+
+}
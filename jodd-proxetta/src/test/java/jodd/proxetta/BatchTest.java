@@ -0,0 +1,108 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta;
+
+import jodd.proxetta.data.CalcImpl;
+import jodd.proxetta.data.CalcSuperImpl;
+import jodd.proxetta.data.Foo;
+import jodd.proxetta.data.StatCounter;
+import jodd.proxetta.data.StatCounterAdvice;
+import jodd.proxetta.impl.ProxyProxetta;
+import jodd.proxetta.pointcuts.AllMethodsPointcut;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BatchTest {
+
+	public static class Counter {
+		int value;
+
+		void increment() {
+			value++;
+		}
+	}
+
+	@Test
+	public void testDefineProxies() throws Exception {
+		ProxyProxetta proxetta = ProxyProxetta.withAspects(
+				new ProxyAspect(StatCounterAdvice.class, new AllMethodsPointcut()));
+		proxetta.setClassNameSuffix("$$Batch");
+
+		List<Class> targets = Arrays.<Class>asList(CalcImpl.class, Foo.class, CalcSuperImpl.class);
+
+		Map<Class, Class> proxies = proxetta.defineProxies(targets, 3);
+
+		assertEquals(3, proxies.size());
+		assertEquals(targets, new ArrayList<Class>(proxies.keySet()));
+
+		for (Map.Entry<Class, Class> entry : proxies.entrySet()) {
+			Class target = entry.getKey();
+			Class proxy = entry.getValue();
+
+			assertNotSame(target, proxy);
+			assertSame(target, proxy.getSuperclass());
+			assertEquals(target.getName() + "$$Batch", proxy.getName());
+			assertSame(target.getClassLoader(), proxy.getClassLoader());
+		}
+
+		CalcImpl calc = (CalcImpl) proxies.get(CalcImpl.class).newInstance();
+		int count = StatCounter.counter;
+		assertEquals(5, calc.calculate(2, 3));
+		assertEquals(count + 1, StatCounter.counter);
+	}
+
+	@Test
+	public void testDefineProxiesNotApplied() {
+		ProxyProxetta proxetta = ProxyProxetta.withAspects(
+				new ProxyAspect(StatCounterAdvice.class, new ProxyPointcut() {
+					public boolean apply(MethodInfo methodInfo) {
+						return methodInfo.getMethodName().equals("hello");
+					}
+				}));
+		proxetta.setClassNameSuffix("$$BatchNotApplied");
+
+		Map<Class, Class> proxies = proxetta.defineProxies(Arrays.<Class>asList(CalcImpl.class, Foo.class), 2);
+
+		assertNotSame(CalcImpl.class, proxies.get(CalcImpl.class));
+		assertSame(Foo.class, proxies.get(Foo.class));
+	}
+
+	@Test
+	public void testDefineProxiesPackagePrivate() throws Exception {
+		ProxyProxetta proxetta = ProxyProxetta.withAspects(
+				new ProxyAspect(StatCounterAdvice.class, new ProxyPointcut() {
+					public boolean apply(MethodInfo methodInfo) {
+						return methodInfo.getMethodName().equals("increment");
+					}
+				}));
+		proxetta.setClassNameSuffix("$$BatchPackage");
+
+		Map<Class, Class> proxies = proxetta.defineProxies(Arrays.<Class>asList(Counter.class), 1);
+
+		Counter counter = (Counter) proxies.get(Counter.class).newInstance();
+		int count = StatCounter.counter;
+		counter.increment();
+		assertEquals(1, counter.value);
+		assertEquals(count + 1, StatCounter.counter);
+	}
+
+	@Test
+	public void testDefineProxiesInClassLoader() {
+		ClassLoader classLoader = new ClassLoader(BatchTest.class.getClassLoader()) {};
+
+		ProxyProxetta proxetta = ProxyProxetta.withAspects(
+				new ProxyAspect(StatCounterAdvice.class, new AllMethodsPointcut()));
+		proxetta.setClassLoader(classLoader);
+
+		Map<Class, Class> proxies = proxetta.defineProxies(Arrays.<Class>asList(Foo.class), 4);
+
+		assertSame(classLoader, proxies.get(Foo.class).getClassLoader());
+	}
+
+}
@@ -0,0 +1,141 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta;
+
+import jodd.asm4.ClassReader;
+import jodd.proxetta.asm.ClassDataCache;
+import jodd.proxetta.asm.TargetClassInfoReader;
+import jodd.proxetta.data.CalcImpl;
+import jodd.proxetta.data.CalcImplBase;
+import jodd.proxetta.data.Foo;
+import jodd.proxetta.data.Meta;
+import jodd.proxetta.data.MetaImpl;
+import jodd.proxetta.data.StatCounterAdvice;
+import jodd.proxetta.impl.ProxyProxetta;
+import jodd.proxetta.pointcuts.AllMethodsPointcut;
+import jodd.util.ClassLoaderUtil;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClassDataCacheTest {
+
+	static class CountingClassDataCache extends ClassDataCache {
+		final List<String> reads = new ArrayList<String>();
+
+		@Override
+		protected ClassData readClassData(String bytecodeName, ClassLoader classLoader) {
+			reads.add(bytecodeName);
+			return super.readClassData(bytecodeName, classLoader);
+		}
+	}
+
+	private TargetClassInfoReader readTarget(Class target, ClassDataCache classDataCache) {
+		ClassReader classReader = ClassDataCache.readClass(target.getName().replace('.', '/'), null);
+		TargetClassInfoReader targetClassInfoReader = new TargetClassInfoReader(classDataCache);
+		classReader.accept(targetClassInfoReader, 0);
+		return targetClassInfoReader;
+	}
+
+	@Test
+	public void testLookup() {
+		ClassDataCache classDataCache = new ClassDataCache();
+
+		ClassDataCache.ClassData classData = classDataCache.lookup("jodd/proxetta/data/CalcImplBase");
+		assertSame(classData, classDataCache.lookup("jodd/proxetta/data/CalcImplBase"));
+
+		assertEquals("jodd/proxetta/data/CalcImplBase", classData.getName());
+		assertEquals("java/lang/Object", classData.getSuperName());
+		assertEquals(0, classData.getInterfaces().length);
+		assertEquals(2, classData.getMethods().size());
+		assertEquals("<init>", classData.getMethods().get(0).getName());
+		assertEquals("hello", classData.getMethods().get(1).getName());
+		assertEquals("()V", classData.getMethods().get(1).getDesc());
+		assertNull(classData.getMethods().get(1).getAnnotations());
+
+		// different class loader key
+		ClassLoader classLoader = CalcImplBase.class.getClassLoader();
+		ClassDataCache.ClassData classData2 = classDataCache.lookup("jodd/proxetta/data/CalcImplBase", new ClassLoader(classLoader) {});
+		assertNotSame(classData, classData2);
+		assertEquals(classData.getName(), classData2.getName());
+
+		classDataCache.clear();
+		assertNotSame(classData, classDataCache.lookup("jodd/proxetta/data/CalcImplBase"));
+
+		try {
+			classDataCache.lookup("jodd/proxetta/data/Xxx");
+			fail();
+		} catch (ProxettaException ignore) {
+		}
+	}
+
+	@Test
+	public void testHierarchyIsReadOnce() {
+		CountingClassDataCache classDataCache = new CountingClassDataCache();
+
+		TargetClassInfoReader reader1 = readTarget(CalcImpl.class, classDataCache);
+		assertEquals(2, classDataCache.reads.size());
+		assertTrue(classDataCache.reads.contains("jodd/proxetta/data/CalcImplBase"));
+		assertTrue(classDataCache.reads.contains("java/lang/Object"));
+		assertFalse(classDataCache.reads.contains("jodd/proxetta/data/CalcImpl"));
+
+		TargetClassInfoReader reader2 = readTarget(CalcImpl.class, classDataCache);
+		assertEquals(2, classDataCache.reads.size());
+
+		assertArrayEquals(reader1.getSuperClasses(), reader2.getSuperClasses());
+		assertNotNull(reader2.lookupMethodSignatureVisitor(1, "hello", "()V", "jodd/proxetta/data/CalcImplBase"));
+
+		// disabled
+		classDataCache.setEnabled(false);
+		readTarget(CalcImpl.class, classDataCache);
+		assertEquals(4, classDataCache.reads.size());
+	}
+
+	@Test
+	public void testProxyWithSharedCache() {
+		ProxyAspect aspect = new ProxyAspect(StatCounterAdvice.class, new AllMethodsPointcut());
+
+		Foo foo1 = (Foo) ProxyProxetta.withAspects(aspect).builder(Foo.class, ".CachedFoo1").newInstance();
+		Foo foo2 = (Foo) ProxyProxetta.withAspects(aspect).builder(Foo.class, ".CachedFoo2").newInstance();
+
+		assertNotSame(foo1.getClass(), foo2.getClass());
+		assertEquals(foo1.getClass().getSuperclass(), foo2.getClass().getSuperclass());
+	}
+
+	@Test
+	public void testSuperMethodAnnotations() throws Exception {
+		ClassDataCache.MethodData methodData = new ClassDataCache().lookup("jodd/proxetta/data/MetaBase").getMethods().get(1);
+		assertEquals("hello", methodData.getName());
+		assertEquals(1, methodData.getAnnotations().length);
+		assertEquals(2, methodData.getParameterAnnotations().length);
+		assertEquals(0, methodData.getParameterAnnotations()[0].length);
+		assertEquals(1, methodData.getParameterAnnotations()[1].length);
+
+		ProxyAspect aspect = new ProxyAspect(StatCounterAdvice.class, new AllMethodsPointcut());
+		byte[] bytes = ProxyProxetta.withAspects(aspect).builder(MetaImpl.class, ".MetaImplProxy").create();
+		Class proxyClass = ClassLoaderUtil.defineClass(null, bytes);
+
+		Method method = proxyClass.getDeclaredMethod("hello", String.class, String.class);
+		Meta meta = method.getAnnotation(Meta.class);
+		assertNotNull(meta);
+		assertEquals("hello", meta.value());
+		assertArrayEquals(new ElementType[] {ElementType.METHOD, ElementType.FIELD}, meta.types());
+		assertEquals(String.class, meta.type());
+		assertArrayEquals(new int[] {1, 2}, meta.numbers());
+		assertEquals(2, meta.injects().length);
+		assertEquals("two", meta.injects()[1].value());
+
+		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+		assertEquals(0, parameterAnnotations[0].length);
+		assertEquals("name", ((Meta) parameterAnnotations[1][0]).value());
+
+		assertEquals("hi there", ((MetaImpl) proxyClass.newInstance()).hello("hi", "there"));
+	}
+
+}
@@ -0,0 +1,24 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
+public @interface Meta {
+
+	String value() default "";
+
+	ElementType[] types() default {};
+
+	Class type() default Object.class;
+
+	int[] numbers() default {};
+
+	PetiteInject[] injects() default {};
+
+}
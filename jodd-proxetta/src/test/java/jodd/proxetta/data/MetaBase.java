@@ -0,0 +1,14 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta.data;
+
+import java.lang.annotation.ElementType;
+
+public class MetaBase {
+
+	@Meta(value = "hello", types = {ElementType.METHOD, ElementType.FIELD}, type = String.class,
+			numbers = {1, 2}, injects = {@PetiteInject("one"), @PetiteInject("two")})
+	public String hello(String greeting, @Meta("name") String name) {
+		return greeting + ' ' + name;
+	}
+}
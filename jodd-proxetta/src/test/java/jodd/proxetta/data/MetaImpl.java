@@ -0,0 +1,6 @@
+// Copyright (c) 2003-2014, Jodd Team (jodd.org). All Rights Reserved.
+
+package jodd.proxetta.data;
+
+public class MetaImpl extends MetaBase {
+}